@@ -0,0 +1,34 @@
+#!/bin/sh
+#
+# Build and run the JaamSim engine benchmarks, any arguments are passed on to
+# com.jaamsim.bench.BenchmarkRunner, e.g.
+#   sh build-bench.sh -f bench.csv EventDispatch Queue
+#
+LOGFILE="build-bench.log"
+
+BUILDDIR="build-bench"
+CLASSPATH="jar/*"
+case "`uname`" in
+	CYGWIN*|MINGW*) SEP=";" ;;
+	*) SEP=":" ;;
+esac
+
+# Clean out any build products from old builds
+if [ ! -d $BUILDDIR ]
+then
+	mkdir $BUILDDIR
+else
+	rm -rf $BUILDDIR/*
+fi
+
+# Compile the model and the benchmarks together
+javac -classpath "$CLASSPATH" -d $BUILDDIR src/main/java/com/sandwell/*/*.java src/main/java/com/jaamsim/*/*.java src/main/java/com/jaamsim/render/util/*.java src/main/java/com/jaamsim/video/*/*.java src/bench/java/com/jaamsim/bench/*.java > "$LOGFILE" 2>&1
+if [ $? -ne 0 ]
+then
+	echo "Error during compilation, consult $LOGFILE for details"
+	exit 1
+fi
+cp -r src/main/resources/* $BUILDDIR/
+
+# Run headless
+java -Djava.awt.headless=true -classpath "$BUILDDIR$SEP$CLASSPATH" com.jaamsim.bench.BenchmarkRunner "$@"
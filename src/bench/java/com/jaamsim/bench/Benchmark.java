@@ -0,0 +1,59 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.bench;
+
+/**
+ * A single measured operation. The runner calls setup() once, then run()
+ * repeatedly with an operation count chosen so that each call takes roughly
+ * the requested iteration time, and finally teardown().
+ */
+public abstract class Benchmark {
+	private final String name;
+	private final String param;
+
+	protected Benchmark(String name, String param) {
+		this.name = name;
+		this.param = param;
+	}
+
+	public final String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the parameter this instance of the benchmark was created for,
+	 * e.g. the event list depth, or an empty string.
+	 */
+	public final String getParam() {
+		return param;
+	}
+
+	public void setup() throws Exception {}
+
+	/**
+	 * Performs the given number of operations and returns a value derived
+	 * from their results, so that the work cannot be optimized away.
+	 */
+	public abstract long run(int ops) throws Exception;
+
+	public void teardown() throws Exception {}
+
+	@Override
+	public String toString() {
+		if (param.isEmpty())
+			return name;
+		return name + ":" + param;
+	}
+}
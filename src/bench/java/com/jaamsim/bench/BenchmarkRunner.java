@@ -0,0 +1,241 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.bench;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import com.jaamsim.ProbabilityDistributions.ContinuousDistribution;
+import com.jaamsim.ProbabilityDistributions.DiscreteDistribution;
+import com.jaamsim.ProbabilityDistributions.ErlangDistribution;
+import com.jaamsim.ProbabilityDistributions.ExponentialDistribution;
+import com.jaamsim.ProbabilityDistributions.GammaDistribution;
+import com.jaamsim.ProbabilityDistributions.LogLogisticDistribution;
+import com.jaamsim.ProbabilityDistributions.LogNormalDistribution;
+import com.jaamsim.ProbabilityDistributions.NormalDistribution;
+import com.jaamsim.ProbabilityDistributions.TriangularDistribution;
+import com.jaamsim.ProbabilityDistributions.UniformDistribution;
+import com.jaamsim.ProbabilityDistributions.WeibullDistribution;
+
+/**
+ * Runs the engine benchmarks headless and reports the average time per
+ * operation for each of them.
+ *
+ * Usage: BenchmarkRunner [-w warmups] [-i iterations] [-t millis] [-f results.csv] [regex...]
+ * <p>
+ * Only the benchmarks whose name (Name:param) matches one of the regular
+ * expressions are run. The results file is CSV with one row per benchmark.
+ */
+public class BenchmarkRunner {
+	private static volatile long sink; // consumes benchmark results
+
+	private int warmups = 3;
+	private int iterations = 5;
+	private long iterationMillis = 500;
+
+	static ArrayList<Benchmark> getBenchmarks() {
+		ArrayList<Benchmark> ret = new ArrayList<Benchmark>();
+		for (int depth : new int[] { 10, 1000, 100000 }) {
+			ret.add(new EventDispatchBenchmark(depth, false));
+			ret.add(new EventDispatchBenchmark(depth, true));
+		}
+		ret.add(new ProcessSwitchBenchmark());
+		for (int size : new int[] { 10, 1000 })
+			ret.add(new QueueBenchmark(size));
+		ret.add(new OutputHandleBenchmark("QueueLength"));
+		ret.add(new OutputHandleBenchmark("NumberAdded"));
+		ret.add(new DistributionBenchmark(UniformDistribution.class, "MinValue", "0", "MaxValue", "1"));
+		ret.add(new DistributionBenchmark(TriangularDistribution.class, "MinValue", "0", "MaxValue", "2", "Mode", "1"));
+		ret.add(new DistributionBenchmark(NormalDistribution.class));
+		ret.add(new DistributionBenchmark(LogNormalDistribution.class));
+		ret.add(new DistributionBenchmark(ExponentialDistribution.class));
+		ret.add(new DistributionBenchmark(ErlangDistribution.class, "Shape", "3"));
+		ret.add(new DistributionBenchmark(GammaDistribution.class, "Shape", "2.5"));
+		ret.add(new DistributionBenchmark(WeibullDistribution.class, "Shape", "1.5"));
+		ret.add(new DistributionBenchmark(LogLogisticDistribution.class, "Shape", "3"));
+		ret.add(new DistributionBenchmark(ContinuousDistribution.class, "ValueList", "0 1 2", "CumulativeProbabilityList", "0 0.5 1"));
+		ret.add(new DistributionBenchmark(DiscreteDistribution.class, "ValueList", "1 2 3", "ProbabilityList", "0.2 0.3 0.5"));
+		ret.add(new ParserBenchmark());
+		ret.add(new ConfigReadBenchmark(0));
+		ret.add(new ConfigReadBenchmark(2000));
+		for (String mesh : new String[] { "grid100x100.dae", "Sphere.dae" }) {
+			ret.add(new MeshLoadBenchmark("dae", "/resources/shapes/" + mesh));
+			ret.add(new MeshLoadBenchmark("jsm", "/resources/shapes/" + mesh));
+		}
+		ret.add(new MeshLoadBenchmark("jsb", "/resources/shapes/Sphere.dae"));
+		return ret;
+	}
+
+	private static class Result {
+		final Benchmark bench;
+		final double[] nanosPerOp;
+
+		Result(Benchmark bench, double[] nanosPerOp) {
+			this.bench = bench;
+			this.nanosPerOp = nanosPerOp;
+		}
+
+		double mean() {
+			double sum = 0.0d;
+			for (double each : nanosPerOp)
+				sum += each;
+			return sum / nanosPerOp.length;
+		}
+
+		double stdDev() {
+			if (nanosPerOp.length < 2)
+				return 0.0d;
+
+			double mean = mean();
+			double sum = 0.0d;
+			for (double each : nanosPerOp)
+				sum += (each - mean) * (each - mean);
+			return Math.sqrt(sum / (nanosPerOp.length - 1));
+		}
+
+		double min() {
+			double min = Double.POSITIVE_INFINITY;
+			for (double each : nanosPerOp)
+				min = Math.min(min, each);
+			return min;
+		}
+	}
+
+	/**
+	 * Returns the number of operations that take roughly one iteration time.
+	 */
+	private int calibrate(Benchmark bench) throws Exception {
+		int ops = 1;
+		while (true) {
+			long start = System.nanoTime();
+			sink += bench.run(ops);
+			long elapsed = System.nanoTime() - start;
+
+			long target = iterationMillis * 1000000L;
+			if (elapsed >= target / 4 || ops >= Integer.MAX_VALUE / 2) {
+				double scaled = (double)ops * target / Math.max(elapsed, 1);
+				return (int)Math.max(1, Math.min(scaled, Integer.MAX_VALUE / 2));
+			}
+			ops *= 2;
+		}
+	}
+
+	private Result measure(Benchmark bench) throws Exception {
+		bench.setup();
+		try {
+			int ops = calibrate(bench);
+			for (int i = 0; i < warmups; i++)
+				sink += bench.run(ops);
+
+			double[] nanosPerOp = new double[iterations];
+			for (int i = 0; i < iterations; i++) {
+				long start = System.nanoTime();
+				sink += bench.run(ops);
+				nanosPerOp[i] = (double)(System.nanoTime() - start) / ops;
+			}
+			return new Result(bench, nanosPerOp);
+		}
+		finally {
+			bench.teardown();
+		}
+	}
+
+	private static boolean matches(Benchmark bench, ArrayList<Pattern> filters) {
+		if (filters.isEmpty())
+			return true;
+
+		for (Pattern each : filters) {
+			if (each.matcher(bench.toString()).find())
+				return true;
+		}
+		return false;
+	}
+
+	private static void usage() {
+		System.err.println("Usage: BenchmarkRunner [-w warmups] [-i iterations] [-t millis] [-f results.csv] [regex...]");
+		System.exit(1);
+	}
+
+	public static void main(String[] args) throws Exception {
+		System.setProperty("java.awt.headless", "true");
+
+		BenchmarkRunner runner = new BenchmarkRunner();
+		String resultFile = null;
+		ArrayList<Pattern> filters = new ArrayList<Pattern>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				if (args[i].equals("-w"))
+					runner.warmups = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-i"))
+					runner.iterations = Integer.parseInt(args[++i]);
+				else if (args[i].equals("-t"))
+					runner.iterationMillis = Long.parseLong(args[++i]);
+				else if (args[i].equals("-f"))
+					resultFile = args[++i];
+				else if (args[i].startsWith("-"))
+					usage();
+				else
+					filters.add(Pattern.compile(args[i]));
+			}
+		}
+		catch (RuntimeException e) {
+			usage();
+		}
+		if (runner.iterations < 1)
+			usage();
+
+		ArrayList<Result> results = new ArrayList<Result>();
+		for (Benchmark each : getBenchmarks()) {
+			if (!matches(each, filters))
+				continue;
+
+			Result res;
+			try {
+				res = runner.measure(each);
+			}
+			catch (Exception e) {
+				System.out.format("%-52s FAILED: %s%n", each, e);
+				continue;
+			}
+			results.add(res);
+			System.out.format(Locale.ROOT, "%-52s %14.1f ns/op  +- %.1f%n", each, res.mean(), res.stdDev());
+		}
+
+		if (resultFile != null)
+			writeResults(resultFile, results);
+
+		System.exit(0);
+	}
+
+	private static void writeResults(String fileName, ArrayList<Result> results) throws IOException {
+		PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(fileName), "UTF-8"));
+		try {
+			out.println("Benchmark,Param,Samples,Score,StdDev,Min,Unit");
+			for (Result each : results) {
+				out.format(Locale.ROOT, "%s,%s,%d,%.3f,%.3f,%.3f,ns/op%n",
+				           each.bench.getName(), each.bench.getParam(), each.nanosPerOp.length,
+				           each.mean(), each.stdDev(), each.min());
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.bench;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.concurrent.Callable;
+
+import com.jaamsim.input.InputAgent;
+import com.sandwell.JavaSimulation.Entity;
+import com.sandwell.JavaSimulation.SimulationContext;
+
+/**
+ * Measures loading a configuration into a new SimulationContext: the default
+ * object types from autoload.cfg, followed by a generated configuration file
+ * defining the given number of entities read with InputAgent.readStream().
+ */
+class ConfigReadBenchmark extends Benchmark {
+	private final int numEntities;
+	private File config;
+
+	ConfigReadBenchmark(int numEntities) {
+		super("InputAgent.readStream", numEntities == 0 ? "autoload" : "autoload+" + numEntities);
+		this.numEntities = numEntities;
+	}
+
+	@Override
+	public void setup() throws Exception {
+		if (numEntities == 0)
+			return;
+
+		config = File.createTempFile("jaamsim-bench", ".cfg");
+		config.deleteOnExit();
+		PrintWriter out = new PrintWriter(config, "UTF-8");
+		try {
+			for (int i = 0; i < numEntities; i += 10) {
+				out.print("Define DisplayEntity {");
+				for (int j = i; j < Math.min(i + 10, numEntities); j++)
+					out.format(" Entity%d", j);
+				out.println(" }");
+			}
+			for (int i = 0; i < numEntities; i++) {
+				out.format("Entity%d Position { %d.5 -%d.25 0.0 m }%n", i, i % 100, i / 100);
+				out.format("Entity%d Size { 1.0 0.5 0.0 m }%n", i);
+				out.format("Entity%d Description { 'Generated entity %d' }%n", i, i);
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	@Override
+	public long run(int ops) throws Exception {
+		long count = 0;
+		for (int i = 0; i < ops; i++) {
+			SimulationContext ctx = new SimulationContext("ConfigRead");
+			count += ctx.call(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					InputAgent.readResource("inputs/autoload.cfg");
+					if (config != null)
+						InputAgent.readStream("", config.getParentFile().toURI(), config.getName());
+					return Entity.getAll().size();
+				}
+			});
+			ctx.close();
+		}
+		return count;
+	}
+
+	@Override
+	public void teardown() {
+		if (config != null)
+			config.delete();
+	}
+}
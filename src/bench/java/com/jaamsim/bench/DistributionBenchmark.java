@@ -0,0 +1,59 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.bench;
+
+import com.jaamsim.ProbabilityDistributions.Distribution;
+import com.jaamsim.input.InputAgent;
+import com.sandwell.JavaSimulation.ObjectType;
+
+/**
+ * Measures Distribution.getNextSample() for one distribution class.
+ */
+class DistributionBenchmark extends ModelBenchmark {
+	private final Class<? extends Distribution> klass;
+	private final String[] inputs;
+	private Distribution dist;
+
+	/**
+	 * @param klass the distribution to sample
+	 * @param inputs keyword/value pairs needed by the distribution
+	 */
+	DistributionBenchmark(Class<? extends Distribution> klass, String... inputs) {
+		super("Distribution.getNextSample", klass.getSimpleName());
+		this.klass = klass;
+		this.inputs = inputs;
+	}
+
+	@Override
+	protected void setupModel() {
+		ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "BenchType", true);
+		InputAgent.processEntity_Keyword_Value(t, "JavaClass", "com.jaamsim.units.DimensionlessUnit");
+
+		dist = InputAgent.defineEntityWithUniqueName(klass, "Dist", true);
+		InputAgent.processEntity_Keyword_Value(dist, "UnitType", t.getInputName());
+		for (int i = 0; i < inputs.length; i += 2)
+			InputAgent.processEntity_Keyword_Value(dist, inputs[i], inputs[i + 1]);
+		dist.validate();
+		dist.earlyInit();
+	}
+
+	@Override
+	protected long runModel(int ops) {
+		double sum = 0.0d;
+		for (int i = 0; i < ops; i++)
+			sum += dist.getNextSample(0.0d);
+		return (long)sum;
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.bench;
+
+import java.util.concurrent.Semaphore;
+
+import com.jaamsim.events.CalendarQueue;
+import com.jaamsim.events.EventHeap;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventTimeListener;
+
+/**
+ * Base class for benchmarks that drive a standalone EventManager from the
+ * benchmark thread.
+ */
+abstract class EventBenchmark extends Benchmark {
+	private final boolean calendar;
+	private final Semaphore paused;
+	protected EventManager evt;
+
+	EventBenchmark(String name, String param, boolean calendar) {
+		super(name, param);
+		this.calendar = calendar;
+		paused = new Semaphore(0);
+	}
+
+	@Override
+	public void setup() throws Exception {
+		evt = EventManager.initEventManager("Bench", calendar ? new CalendarQueue() : new EventHeap());
+		evt.setTimeListener(new EventTimeListener() {
+			@Override
+			public void tickUpdate(long tick) {}
+
+			@Override
+			public void timeRunning(boolean running) {
+				if (!running)
+					paused.release();
+			}
+		});
+	}
+
+	/**
+	 * Resumes the event loop and blocks until it has executed every event
+	 * before the given tick.
+	 */
+	protected void runUntil(long targetTick) throws InterruptedException {
+		paused.drainPermits();
+		evt.resume(targetTick);
+		paused.acquire();
+	}
+
+	@Override
+	public void teardown() throws Exception {
+		evt.shutdown();
+		evt = null;
+	}
+}
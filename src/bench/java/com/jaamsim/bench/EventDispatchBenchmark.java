@@ -0,0 +1,90 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.bench;
+
+import java.util.Random;
+
+import com.jaamsim.events.ProcessTarget;
+
+/**
+ * Measures the cost of scheduling and dispatching a non-blocking event with a
+ * given number of other events waiting in the future event list.
+ */
+class EventDispatchBenchmark extends EventBenchmark {
+	private static final long FAR_FUTURE = 1L << 50;
+
+	private final int depth;
+	private int remaining;
+	private long executed;
+
+	private final ProcessTarget step = new ProcessTarget() {
+		@Override
+		public String getDescription() {
+			return "EventDispatchBenchmark.step";
+		}
+
+		@Override
+		public void process() {
+			executed++;
+			if (--remaining > 0)
+				evt.scheduleProcess(1, 5, false, this);
+		}
+
+		@Override
+		public boolean isBlocking() {
+			return false;
+		}
+	};
+
+	private static class IdleTarget extends ProcessTarget {
+		@Override
+		public String getDescription() {
+			return "EventDispatchBenchmark.idle";
+		}
+
+		@Override
+		public void process() {}
+
+		@Override
+		public boolean isBlocking() {
+			return false;
+		}
+	}
+
+	EventDispatchBenchmark(int depth, boolean calendar) {
+		super("EventDispatch", (calendar ? "calendar-" : "heap-") + depth, calendar);
+		this.depth = depth;
+	}
+
+	@Override
+	public void setup() throws Exception {
+		super.setup();
+
+		// Fill the event list with events that are never reached
+		Random rng = new Random(1);
+		for (int i = 0; i < depth; i++) {
+			long wait = FAR_FUTURE + rng.nextInt(1000000000);
+			evt.scheduleProcess(wait, 5, false, new IdleTarget());
+		}
+	}
+
+	@Override
+	public long run(int ops) throws Exception {
+		remaining = ops;
+		evt.scheduleProcess(0, 5, false, step);
+		runUntil(evt.currentTick() + ops);
+		return executed;
+	}
+}
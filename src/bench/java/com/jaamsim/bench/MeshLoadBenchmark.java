@@ -0,0 +1,98 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.bench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+
+import com.jaamsim.MeshFiles.BlockReader;
+import com.jaamsim.MeshFiles.BlockWriter;
+import com.jaamsim.MeshFiles.DataBlock;
+import com.jaamsim.MeshFiles.MeshData;
+import com.jaamsim.MeshFiles.MeshReader;
+import com.jaamsim.MeshFiles.MeshWriter;
+import com.jaamsim.collada.ColParser;
+
+/**
+ * Measures loading a mesh in one of the supported formats. The JSM and JSB
+ * files are converted from the given Collada resource during setup.
+ */
+class MeshLoadBenchmark extends Benchmark {
+	private final String format;
+	private final String resource;
+	private URL url;
+	private File temp;
+
+	MeshLoadBenchmark(String format, String resource) {
+		super("MeshLoad", format + ":" + resource.substring(resource.lastIndexOf('/') + 1));
+		this.format = format;
+		this.resource = resource;
+	}
+
+	@Override
+	public void setup() throws Exception {
+		URL dae = MeshLoadBenchmark.class.getResource(resource);
+		if (format.equals("dae")) {
+			url = dae;
+			return;
+		}
+
+		ColParser.setKeepData(true);
+		MeshData data = ColParser.parse(dae);
+		ColParser.setKeepData(false);
+		temp = File.createTempFile("jaamsim-bench", "." + format);
+		temp.deleteOnExit();
+		if (format.equals("jsm")) {
+			new MeshWriter(temp.getPath()).write(data);
+		}
+		else {
+			FileOutputStream out = new FileOutputStream(temp);
+			try {
+				BlockWriter.writeBlock(out, data.getDataAsBlock());
+			}
+			finally {
+				out.close();
+			}
+		}
+		url = temp.toURI().toURL();
+	}
+
+	@Override
+	public long run(int ops) throws Exception {
+		long count = 0;
+		for (int i = 0; i < ops; i++) {
+			MeshData data;
+			if (format.equals("dae")) {
+				data = ColParser.parse(url);
+			}
+			else if (format.equals("jsm")) {
+				data = MeshReader.parse(url);
+			}
+			else {
+				DataBlock block = BlockReader.readBlockFromURL(url);
+				data = new MeshData(false, block, url);
+			}
+			count += data.getSubMeshData().size();
+		}
+		return count;
+	}
+
+	@Override
+	public void teardown() {
+		if (temp != null)
+			temp.delete();
+	}
+}
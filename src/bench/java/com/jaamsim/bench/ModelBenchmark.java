@@ -0,0 +1,121 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.bench;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventTimeListener;
+import com.jaamsim.events.ProcessTarget;
+import com.jaamsim.input.InputAgent;
+import com.sandwell.JavaSimulation.SimulationContext;
+
+/**
+ * Base class for benchmarks that need entities, they are created in a
+ * separate SimulationContext loaded with the default object types.
+ * <p>
+ * The operations are performed by an event executed on the context's
+ * EventManager, as they are in a simulation run, so that the entities read
+ * the simulation clock directly.
+ */
+abstract class ModelBenchmark extends Benchmark {
+	private SimulationContext ctx;
+	private EventManager evt;
+	private final Semaphore paused;
+
+	private int ops;
+	private long result;
+	private Exception error;
+
+	private final ProcessTarget runTarget = new ProcessTarget() {
+		@Override
+		public String getDescription() {
+			return "ModelBenchmark.run";
+		}
+
+		@Override
+		public void process() {
+			try {
+				result = runModel(ops);
+			}
+			catch (Exception e) {
+				error = e;
+			}
+		}
+	};
+
+	ModelBenchmark(String name, String param) {
+		super(name, param);
+		paused = new Semaphore(0);
+	}
+
+	@Override
+	public final void setup() throws Exception {
+		ctx = new SimulationContext(this.toString());
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				InputAgent.readResource("inputs/autoload.cfg");
+				setupModel();
+				return null;
+			}
+		});
+
+		evt = ctx.getEventManager();
+		evt.setTimeListener(new EventTimeListener() {
+			@Override
+			public void tickUpdate(long tick) {}
+
+			@Override
+			public void timeRunning(boolean running) {
+				if (!running)
+					paused.release();
+			}
+		});
+	}
+
+	/**
+	 * Creates the entities used by the benchmark, called within the context.
+	 */
+	protected abstract void setupModel() throws Exception;
+
+	/**
+	 * Performs the given number of operations, called from an event executed
+	 * by the context's EventManager.
+	 */
+	protected abstract long runModel(int ops) throws Exception;
+
+	@Override
+	public final long run(int ops) throws Exception {
+		this.ops = ops;
+		error = null;
+		paused.drainPermits();
+		evt.scheduleProcess(0, 5, false, runTarget);
+		evt.resume(evt.currentTick() + 1);
+		paused.acquire();
+
+		if (error != null)
+			throw error;
+		return result;
+	}
+
+	@Override
+	public void teardown() throws Exception {
+		ctx.close();
+		ctx = null;
+		evt = null;
+	}
+}
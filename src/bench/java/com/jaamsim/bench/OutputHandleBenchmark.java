@@ -0,0 +1,49 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.bench;
+
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.input.OutputHandle;
+import com.sandwell.JavaSimulation3D.DisplayEntity;
+import com.sandwell.JavaSimulation3D.Queue;
+
+/**
+ * Measures OutputHandle.getValueAsDouble() for one of the outputs of a Queue.
+ */
+class OutputHandleBenchmark extends ModelBenchmark {
+	private final String output;
+	private OutputHandle handle;
+
+	OutputHandleBenchmark(String output) {
+		super("OutputHandle.getValueAsDouble", output);
+		this.output = output;
+	}
+
+	@Override
+	protected void setupModel() {
+		Queue queue = InputAgent.defineEntityWithUniqueName(Queue.class, "Queue", true);
+		queue.earlyInit();
+		queue.addLast(InputAgent.defineEntityWithUniqueName(DisplayEntity.class, "Item", true));
+		handle = queue.getOutputHandle(output);
+	}
+
+	@Override
+	protected long runModel(int ops) {
+		double sum = 0.0d;
+		for (int i = 0; i < ops; i++)
+			sum += handle.getValueAsDouble(i);
+		return (long)sum;
+	}
+}
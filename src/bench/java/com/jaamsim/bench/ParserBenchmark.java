@@ -0,0 +1,54 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.bench;
+
+import java.util.ArrayList;
+
+import com.jaamsim.input.Parser;
+
+/**
+ * Measures Parser.tokenize() on typical configuration file records.
+ */
+class ParserBenchmark extends Benchmark {
+	private final ArrayList<String> records;
+	private final ArrayList<String> tokens;
+
+	ParserBenchmark() {
+		super("Parser.tokenize", "");
+		records = new ArrayList<String>();
+		tokens = new ArrayList<String>();
+	}
+
+	@Override
+	public void setup() {
+		for (int i = 0; i < 1000; i++) {
+			records.add(String.format("Define DisplayEntity { Entity%d Entity%d Entity%d }", i, i + 1, i + 2));
+			records.add(String.format("Entity%d Position { %d.5 -%d.25 0.0 m } # position in metres", i, i, i));
+			records.add(String.format("Entity%d Description { 'A quoted description for entity %d' }", i, i));
+			records.add(String.format("Entity%d ValueList { { 1 2 3 } { 4 5 6 } { 7 8 9 } }", i));
+		}
+	}
+
+	@Override
+	public long run(int ops) {
+		long count = 0;
+		for (int i = 0; i < ops; i++) {
+			tokens.clear();
+			Parser.tokenize(tokens, records.get(i % records.size()), true);
+			count += tokens.size();
+		}
+		return count;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.bench;
+
+import com.jaamsim.events.ProcessTarget;
+
+/**
+ * Measures a Process waiting for one tick, i.e. the two thread hand-offs
+ * between the Process and the event loop plus one event dispatch.
+ */
+class ProcessSwitchBenchmark extends EventBenchmark {
+	private int remaining;
+	private long waits;
+
+	private final ProcessTarget waiter = new ProcessTarget() {
+		@Override
+		public String getDescription() {
+			return "ProcessSwitchBenchmark.waiter";
+		}
+
+		@Override
+		public void process() {
+			while (remaining-- > 0) {
+				evt.waitTicks(1, 5, false);
+				waits++;
+			}
+		}
+	};
+
+	ProcessSwitchBenchmark() {
+		super("ProcessSwitch", "", false);
+	}
+
+	@Override
+	public long run(int ops) throws Exception {
+		remaining = ops;
+		evt.scheduleProcess(0, 5, false, waiter);
+		runUntil(Long.MAX_VALUE);
+		return waits;
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.bench;
+
+import com.jaamsim.input.InputAgent;
+import com.sandwell.JavaSimulation3D.DisplayEntity;
+import com.sandwell.JavaSimulation3D.Queue;
+
+/**
+ * Measures adding an entity to the end of a Queue holding the given number
+ * of entities and removing the first one, including the statistics updates.
+ */
+class QueueBenchmark extends ModelBenchmark {
+	private final int size;
+	private Queue queue;
+	private DisplayEntity[] items;
+
+	QueueBenchmark(int size) {
+		super("Queue.addLast+removeFirst", String.valueOf(size));
+		this.size = size;
+	}
+
+	@Override
+	protected void setupModel() {
+		queue = InputAgent.defineEntityWithUniqueName(Queue.class, "Queue", true);
+		queue.earlyInit();
+
+		items = new DisplayEntity[size + 1];
+		for (int i = 0; i < items.length; i++)
+			items[i] = InputAgent.defineEntityWithUniqueName(DisplayEntity.class, "Item", true);
+
+		for (int i = 0; i < size; i++)
+			queue.addLast(items[i]);
+	}
+
+	@Override
+	protected long runModel(int ops) {
+		int next = size;
+		for (int i = 0; i < ops; i++) {
+			queue.addLast(items[next]);
+			next = (next + 1) % items.length;
+			queue.removeFirst();
+		}
+		return queue.getCount();
+	}
+}
@@ -150,6 +150,11 @@ public class EntityDelay extends LinkedComponent implements HasScreenPoints {
 			delay.removeDisplayEntity(ent);
 		}
 
+		@Override
+		public boolean isBlocking() {
+			return false;
+		}
+
 		@Override
 		public String getDescription() {
 			return String.format( "%s.%s(%s)", delay.getInputName(), method, ent.getInputName() );
@@ -135,6 +135,11 @@ public class EntityGate extends LinkedComponent {
 		public void process() {
 			ent.releaseQueuedEntity();
 		}
+
+		@Override
+		public boolean isBlocking() {
+			return false;
+		}
 	}
 
 	/**
@@ -16,12 +16,11 @@ package com.jaamsim.BasicObjects;
 
 import com.jaamsim.Samples.SampleConstant;
 import com.jaamsim.Samples.SampleInput;
-import com.jaamsim.input.InputAgent;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.units.TimeUnit;
-import com.sandwell.JavaSimulation.Entity;
 import com.sandwell.JavaSimulation.EntityInput;
 import com.sandwell.JavaSimulation.EntityTarget;
+import com.sandwell.JavaSimulation.ErrorException;
 import com.sandwell.JavaSimulation.InputErrorException;
 import com.sandwell.JavaSimulation.IntegerInput;
 import com.sandwell.JavaSimulation3D.DisplayEntity;
@@ -113,6 +112,11 @@ public class EntityGenerator extends LinkedComponent {
 		public void process() {
 			ent.createNextEntity();
 		}
+
+		@Override
+		public boolean isBlocking() {
+			return false;
+		}
 	}
 
 	/**
@@ -120,13 +124,20 @@ public class EntityGenerator extends LinkedComponent {
 	*/
 	public void createNextEntity() {
 
-		// Create the new entity
+		// Create the new entity, reusing one that has been recycled if possible
 		numberGenerated++;
 		DisplayEntity proto = prototypeEntity.getValue();
-		String name = String.format("Copy_of_%s-%s", proto.getInputName(), numberGenerated);
-		DisplayEntity ent = InputAgent.defineEntityWithUniqueName(proto.getClass(), name, true);
+		DisplayEntity ent = this.getContext().reuseEntity(proto);
+		if (ent == null) {
+			try {
+				ent = proto.getClass().newInstance();
+			}
+			catch (Exception e) {
+				throw new ErrorException("Could not create new Entity from %s - %s", proto.getInputName(), e);
+			}
+		}
 		ent.copyInputs(proto);
-		ent.setFlag(Entity.FLAG_GENERATED);
+		ent.setGenerated(proto, numberGenerated);
 
 		// Send the entity to the next element in the chain
 		this.sendToNextComponent( ent );
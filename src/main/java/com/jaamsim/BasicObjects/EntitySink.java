@@ -35,8 +35,8 @@ public class EntitySink extends LinkedComponent {
 		// Only increments the number process when there is no next entity
 		this.sendToNextComponent(ent);
 
-		// Kill the added entity
-		ent.kill();
+		// Kill the added entity, keeping it for reuse if it was generated
+		ent.recycle();
 	}
 
 }
@@ -15,11 +15,13 @@
 package com.jaamsim.BasicObjects;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import com.jaamsim.ProbabilityDistributions.Distribution;
 import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
+import com.jaamsim.math.TimeWeightedStatistics;
 import com.jaamsim.units.DimensionlessUnit;
 import com.sandwell.JavaSimulation.DoubleVector;
 import com.sandwell.JavaSimulation.Entity;
@@ -38,16 +40,22 @@ public class Resource extends DisplayEntity {
 	private int unitsInUse;  // number of resource units that are being used at present
 	private ArrayList<Seize> seizeList;  // Seize objects that require this resource
 
+	// Seize objects with entities waiting, held in a binary heap ordered by
+	// waitKey and then by position in seizeList. Each array other than
+	// waitHeap is indexed by position in seizeList. The keys are kept current
+	// by the queues, which tell their Seize objects when the first entity
+	// changes.
+	private final HashMap<Seize, Integer> seizeIndex;
+	private int[] waitHeap;     // positions in seizeList of the waiting Seize objects
+	private int[] heapPos;      // position of each Seize object in waitHeap, -1 if not waiting
+	private double[] waitKey;   // arbitration key for each waiting Seize object
+	private int numWaiting;
+
 	//	Statistics
-	protected double timeOfLastUpdate; // time at which the statistics were last updated
-	protected double startOfStatisticsCollection; // time at which statistics collection was started
-	protected int minUnitsInUse; // minimum observed number of units in use
-	protected int maxUnitsInUse; // maximum observed number of units in use
-	protected double unitSeconds;  // total time that units have been used
-	protected double squaredUnitSeconds;  // total time for the square of the number of units in use
+	private static final int MAX_UNITS_BINS = 10000;  // numbers of units beyond this share one histogram bin
+	protected final TimeWeightedStatistics unitsInUseStats;  // time-weighted statistics for the number of units in use
 	protected int unitsSeized;    // number of units that have been seized
 	protected int unitsReleased;  // number of units that have been released
-	protected DoubleVector unitsInUseDist;  // entry at position n is the total time that n units have been in use
 
 	{
 		capacity = new SampleInput( "Capacity", "Key Inputs", null);
@@ -56,8 +64,12 @@ public class Resource extends DisplayEntity {
 	}
 
 	public Resource() {
-		unitsInUseDist = new DoubleVector();
+		unitsInUseStats = new TimeWeightedStatistics(MAX_UNITS_BINS);
 		seizeList = new ArrayList<Seize>();
+		seizeIndex = new HashMap<Seize, Integer>();
+		waitHeap = new int[0];
+		heapPos = new int[0];
+		waitKey = new double[0];
 	}
 
 	@Override
@@ -91,10 +103,21 @@ public class Resource extends DisplayEntity {
 
 		// Prepare a list of the Seize objects that use this resource
 		seizeList.clear();
+		seizeIndex.clear();
 		for (Seize ent : Entity.getClonesOfIterator(Seize.class)) {
-			if( ent.requiresResource(this) )
+			if( ent.requiresResource(this) ) {
+				seizeIndex.put(ent, seizeList.size());
 				seizeList.add(ent);
+			}
 		}
+
+		int n = seizeList.size();
+		waitHeap = new int[n];
+		heapPos = new int[n];
+		waitKey = new double[n];
+		for (int i = 0; i < n; i++)
+			heapPos[i] = -1;
+		numWaiting = 0;
 	}
 
 	/**
@@ -136,17 +159,7 @@ public class Resource extends DisplayEntity {
 		while( cap > unitsInUse ) {
 
 			// Pick the Seize object that has waited the longest
-			Seize selection = null;
-			double maxTime = 0;
-			for(Seize s : seizeList) {
-				Queue que = s.getQueue();
-				if( que.getCount() > 0 ) {
-					if( selection == null || que.getQueueTime() > maxTime ) {
-						selection = s;
-						maxTime = que.getQueueTime();
-					}
-				}
-			}
+			Seize selection = this.getNextSeizeObject();
 
 			// Ensure that the number of units needed by selected Seize object can be provided
 			if( selection == null || !selection.checkResources() )
@@ -155,6 +168,95 @@ public class Resource extends DisplayEntity {
 		}
 	}
 
+	/**
+	 * Returns the Seize object whose first queued entity has waited the
+	 * longest, the first in seizeList on a tie, or null if none are waiting.
+	 */
+	Seize getNextSeizeObject() {
+		if( numWaiting == 0 )
+			return null;
+		return seizeList.get(waitHeap[0]);
+	}
+
+	/**
+	 * Updates the position of the given Seize object in the arbitration order.
+	 * Called by the Seize object whenever the first entity in its queue
+	 * changes, whichever object added or removed it.
+	 */
+	void updateSeizeObject(Seize s) {
+		Integer ind = seizeIndex.get(s);
+		if( ind == null )
+			return;
+
+		int i = ind.intValue();
+		Queue que = s.getQueue();
+		if( que.getCount() == 0 ) {
+			if( heapPos[i] >= 0 )
+				this.removeWaiting(i);
+			return;
+		}
+
+		// Seize objects whose first entity arrived earliest are served first
+		waitKey[i] = que.getTimeAdded(0);
+		if( heapPos[i] < 0 ) {
+			heapPos[i] = numWaiting;
+			waitHeap[numWaiting] = i;
+			numWaiting++;
+		}
+		this.siftDown(this.siftUp(heapPos[i]));
+	}
+
+	private boolean servedBefore(int a, int b) {
+		if( waitKey[a] != waitKey[b] )
+			return waitKey[a] < waitKey[b];
+		return a < b;
+	}
+
+	private void swapWaiting(int p, int q) {
+		int a = waitHeap[p];
+		int b = waitHeap[q];
+		waitHeap[p] = b;
+		waitHeap[q] = a;
+		heapPos[b] = p;
+		heapPos[a] = q;
+	}
+
+	private int siftUp(int p) {
+		while( p > 0 ) {
+			int parent = (p - 1) >>> 1;
+			if( !this.servedBefore(waitHeap[p], waitHeap[parent]) )
+				break;
+			this.swapWaiting(p, parent);
+			p = parent;
+		}
+		return p;
+	}
+
+	private int siftDown(int p) {
+		while( true ) {
+			int child = 2*p + 1;
+			if( child >= numWaiting )
+				break;
+			if( child + 1 < numWaiting && this.servedBefore(waitHeap[child + 1], waitHeap[child]) )
+				child++;
+			if( !this.servedBefore(waitHeap[child], waitHeap[p]) )
+				break;
+			this.swapWaiting(p, child);
+			p = child;
+		}
+		return p;
+	}
+
+	private void removeWaiting(int i) {
+		int p = heapPos[i];
+		numWaiting--;
+		if( p != numWaiting ) {
+			this.swapWaiting(p, numWaiting);
+			this.siftDown(this.siftUp(p));
+		}
+		heapPos[i] = -1;
+	}
+
 	// *******************************************************************************************************
 	// STATISTICS
 	// *******************************************************************************************************
@@ -163,37 +265,16 @@ public class Resource extends DisplayEntity {
 	 * Clear queue statistics
 	 */
 	public void clearStatistics() {
-		double simTime = this.getSimTime();
-		startOfStatisticsCollection = simTime;
-		timeOfLastUpdate = simTime;
-		minUnitsInUse = unitsInUse;
-		maxUnitsInUse = unitsInUse;
-		unitSeconds = 0.0;
-		squaredUnitSeconds = 0.0;
+		unitsInUseStats.clear(this.getSimTime(), unitsInUse);
 		unitsSeized = 0;
 		unitsReleased = 0;
-		unitsInUseDist.clear();
 	}
 
+	/**
+	 * Records a change in the number of units in use in the time-weighted statistics
+	 */
 	public void updateStatistics( int oldValue, int newValue) {
-
-		minUnitsInUse = Math.min(newValue, minUnitsInUse);
-		maxUnitsInUse = Math.max(newValue, maxUnitsInUse);
-
-		// Add the necessary number of additional bins to the queue length distribution
-		int n = newValue + 1 - unitsInUseDist.size();
-		for( int i=0; i<n; i++ ) {
-			unitsInUseDist.add(0.0);
-		}
-
-		double simTime = this.getSimTime();
-		double dt = simTime - timeOfLastUpdate;
-		if( dt > 0.0 ) {
-			unitSeconds += dt * oldValue;
-			squaredUnitSeconds += dt * oldValue * oldValue;
-			unitsInUseDist.addAt(dt,oldValue);  // add dt to the entry at index queueSize
-			timeOfLastUpdate = simTime;
-		}
+		unitsInUseStats.update(this.getSimTime(), newValue);
 	}
 
 	// ******************************************************************************************************
@@ -225,32 +306,21 @@ public class Resource extends DisplayEntity {
 	 description = "The average number of resource units that are in use.",
 	    unitType = DimensionlessUnit.class)
 	public double getUnitsInUseAverage(double simTime) {
-		double dt = simTime - timeOfLastUpdate;
-		double totalTime = simTime - startOfStatisticsCollection;
-		if( totalTime > 0.0 ) {
-			return (unitSeconds + dt*unitsInUse)/totalTime;
-		}
-		return 0.0;
+		return unitsInUseStats.getMean(simTime);
 	}
 
 	@Output(name = "UnitsInUseStandardDeviation",
 	 description = "The standard deviation of the number of resource units that are in use.",
 	    unitType = DimensionlessUnit.class)
 	public double getUnitsInUseStandardDeviation(double simTime) {
-		double dt = simTime - timeOfLastUpdate;
-		double mean = this.getUnitsInUseAverage(simTime);
-		double totalTime = simTime - startOfStatisticsCollection;
-		if( totalTime > 0.0 ) {
-			return Math.sqrt( (squaredUnitSeconds + dt*unitsInUse*unitsInUse)/totalTime - mean*mean );
-		}
-		return 0.0;
+		return unitsInUseStats.getStandardDeviation(simTime);
 	}
 
 	@Output(name = "UnitsInUseMinimum",
 	 description = "The minimum number of resource units that are in use.",
 	    unitType = DimensionlessUnit.class)
 	public int getUnitsInUseMinimum(double simTime) {
-		return minUnitsInUse;
+		return (int) unitsInUseStats.getMinimum();
 	}
 
 	@Output(name = "UnitsInUseMaximum",
@@ -259,7 +329,8 @@ public class Resource extends DisplayEntity {
 	public int getUnitsInUseMaximum(double simTime) {
 		// A unit that is seized and released immediately
 		// does not count as a non-zero maximum in use
-		if( maxUnitsInUse == 1 && unitsInUseDist.get(1) == 0.0 )
+		int maxUnitsInUse = (int) unitsInUseStats.getMaximum();
+		if( maxUnitsInUse == 1 && unitsInUseStats.getBinTime(1) == 0.0 )
 			return 0;
 		return maxUnitsInUse;
 	}
@@ -268,21 +339,40 @@ public class Resource extends DisplayEntity {
 	 description = "The fraction of time that the number of resource units in use was 0, 1, 2, etc.",
 	    unitType = DimensionlessUnit.class)
 	public DoubleVector getUnitsInUseDistribution(double simTime) {
-		DoubleVector ret = new DoubleVector(unitsInUseDist);
-		double dt = simTime - timeOfLastUpdate;
-		double totalTime = simTime - startOfStatisticsCollection;
-		if( totalTime > 0.0 ) {
-			if( ret.size() == 0 )
-				ret.add(0.0);
-			ret.addAt(dt, unitsInUse);  // adds dt to the entry at index unitsInUse
-			for( int i=0; i<ret.size(); i++ ) {
-				ret.set(i, ret.get(i)/totalTime);
-			}
-		}
-		else {
-			ret.clear();
+		double[] dist = unitsInUseStats.getDistribution(simTime);
+		DoubleVector ret = new DoubleVector(dist.length);
+		for( int i=0; i<dist.length; i++ ) {
+			ret.add(dist[i]);
 		}
 		return ret;
 	}
 
+	@Output(name = "UnitsInUseMedian",
+	 description = "The number of resource units in use that was not exceeded for half of the time.",
+	    unitType = DimensionlessUnit.class)
+	public double getUnitsInUseMedian(double simTime) {
+		return unitsInUseStats.getPercentile(simTime, 0.50d);
+	}
+
+	@Output(name = "UnitsInUse90thPercentile",
+	 description = "The number of resource units in use that was not exceeded for 90 percent of the time.",
+	    unitType = DimensionlessUnit.class)
+	public double getUnitsInUse90thPercentile(double simTime) {
+		return unitsInUseStats.getPercentile(simTime, 0.90d);
+	}
+
+	@Output(name = "UnitsInUse95thPercentile",
+	 description = "The number of resource units in use that was not exceeded for 95 percent of the time.",
+	    unitType = DimensionlessUnit.class)
+	public double getUnitsInUse95thPercentile(double simTime) {
+		return unitsInUseStats.getPercentile(simTime, 0.95d);
+	}
+
+	@Output(name = "UnitsInUse99thPercentile",
+	 description = "The number of resource units in use that was not exceeded for 99 percent of the time.",
+	    unitType = DimensionlessUnit.class)
+	public double getUnitsInUse99thPercentile(double simTime) {
+		return unitsInUseStats.getPercentile(simTime, 0.99d);
+	}
+
 }
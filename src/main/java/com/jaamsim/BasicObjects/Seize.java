@@ -24,8 +24,9 @@ import com.sandwell.JavaSimulation.IntegerListInput;
 import com.sandwell.JavaSimulation.IntegerVector;
 import com.sandwell.JavaSimulation3D.DisplayEntity;
 import com.sandwell.JavaSimulation3D.Queue;
+import com.sandwell.JavaSimulation3D.QueueUser;
 
-public class Seize extends LinkedComponent {
+public class Seize extends LinkedComponent implements QueueUser {
 
 	@Keyword(description = "The Resource(s) to be seized.",
 	         example = "Seize-1 Resource { Resource-1 Resource-2 }")
@@ -126,6 +127,19 @@ public class Seize extends LinkedComponent {
 		}
 	}
 
+	/**
+	 * Informs the Resources that the first entity waiting in the queue has
+	 * changed, however it was added or removed.
+	 */
+	@Override
+	public void queueChanged() {
+		ArrayList<Resource> resList = resourceList.getValue();
+		for(int i=0; i<resList.size(); i++) {
+			resList.get(i).updateSeizeObject(this);
+		}
+	}
+
+	@Override
 	public Queue getQueue() {
 		return waitQueue.getValue();
 	}
@@ -18,8 +18,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 
+import com.jaamsim.events.Process;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.ValueInput;
+import com.jaamsim.units.DimensionlessUnit;
 import com.jaamsim.units.TimeUnit;
 import com.sandwell.JavaSimulation.Entity;
 import com.sandwell.JavaSimulation3D.DisplayEntity;
@@ -31,11 +33,27 @@ import com.sandwell.JavaSimulation3D.DisplayEntity;
  */
 public class Controller extends DisplayEntity {
 
-	@Keyword(description = "The sampling time for the Controller.",
+	@Keyword(description = "The sampling time for the Controller.  " +
+			"If RelativeTolerance is set, the longest time between updates.",
 	         example = "Controller1 SamplingTime { 100 ms }")
 	private final ValueInput samplingTime;
 
+	@Keyword(description = "The relative error tolerance for the calculations that are integrated, " +
+			"such as Integrators, Lags, and fluid flows.  " +
+			"If zero, all the calculations are updated at every SamplingTime.  " +
+			"Otherwise, the integrated values are found with adaptive steps chosen so that the estimated " +
+			"error in each value is less than AbsoluteTolerance + RelativeTolerance x |value|, " +
+			"and a step ends at the clock tick at which a tank becomes full or empty.",
+	         example = "Controller1 RelativeTolerance { 1.0e-4 }")
+	private final ValueInput relativeTolerance;
+
+	@Keyword(description = "The absolute error tolerance for the calculations that are integrated, " +
+			"in the SI units of each integrated value.  Used only if RelativeTolerance is set.",
+	         example = "Controller1 AbsoluteTolerance { 1.0e-8 }")
+	private final ValueInput absoluteTolerance;
+
 	private final ArrayList<CalculationEntity> calculationEntityList;  // List of the CalculationEntities controller by this Controller.
+	private final ArrayList<Integrable> integrableList;  // The entities in calculationEntityList whose values are integrated
 	private int count;  // Number of times that the controller has initiated its calculations.
 
 	{
@@ -43,10 +61,21 @@ public class Controller extends DisplayEntity {
 		samplingTime.setUnitType(TimeUnit.class);
 		samplingTime.setValidRange(0.0, Double.POSITIVE_INFINITY);
 		this.addInput(samplingTime, true);
+
+		relativeTolerance = new ValueInput("RelativeTolerance", "Key Inputs", 0.0d);
+		relativeTolerance.setUnitType(DimensionlessUnit.class);
+		relativeTolerance.setValidRange(0.0d, 1.0d);
+		this.addInput(relativeTolerance, true);
+
+		absoluteTolerance = new ValueInput("AbsoluteTolerance", "Key Inputs", 1.0e-8d);
+		absoluteTolerance.setUnitType(DimensionlessUnit.class);
+		absoluteTolerance.setValidRange(0.0d, Double.POSITIVE_INFINITY);
+		this.addInput(absoluteTolerance, true);
 	}
 
 	public Controller() {
 		calculationEntityList = new ArrayList<CalculationEntity>();
+		integrableList = new ArrayList<Integrable>();
 	}
 
 	@Override
@@ -63,6 +92,12 @@ public class Controller extends DisplayEntity {
 
 		// Sort the calculation entities into the correct sequence
 		Collections.sort(calculationEntityList, new SequenceCompare());
+
+		integrableList.clear();
+		for (CalculationEntity ent : calculationEntityList) {
+			if (ent instanceof Integrable)
+				integrableList.add((Integrable)ent);
+		}
 	}
 
 	// Sorts by increasing sequence number
@@ -77,6 +112,11 @@ public class Controller extends DisplayEntity {
 	public void startUp() {
 		super.startUp();
 
+		if (relativeTolerance.getValue() > 0.0d) {
+			this.integrate();
+			return;
+		}
+
 		//Loop infinitely over the calculation entities
 		while( true ) {
 
@@ -94,6 +134,173 @@ public class Controller extends DisplayEntity {
 		}
 	}
 
+	/**
+	 * Sets the state of every integrated calculation to y at time t and
+	 * returns their derivatives in dydt.
+	 */
+	private final DormandPrince.Derivatives system = new DormandPrince.Derivatives() {
+		@Override
+		public void evaluate(double t, double[] y, double[] dydt) {
+			int offset = 0;
+			for (Integrable each : integrableList) {
+				each.setState(t, y, offset);
+				offset += each.getStateCount();
+			}
+			offset = 0;
+			for (Integrable each : integrableList) {
+				each.getDerivatives(t, dydt, offset);
+				offset += each.getStateCount();
+			}
+		}
+	};
+
+	/**
+	 * Loops infinitely, integrating the state of the Integrable calculations
+	 * with adaptive steps and updating the other calculations at the end of
+	 * each step.
+	 */
+	private void integrate() {
+		int n = 0;
+		for (Integrable each : integrableList)
+			n += each.getStateCount();
+
+		int numCrossings = 0;
+		for (Integrable each : integrableList)
+			numCrossings += each.getCrossingCount();
+
+		DormandPrince rk = new DormandPrince(n);
+		double[] y0 = new double[n];
+		double[] dydt = new double[n];
+		double[] y1 = new double[n];
+		double[] g0 = new double[numCrossings];
+		double[] g1 = new double[numCrossings];
+		boolean[] crossed = new boolean[numCrossings];
+
+		double rtol = relativeTolerance.getValue();
+		double atol = absoluteTolerance.getValue();
+		long maxTicks = Math.max(1L, Process.secondsToTicks(samplingTime.getValue()));
+		long stepTicks = maxTicks;
+
+		int offset = 0;
+		for (Integrable each : integrableList) {
+			each.getState(y0, offset);
+			offset += each.getStateCount();
+		}
+
+		while( true ) {
+			double t0 = this.getSimTime();
+			system.evaluate(t0, y0, dydt);
+			this.getCrossingValues(t0, g0);
+
+			// Find the longest step that meets the tolerances, shortening it
+			// until the error is small enough or it is a single clock tick
+			long ticks = Math.min(stepTicks, maxTicks);
+			double err;
+			while( true ) {
+				double h = Process.ticksToSeconds(ticks);
+				err = rk.step(system, t0, y0, dydt, h, y1, rtol, atol);
+				if (err <= 1.0d || ticks == 1L)
+					break;
+
+				double factor = Math.max(0.2d, 0.9d * Math.pow(err, -0.25d));
+				ticks = Math.max(1L, (long)(ticks * factor));
+			}
+
+			// Choose the next step from the error in this one
+			double factor = 5.0d;
+			if (err > 0.0d)
+				factor = Math.min(5.0d, Math.max(0.2d, 0.9d * Math.pow(err, -0.2d)));
+			stepTicks = Math.max(1L, (long)(ticks * factor));
+
+			// If a crossing value changes sign during the step, shorten the
+			// step to end at the first clock tick at which one has
+			if (numCrossings > 0) {
+				this.getCrossingValues(t0 + Process.ticksToSeconds(ticks), g1);
+				if (this.findCrossings(g0, g1, crossed)) {
+					long lo = 0L;
+					long hi = ticks;
+					while (hi - lo > 1L) {
+						long mid = (lo + hi) / 2L;
+						double tm = t0 + Process.ticksToSeconds(mid);
+						rk.step(system, t0, y0, dydt, Process.ticksToSeconds(mid), y1, rtol, atol);
+						this.getCrossingValues(tm, g1);
+						if (this.findCrossings(g0, g1, crossed))
+							hi = mid;
+						else
+							lo = mid;
+					}
+					ticks = hi;
+					rk.step(system, t0, y0, dydt, Process.ticksToSeconds(ticks), y1, rtol, atol);
+					this.getCrossingValues(t0 + Process.ticksToSeconds(ticks), g1);
+					this.findCrossings(g0, g1, crossed);
+				}
+			}
+
+			// Hold the state at the start of the step until the step ends
+			system.evaluate(t0, y0, dydt);
+			this.simWaitTicks(ticks);
+
+			// Set the new state and update the calculations in sequence order
+			double simTime = this.getSimTime();
+			System.arraycopy(y1, 0, y0, 0, n);
+			system.evaluate(simTime, y0, dydt);
+			for (CalculationEntity ent : calculationEntityList) {
+				if (ent instanceof Integrable)
+					((Integrable)ent).acceptState(simTime);
+				else
+					ent.update(simTime);
+			}
+
+			// Carry out the discrete logic for the crossings
+			int index = 0;
+			for (Integrable each : integrableList) {
+				for (int k = 0; k < each.getCrossingCount(); k++) {
+					if (crossed[index])
+						each.crossingReached(k, simTime);
+					crossed[index] = false;
+					index++;
+				}
+			}
+
+			// The discrete logic may have changed the state
+			offset = 0;
+			for (Integrable each : integrableList) {
+				each.getState(y0, offset);
+				offset += each.getStateCount();
+			}
+
+			// Increment the number of cycles
+			count++;
+		}
+	}
+
+	/**
+	 * Returns the crossing values of the Integrable calculations for the
+	 * state set by the last evaluation.
+	 */
+	private void getCrossingValues(double simTime, double[] g) {
+		int index = 0;
+		for (Integrable each : integrableList) {
+			for (int k = 0; k < each.getCrossingCount(); k++) {
+				g[index] = each.getCrossingValue(k, simTime);
+				index++;
+			}
+		}
+	}
+
+	/**
+	 * Marks the crossing values that have changed sign from g0 to g1, and
+	 * returns true if there are any.
+	 */
+	private boolean findCrossings(double[] g0, double[] g1, boolean[] crossed) {
+		boolean ret = false;
+		for (int i = 0; i < g0.length; i++) {
+			crossed[i] = (g0[i] > 0.0d && g1[i] <= 0.0d) || (g0[i] < 0.0d && g1[i] >= 0.0d);
+			ret |= crossed[i];
+		}
+		return ret;
+	}
+
 	public int getCount() {
 		return count;
 	}
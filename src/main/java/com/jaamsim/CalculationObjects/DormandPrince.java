@@ -0,0 +1,99 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.CalculationObjects;
+
+/**
+ * Takes single Runge-Kutta steps with the Dormand-Prince 5(4) embedded pair
+ * and estimates their error. The step size is chosen by the caller.
+ * J.R. Dormand and P.J. Prince, "A family of embedded Runge-Kutta formulae",
+ * J. Comp. Appl. Math. 6 (1980), pp. 19-26.
+ */
+final class DormandPrince {
+
+	/**
+	 * The system of equations being integrated.
+	 */
+	interface Derivatives {
+		/**
+		 * Sets the state to y at time t and returns its derivatives in dydt.
+		 */
+		public void evaluate(double t, double[] y, double[] dydt);
+	}
+
+	private static final double[] C = { 0.0d, 1.0d/5.0d, 3.0d/10.0d, 4.0d/5.0d, 8.0d/9.0d, 1.0d, 1.0d };
+	private static final double[][] A = {
+		{},
+		{ 1.0d/5.0d },
+		{ 3.0d/40.0d, 9.0d/40.0d },
+		{ 44.0d/45.0d, -56.0d/15.0d, 32.0d/9.0d },
+		{ 19372.0d/6561.0d, -25360.0d/2187.0d, 64448.0d/6561.0d, -212.0d/729.0d },
+		{ 9017.0d/3168.0d, -355.0d/33.0d, 46732.0d/5247.0d, 49.0d/176.0d, -5103.0d/18656.0d },
+		{ 35.0d/384.0d, 0.0d, 500.0d/1113.0d, 125.0d/192.0d, -2187.0d/6784.0d, 11.0d/84.0d }
+	};
+	// Difference between the fifth and fourth order weights
+	private static final double[] E = { 71.0d/57600.0d, 0.0d, -71.0d/16695.0d, 71.0d/1920.0d,
+	                                    -17253.0d/339200.0d, 22.0d/525.0d, -1.0d/40.0d };
+
+	private final int n;
+	private final double[][] k;
+	private final double[] ytmp;
+
+	DormandPrince(int n) {
+		this.n = n;
+		k = new double[7][n];
+		ytmp = new double[n];
+	}
+
+	/**
+	 * Takes a step of length h from the state y at time t, whose derivatives
+	 * are dydt, and stores the new state in yout. Returns the root mean square
+	 * of the estimated error in each state variable divided by
+	 * atol + rtol * |y|, so that the step meets the tolerances if the returned
+	 * value is no more than one.
+	 */
+	double step(Derivatives f, double t, double[] y, double[] dydt, double h,
+			double[] yout, double rtol, double atol) {
+
+		System.arraycopy(dydt, 0, k[0], 0, n);
+		for (int s = 1; s < 7; s++) {
+			double[] a = A[s];
+			double[] dest = (s == 6) ? yout : ytmp;
+			for (int i = 0; i < n; i++) {
+				double sum = 0.0d;
+				for (int j = 0; j < s; j++)
+					sum += a[j] * k[j][i];
+				dest[i] = y[i] + h * sum;
+			}
+			f.evaluate(t + C[s] * h, dest, k[s]);
+		}
+
+		if (n == 0)
+			return 0.0d;
+
+		double sumSq = 0.0d;
+		for (int i = 0; i < n; i++) {
+			double err = 0.0d;
+			for (int j = 0; j < 7; j++)
+				err += E[j] * k[j][i];
+			err *= h;
+
+			double scale = atol + rtol * Math.max(Math.abs(y[i]), Math.abs(yout[i]));
+			if (scale <= 0.0d)
+				scale = Double.MIN_NORMAL;
+			sumSq += (err / scale) * (err / scale);
+		}
+		return Math.sqrt(sumSq / n);
+	}
+}
@@ -142,7 +142,8 @@ implements SampleProvider {
 
 	protected void setUnitType(Class<? extends Unit> ut) {
 		inputValue.setUnitType(ut);
-		FrameBox.setSelectedEntity(this);  // Update the units in the Output Viewer
+		if (this.getContext().isDefault())
+			FrameBox.setSelectedEntity(this);  // Update the units in the Output Viewer
 	}
 
 	@Override
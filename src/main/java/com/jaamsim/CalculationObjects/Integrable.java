@@ -0,0 +1,80 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.CalculationObjects;
+
+/**
+ * Integrable is implemented by the calculations whose values are found by
+ * integrating a differential equation. When its RelativeTolerance is set, a
+ * Controller integrates the state variables of these calculations together
+ * with adaptive steps, instead of calling update() every SamplingTime.
+ * <p>
+ * The Controller first sets the state of every calculation with setState(),
+ * then calls getDerivatives() for each calculation in sequence order. The
+ * state passed to setState() may be a trial state that is later discarded.
+ * <p>
+ * A crossing is a quantity, such as the free volume in a tank, whose change
+ * of sign needs discrete logic. The Controller ends its step at the first
+ * clock tick at which any crossing value has changed sign.
+ */
+public interface Integrable {
+
+	/**
+	 * Returns the number of state variables held by the calculation.
+	 */
+	public int getStateCount();
+
+	/**
+	 * Copies the present state variables into state, starting at offset.
+	 * Called before the first step and at the end of each step, once any
+	 * crossings have been handled, so the calculation may also fix here any
+	 * discrete state that is to hold for the next step.
+	 */
+	public void getState(double[] state, int offset);
+
+	/**
+	 * Sets the state variables to the given values at the given time.
+	 */
+	public void setState(double simTime, double[] state, int offset);
+
+	/**
+	 * Copies the time derivatives of the state variables into deriv, starting
+	 * at offset, for the state set by the last call to setState().
+	 */
+	public void getDerivatives(double simTime, double[] deriv, int offset);
+
+	/**
+	 * Called at the end of each step, once the state has been set to its new
+	 * value, in place of update().
+	 */
+	public void acceptState(double simTime);
+
+	/**
+	 * Returns the number of crossing values for the calculation.
+	 */
+	public int getCrossingCount();
+
+	/**
+	 * Returns the given crossing value for the state set by the last call to
+	 * setState().
+	 */
+	public double getCrossingValue(int index, double simTime);
+
+	/**
+	 * Called at the end of a step when the given crossing value has changed
+	 * sign during the step. The calculation may change its state, which is
+	 * read again with getState() before the next step.
+	 */
+	public void crossingReached(int index, double simTime);
+}
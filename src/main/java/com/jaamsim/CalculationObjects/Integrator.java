@@ -29,7 +29,7 @@ import com.jaamsim.units.UserSpecifiedUnit;
  * @author Harry King
  *
  */
-public class Integrator extends DoubleCalculation {
+public class Integrator extends DoubleCalculation implements Integrable {
 
 	@Keyword(description = "The initial value for the integral at time = 0.",
 	         example = "Integrator-1 InitialValue { 5.5 }")
@@ -65,7 +65,8 @@ public class Integrator extends DoubleCalculation {
 	protected void setUnitType(Class<? extends Unit> ut) {
 		super.setUnitType(ut);
 		initialValue.setUnitType(ut);
-		FrameBox.setSelectedEntity(this);  // Update the units in the Output Viewer
+		if (this.getContext().isDefault())
+			FrameBox.setSelectedEntity(this);  // Update the units in the Output Viewer
 	}
 
 	@Override
@@ -90,4 +91,43 @@ public class Integrator extends DoubleCalculation {
 		lastUpdateTime = simTime;
 	}
 
+	@Override
+	public int getStateCount() {
+		return 1;
+	}
+
+	@Override
+	public void getState(double[] state, int offset) {
+		state[offset] = integral;
+	}
+
+	@Override
+	public void setState(double simTime, double[] state, int offset) {
+		integral = state[offset];
+		lastUpdateTime = simTime;
+	}
+
+	@Override
+	public void getDerivatives(double simTime, double[] deriv, int offset) {
+		deriv[offset] = this.getInputValue(simTime);
+	}
+
+	@Override
+	public void acceptState(double simTime) {
+		super.update(simTime);
+	}
+
+	@Override
+	public int getCrossingCount() {
+		return 0;
+	}
+
+	@Override
+	public double getCrossingValue(int index, double simTime) {
+		return 0.0d;
+	}
+
+	@Override
+	public void crossingReached(int index, double simTime) {}
+
 }
@@ -25,7 +25,7 @@ import com.jaamsim.units.TimeUnit;
  * @author Harry King
  *
  */
-public class Lag extends DoubleCalculation {
+public class Lag extends DoubleCalculation implements Integrable {
 
 	@Keyword(description = "The time constant for this operation: output = integral( input - output) / LagTime.",
 	         example = "Lag-1 LagTime { 15 s }")
@@ -69,6 +69,46 @@ public class Lag extends DoubleCalculation {
 		lastUpdateTime = simTime;
 	}
 
+	@Override
+	public int getStateCount() {
+		return 1;
+	}
+
+	@Override
+	public void getState(double[] state, int offset) {
+		state[offset] = integral;
+	}
+
+	@Override
+	public void setState(double simTime, double[] state, int offset) {
+		integral = state[offset];
+		presentValue = integral / lagTime.getValue();
+		lastUpdateTime = simTime;
+	}
+
+	@Override
+	public void getDerivatives(double simTime, double[] deriv, int offset) {
+		deriv[offset] = this.getInputValue(simTime) - presentValue;
+	}
+
+	@Override
+	public void acceptState(double simTime) {
+		super.update(simTime);
+	}
+
+	@Override
+	public int getCrossingCount() {
+		return 0;
+	}
+
+	@Override
+	public double getCrossingValue(int index, double simTime) {
+		return 0.0d;
+	}
+
+	@Override
+	public void crossingReached(int index, double simTime) {}
+
 	@Output(name = "Error",
 	 description = "The value for InputValue - OutputValue.")
 	public double getError( double simTime ) {
@@ -64,7 +64,8 @@ public class Polynomial extends DoubleCalculation {
 	protected void setUnitType(Class<? extends Unit> ut) {
 		super.setUnitType(ut);
 		scale.setUnitType(ut);
-		FrameBox.setSelectedEntity(this);  // Update the units in the Output Viewer
+		if (this.getContext().isDefault())
+			FrameBox.setSelectedEntity(this);  // Update the units in the Output Viewer
 	}
 
 	@Override
@@ -73,7 +73,8 @@ public abstract class WaveGenerator extends DoubleCalculation {
 		super.setUnitType(ut);
 		amplitude.setUnitType(ut);
 		offset.setUnitType(ut);
-		FrameBox.setSelectedEntity(this);  // Update the units in the Output Viewer
+		if (this.getContext().isDefault())
+			FrameBox.setSelectedEntity(this);  // Update the units in the Output Viewer
 	}
 
 	@Override
@@ -388,25 +388,26 @@ public class GraphModel extends DisplayModel {
 
 		private void drawSeries(Graph.SeriesInfo series, double yMinimum, double yMaximum, double simTime, ArrayList<RenderProxy> out) {
 
-			if (series.numPoints < 2)
+			int numPoints = series.getNumPoints();
+			if (numPoints < 2)
 				return; // Nothing to display yet
 
 			double yRange = yMaximum - yMinimum;  // yRange can be either the primary or secondary range
 
-			double[] yVals = new double[series.numPoints];
-			double[] xVals = new double[series.numPoints];
+			double[] yVals = new double[numPoints];
+			double[] xVals = new double[numPoints];
 
-			for (int i = 0; i < series.numPoints; i++) {
+			for (int i = 0; i < numPoints; i++) {
 				if( timeTrace )
-					xVals[i] = MathUtils.bound((series.xValues[i] - simTime - xMin) / xRange, 0, 1) - 0.5;
+					xVals[i] = MathUtils.bound((series.getXValue(i) - simTime - xMin) / xRange, 0, 1) - 0.5;
 				else
-					xVals[i] = MathUtils.bound((series.xValues[i] - xMin) / xRange, 0, 1) - 0.5;
+					xVals[i] = MathUtils.bound((series.getXValue(i) - xMin) / xRange, 0, 1) - 0.5;
 
-				yVals[i] = MathUtils.bound((series.yValues[i] - yMinimum) / yRange, 0, 1) - 0.5;
+				yVals[i] = MathUtils.bound((series.getYValue(i) - yMinimum) / yRange, 0, 1) - 0.5;
 			}
 
-			ArrayList<Vec4d> seriesPoints = new ArrayList<Vec4d>((series.numPoints-1)*2);
-			for (int i = 0; i < series.numPoints - 1; i++) {
+			ArrayList<Vec4d> seriesPoints = new ArrayList<Vec4d>((numPoints-1)*2);
+			for (int i = 0; i < numPoints - 1; i++) {
 				seriesPoints.add(new Vec4d(xVals[i  ], yVals[i  ], zBump, 1.0d));
 				seriesPoints.add(new Vec4d(xVals[i+1], yVals[i+1], zBump, 1.0d));
 			}
@@ -161,6 +161,21 @@ public class FluidComponent extends DisplayEntity {
 
 	public void addVolume( double v ) {}
 
+	/*
+	 * Change the volume without recording it in the statistics.  Used for the
+	 * trial states of an integration step.
+	 */
+	public void adjustVolume( double v ) {}
+
+	/*
+	 * Record the present volume in the statistics.
+	 */
+	public void recordVolume() {}
+
+	public double getCapacity() {
+		return Double.POSITIVE_INFINITY;
+	}
+
 	public double getBaseInletPressure() {
 		return baseInletPressure;
 	}
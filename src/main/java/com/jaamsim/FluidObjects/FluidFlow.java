@@ -86,6 +86,29 @@ public class FluidFlow extends FluidFlowCalculation {
 		totalFlowInertia *= this.getFluid().getDensity();
 	}
 
+	@Override
+	public int getStateCount() {
+		return super.getStateCount() + 1;
+	}
+
+	@Override
+	public void getState(double[] state, int offset) {
+		super.getState(state, offset);
+		state[offset + 1] = this.getFlowRate();
+	}
+
+	@Override
+	public void setState(double simTime, double[] state, int offset) {
+		super.setState(simTime, state, offset);
+		this.setFlowRate(state[offset + 1]);
+	}
+
+	@Override
+	public void getDerivatives(double simTime, double[] deriv, int offset) {
+		super.getDerivatives(simTime, deriv, offset);
+		deriv[offset + 1] = flowAcceleration;
+	}
+
 	@Override
 	protected void calcFlowRate( FluidComponent source, FluidComponent destination, double dt ) {
 
@@ -15,8 +15,10 @@
 package com.jaamsim.FluidObjects;
 
 import com.jaamsim.CalculationObjects.CalculationEntity;
+import com.jaamsim.CalculationObjects.Integrable;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
+import com.sandwell.JavaSimulation.Entity;
 import com.sandwell.JavaSimulation.EntityInput;
 import com.jaamsim.units.VolumeFlowUnit;
 import com.sandwell.JavaSimulation.InputErrorException;
@@ -26,7 +28,7 @@ import com.sandwell.JavaSimulation.InputErrorException;
  * @author Harry King
  *
  */
-public abstract class FluidFlowCalculation extends CalculationEntity {
+public abstract class FluidFlowCalculation extends CalculationEntity implements Integrable {
 
 	@Keyword(description = "The Fluid being moved by the flow.",
 	      example = "FluidFlow1 Fluid { Fluid1 }")
@@ -42,6 +44,10 @@ public abstract class FluidFlowCalculation extends CalculationEntity {
 
 	private double flowRate;  // The volumetric flow rate (m3/s) for the route.
 	private double lastUpdateTime;  // The time at which the last update was performed.
+	private double transferredVolume;  // The volume moved from the source to the destination by an integrating Controller.
+	private double sourceEmptyTime;  // The last time at which the source became empty during an integrating Controller's step.
+	private boolean sourceEmpty;  // True if the source was empty at the start of the present integration step.
+	private boolean destinationEmpty;  // True if the destination was empty at the start of the present integration step.
 
 	{
 		fluidInput = new EntityInput<Fluid>( Fluid.class, "Fluid", "Key Inputs", null);
@@ -68,6 +74,8 @@ public abstract class FluidFlowCalculation extends CalculationEntity {
 	public void earlyInit() {
 		super.earlyInit();
 		lastUpdateTime = 0.0;
+		transferredVolume = 0.0;
+		sourceEmptyTime = Double.NaN;
 	}
 
 	@Override
@@ -95,6 +103,121 @@ public abstract class FluidFlowCalculation extends CalculationEntity {
 
 	protected abstract void calcFlowRate( FluidComponent source, FluidComponent destination, double dt );
 
+	@Override
+	public int getStateCount() {
+		return 1;
+	}
+
+	@Override
+	public void getState(double[] state, int offset) {
+		state[offset] = transferredVolume;
+
+		// Hold whether the tanks are empty for the whole step, so that the
+		// derivatives stay smooth and the step ends at the crossing instead
+		FluidComponent source = sourceInput.getValue();
+		FluidComponent destination = destinationInput.getValue();
+		sourceEmpty = source != null && source.getFluidVolume() <= 0.0;
+		destinationEmpty = destination != null && destination.getFluidVolume() <= 0.0;
+	}
+
+	@Override
+	public void setState(double simTime, double[] state, int offset) {
+		double dV = state[offset] - transferredVolume;
+		transferredVolume = state[offset];
+		lastUpdateTime = simTime;
+
+		FluidComponent source = sourceInput.getValue();
+		FluidComponent destination = destinationInput.getValue();
+		if( source != null ) { source.adjustVolume( -dV ); }
+		if( destination != null ) { destination.adjustVolume( dV ); }
+	}
+
+	@Override
+	public void getDerivatives(double simTime, double[] deriv, int offset) {
+		FluidComponent source = sourceInput.getValue();
+		FluidComponent destination = destinationInput.getValue();
+		this.calcFlowRate( source, destination, 0.0 );
+
+		// No fluid is moved out of an empty tank
+		double rate = flowRate;
+		if( rate > 0.0 && sourceEmpty ) {
+			rate = 0.0;
+		}
+		else if( rate < 0.0 && destinationEmpty ) {
+			rate = 0.0;
+		}
+		deriv[offset] = rate;
+	}
+
+	@Override
+	public void acceptState(double simTime) {
+		FluidComponent source = sourceInput.getValue();
+		FluidComponent destination = destinationInput.getValue();
+		if( source != null ) { source.recordVolume(); }
+		if( destination != null ) { destination.recordVolume(); }
+	}
+
+	/*
+	 * Crossing 0 is the source becoming empty, crossing 1 is the destination becoming full.
+	 */
+	@Override
+	public int getCrossingCount() {
+		return 2;
+	}
+
+	@Override
+	public double getCrossingValue(int index, double simTime) {
+		FluidComponent comp;
+		if( index == 0 ) {
+			comp = sourceInput.getValue();
+			if( comp == null )
+				return 1.0;
+			return comp.getFluidVolume();
+		}
+
+		comp = destinationInput.getValue();
+		if( comp == null || comp.getCapacity() == Double.POSITIVE_INFINITY )
+			return 1.0;
+		return comp.getCapacity() - comp.getFluidVolume();
+	}
+
+	@Override
+	public void crossingReached(int index, double simTime) {
+
+		// A full tank is allowed to overflow, so only an empty tank needs action
+		if( index != 0 )
+			return;
+
+		// The step ends at the first clock tick past the crossing, so return
+		// the volume removed from the empty source after that point
+		FluidComponent source = sourceInput.getValue();
+		FluidComponent destination = destinationInput.getValue();
+		sourceEmptyTime = simTime;
+		double overshoot = -source.getFluidVolume();
+		if( overshoot <= 0.0 || flowRate <= 0.0 )
+			return;
+
+		// Several flows may drain the source.  Each one returns its share of
+		// the overshoot that has not yet been returned, in proportion to its
+		// flow rate.
+		double totalRate = flowRate;
+		for( FluidFlowCalculation each : Entity.getClonesOfIterator(FluidFlowCalculation.class) ) {
+			if( each != this && each.getSource() == source && each.getFlowRate() > 0.0
+					&& each.sourceEmptyTime != simTime ) {
+				totalRate += each.getFlowRate();
+			}
+		}
+		double dV = overshoot * flowRate / totalRate;
+
+		transferredVolume -= dV;
+		source.adjustVolume( dV );
+		source.recordVolume();
+		if( destination != null ) {
+			destination.adjustVolume( -dV );
+			destination.recordVolume();
+		}
+	}
+
 	protected void setFlowRate( double rate) {
 		flowRate = rate;
 	}
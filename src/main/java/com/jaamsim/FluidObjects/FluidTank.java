@@ -17,6 +17,7 @@ package com.jaamsim.FluidObjects;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
 import com.jaamsim.input.ValueInput;
+import com.jaamsim.math.TimeWeightedStatistics;
 import com.jaamsim.units.DistanceUnit;
 import com.jaamsim.units.PressureUnit;
 import com.jaamsim.units.VolumeUnit;
@@ -48,6 +49,9 @@ public class FluidTank extends FluidComponent {
 	private double fluidVolume;  // The present volume of the fluid in the tank.
 	private double fluidLevel;  // The height of the fluid in the tank.
 
+	private static final int VOLUME_BINS = 1000;  // number of histogram bins between empty and full
+	private TimeWeightedStatistics volumeStats;  // time-weighted statistics for the fluid volume
+
 	{
 		capacityInput = new ValueInput( "Capacity", "Key Inputs", 1.0d);
 		capacityInput.setValidRange( 0.0, Double.POSITIVE_INFINITY);
@@ -69,18 +73,45 @@ public class FluidTank extends FluidComponent {
 		this.addInput( inletHeightInput, true);
 	}
 
+	public FluidTank() {
+		volumeStats = new TimeWeightedStatistics(1.0d / VOLUME_BINS, VOLUME_BINS, false);
+	}
+
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
 		fluidVolume = initialVolumeInput.getValue();
+
+		// Size the histogram so that its bins span the capacity of the tank
+		double binWidth = capacityInput.getValue() / VOLUME_BINS;
+		if( binWidth > 0.0 && binWidth != volumeStats.getBinWidth() ) {
+			volumeStats = new TimeWeightedStatistics(binWidth, VOLUME_BINS, false);
+		}
+		volumeStats.clear(this.getSimTime(), fluidVolume);
 	}
 
 	@Override
 	public void addVolume( double v ) {
+		this.adjustVolume(v);
+		this.recordVolume();
+	}
+
+	@Override
+	public void adjustVolume( double v ) {
 		fluidVolume += v;
 		fluidLevel = fluidVolume / this.getFlowArea();
 	}
 
+	@Override
+	public void recordVolume() {
+		volumeStats.update(this.getSimTime(), fluidVolume);
+	}
+
+	@Override
+	public double getCapacity() {
+		return capacityInput.getValue();
+	}
+
 	@Override
 	public double calcOutletPressure( double inletPres, double flowAccel ) {
 		return this.getFluidPressure(0.0);
@@ -136,4 +167,60 @@ public class FluidTank extends FluidComponent {
 	public double getFluidLevel( double simTime ) {
 		return fluidLevel;
 	}
+
+	@Output(name = "FluidVolumeAverage",
+	 description = "The average volume of the fluid stored in the tank.",
+	    unitType = VolumeUnit.class)
+	public double getFluidVolumeAverage( double simTime ) {
+		return volumeStats.getMean(simTime);
+	}
+
+	@Output(name = "FluidVolumeStandardDeviation",
+	 description = "The standard deviation of the volume of the fluid stored in the tank.",
+	    unitType = VolumeUnit.class)
+	public double getFluidVolumeStandardDeviation( double simTime ) {
+		return volumeStats.getStandardDeviation(simTime);
+	}
+
+	@Output(name = "FluidVolumeMinimum",
+	 description = "The minimum volume of the fluid stored in the tank.",
+	    unitType = VolumeUnit.class)
+	public double getFluidVolumeMinimum( double simTime ) {
+		return volumeStats.getMinimum();
+	}
+
+	@Output(name = "FluidVolumeMaximum",
+	 description = "The maximum volume of the fluid stored in the tank.",
+	    unitType = VolumeUnit.class)
+	public double getFluidVolumeMaximum( double simTime ) {
+		return volumeStats.getMaximum();
+	}
+
+	@Output(name = "FluidVolumeMedian",
+	 description = "The volume of fluid in the tank that was not exceeded for half of the time.",
+	    unitType = VolumeUnit.class)
+	public double getFluidVolumeMedian( double simTime ) {
+		return volumeStats.getPercentile(simTime, 0.50d);
+	}
+
+	@Output(name = "FluidVolume90thPercentile",
+	 description = "The volume of fluid in the tank that was not exceeded for 90 percent of the time.",
+	    unitType = VolumeUnit.class)
+	public double getFluidVolume90thPercentile( double simTime ) {
+		return volumeStats.getPercentile(simTime, 0.90d);
+	}
+
+	@Output(name = "FluidVolume95thPercentile",
+	 description = "The volume of fluid in the tank that was not exceeded for 95 percent of the time.",
+	    unitType = VolumeUnit.class)
+	public double getFluidVolume95thPercentile( double simTime ) {
+		return volumeStats.getPercentile(simTime, 0.95d);
+	}
+
+	@Output(name = "FluidVolume99thPercentile",
+	 description = "The volume of fluid in the tank that was not exceeded for 99 percent of the time.",
+	    unitType = VolumeUnit.class)
+	public double getFluidVolume99thPercentile( double simTime ) {
+		return volumeStats.getPercentile(simTime, 0.99d);
+	}
 }
@@ -89,7 +89,7 @@ public class ContinuousDistribution extends Distribution {
 	@Override
 	protected double getNextSample() {
 
-		double rand = randomGenerator1.nextDouble();
+		double rand = randomGenerator1.getUniform();
 		DoubleVector cumList = cumulativeProbabilityListInput.getValue();
 		for( int i=1; i<cumList.size(); i++) {
 			if( rand < cumList.get(i) ) {
@@ -69,7 +69,7 @@ public class DiscreteDistribution extends Distribution {
 	@Override
 	protected double getNextSample() {
 
-		double rand = randomGenerator1.nextDouble();
+		double rand = randomGenerator1.getUniform();
 		double cumProb = 0.0;
 		DoubleVector probList = probabilityListInput.getValue();
 		for( int i=0; i<probList.size(); i++) {
@@ -14,18 +14,18 @@
  */
 package com.jaamsim.ProbabilityDistributions;
 
-import java.util.Random;
-
 import com.jaamsim.Samples.SampleProvider;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
 import com.jaamsim.input.OutputHandle;
 import com.jaamsim.input.UnitTypeInput;
 import com.jaamsim.input.ValueInput;
+import com.jaamsim.rng.MRG1999a;
 import com.jaamsim.ui.FrameBox;
 import com.jaamsim.units.DimensionlessUnit;
 import com.jaamsim.units.Unit;
 import com.jaamsim.units.UserSpecifiedUnit;
+import com.sandwell.JavaSimulation.Entity;
 import com.sandwell.JavaSimulation.Input;
 import com.sandwell.JavaSimulation.InputErrorException;
 import com.sandwell.JavaSimulation.IntegerInput;
@@ -42,19 +42,33 @@ implements SampleProvider {
 	         example = "ProbDist1 UnitType { DistanceUnit }")
 	private final UnitTypeInput unitType;
 
-	@Keyword(description = "Seed for the random number generator.  Must be an integer > 0.",
+	@Keyword(description = "Seed for the random number generator.  Must be an integer > 0.  " +
+			"Each seed selects an independent stream of random numbers.  If no seed is given, " +
+			"the distribution uses a stream chosen by its name that no seed selects.  " +
+			"This stream does not change when other objects are added, deleted or reordered, " +
+			"but does change if the distribution is renamed.",
 			 example = "ProbDist1 RandomSeed { 547 }")
 	private final IntegerInput randomSeedInput;
 
-	@Keyword(description = "Minimum value that can be returned.  Smaller values are rejected and resampled.",
+	@Keyword(description = "Minimum value that can be returned.  Smaller values are rejected and resampled, " +
+			"except for distributions that can sample the truncated distribution directly.",
 	         example = "ProbDist1 MinValue { 0.0 }")
 	protected final ValueInput minValueInput;
 
-	@Keyword(description = "Maximum value that can be returned.  Larger values are rejected and resampled.",
+	@Keyword(description = "Maximum value that can be returned.  Larger values are rejected and resampled, " +
+			"except for distributions that can sample the truncated distribution directly.",
 	         example = "ProbDist1 MaxValue { 200.0 }")
 	protected final ValueInput maxValueInput;
 
-	protected final Random randomGenerator1; // first random generator for picking values
+	protected final MRG1999a randomGenerator1; // first random generator for picking values
+
+	private static final long GENERATOR_SPACING = 1l << 36;  // steps between the generators in a substream
+	private static final long FIRST_ENTITY_STREAM = 1l << 31;  // streams beyond those selected by RandomSeed
+
+	private boolean samplerValid;  // true if the bounds and truncation below are up to date
+	private double minValue;
+	private double maxValue;
+	private boolean truncated;  // true if samples are drawn directly from the truncated distribution
 
 	private int sampleCount;
 	private double sampleSum;
@@ -66,7 +80,7 @@ implements SampleProvider {
 		unitType = new UnitTypeInput("UnitType", "Key Inputs", UserSpecifiedUnit.class);
 		this.addInput(unitType, true);
 
-		randomSeedInput = new IntegerInput("RandomSeed", "Key Inputs", 1);
+		randomSeedInput = new IntegerInput("RandomSeed", "Key Inputs", null);
 		randomSeedInput.setValidRange( 1, Integer.MAX_VALUE);
 		this.addInput(randomSeedInput, true);
 
@@ -80,7 +94,7 @@ implements SampleProvider {
 	}
 
 	public Distribution() {
-		randomGenerator1 = new Random();
+		randomGenerator1 = new MRG1999a();
 	}
 
 	@Override
@@ -98,7 +112,10 @@ implements SampleProvider {
 		super.earlyInit();
 
 		// Set the seed for the first random generator
-		randomGenerator1.setSeed( randomSeedInput.getValue() );
+		this.setSeedStream(randomGenerator1, 0);
+
+		// Re-evaluate the bounds before the first sample
+		samplerValid = false;
 
 		// Initialise the sample statistics
 		sampleCount = 0;
@@ -108,13 +125,49 @@ implements SampleProvider {
 		sampleMax = Double.NEGATIVE_INFINITY;
 	}
 
+	/**
+	 * Seeds one of the random generators used by this distribution. The
+	 * generators draw from the stream selected by RandomSeed, using the
+	 * substream for the present replication. Generator n starts n * 2^36
+	 * steps into the substream.
+	 * @param gen = the random generator to seed
+	 * @param n = index of the generator within the distribution
+	 */
+	protected final void setSeedStream(MRG1999a gen, int n) {
+		gen.setSeedStream(getStream(this, randomSeedInput), this.getContext().getReplication());
+		if( n > 0 )
+			gen.advance(n * GENERATOR_SPACING);
+	}
+
+	/**
+	 * Returns the random number stream selected by the given RandomSeed input.
+	 * An entity whose seed has not been set uses a stream chosen by a hash of
+	 * its name, beyond the streams a seed can select, so that its samples do
+	 * not depend on the other entities in the model.
+	 */
+	static long getStream(Entity ent, IntegerInput seed) {
+		if( seed.getValue() != null )
+			return seed.getValue();
+
+		// 64-bit FNV-1a hash of the name
+		String name = ent.getInputName();
+		long hash = 0xcbf29ce484222325l;
+		for (int i = 0; i < name.length(); i++) {
+			hash ^= name.charAt(i);
+			hash *= 0x100000001b3l;
+		}
+		return FIRST_ENTITY_STREAM + (hash >>> 2);
+	}
+
 	@Override
 	public void updateForInput(Input<?> in) {
 		super.updateForInput(in);
+		samplerValid = false;
 
 		if (in == unitType) {
 			setUnitType(getUnitType());
-			FrameBox.setSelectedEntity(this);  // Update the units in the Output Viewer
+			if (this.getContext().isDefault())
+				FrameBox.setSelectedEntity(this);  // Update the units in the Output Viewer
 			return;
 		}
 	}
@@ -132,6 +185,50 @@ implements SampleProvider {
 	 */
 	protected abstract double getNextSample();
 
+	/**
+	 * Prepares the distribution to sample directly from its truncation to the
+	 * range [min, max], for example by inverting the cumulative distribution
+	 * function. Called whenever the inputs have changed.
+	 * @return true if getTruncatedSample() is to be used, false if samples
+	 * outside the range are to be rejected and resampled.
+	 */
+	protected boolean setTruncation(double min, double max) {
+		return false;
+	}
+
+	/**
+	 * Select the next sample from the distribution truncated to the range set
+	 * by the last call to setTruncation. By default, samples outside the range
+	 * are rejected and resampled.
+	 */
+	protected double getTruncatedSample() {
+		return this.getRejectionSample();
+	}
+
+	// Loop until the selected sample falls within the desired min and max values
+	private double getRejectionSample() {
+		double val;
+		do {
+			val = this.getNextSample();
+		}
+		while (val < minValue || val > maxValue);
+		return val;
+	}
+
+	// Removes any round-off error that takes a truncated sample outside the range
+	private double clampSample(double val) {
+		if (val < minValue) return minValue;
+		if (val > maxValue) return maxValue;
+		return val;
+	}
+
+	private void updateSampler() {
+		minValue = minValueInput.getValue();
+		maxValue = maxValueInput.getValue();
+		truncated = this.setTruncation(minValue, maxValue);
+		samplerValid = true;
+	}
+
 	@Override
 	public Class<? extends Unit> getUnitType() {
 		return unitType.getUnitType();
@@ -147,13 +244,16 @@ implements SampleProvider {
 	 */
 	@Override
 	public final double getNextSample(double simTime) {
-		// Loop until the select sample falls within the desired min and max values
+		if (!samplerValid)
+			this.updateSampler();
+
 		double nextSample;
-		do {
-			nextSample = this.getNextSample();
+		if (truncated) {
+			nextSample = this.clampSample(this.getTruncatedSample());
+		}
+		else {
+			nextSample = this.getRejectionSample();
 		}
-		while (nextSample < this.minValueInput.getValue() ||
-		       nextSample > this.maxValueInput.getValue());
 
 		// Collect statistics on the sampled values
 		sampleCount++;
@@ -164,6 +264,42 @@ implements SampleProvider {
 		return nextSample;
 	}
 
+	/**
+	 * Fills the first n entries of the array with successive samples. The
+	 * values are the same as those returned by n calls to getNextSample.
+	 */
+	public final void fillSamples(double simTime, double[] out, int n) {
+		if (!samplerValid)
+			this.updateSampler();
+
+		if (truncated) {
+			for (int i = 0; i < n; i++)
+				out[i] = this.clampSample(this.getTruncatedSample());
+		}
+		else {
+			for (int i = 0; i < n; i++)
+				out[i] = this.getRejectionSample();
+		}
+
+		// Collect statistics on the sampled values
+		double sum = 0.0d;
+		double squaredSum = 0.0d;
+		double smin = sampleMin;
+		double smax = sampleMax;
+		for (int i = 0; i < n; i++) {
+			double val = out[i];
+			sum += val;
+			squaredSum += val * val;
+			if (val < smin) smin = val;
+			if (val > smax) smax = val;
+		}
+		sampleCount += n;
+		sampleSum += sum;
+		sampleSquaredSum += squaredSum;
+		sampleMin = smin;
+		sampleMax = smax;
+	}
+
 	@Override
 	public double getMinValue() {
 		return minValueInput.getValue();
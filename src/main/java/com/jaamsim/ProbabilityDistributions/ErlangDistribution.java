@@ -62,7 +62,7 @@ public class ErlangDistribution extends Distribution {
 		double u = 1.0;
 		int k = shapeInput.getValue();
 		for( int i=0; i<k; i++) {
-			u *= randomGenerator1.nextDouble();
+			u *= randomGenerator1.getUniform();
 		}
 
 		// Inverse transform method
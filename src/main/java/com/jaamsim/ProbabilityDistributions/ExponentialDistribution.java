@@ -29,6 +29,9 @@ public class ExponentialDistribution extends Distribution {
 	         example = "ExponentialDist-1 Mean { 5.0 }")
 	private final ValueInput meanInput;
 
+	private double lowerBound;   // truncated range for the unit exponential
+	private double rangeProb;    // probability that a unit exponential sample lies in the truncated range
+
 	{
 		minValueInput.setDefaultValue(0.0);
 
@@ -48,7 +51,26 @@ public class ExponentialDistribution extends Distribution {
 	protected double getNextSample() {
 
 		// Inverse transform method
-		return (- meanInput.getValue() * Math.log( randomGenerator1.nextDouble() ) );
+		return (- meanInput.getValue() * Math.log( randomGenerator1.getUniform() ) );
+	}
+
+	@Override
+	protected boolean setTruncation(double min, double max) {
+		double mean = meanInput.getValue();
+		if (mean == 0.0d || (min <= 0.0d && max == Double.POSITIVE_INFINITY))
+			return false;
+
+		lowerBound = Math.max(min, 0.0d) / mean;
+		rangeProb = - Math.expm1( lowerBound - max / mean );
+		return true;
+	}
+
+	@Override
+	protected double getTruncatedSample() {
+
+		// Inverse transform method for the truncated exponential
+		double sample = lowerBound - Math.log1p( - rangeProb * randomGenerator1.getUniform() );
+		return meanInput.getValue() * sample;
 	}
 
 	@Override
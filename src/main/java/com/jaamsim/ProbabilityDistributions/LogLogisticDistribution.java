@@ -58,7 +58,7 @@ public class LogLogisticDistribution extends Distribution {
 	protected double getNextSample() {
 
 		// Inverse transform method
-		double u = randomGenerator1.nextDouble();
+		double u = randomGenerator1.getUniform();
 		return scaleInput.getValue() * Math.pow( u / (1 - u), 1.0 / shapeInput.getValue() );
 	}
 
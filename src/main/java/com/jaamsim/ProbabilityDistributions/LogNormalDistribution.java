@@ -14,10 +14,9 @@
  */
 package com.jaamsim.ProbabilityDistributions;
 
-import java.util.Random;
-
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.ValueInput;
+import com.jaamsim.rng.MRG1999a;
 import com.jaamsim.units.Unit;
 import com.jaamsim.units.UserSpecifiedUnit;
 
@@ -36,7 +35,8 @@ public class LogNormalDistribution extends Distribution {
 	         example = "LogNormalDist-1 NormalStandardDeviation { 2.0 }")
 	private final ValueInput normalStandardDeviationInput;
 
-	protected final Random randomGenerator2; // second random generator for picking values
+	protected final MRG1999a randomGenerator2; // second random generator for picking values
+	private final TruncatedNormal truncatedNormal;
 
 	{
 		minValueInput.setDefaultValue(0.0);
@@ -53,7 +53,8 @@ public class LogNormalDistribution extends Distribution {
 
 
 	public LogNormalDistribution() {
-		randomGenerator2 = new Random();
+		randomGenerator2 = new MRG1999a();
+		truncatedNormal = new TruncatedNormal();
 	}
 
 	@Override
@@ -61,8 +62,7 @@ public class LogNormalDistribution extends Distribution {
 		super.earlyInit();
 
 		// Set the seed for the second random generator
-		int seed = (int) ( randomGenerator1.nextDouble() * 10000.0 );
-		randomGenerator2.setSeed( seed );
+		this.setSeedStream(randomGenerator2, 1);
 	}
 
 	@Override
@@ -78,8 +78,8 @@ public class LogNormalDistribution extends Distribution {
 		// Loop until we have a random x-y coordinate in the unit circle
 		double w, v1, v2, sample;
 		do {
-			v1 = 2.0 * randomGenerator1.nextDouble() - 1.0;
-			v2 = 2.0 * randomGenerator2.nextDouble() - 1.0;
+			v1 = 2.0 * randomGenerator1.getUniform() - 1.0;
+			v2 = 2.0 * randomGenerator2.getUniform() - 1.0;
 			w = ( v1 * v1 ) + ( v2 * v2 );
 		} while( w > 1.0 || w == 0.0 );
 
@@ -94,6 +94,29 @@ public class LogNormalDistribution extends Distribution {
 		return Math.exp( sample );
 	}
 
+	@Override
+	protected boolean setTruncation(double min, double max) {
+		double mean = normalMeanInput.getValue();
+		double sd = normalStandardDeviationInput.getValue();
+		if (sd == 0.0d || (min <= 0.0d && max == Double.POSITIVE_INFINITY))
+			return false;
+
+		double a = Double.NEGATIVE_INFINITY;
+		if (min > 0.0d)
+			a = (Math.log(min) - mean) / sd;
+		truncatedNormal.setRange(a, (Math.log(max) - mean) / sd);
+		return true;
+	}
+
+	@Override
+	protected double getTruncatedSample() {
+
+		// Inverse transform method
+		double sample = truncatedNormal.getSample(randomGenerator1.getUniform());
+		sample = normalMeanInput.getValue() + ( sample * normalStandardDeviationInput.getValue() );
+		return Math.exp( sample );
+	}
+
 	@Override
 	protected double getMeanValue() {
 		double sd = normalStandardDeviationInput.getValue();
@@ -14,10 +14,9 @@
  */
 package com.jaamsim.ProbabilityDistributions;
 
-import java.util.Random;
-
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.ValueInput;
+import com.jaamsim.rng.MRG1999a;
 import com.jaamsim.units.Unit;
 import com.jaamsim.units.UserSpecifiedUnit;
 
@@ -36,7 +35,8 @@ public class NormalDistribution extends Distribution {
 	         example = "NormalDist-1 StandardDeviation { 2.0 }")
 	private final ValueInput standardDeviationInput;
 
-	protected final Random randomGenerator2; // second random generator for picking values
+	protected final MRG1999a randomGenerator2; // second random generator for picking values
+	private final TruncatedNormal truncatedNormal;
 
 	{
 		meanInput = new ValueInput("Mean", "Key Inputs", 0.0d);
@@ -50,7 +50,8 @@ public class NormalDistribution extends Distribution {
 	}
 
 	public NormalDistribution() {
-		randomGenerator2 = new Random();
+		randomGenerator2 = new MRG1999a();
+		truncatedNormal = new TruncatedNormal();
 	}
 
 	@Override
@@ -58,8 +59,7 @@ public class NormalDistribution extends Distribution {
 		super.earlyInit();
 
 		// Set the seed for the second random generator
-		int seed = (int) ( randomGenerator1.nextDouble() * 10000.0 );
-		randomGenerator2.setSeed( seed );
+		this.setSeedStream(randomGenerator2, 1);
 	}
 
 	@Override
@@ -75,8 +75,8 @@ public class NormalDistribution extends Distribution {
 		// Loop until we have a random x-y coordinate in the unit circle
 		double w, v1, v2, sample;
 		do {
-			v1 = 2.0 * randomGenerator1.nextDouble() - 1.0;
-			v2 = 2.0 * randomGenerator2.nextDouble() - 1.0;
+			v1 = 2.0 * randomGenerator1.getUniform() - 1.0;
+			v2 = 2.0 * randomGenerator2.getUniform() - 1.0;
 			w = ( v1 * v1 ) + ( v2 * v2 );
 		} while( w > 1.0 || w == 0.0 );
 
@@ -88,6 +88,25 @@ public class NormalDistribution extends Distribution {
 		return meanInput.getValue() + ( sample * standardDeviationInput.getValue() );
 	}
 
+	@Override
+	protected boolean setTruncation(double min, double max) {
+		double mean = meanInput.getValue();
+		double sd = standardDeviationInput.getValue();
+		if (sd == 0.0d || (min == Double.NEGATIVE_INFINITY && max == Double.POSITIVE_INFINITY))
+			return false;
+
+		truncatedNormal.setRange((min - mean) / sd, (max - mean) / sd);
+		return true;
+	}
+
+	@Override
+	protected double getTruncatedSample() {
+
+		// Inverse transform method
+		double sample = truncatedNormal.getSample(randomGenerator1.getUniform());
+		return meanInput.getValue() + ( sample * standardDeviationInput.getValue() );
+	}
+
 	@Override
 	protected double getMeanValue() {
 		return meanInput.getValue();
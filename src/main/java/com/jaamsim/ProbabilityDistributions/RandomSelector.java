@@ -14,9 +14,8 @@
  */
 package com.jaamsim.ProbabilityDistributions;
 
-import java.util.Random;
-
 import com.jaamsim.input.Keyword;
+import com.jaamsim.rng.MRG1999a;
 import com.sandwell.JavaSimulation.DoubleVector;
 import com.sandwell.JavaSimulation.IntegerInput;
 
@@ -27,32 +26,35 @@ import com.sandwell.JavaSimulation.IntegerInput;
  */
 public class RandomSelector extends ObjectSelector {
 
-	@Keyword(description = "Seed for the random number generator.  Must be an integer > 0.",
+	@Keyword(description = "Seed for the random number generator.  Must be an integer > 0.  " +
+			"If no seed is given, the selector uses a stream chosen by its name that no seed selects.  " +
+			"This stream does not change when other objects are added, deleted or reordered, " +
+			"but does change if the selector is renamed.",
 			 example = "RandomSelector-1 RandomSeed { 547 }")
 	private IntegerInput randomSeedInput;
 
-	protected final Random randomGenerator;
+	protected final MRG1999a randomGenerator;
 
 	{
-		randomSeedInput = new IntegerInput("RandomSeed", "Key Inputs", 1);
+		randomSeedInput = new IntegerInput("RandomSeed", "Key Inputs", null);
 		randomSeedInput.setValidRange( 1, Integer.MAX_VALUE);
 		this.addInput(randomSeedInput, true);
 	}
 
 	public RandomSelector() {
-		randomGenerator = new Random();
+		randomGenerator = new MRG1999a();
 	}
 
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
-		randomGenerator.setSeed( randomSeedInput.getValue() );
+		randomGenerator.setSeedStream( Distribution.getStream(this, randomSeedInput), this.getContext().getReplication() );
 	}
 
 	@Override
 	protected int getNextIndex() {
 		DoubleVector probList = this.getProbabilityList();
-		double rand = randomGenerator.nextDouble();
+		double rand = randomGenerator.getUniform();
 		double cumProb = 0.0;
 		for( int i=0; i<probList.size(); i++) {
 			cumProb += probList.get(i);
@@ -63,7 +63,7 @@ public class TriangularDistribution extends Distribution {
 		double max = this.getMaxValue();
 
 		// Select the random value
-		double rand = randomGenerator1.nextDouble();
+		double rand = randomGenerator1.getUniform();
 
 		// Calculate the normalised mode
 		double m = ( modeInput.getValue() - min )/ ( max - min );
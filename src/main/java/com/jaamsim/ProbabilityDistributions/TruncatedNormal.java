@@ -0,0 +1,127 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.ProbabilityDistributions;
+
+/**
+ * Samples the standard normal distribution truncated to the range [a, b] by
+ * inverting its cumulative distribution function. Used by the Normal and
+ * LogNormal distributions when MinValue or MaxValue is set.
+ */
+final class TruncatedNormal {
+
+	// Coefficients for the inverse cumulative distribution function
+	// P.J. Acklam, "An algorithm for computing the inverse normal cumulative distribution function"
+	private static final double[] A = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+	                                     1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+	private static final double[] B = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+	                                     6.680131188771972e+01, -1.328068155288572e+01 };
+	private static final double[] C = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+	                                    -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+	private static final double[] D = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+	                                    3.754408661907416e+00 };
+	private static final double P_LOW = 0.02425;
+
+	private boolean reflected;  // true if the range is reflected about zero to lie mostly below it
+	private double lower;       // lower end of the range, after reflection
+	private double upper;       // upper end of the range, after reflection
+	private double probLow;     // cumulative probability at the lower end
+	private double probRange;   // cumulative probability between the two ends
+
+	/**
+	 * Sets the range for the samples. A range lying mostly above zero is
+	 * reflected so that the cumulative probabilities are evaluated in the
+	 * lower tail, where they are accurate.
+	 */
+	void setRange(double a, double b) {
+		reflected = (a + b > 0.0d);
+		if (reflected) {
+			lower = -b;
+			upper = -a;
+		}
+		else {
+			lower = a;
+			upper = b;
+		}
+		probLow = cdf(lower);
+		probRange = cdf(upper) - probLow;
+
+		// Both ends are too far into the tail to resolve, so return the end
+		// closest to the mean
+		if (probRange <= 0.0d)
+			lower = upper;
+	}
+
+	/**
+	 * Returns the sample corresponding to the uniform random number u.
+	 */
+	double getSample(double u) {
+		double z = inverseCdf(probLow + u * probRange);
+		if (z < lower) z = lower;
+		if (z > upper) z = upper;
+		return reflected ? -z : z;
+	}
+
+	/**
+	 * Returns the cumulative distribution function for the standard normal
+	 * distribution. Uses the Chebyshev fit for erfc(x) from W.H. Press et al.,
+	 * "Numerical Recipes", which has a fractional error below 1.2e-7.
+	 */
+	static double cdf(double z) {
+		double x = -z / Math.sqrt(2.0d);
+		double ax = Math.abs(x);
+		double t = 1.0d / (1.0d + 0.5d * ax);
+		double erfc = t * Math.exp(-ax*ax - 1.26551223 + t*(1.00002368 + t*(0.37409196 + t*(0.09678418
+				+ t*(-0.18628806 + t*(0.27886807 + t*(-1.13520398 + t*(1.48851587
+				+ t*(-0.82215223 + t*0.17087277)))))))));
+		if (x < 0.0d)
+			erfc = 2.0d - erfc;
+		return 0.5d * erfc;
+	}
+
+	/**
+	 * Returns the inverse of the cumulative distribution function for the
+	 * standard normal distribution. Acklam's rational approximation has a
+	 * relative error below 1.15e-9.
+	 */
+	static double inverseCdf(double p) {
+		if (p <= 0.0d)
+			return Double.NEGATIVE_INFINITY;
+		if (p >= 1.0d)
+			return Double.POSITIVE_INFINITY;
+
+		// Lower tail
+		if (p < P_LOW) {
+			double q = Math.sqrt(-2.0d * Math.log(p));
+			return tail(q);
+		}
+
+		// Upper tail
+		if (p > 1.0d - P_LOW) {
+			double q = Math.sqrt(-2.0d * Math.log1p(-p));
+			return -tail(q);
+		}
+
+		// Central region
+		double q = p - 0.5d;
+		double r = q * q;
+		return (((((A[0]*r + A[1])*r + A[2])*r + A[3])*r + A[4])*r + A[5])*q /
+		       (((((B[0]*r + B[1])*r + B[2])*r + B[3])*r + B[4])*r + 1.0d);
+	}
+
+	private static double tail(double q) {
+		return (((((C[0]*q + C[1])*q + C[2])*q + C[3])*q + C[4])*q + C[5]) /
+		        ((((D[0]*q + D[1])*q + D[2])*q + D[3])*q + 1.0d);
+	}
+}
@@ -24,7 +24,7 @@ public class UniformDistribution extends Distribution {
 	protected double getNextSample() {
 
 		// Select the sample from a uniform distribution between the min and max values
-		return this.getMinValue() + randomGenerator1.nextDouble() * ( this.getMaxValue() - this.getMinValue() );
+		return this.getMinValue() + randomGenerator1.getUniform() * ( this.getMaxValue() - this.getMinValue() );
 	}
 
 	@Override
@@ -36,6 +36,9 @@ public class WeibullDistribution extends Distribution {
 	         example = "WeibullDist-1 Shape { 1.0 }")
 	private final ValueInput shapeInput;
 
+	private double lowerBound;   // truncated range for the unit exponential, (x/scale)^shape
+	private double rangeProb;    // probability that a unit exponential sample lies in the truncated range
+
 	{
 		minValueInput.setDefaultValue(0.0);
 
@@ -60,7 +63,28 @@ public class WeibullDistribution extends Distribution {
 	protected double getNextSample() {
 
 		// Inverse transform method
-		return  scaleInput.getValue() * Math.pow( - Math.log( randomGenerator1.nextDouble() ), 1.0/shapeInput.getValue() );
+		return  scaleInput.getValue() * Math.pow( - Math.log( randomGenerator1.getUniform() ), 1.0/shapeInput.getValue() );
+	}
+
+	@Override
+	protected boolean setTruncation(double min, double max) {
+		double scale = scaleInput.getValue();
+		double shape = shapeInput.getValue();
+		if (scale == 0.0d || (min <= 0.0d && max == Double.POSITIVE_INFINITY))
+			return false;
+
+		// (x/scale)^shape has the unit exponential distribution
+		lowerBound = Math.pow( Math.max(min, 0.0d) / scale, shape );
+		rangeProb = - Math.expm1( lowerBound - Math.pow( max / scale, shape ) );
+		return true;
+	}
+
+	@Override
+	protected double getTruncatedSample() {
+
+		// Inverse transform method
+		double sample = lowerBound - Math.log1p( - rangeProb * randomGenerator1.getUniform() );
+		return scaleInput.getValue() * Math.pow( sample, 1.0/shapeInput.getValue() );
 	}
 
 	@Override
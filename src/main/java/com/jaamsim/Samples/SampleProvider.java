@@ -19,6 +19,7 @@ import com.jaamsim.units.Unit;
 public interface SampleProvider {
 	public Class<? extends Unit> getUnitType();
 	public double getNextSample(double simTime);
+
 	public double getMeanValue(double simTime);
 	public double getMinValue();
 	public double getMaxValue();
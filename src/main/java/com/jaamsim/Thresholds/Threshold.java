@@ -15,6 +15,9 @@
 package com.jaamsim.Thresholds;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 import com.jaamsim.events.ProcessTarget;
 import com.jaamsim.input.Keyword;
@@ -47,6 +50,8 @@ public abstract class Threshold extends DisplayEntity {
 	private final BooleanInput showWhenClosed;
 
 	protected final ArrayList<ThresholdUser> userList;
+	private boolean usersIndexed; // true once userList has been built for this run
+	private DoThresholdChanged userUpdate; // shared by all the thresholds in the run
 
 	protected boolean closed;
 
@@ -75,40 +80,97 @@ public abstract class Threshold extends DisplayEntity {
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
-		userUpdate.users.clear();
 		closed = false;
 
 		userList.clear();
-		for (Entity each : Entity.getAll()) {
-			if (each instanceof ThresholdUser) {
-				ThresholdUser tu = (ThresholdUser)each;
-				if (tu.getThresholds().contains(this))
-					userList.add(tu);
-			}
-		}
+		usersIndexed = false;
+		userUpdate = null;
 	}
 
 	@Override
 	public void startUp() {
 		super.startUp();
+		if (!usersIndexed)
+			Threshold.indexUsers();
+
 		this.clearStatistics();
 		this.doOpenClose();
 	}
 
+	/**
+	 * Builds the list of users for every threshold in a single pass over the
+	 * entities, in the order the users were defined. Called by the first
+	 * threshold to start up, after every threshold has been initialized.
+	 */
+	private static void indexUsers() {
+		DoThresholdChanged update = new DoThresholdChanged();
+		for (Threshold each : Entity.getClonesOfIterator(Threshold.class)) {
+			each.userList.clear();
+			each.usersIndexed = true;
+			each.userUpdate = update;
+		}
+
+		for (Entity each : Entity.getAll()) {
+			if (!(each instanceof ThresholdUser))
+				continue;
+
+			ThresholdUser tu = (ThresholdUser)each;
+			for (Threshold thr : tu.getThresholds()) {
+				if (thr == null || !thr.usersIndexed)
+					continue;
+
+				// A user that lists a threshold twice was added to it last
+				int n = thr.userList.size();
+				if (n > 0 && thr.userList.get(n - 1) == tu)
+					continue;
+
+				thr.userList.add(tu);
+			}
+		}
+	}
+
 	public abstract void doOpenClose();
 
-	protected static final DoThresholdChanged userUpdate = new DoThresholdChanged();
-	protected static class DoThresholdChanged extends ProcessTarget {
-		public final ArrayList<ThresholdUser> users = new ArrayList<ThresholdUser>();
+	/**
+	 * Tells the users that the threshold has opened or closed, and schedules
+	 * a single event at the present time that calls thresholdChanged() on
+	 * every user of the thresholds that have changed.
+	 */
+	protected void notifyUsers() {
+		for (ThresholdUser user : userList) {
+			userUpdate.add(user);
+			if (closed)
+				user.thresholdClosed();
+			else
+				user.thresholdOpen();
+		}
+
+		if (!userUpdate.isEmpty())
+			this.scheduleSingleProcess(userUpdate, 2);
+	}
+
+	private static class DoThresholdChanged extends ProcessTarget {
+		private final ArrayList<ThresholdUser> users = new ArrayList<ThresholdUser>();
+		private final Set<ThresholdUser> userSet = Collections.newSetFromMap(new IdentityHashMap<ThresholdUser, Boolean>());
 
 		public DoThresholdChanged() {}
 
+		void add(ThresholdUser user) {
+			if (userSet.add(user))
+				users.add(user);
+		}
+
+		boolean isEmpty() {
+			return users.isEmpty();
+		}
+
 		@Override
 		public void process() {
-			for (ThresholdUser each : users)
-				each.thresholdChanged();
+			for (int i = 0; i < users.size(); i++)
+				users.get(i).thresholdChanged();
 
 			users.clear();
+			userSet.clear();
 		}
 
 		@Override
@@ -0,0 +1,200 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.Thresholds;
+
+import java.util.Arrays;
+
+import com.jaamsim.events.Process;
+
+/**
+ * The times at which a threshold is closed, worked out once from the times at
+ * which its time series lies outside the open limits. Each of those closed
+ * intervals [a, b) closes the threshold from a - LookAhead, and intervals that
+ * are separated by less than the LookAhead are merged. For a periodic series
+ * the intervals for one period are held and the lookups are made modulo the
+ * period. Times are held in clock ticks, with the threshold Offset already
+ * applied.
+ */
+final class ThresholdSchedule {
+	private final long[] starts; // start of each closed interval
+	private final long[] ends;   // end of each closed interval
+	private final int num;
+	private final long period;   // the schedule repeats after this many ticks, or zero if it does not repeat
+	private final boolean startClosed; // true if the threshold is closed at the start of an interval
+	private final double ticksPerHour;
+
+	private int index; // the interval found by the last lookup
+
+	/**
+	 * Builds the schedule from the intervals [closeTimes[i], openTimes[i]) in
+	 * which the time series is outside the open limits, given in hours in
+	 * increasing order. For a periodic schedule these cover a single period
+	 * starting at zero, otherwise the last interval may end at infinity.
+	 */
+	ThresholdSchedule(double[] closeTimes, double[] openTimes, int n, double lookAhead, double periodHours) {
+		ticksPerHour = Process.getSimTimeFactor();
+		startClosed = (lookAhead == 0.0d);
+		long look = this.toTicks(lookAhead);
+		if (periodHours < Double.POSITIVE_INFINITY)
+			period = this.toTicks(periodHours);
+		else
+			period = 0;
+
+		// A periodic schedule holds three copies of its period, so that the
+		// intervals overlapping the period boundary and the next closure after
+		// any time in the first period are available
+		int copies = (period > 0) ? 3 : 1;
+		long[] s = new long[n * copies];
+		long[] e = new long[n * copies];
+		int count = 0;
+		for (int k = 0; k < copies; k++) {
+			for (int i = 0; i < n; i++) {
+				long start = this.toTicks(closeTimes[i]) + k * period - look;
+				long end = this.toTicks(openTimes[i]);
+				if (end != Long.MAX_VALUE)
+					end += k * period;
+
+				// Merge with the previous interval if the gap between them is
+				// shorter than the LookAhead
+				if (count > 0 && (start < e[count - 1] || (startClosed && start == e[count - 1]))) {
+					e[count - 1] = Math.max(e[count - 1], end);
+					continue;
+				}
+				s[count] = start;
+				e[count] = end;
+				count++;
+			}
+		}
+
+		// A closure that lasts for a whole period never ends
+		if (period > 0) {
+			for (int i = 0; i < count; i++) {
+				if (e[i] - s[i] >= period) {
+					s[0] = Long.MIN_VALUE;
+					e[0] = Long.MAX_VALUE;
+					count = 1;
+					break;
+				}
+			}
+		}
+
+		starts = Arrays.copyOf(s, count);
+		ends = Arrays.copyOf(e, count);
+		num = count;
+		index = 0;
+	}
+
+	private long toTicks(double hours) {
+		return Math.round(hours * ticksPerHour);
+	}
+
+	private double toHours(long ticks) {
+		if (ticks == Long.MAX_VALUE)
+			return Double.POSITIVE_INFINITY;
+
+		return ticks / ticksPerHour;
+	}
+
+	/**
+	 * Returns the given time in hours as ticks since the start of its period.
+	 */
+	private long getTickInCycle(double time) {
+		long tick = this.toTicks(time);
+		if (period == 0)
+			return tick;
+
+		tick %= period;
+		if (tick < 0)
+			tick += period;
+		return tick;
+	}
+
+	boolean isClosed(double time) {
+		long t = this.getTickInCycle(time);
+		int i = this.findInterval(t);
+		return i >= 0 && this.isInside(i, t);
+	}
+
+	/**
+	 * Returns the time in hours from the given time until the threshold
+	 * opens. The threshold must be closed at the given time.
+	 */
+	double getClosedDuration(double time) {
+		long t = this.getTickInCycle(time);
+		long end = ends[this.findInterval(t)];
+		if (end == Long.MAX_VALUE)
+			return Double.POSITIVE_INFINITY;
+
+		return this.toHours(end - t);
+	}
+
+	/**
+	 * Returns the time in hours from the given time until the threshold
+	 * closes, or infinity if it never closes. The threshold must be open at
+	 * the given time.
+	 */
+	double getOpenDuration(double time) {
+		long t = this.getTickInCycle(time);
+		int i = this.findInterval(t);
+
+		// With a LookAhead, the threshold is open at the start of an interval
+		if (i >= 0 && starts[i] == t)
+			return 0.0d;
+
+		if (i + 1 >= num)
+			return Double.POSITIVE_INFINITY;
+
+		return this.toHours(starts[i + 1] - t);
+	}
+
+	private boolean isInside(int i, long t) {
+		if (t >= ends[i])
+			return false;
+
+		return t > starts[i] || (startClosed && t == starts[i]);
+	}
+
+	/**
+	 * Returns the last interval that starts at or before the given tick, or
+	 * -1 if there is none. The interval found by the last lookup and the one
+	 * after it are checked before searching.
+	 */
+	private int findInterval(long t) {
+		int i = index;
+		if (this.isIntervalFor(i, t))
+			return i;
+
+		if (this.isIntervalFor(i + 1, t)) {
+			index = i + 1;
+			return i + 1;
+		}
+
+		// Intervals are disjoint after merging, so each start is unique
+		i = Arrays.binarySearch(starts, t);
+		if (i < 0)
+			i = -i - 2;
+
+		if (i >= 0)
+			index = i;
+		return i;
+	}
+
+	private boolean isIntervalFor(int i, long t) {
+		if (i >= num || starts[i] > t)
+			return false;
+
+		return i + 1 == num || starts[i + 1] > t;
+	}
+}
@@ -23,9 +23,12 @@ import com.jaamsim.input.ValueInput;
 import com.jaamsim.units.TimeUnit;
 import com.jaamsim.units.Unit;
 import com.jaamsim.units.UserSpecifiedUnit;
+import com.sandwell.JavaSimulation.DoubleVector;
 import com.sandwell.JavaSimulation.EntityTarget;
 import com.sandwell.JavaSimulation.Input;
 import com.sandwell.JavaSimulation.InputErrorException;
+import com.sandwell.JavaSimulation.TimeSeries;
+import com.sandwell.JavaSimulation.TimeSeriesCursor;
 import com.sandwell.JavaSimulation.TimeSeriesInput;
 import com.sandwell.JavaSimulation.TimeSeriesProvider;
 
@@ -59,6 +62,14 @@ public class TimeSeriesThreshold extends Threshold {
     example = "Threshold1  UnitType { DistanceUnit }")
 	private final UnitTypeInput unitType;
 
+	// Each input keeps its own position in its series, since the three
+	// series generally change at different times
+	private final TimeSeriesCursor seriesCursor = new TimeSeriesCursor();
+	private final TimeSeriesCursor maxCursor = new TimeSeriesCursor();
+	private final TimeSeriesCursor minCursor = new TimeSeriesCursor();
+
+	private ThresholdSchedule schedule; // the closed intervals, or null if they cannot be worked out in advance
+
 	{
 		unitType = new UnitTypeInput("UnitType", "Key Inputs", UserSpecifiedUnit.class);
 		this.addInput(unitType, true);
@@ -125,6 +136,78 @@ public class TimeSeriesThreshold extends Threshold {
 			InputAgent.logWarning( "Threshold %s is closed forever.  MinOpenLimit = %f Min TimeSeries Value = %f", this, this.getMaxMinOpenLimit(), this.getTimeSeries().getMinValue() );
 	}
 
+	@Override
+	public void earlyInit() {
+		super.earlyInit();
+		schedule = this.buildSchedule();
+	}
+
+	/**
+	 * Returns the period over which all of TimeSeries, MaxOpenLimit, and
+	 * MinOpenLimit repeat, infinity if none of them cycle, or NaN if they do
+	 * not have a common cycle time. Series whose value never changes are
+	 * ignored.
+	 */
+	private double getSchedulePeriod() {
+		double period = Double.POSITIVE_INFINITY;
+		boolean first = true;
+		for (TimeSeriesProvider each : new TimeSeriesProvider[] { this.getTimeSeries(), maxOpenLimit.getValue(), minOpenLimit.getValue() }) {
+			if (each == null || each.getMinValue() == each.getMaxValue())
+				continue;
+
+			if (!(each instanceof TimeSeries))
+				return Double.NaN;
+
+			double cycle = ((TimeSeries)each).getCycleTimeInHours();
+			if (!first && cycle != period)
+				return Double.NaN;
+
+			period = cycle;
+			first = false;
+		}
+		return period;
+	}
+
+	/**
+	 * Works out the intervals in which the time series is outside the open
+	 * limits, over one period of the series, or from the start of the run
+	 * until the last change if the series do not cycle.
+	 */
+	private ThresholdSchedule buildSchedule() {
+		double period = this.getSchedulePeriod();
+		if (Double.isNaN(period))
+			return null;
+
+		double time = 0.0d;
+		double end = period;
+		if (period == Double.POSITIVE_INFINITY)
+			time = this.getOffsetInHours();
+
+		DoubleVector closeTimes = new DoubleVector();
+		DoubleVector openTimes = new DoubleVector();
+		boolean wasClosed = false;
+		while (time < end) {
+			boolean isClosed = this.isPointClosed(time);
+			if (isClosed && !wasClosed)
+				closeTimes.add(time);
+			if (!isClosed && wasClosed)
+				openTimes.add(time);
+			wasClosed = isClosed;
+			time = this.getNextChangeTimeAfterHours(time);
+		}
+		if (wasClosed)
+			openTimes.add(end);
+
+		int n = closeTimes.size();
+		double[] close = new double[n];
+		double[] open = new double[n];
+		for (int i = 0; i < n; i++) {
+			close[i] = closeTimes.get(i);
+			open[i] = openTimes.get(i);
+		}
+		return new ThresholdSchedule(close, open, n, this.getLookAheadInHours(), period);
+	}
+
 	public Class<? extends Unit> getUnitType() {
 		return unitType.getUnitType();
 	}
@@ -138,6 +221,11 @@ public class TimeSeriesThreshold extends Threshold {
 		public void process() {
 			ent.doOpenClose();
 		}
+
+		@Override
+		public boolean isBlocking() {
+			return false;
+		}
 	}
 
 	private final ProcessTarget doOpenClose = new DoOpenCloseTarget(this, "doOpenClose");
@@ -148,25 +236,13 @@ public class TimeSeriesThreshold extends Threshold {
 		if( this.isClosedAtTime( getCurrentTime() ) ) {
 			closed = true;
 			if( traceFlag ) this.trace( "Closed" );
-			for( ThresholdUser user : userList ) {
-				if (!userUpdate.users.contains(user))
-					userUpdate.users.add(user);
-				user.thresholdClosed();
-			}
-			if (!userUpdate.users.isEmpty())
-				this.scheduleSingleProcess(userUpdate, 2);
+			this.notifyUsers();
 			wait = this.calcClosedTimeFromTime( getCurrentTime() );
 		}
 		else {
 			closed = false;
 			if( traceFlag ) this.trace( "Open" );
-			for( ThresholdUser user : userList ) {
-				if (!userUpdate.users.contains(user))
-					userUpdate.users.add(user);
-				user.thresholdOpen();
-			}
-			if (!userUpdate.users.isEmpty())
-				this.scheduleSingleProcess(userUpdate, 2);
+			this.notifyUsers();
 			wait = this.calcOpenTimeFromTime( getCurrentTime() );
 		}
 
@@ -185,6 +261,9 @@ public class TimeSeriesThreshold extends Threshold {
 		// Add offset from input
 		time += this.getOffsetInHours();
 
+		if (schedule != null)
+			return schedule.isClosed(time);
+
 		double changeTime = time;
 
 		// if the current point is closed, we are done
@@ -230,6 +309,9 @@ public class TimeSeriesThreshold extends Threshold {
 		// Add offset from input
 		startTime += this.getOffsetInHours();
 
+		if (schedule != null)
+			return schedule.getClosedDuration(startTime);
+
 		// Threshold is currently closed. Find the next open point
 		double openTime = -1;
 		double changeTime = startTime;
@@ -378,6 +460,10 @@ public class TimeSeriesThreshold extends Threshold {
 		// Add offset from input
 		startTime += this.getOffsetInHours();
 
+		// Need to wait at least one clock tick before closing again.
+		if (schedule != null)
+			return Math.max(schedule.getOpenDuration(startTime), Process.getEventTolerance());
+
 		// Find the next change point after startTime
 		double changeTime = startTime;
 		double maxTimeValueFromTimeSeries = this.getMaxTimeValueFromTimeSeries();
@@ -409,13 +495,13 @@ public class TimeSeriesThreshold extends Threshold {
 	 * @return
 	 */
 	public double getNextChangeTimeAfterHours( double time ) {
-		double firstChange = this.getTimeSeries().getNextChangeTimeAfterHours(time);
+		double firstChange = this.getTimeSeries().getNextChangeTimeAfterHours(time, seriesCursor);
 
 		if (maxOpenLimit.getValue() != null)
-			firstChange = Math.min(firstChange, maxOpenLimit.getValue().getNextChangeTimeAfterHours(time));
+			firstChange = Math.min(firstChange, maxOpenLimit.getValue().getNextChangeTimeAfterHours(time, maxCursor));
 
 		if (minOpenLimit.getValue() != null)
-			firstChange = Math.min(firstChange, minOpenLimit.getValue().getNextChangeTimeAfterHours(time));
+			firstChange = Math.min(firstChange, minOpenLimit.getValue().getNextChangeTimeAfterHours(time, minCursor));
 
 		return firstChange;
 	}
@@ -442,15 +528,15 @@ public class TimeSeriesThreshold extends Threshold {
 	 * MinOpenLimit.
 	 */
 	public boolean isPointClosed( double time ) {
-		double value = this.getTimeSeries().getValueForTimeHours(time);
+		double value = this.getTimeSeries().getValueForTimeHours(time, seriesCursor);
 
 		double minOpenLimitVal = Double.NEGATIVE_INFINITY;
 		if (minOpenLimit.getValue() != null)
-			minOpenLimitVal = minOpenLimit.getValue().getValueForTimeHours(time);
+			minOpenLimitVal = minOpenLimit.getValue().getValueForTimeHours(time, minCursor);
 
 		double maxOpenLimitVal = Double.POSITIVE_INFINITY;
 		if (maxOpenLimit.getValue() != null)
-			maxOpenLimitVal = maxOpenLimit.getValue().getValueForTimeHours(time);
+			maxOpenLimitVal = maxOpenLimit.getValue().getValueForTimeHours(time, maxCursor);
 
 		// Error check that threshold limits remain consistent
 		if (minOpenLimitVal > maxOpenLimitVal)
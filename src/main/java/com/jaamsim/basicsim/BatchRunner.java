@@ -0,0 +1,360 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.basicsim;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jaamsim.events.EventManager;
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.input.OutputHandle;
+import com.jaamsim.rng.MRG1999a;
+import com.sandwell.JavaSimulation.Entity;
+import com.sandwell.JavaSimulation.ErrorException;
+import com.sandwell.JavaSimulation.FileEntity;
+import com.sandwell.JavaSimulation.InputErrorException;
+import com.sandwell.JavaSimulation.Simulation;
+import com.sandwell.JavaSimulation.SimulationContext;
+
+/**
+ * Runs replications of a configuration file without the graphical user
+ * interface and writes selected outputs from each run to a CSV file.
+ * <p>
+ * Each scenario is an input file of keyword records that is read after the
+ * configuration file to override its inputs. Every replication is loaded into
+ * its own SimulationContext and the runs are executed in parallel on a pool of
+ * worker threads. Replication N draws each random generator from substream N
+ * of its entity's stream, which is selected by the RandomSeed input if it is
+ * given and by the entity's name otherwise, so the replications are
+ * independent.
+ * <p>
+ * Usage: BatchRunner [options] &lt;configuration file&gt;
+ * <pre>
+ *   -s, -scenario &lt;file&gt;       scenario input file (repeatable, default: the configuration as is)
+ *   -r, -replications &lt;n&gt;     replications per scenario (default: 1)
+ *   -t, -threads &lt;n&gt;          worker threads (default: available processors)
+ *   -o, -output &lt;Entity.Output&gt; output to record (repeatable)
+ *   -f, -file &lt;file&gt;           results file (default: &lt;run name&gt;-results.csv)
+ * </pre>
+ * Outputs are recorded at the end of the run in SI units, one row per run.
+ */
+public class BatchRunner {
+	private final String configFile;
+	private final ArrayList<Scenario> scenarios;
+	private final ArrayList<String> outputs;
+	private int numReplications;
+	private int numThreads;
+	private String resultsFile;
+
+	private FileEntity results;
+	private final AtomicInteger numFailed;
+	private PrintStream log; // Receives the reports of runs that failed
+
+	private static class Scenario {
+		final String name;
+		final String file;
+
+		Scenario(String name, String file) {
+			this.name = name;
+			this.file = file;
+		}
+	}
+
+	public BatchRunner(String configFile) {
+		this.configFile = configFile;
+		scenarios = new ArrayList<Scenario>();
+		outputs = new ArrayList<String>();
+		numReplications = 1;
+		numThreads = Runtime.getRuntime().availableProcessors();
+		resultsFile = null;
+		numFailed = new AtomicInteger(0);
+		log = System.err;
+	}
+
+	public void addScenario(String file) {
+		String name = new File(file).getName();
+		int index = name.indexOf('.');
+		if (index > -1)
+			name = name.substring(0, index);
+
+		scenarios.add(new Scenario(name, file));
+	}
+
+	/**
+	 * Adds an output to the results, given as &lt;Entity&gt;.&lt;Output&gt;
+	 */
+	public void addOutput(String output) {
+		if (output.lastIndexOf('.') < 1)
+			throw new InputErrorException("Output %s should be given as <Entity>.<Output>", output);
+
+		outputs.add(output);
+	}
+
+	public void setReplications(int reps) {
+		if (reps < 1)
+			throw new InputErrorException("The number of replications must be at least 1");
+		if (reps > MRG1999a.MAX_SUBSTREAMS)
+			throw new InputErrorException("The number of replications cannot exceed %d", MRG1999a.MAX_SUBSTREAMS);
+
+		numReplications = reps;
+	}
+
+	public void setThreads(int threads) {
+		if (threads < 1)
+			throw new InputErrorException("The number of threads must be at least 1");
+
+		numThreads = threads;
+	}
+
+	public void setResultsFile(String file) {
+		resultsFile = file;
+	}
+
+	/**
+	 * Sets the stream to which failed runs are reported, System.err by default.
+	 */
+	public void setLog(PrintStream log) {
+		this.log = log;
+	}
+
+	/**
+	 * Executes every replication of every scenario and returns the number of
+	 * runs that failed.
+	 */
+	public int run() throws InterruptedException {
+		if (scenarios.isEmpty())
+			scenarios.add(new Scenario("Base", null));
+
+		if (resultsFile == null) {
+			InputAgent.setConfigFileName(configFile);
+			resultsFile = InputAgent.getRunName() + "-results.csv";
+		}
+
+		results = new FileEntity(resultsFile, FileEntity.FILE_WRITE, false);
+		results.format("Scenario,Replication");
+		for (String each : outputs)
+			results.format(",%s", quote(each));
+		results.newLine();
+		results.flush();
+
+		ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+		for (Scenario scn : scenarios) {
+			for (int rep = 1; rep <= numReplications; rep++) {
+				pool.submit(new RunTask(scn, rep));
+			}
+		}
+		pool.shutdown();
+		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+
+		results.close();
+		return numFailed.get();
+	}
+
+	private class RunTask implements Callable<Void> {
+		final Scenario scenario;
+		final int replication;
+
+		RunTask(Scenario scn, int rep) {
+			scenario = scn;
+			replication = rep;
+		}
+
+		@Override
+		public Void call() {
+			String name = String.format("%s-%d", scenario.name, replication);
+			SimulationContext ctx = new SimulationContext(name);
+			ctx.setReplication(replication - 1);
+			try {
+				synchronized (SimulationContext.getLoadLock()) {
+					ctx.call(new LoadTask(scenario));
+				}
+				ctx.awaitEnd();
+				String[] vals = ctx.call(new CollectTask(ctx));
+				writeRow(scenario.name, replication, vals);
+			}
+			catch (Throwable t) {
+				numFailed.incrementAndGet();
+				log.format("Run %s failed: %s%n", name, t);
+			}
+			finally {
+				ctx.close();
+			}
+			return null;
+		}
+	}
+
+	private class LoadTask implements Callable<Void> {
+		final Scenario scenario;
+
+		LoadTask(Scenario scn) {
+			scenario = scn;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			int numErrors = InputAgent.numErrors();
+
+			InputAgent.setRecordEdits(false);
+			InputAgent.readResource("inputs/autoload.cfg");
+			if (!InputAgent.loadConfigurationFile(configFile, true))
+				throw new InputErrorException("Could not read configuration file %s", configFile);
+			if (scenario.file != null && !InputAgent.loadConfigurationFile(scenario.file, true))
+				throw new InputErrorException("Could not read scenario file %s", scenario.file);
+
+			if (InputAgent.numErrors() > numErrors)
+				throw new InputErrorException("%d input errors found", InputAgent.numErrors() - numErrors);
+
+			// Batch runs are never paced to the wall clock
+			Simulation.setRealTime(false);
+			Simulation.start();
+			Simulation.resume(Double.POSITIVE_INFINITY);
+			return null;
+		}
+	}
+
+	private class CollectTask implements Callable<String[]> {
+		final SimulationContext ctx;
+
+		CollectTask(SimulationContext ctx) {
+			this.ctx = ctx;
+		}
+
+		@Override
+		public String[] call() {
+			EventManager evt = ctx.getEventManager();
+			double simTime = evt.ticksToSeconds(evt.currentTick());
+
+			String[] vals = new String[outputs.size()];
+			for (int i = 0; i < outputs.size(); i++) {
+				String each = outputs.get(i);
+				int index = each.lastIndexOf('.');
+				String entName = each.substring(0, index);
+				String outName = each.substring(index + 1);
+
+				Entity ent = Entity.getNamedEntity(entName);
+				if (ent == null)
+					throw new ErrorException("Could not find Entity: %s", entName);
+				if (!ent.hasOutput(outName))
+					throw new ErrorException("Entity %s has no output %s", entName, outName);
+
+				OutputHandle out = ent.getOutputHandle(outName);
+				if (out.isNumericValue())
+					vals[i] = Double.toString(out.getValueAsDouble(simTime, Double.NaN));
+				else
+					vals[i] = quote(String.valueOf(out.getValue(simTime, out.getReturnType())));
+			}
+			return vals;
+		}
+	}
+
+	private void writeRow(String scenario, int rep, String[] vals) {
+		synchronized (results) {
+			results.format("%s,%d", quote(scenario), rep);
+			for (String each : vals)
+				results.format(",%s", each);
+			results.newLine();
+			results.flush();
+		}
+	}
+
+	private static String quote(String val) {
+		if (val.indexOf(',') == -1 && val.indexOf('"') == -1)
+			return val;
+
+		return "\"" + val.replace("\"", "\"\"") + "\"";
+	}
+
+	public static void main(String args[]) {
+		BatchRunner runner = null;
+		ArrayList<String> scenarioFiles = new ArrayList<String>();
+		ArrayList<String> outputList = new ArrayList<String>();
+		int reps = 1;
+		int threads = 0;
+		String file = null;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String each = args[i];
+				if (each.equalsIgnoreCase("-s") || each.equalsIgnoreCase("-scenario")) {
+					scenarioFiles.add(nextArg(args, ++i));
+					continue;
+				}
+				if (each.equalsIgnoreCase("-r") || each.equalsIgnoreCase("-replications")) {
+					reps = Integer.parseInt(nextArg(args, ++i));
+					continue;
+				}
+				if (each.equalsIgnoreCase("-t") || each.equalsIgnoreCase("-threads")) {
+					threads = Integer.parseInt(nextArg(args, ++i));
+					continue;
+				}
+				if (each.equalsIgnoreCase("-o") || each.equalsIgnoreCase("-output")) {
+					outputList.add(nextArg(args, ++i));
+					continue;
+				}
+				if (each.equalsIgnoreCase("-f") || each.equalsIgnoreCase("-file")) {
+					file = nextArg(args, ++i);
+					continue;
+				}
+				if (each.startsWith("-"))
+					throw new InputErrorException("Unknown option %s", each);
+				if (runner != null)
+					throw new InputErrorException("Only one configuration file can be run");
+
+				runner = new BatchRunner(each);
+			}
+			if (runner == null)
+				throw new InputErrorException("A configuration file must be specified");
+
+			for (String each : scenarioFiles)
+				runner.addScenario(each);
+			for (String each : outputList)
+				runner.addOutput(each);
+			runner.setReplications(reps);
+			if (threads > 0)
+				runner.setThreads(threads);
+			runner.setResultsFile(file);
+		}
+		catch (RuntimeException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: BatchRunner [-s scenario]... [-r replications] [-t threads] [-o Entity.Output]... [-f results] <configuration file>");
+			System.exit(2);
+		}
+
+		System.setProperty("java.awt.headless", "true");
+		FileEntity.setRootDirectory(System.getProperty("user.dir"));
+
+		int failed = 0;
+		try {
+			failed = runner.run();
+		}
+		catch (InterruptedException e) {
+			failed = 1;
+		}
+		System.exit(failed > 0 ? 1 : 0);
+	}
+
+	private static String nextArg(String[] args, int i) {
+		if (i >= args.length)
+			throw new InputErrorException("Missing value for %s", args[i - 1]);
+
+		return args[i];
+	}
+}
@@ -19,54 +19,75 @@ import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 import com.sandwell.JavaSimulation.Entity;
+import com.sandwell.JavaSimulation.EntityList;
+import com.sandwell.JavaSimulation.SimulationContext;
 
+/**
+ * Iterates over the entities of a class and its subclasses in the order they
+ * were defined, by merging the registry's list for each class.
+ */
 public class ClonesOfIterable<T extends Entity> implements Iterable<T>, Iterator<T> {
 
-	private final ArrayList<? extends Entity> allInstances = Entity.getAll();
+	private final ArrayList<? extends EntityList<? extends Entity>> cloneLists;
 	private final Class<T> entClass;
-	private int curPos;
-	private int nextPos;
+	private final int[] nextPos; // Position of the next entity in each list
+	private final int[] compactCount; // Each list's compaction count when its position was set
+	private long lastNum; // Entity number of the last entity returned
+	private int nextList; // The list holding the next entity, or -1 if there is none
 
 	public ClonesOfIterable(Class<T> aClass) {
 		entClass = aClass;
-		curPos = -1;
-		nextPos = -1;
+		cloneLists = SimulationContext.current().getCloneLists(aClass);
+		nextPos = new int[cloneLists.size()];
+		compactCount = new int[cloneLists.size()];
+		for (int i = 0; i < cloneLists.size(); i++)
+			compactCount[i] = cloneLists.get(i).getCompactCount();
+		lastNum = 0;
+		nextList = -1;
 	}
 
 	private void updatePos() {
-		if (nextPos >= allInstances.size())
-			return;
+		// Entity numbers increase in the order the entities were defined, so
+		// the next entity is the one with the lowest number at the head of a list
+		nextList = -1;
+		long min = Long.MAX_VALUE;
+		for (int i = 0; i < nextPos.length; i++) {
+			EntityList<? extends Entity> list = cloneLists.get(i);
+			ArrayList<? extends Entity> instances = list.getEntries();
+
+			// Find the place of the next entity again if the list has been compacted
+			if (compactCount[i] != list.getCompactCount()) {
+				nextPos[i] = list.indexAfter(lastNum);
+				compactCount[i] = list.getCompactCount();
+			}
 
-		while (++nextPos < allInstances.size()) {
-			// If we find a match, break out
-			if ( entClass.isAssignableFrom(allInstances.get(nextPos).getClass()))
-				break;
+			// Skip the places of entities killed during the iteration
+			while (nextPos[i] < instances.size() && instances.get(nextPos[i]) == null)
+				nextPos[i]++;
+
+			if (nextPos[i] < instances.size() && instances.get(nextPos[i]).getEntityNumber() < min) {
+				min = instances.get(nextPos[i]).getEntityNumber();
+				nextList = i;
+			}
 		}
 	}
 
 	@Override
 	public boolean hasNext() {
-		if (curPos == nextPos)
-			updatePos();
-
-		if (nextPos < allInstances.size())
-			return true;
-		else
-			return false;
+		updatePos();
+		return nextList >= 0;
 	}
 
 	@Override
 	public T next() {
-		if (curPos == nextPos)
-			updatePos();
-
-		if (nextPos < allInstances.size()) {
-			curPos = nextPos;
-			return entClass.cast(allInstances.get(curPos));
+		updatePos();
+		if (nextList >= 0) {
+			Entity ent = cloneLists.get(nextList).getEntries().get(nextPos[nextList]++);
+			lastNum = ent.getEntityNumber();
+			return entClass.cast(ent);
 		}
-		else {
+		else
 			throw new NoSuchElementException();
-		}
 	}
 
 	@Override
@@ -19,54 +19,55 @@ import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 import com.sandwell.JavaSimulation.Entity;
+import com.sandwell.JavaSimulation.EntityList;
+import com.sandwell.JavaSimulation.SimulationContext;
 
 public class InstanceIterable<T extends Entity> implements Iterable<T>, Iterator<T> {
 
-	private final ArrayList<? extends Entity> allInstances = Entity.getAll();
+	private final EntityList<? extends Entity> instanceList;
+	private final ArrayList<? extends Entity> instances;
 	private final Class<T> entClass;
-	private int curPos;
 	private int nextPos;
+	private int compactCount; // The list's compaction count when nextPos was set
+	private long lastNum; // Entity number of the last entity returned
 
 	public InstanceIterable(Class<T> aClass) {
 		entClass = aClass;
-		curPos = -1;
-		nextPos = -1;
+		instanceList = SimulationContext.current().getInstanceEntries(aClass);
+		instances = instanceList.getEntries();
+		nextPos = 0;
+		compactCount = instanceList.getCompactCount();
+		lastNum = 0;
 	}
 
 	private void updatePos() {
-		if (nextPos >= allInstances.size())
-			return;
-
-		while (++nextPos < allInstances.size()) {
-			// If we find a match, break out
-			if (allInstances.get(nextPos).getClass() == entClass)
-				break;
+		// Find the place of the next entity again if the list has been compacted
+		if (compactCount != instanceList.getCompactCount()) {
+			nextPos = instanceList.indexAfter(lastNum);
+			compactCount = instanceList.getCompactCount();
 		}
+
+		// Skip the places of entities killed during the iteration
+		while (nextPos < instances.size() && instances.get(nextPos) == null)
+			nextPos++;
 	}
 
 	@Override
 	public boolean hasNext() {
-		if (curPos == nextPos)
-			updatePos();
-
-		if (nextPos < allInstances.size())
-			return true;
-		else
-			return false;
+		updatePos();
+		return nextPos < instances.size();
 	}
 
 	@Override
 	public T next() {
-		if (curPos == nextPos)
-			updatePos();
-
-		if (nextPos < allInstances.size()) {
-			curPos = nextPos;
-			return entClass.cast(allInstances.get(curPos));
+		updatePos();
+		if (nextPos < instances.size()) {
+			Entity ent = instances.get(nextPos++);
+			lastNum = ent.getEntityNumber();
+			return entClass.cast(ent);
 		}
-		else {
+		else
 			throw new NoSuchElementException();
-		}
 	}
 
 	@Override
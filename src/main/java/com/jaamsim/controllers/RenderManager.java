@@ -380,6 +380,8 @@ public class RenderManager implements DragSourceListener {
 					catch (IndexOutOfBoundsException e) {
 						break;
 					}
+					if (de == null)
+						continue;
 
 					try {
 						de.updateGraphics(renderTime);
@@ -401,6 +403,8 @@ public class RenderManager implements DragSourceListener {
 						// This is probably the end of the list, so just move on
 						break;
 					}
+					if (de == null)
+						continue;
 
 					for (DisplayModelBinding binding : de.getDisplayBindings()) {
 						try {
@@ -0,0 +1,249 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.events;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * An EventList implemented as a calendar queue (R. Brown, 1988). Events are
+ * hashed by their scheduled tick into an array of buckets, each covering a
+ * fixed width of simulation ticks, so that inserting and removing the next
+ * event take O(1) expected time. The number of buckets and the bucket width
+ * are recalculated whenever the number of events doubles or halves.
+ *
+ * Each bucket is held in descending order, so the earliest event in a bucket
+ * is always the last element of its list.
+ */
+public class CalendarQueue implements EventList {
+	private static final int MIN_BUCKETS = 16;
+	private static final int SAMPLE_SIZE = 25;
+
+	private ArrayList<ArrayList<Event>> buckets;
+	private int mask;   // number of buckets - 1, the number of buckets is a power of 2
+	private long width; // number of ticks covered by each bucket
+	private int size;
+
+	private int curBucket; // the bucket holding the earliest event
+	private long curStart; // first tick covered by curBucket in the current year
+
+	public CalendarQueue() {
+		init(MIN_BUCKETS, 1);
+	}
+
+	private void init(int numBuckets, long bucketWidth) {
+		buckets = new ArrayList<ArrayList<Event>>(numBuckets);
+		for (int i = 0; i < numBuckets; i++)
+			buckets.add(new ArrayList<Event>());
+
+		mask = numBuckets - 1;
+		width = bucketWidth;
+		size = 0;
+		curBucket = 0;
+		curStart = 0;
+	}
+
+	private int bucketIndex(long tick) {
+		return (int)((tick / width) & mask);
+	}
+
+	private void setPosition(long tick) {
+		curStart = tick - (tick % width);
+		curBucket = bucketIndex(tick);
+	}
+
+	/**
+	 * Returns the index within the descending bucket list at which the given
+	 * event is or would be located.
+	 */
+	private static int search(ArrayList<Event> bucket, Event e) {
+		int lo = 0;
+		int hi = bucket.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (bucket.get(mid).compareTo(e) > 0)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	@Override
+	public void insert(Event e) {
+		// All events must lie at or after the start of the current bucket
+		if (size == 0 || e.schedTick < curStart)
+			setPosition(e.schedTick);
+
+		ArrayList<Event> bucket = buckets.get(bucketIndex(e.schedTick));
+		bucket.add(search(bucket, e), e);
+		size++;
+
+		if (size > 2 * buckets.size())
+			resize(buckets.size() * 2);
+	}
+
+	/**
+	 * Locate the bucket holding the earliest event and make it the current
+	 * bucket. Must not be called on an empty queue.
+	 */
+	private ArrayList<Event> findFirst() {
+		int b = curBucket;
+		long start = curStart;
+		for (int n = 0; n <= mask; n++) {
+			ArrayList<Event> bucket = buckets.get(b);
+			if (!bucket.isEmpty() && bucket.get(bucket.size() - 1).schedTick - start < width) {
+				curBucket = b;
+				curStart = start;
+				return bucket;
+			}
+
+			if (start > Long.MAX_VALUE - width)
+				break;
+
+			b = (b + 1) & mask;
+			start += width;
+		}
+
+		// No event within the next year, fall back to a direct search of the
+		// earliest event in each bucket
+		Event first = null;
+		for (ArrayList<Event> bucket : buckets) {
+			if (bucket.isEmpty())
+				continue;
+
+			Event each = bucket.get(bucket.size() - 1);
+			if (first == null || each.compareTo(first) < 0)
+				first = each;
+		}
+		setPosition(first.schedTick);
+		return buckets.get(curBucket);
+	}
+
+	@Override
+	public Event peek() {
+		if (size == 0)
+			return null;
+
+		ArrayList<Event> bucket = findFirst();
+		return bucket.get(bucket.size() - 1);
+	}
+
+	@Override
+	public Event removeFirst() {
+		if (size == 0)
+			return null;
+
+		ArrayList<Event> bucket = findFirst();
+		Event first = bucket.remove(bucket.size() - 1);
+		size--;
+
+		if (size < buckets.size() / 2 && buckets.size() > MIN_BUCKETS)
+			resize(buckets.size() / 2);
+
+		return first;
+	}
+
+	@Override
+	public boolean remove(Event e) {
+		ArrayList<Event> bucket = buckets.get(bucketIndex(e.schedTick));
+		int i = search(bucket, e);
+		if (i >= bucket.size() || bucket.get(i) != e)
+			return false;
+
+		bucket.remove(i);
+		size--;
+
+		if (size < buckets.size() / 2 && buckets.size() > MIN_BUCKETS)
+			resize(buckets.size() / 2);
+
+		return true;
+	}
+
+	@Override
+	public Event[] toArray() {
+		Event[] ret = new Event[size];
+		int i = 0;
+		for (ArrayList<Event> bucket : buckets) {
+			for (Event each : bucket)
+				ret[i++] = each;
+		}
+		return ret;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void clear() {
+		init(MIN_BUCKETS, 1);
+	}
+
+	/**
+	 * Rebuild the queue with the given number of buckets, estimating a new
+	 * bucket width from the separation of the earliest events.
+	 */
+	private void resize(int numBuckets) {
+		Event[] events = toArray();
+		Arrays.sort(events);
+
+		init(numBuckets, calcWidth(events));
+		// Add the events latest first so that each bucket is built in descending order
+		for (int i = events.length - 1; i >= 0; i--) {
+			buckets.get(bucketIndex(events[i].schedTick)).add(events[i]);
+		}
+		size = events.length;
+		if (size > 0)
+			setPosition(events[0].schedTick);
+	}
+
+	/**
+	 * Returns three times the average separation of the earliest events,
+	 * ignoring separations more than twice the initial average.
+	 */
+	private static long calcWidth(Event[] sorted) {
+		int n = Math.min(sorted.length, SAMPLE_SIZE);
+		if (n < 2)
+			return 1;
+
+		long first = sorted[0].schedTick;
+		long last = sorted[n - 1].schedTick;
+		long avg = (last - first) / (n - 1);
+
+		long total = 0;
+		int count = 0;
+		for (int i = 1; i < n; i++) {
+			long sep = sorted[i].schedTick - sorted[i - 1].schedTick;
+			if (sep > 2 * avg)
+				continue;
+			total += sep;
+			count++;
+		}
+		if (count > 0)
+			avg = total / count;
+
+		if (avg > Long.MAX_VALUE / 4)
+			return Long.MAX_VALUE / 4;
+
+		return Math.max(1, 3 * avg);
+	}
+}
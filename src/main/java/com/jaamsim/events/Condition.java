@@ -0,0 +1,47 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.events;
+
+import java.util.ArrayList;
+
+/**
+ * A condition that processes can wait on using EventManager.waitUntil(Condition).
+ * Unlike the polling form of waitUntil(), the waiting processes are not
+ * re-evaluated before every advance of simulation time, only after the
+ * condition has been signalled with EventManager.signal(Condition) by the
+ * entity whose state it depends on.
+ *
+ * A waiting process re-tests its own condition when woken, exactly as for the
+ * polling form:
+ * <pre>
+ * while (!isSatisfied())
+ *     waitUntil(cond);
+ * waitUntilEnded();
+ * </pre>
+ */
+public final class Condition {
+	private final String name;
+	final ArrayList<Process> waiters; // Processes waiting for this condition to be signalled
+
+	public Condition(String name) {
+		this.name = name;
+		waiters = new ArrayList<Process>();
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
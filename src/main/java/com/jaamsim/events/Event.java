@@ -18,10 +18,13 @@ package com.jaamsim.events;
  * Holder class for event data used by the event monitor to schedule future
  * events.
  */
-public class Event {
+public class Event implements Comparable<Event> {
 	public final long addedTick; // The tick at which this event was queued to execute
 	public final long schedTick; // The tick at which this event will execute
 	public final int priority;   // The schedule priority of this event
+	long seqNum;                 // Tie-breaker for events of equal time and priority
+	int listIndex;               // Bookkeeping slot for the EventList holding this event
+	Event nextForTarget;         // The next pending event with the same ProcessTarget
 
 	final ProcessTarget target;
 	final Process process;
@@ -41,6 +44,26 @@ public class Event {
 
 		this.target = target;
 		this.process = process;
+		listIndex = -1;
+	}
+
+	/**
+	 * Orders events by scheduled tick, then priority, then sequence number.
+	 * Sequence numbers are unique within an EventManager, so two distinct
+	 * events never compare as equal.
+	 */
+	@Override
+	public int compareTo(Event e) {
+		if (schedTick != e.schedTick)
+			return schedTick < e.schedTick ? -1 : 1;
+
+		if (priority != e.priority)
+			return priority < e.priority ? -1 : 1;
+
+		if (seqNum != e.seqNum)
+			return seqNum < e.seqNum ? -1 : 1;
+
+		return 0;
 	}
 
 	public String getDesc() {
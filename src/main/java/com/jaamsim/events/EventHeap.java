@@ -0,0 +1,143 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.events;
+
+import java.util.Arrays;
+
+/**
+ * An EventList backed by an array-based binary heap. Each Event records its
+ * position in the heap so that arbitrary events can be removed in O(log n).
+ */
+public class EventHeap implements EventList {
+	private Event[] heap;
+	private int size;
+
+	public EventHeap() {
+		heap = new Event[64];
+		size = 0;
+	}
+
+	@Override
+	public void insert(Event e) {
+		if (size == heap.length)
+			heap = Arrays.copyOf(heap, size * 2);
+
+		siftUp(size, e);
+		size++;
+	}
+
+	@Override
+	public Event peek() {
+		if (size == 0)
+			return null;
+
+		return heap[0];
+	}
+
+	@Override
+	public Event removeFirst() {
+		if (size == 0)
+			return null;
+
+		Event first = heap[0];
+		removeAt(0);
+		return first;
+	}
+
+	@Override
+	public boolean remove(Event e) {
+		int i = e.listIndex;
+		if (i < 0 || i >= size || heap[i] != e)
+			return false;
+
+		removeAt(i);
+		return true;
+	}
+
+	@Override
+	public Event[] toArray() {
+		return Arrays.copyOf(heap, size);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			heap[i].listIndex = -1;
+			heap[i] = null;
+		}
+		size = 0;
+	}
+
+	private void removeAt(int i) {
+		heap[i].listIndex = -1;
+		size--;
+		Event last = heap[size];
+		heap[size] = null;
+		if (i == size)
+			return;
+
+		// Move the last event into the hole, it may need to travel either way
+		siftDown(i, last);
+		if (heap[i] == last)
+			siftUp(i, last);
+	}
+
+	private void siftUp(int i, Event e) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			Event p = heap[parent];
+			if (e.compareTo(p) >= 0)
+				break;
+
+			heap[i] = p;
+			p.listIndex = i;
+			i = parent;
+		}
+		heap[i] = e;
+		e.listIndex = i;
+	}
+
+	private void siftDown(int i, Event e) {
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			Event c = heap[child];
+			int right = child + 1;
+			if (right < size && heap[right].compareTo(c) < 0) {
+				child = right;
+				c = heap[child];
+			}
+
+			if (e.compareTo(c) <= 0)
+				break;
+
+			heap[i] = c;
+			c.listIndex = i;
+			i = child;
+		}
+		heap[i] = e;
+		e.listIndex = i;
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.events;
+
+/**
+ * The future event list used by an EventManager. Implementations must return
+ * events in the order defined by Event.compareTo(), that is by scheduled tick,
+ * then priority, then sequence number.
+ *
+ * An EventList is only ever accessed while holding the EventManager's lock and
+ * does not need to provide its own synchronization.
+ */
+public interface EventList {
+	/**
+	 * Adds the given event to the list.
+	 */
+	public void insert(Event e);
+
+	/**
+	 * Returns the first event in the list without removing it, or null if the
+	 * list is empty.
+	 */
+	public Event peek();
+
+	/**
+	 * Removes and returns the first event in the list, or null if the list is
+	 * empty.
+	 */
+	public Event removeFirst();
+
+	/**
+	 * Removes the given event from the list.
+	 * @return true if the event was found and removed
+	 */
+	public boolean remove(Event e);
+
+	/**
+	 * Returns an array of all the events in the list in no particular order.
+	 */
+	public Event[] toArray();
+
+	public int size();
+	public boolean isEmpty();
+	public void clear();
+}
@@ -15,6 +15,11 @@
 package com.jaamsim.events;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.sandwell.JavaSimulation.ErrorException;
 
@@ -28,9 +33,15 @@ import com.sandwell.JavaSimulation.ErrorException;
  * <li>1 - The execution time scheduled for the event
  * <li>2 - The priority of the event (if scheduled to occur at the same time)
  * <li>3 - If both 1) and 2) are equal, the order in which the event was
- * scheduled (FILO - Stack ordering)
+ * scheduled (FILO - Stack ordering, or FIFO if requested)
  * </ul>
  * <p>
+ * The future events are held in an EventList, a binary heap by default. The
+ * ordering in 3) is enforced by assigning each event a sequence number when
+ * it is scheduled, decreasing for LIFO events and increasing for FIFO events.
+ * Pending events are also indexed by Process and by ProcessTarget so that they
+ * can be found for interrupts and terminations without searching the list.
+ * <p>
  * The event time is scheduled using a backing long value. Double valued time is
  * taken in by the scheduleWait function and scaled to the nearest long value
  * using the simTimeFactor.
@@ -39,6 +50,23 @@ import com.sandwell.JavaSimulation.ErrorException;
  * that after each event has finished, along with any spawned events, the
  * program control will pass back to the EventManager.
  * <p>
+ * Exactly one thread, the activeThread, has control of the model at any time.
+ * Control is passed directly to the next thread by recording it as the
+ * activeThread and unparking it, every other thread stays parked until it is
+ * given control again or is woken to terminate.
+ * <p>
+ * Conditional waits can either poll, in which case the process re-tests its
+ * condition before every advance of simulation time, or wait on a Condition,
+ * in which case it is only re-tested after the Condition has been signalled.
+ * <p>
+ * Events for ProcessTargets that are not blocking are executed directly on
+ * the EventManager thread without involving a Process.
+ * <p>
+ * Sampling targets, such as the data collection for graphs, are executed at
+ * fixed intervals of simulation time as the time is advanced. They are held
+ * outside the future event list, so they do not change the order of the
+ * events or appear in the event trace.
+ * <p>
  * The runnable interface is implemented so that the eventManager runs as a
  * separate thread.
  * <p>
@@ -48,16 +76,32 @@ import com.sandwell.JavaSimulation.ErrorException;
 public final class EventManager implements Runnable {
 	public final String name;
 
-	private final Object lockObject; // Object used as global lock for synchronization
-	private final ArrayList<Event> eventStack;
+	private final ReentrantLock lockObject; // Global lock for synchronization
+	private volatile Thread activeThread; // The thread that currently has control of the model
+	private ProcessTarget inlineTarget; // The non-blocking target being executed by the EventManager thread
+	private final EventList eventList; // The future events, in execution order
+	private long lifoSeqNum; // The last sequence number given to a LIFO event (counts down)
+	private long fifoSeqNum; // The last sequence number given to a FIFO event (counts up)
+	private final HashMap<Process, Event> processEvents; // The pending event for each waiting Process
+	private final IdentityHashMap<ProcessTarget, Event> targetEvents; // The most recent pending event for each ProcessTarget
 	private boolean executeEvents;
 
 	private final ArrayList<Process> conditionalList; // List of all conditionally waiting processes
+	private final ArrayList<Sampler> samplers; // The targets executed at fixed intervals of simulation time
+	private long nextSampleTick; // The earliest tick at which a sampling target is due
+	private final HashSet<Process> conditionWaiters; // All processes waiting on a Condition
+	private final ArrayList<Process> signalledList; // Processes whose Condition has been signalled since the last evaluation
+	private final ArrayList<Process> evaluationList; // Processes being woken to test their conditions
 	private final Thread eventManagerThread;
 
 	private long currentTick; // Master simulation time (long)
 	private long nextTick; // The next tick to execute events at
 	private long targetTick; // the largest time we will execute events for (run to time)
+	private boolean shutdown; // TRUE if the event loop is to exit at its next pause
+
+	private double timeScale; // the scale from discrete to continuous time
+	private double ticksPerSecond; // The number of discrete ticks per simulated second
+	private double secondsPerTick; // The reciprocal of ticksPerSecond
 
 	// Real time execution state
 	private long realTimeTick;    // the simulation tick corresponding to the wall-clock millis value
@@ -70,28 +114,43 @@ public final class EventManager implements Runnable {
 	private EventTimeListener timelistener;
 	private EventErrorListener errListener;
 	private EventTraceListener trcListener;
+	private final EventMetrics metrics;
 
 	/**
 	 * Allocates a new EventManager with the given parent and name
 	 *
 	 * @param parent the connection point for this EventManager in the tree
 	 * @param name the name this EventManager should use
+	 * @param list the future event list implementation to use
 	 */
-	private EventManager(String name) {
+	private EventManager(String name, EventList list) {
 		// Basic initialization
 		this.name = name;
-		lockObject = new Object();
+		lockObject = new ReentrantLock();
+		activeThread = null;
 
 		// Initialize the thread which processes events from this EventManager
-		eventManagerThread = new Thread(this, "evt-" + name);
+		eventManagerThread = new EventThread(this, "evt-" + name);
 
 		// Initialize and event lists and timekeeping variables
 		currentTick = 0;
 		nextTick = 0;
-		eventStack = new ArrayList<Event>();
+		eventList = list;
+		lifoSeqNum = 0;
+		fifoSeqNum = 0;
+		processEvents = new HashMap<Process, Event>();
+		targetEvents = new IdentityHashMap<ProcessTarget, Event>();
 		conditionalList = new ArrayList<Process>();
+		samplers = new ArrayList<Sampler>();
+		nextSampleTick = Long.MAX_VALUE;
+		conditionWaiters = new HashSet<Process>();
+		signalledList = new ArrayList<Process>();
+		evaluationList = new ArrayList<Process>();
+		metrics = new EventMetrics();
 
 		executeEvents = false;
+		shutdown = false;
+		setSimTimeScale(Process.getSimTimeFactor());
 		executeRealTime = false;
 		realTimeFactor = 1;
 		rebaseRealTime = true;
@@ -99,6 +158,34 @@ public final class EventManager implements Runnable {
 		setErrorListener(null);
 	}
 
+	/**
+	 * The thread that runs the event loop, it also executes the non-blocking
+	 * ProcessTargets.
+	 */
+	private static final class EventThread extends Thread {
+		final EventManager evt;
+
+		EventThread(EventManager evt, String name) {
+			super(evt, name);
+			this.evt = evt;
+		}
+	}
+
+	/**
+	 * Returns the EventManager in control of the calling thread, or null if
+	 * the caller is neither a Process nor an EventManager thread.
+	 */
+	public static EventManager current() {
+		Thread cur = Thread.currentThread();
+		if (cur instanceof Process)
+			return ((Process)cur).getEventManager();
+
+		if (cur instanceof EventThread)
+			return ((EventThread)cur).evt;
+
+		return null;
+	}
+
 	// Used to handshake with the calling thread and make sure the evt thread
 	// has made it to the first wait state
 	private static class InitListener implements EventTimeListener {
@@ -119,7 +206,11 @@ public final class EventManager implements Runnable {
 	}
 
 	public static EventManager initEventManager(String name) {
-		EventManager evtman = new EventManager(name);
+		return initEventManager(name, new EventHeap());
+	}
+
+	public static EventManager initEventManager(String name, EventList list) {
+		EventManager evtman = new EventManager(name, list);
 		InitListener e = new InitListener();
 		synchronized (e) {
 			evtman.setTimeListener(e);
@@ -134,38 +225,51 @@ public final class EventManager implements Runnable {
 	}
 
 	public final void setTimeListener(EventTimeListener l) {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			if (l != null)
 				timelistener = l;
 			else
 				timelistener = new DefaultTimeListener();
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	public final void setErrorListener(EventErrorListener l) {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			if (l != null)
 				errListener = l;
 			else
 				errListener = new DefaultErrorListener();
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	public final void setTraceListener(EventTraceListener l) {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			trcListener = l;
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	public void clear() {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			currentTick = 0;
 			nextTick = 0;
 			targetTick = Long.MAX_VALUE;
 			rebaseRealTime = true;
 
 			// Kill threads on the event stack
-			for (Event each : eventStack) {
+			for (Event each : eventList.toArray()) {
 				if (each.process == null)
 					continue;
 
@@ -174,9 +278,13 @@ public final class EventManager implements Runnable {
 				}
 
 				each.process.setFlag(Process.TERMINATE);
-				each.process.interrupt();
+				LockSupport.unpark(each.process);
 			}
-			eventStack.clear();
+			eventList.clear();
+			processEvents.clear();
+			targetEvents.clear();
+			lifoSeqNum = 0;
+			fifoSeqNum = 0;
 
 			// Kill conditional threads
 			for (Process each : conditionalList) {
@@ -185,9 +293,29 @@ public final class EventManager implements Runnable {
 				}
 
 				each.setFlag(Process.TERMINATE);
-				each.interrupt();
+				LockSupport.unpark(each);
 			}
 			conditionalList.clear();
+
+			// Kill threads waiting on a Condition
+			for (Process each : conditionWaiters) {
+				if (each.testFlag(Process.ACTIVE)) {
+					throw new ErrorException( "Cannot terminate an active thread" );
+				}
+
+				each.getWaitCondition().waiters.clear();
+				each.setWaitCondition(null);
+				each.setFlag(Process.TERMINATE);
+				LockSupport.unpark(each);
+			}
+			conditionWaiters.clear();
+			signalledList.clear();
+			samplers.clear();
+			nextSampleTick = Long.MAX_VALUE;
+			metrics.reset();
+		}
+		finally {
+			lockObject.unlock();
 		}
 	}
 
@@ -201,55 +329,81 @@ public final class EventManager implements Runnable {
 	 */
 	@Override
 	public void run() {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			// Loop continuously
 			while (true) {
-				if (eventStack.isEmpty() ||
-				    eventStack.get(0).schedTick >= targetTick) {
+				Event firstEvent = eventList.peek();
+				if (firstEvent == null ||
+				    firstEvent.schedTick >= targetTick) {
 					executeEvents = false;
 				}
 
 				if (!executeEvents) {
+					if (shutdown)
+						return;
+
+					// Give up control until resume() hands it back
+					activeThread = null;
+					metrics.runStopped();
 					timelistener.timeRunning(false);
 					this.threadWait();
 					timelistener.timeRunning(true);
+					metrics.runStarted();
 					continue;
 				}
 
 				// If the next event is at the current tick, execute it
-				if (eventStack.get(0).schedTick == currentTick) {
+				if (firstEvent.schedTick == currentTick) {
 					// Remove the event from the future events
-					Event nextEvent = eventStack.remove(0);
+					Event nextEvent = eventList.removeFirst();
+					removeFromIndex(nextEvent);
+					metrics.eventListChanged(eventList.size());
 					if (trcListener != null) trcListener.traceEvent(this, nextEvent);
+					long startNanos = System.nanoTime();
 					Process p = nextEvent.process;
+					if (p == null && !nextEvent.target.isBlocking()) {
+						executeInline(nextEvent.target);
+						metrics.eventExecuted(nextEvent.target.getClass(), System.nanoTime() - startNanos);
+						continue;
+					}
 					if (p == null)
 						p = Process.allocate(this, nextEvent.target);
+					Class<?> klass = p.getTargetClass();
 					// Pass control to this event's thread
 					p.setNextProcess(null);
 					switchThread(p);
+					metrics.eventExecuted(klass, System.nanoTime() - startNanos);
 					continue;
 				}
 
 				// If the next event would require us to advance the time, check the
 				// conditonal events
-				if (eventStack.get(0).schedTick > nextTick) {
-					if (conditionalList.size() > 0) {
+				if (firstEvent.schedTick > nextTick) {
+					// Test the polling conditions and those that have been signalled
+					evaluationList.addAll(conditionalList);
+					evaluationList.addAll(signalledList);
+					signalledList.clear();
+					if (evaluationList.size() > 0) {
 						// Loop through the conditions in reverse order and add to the linked
 						// list of active threads
-						for (int i = 0; i < conditionalList.size() - 1; i++) {
-							conditionalList.get(i).setNextProcess(conditionalList.get(i + 1));
+						for (int i = 0; i < evaluationList.size() - 1; i++) {
+							evaluationList.get(i).setNextProcess(evaluationList.get(i + 1));
 						}
-						conditionalList.get(conditionalList.size() - 1).setNextProcess(null);
+						evaluationList.get(evaluationList.size() - 1).setNextProcess(null);
 
 						// Wake up the first conditional thread to be tested
-						// at this point, nextThread == conditionalList.get(0)
-						switchThread(conditionalList.get(0));
+						// at this point, nextThread == evaluationList.get(0)
+						Process first = evaluationList.get(0);
+						metrics.conditionsEvaluated(evaluationList.size());
+						evaluationList.clear();
+						switchThread(first);
 					}
 
 					// If a conditional event was satisfied, we will have a new event at the
 					// beginning of the eventStack for the current tick, go back to the
 					// beginning, otherwise fall through to the time-advance
-					nextTick = eventStack.get(0).schedTick;
+					nextTick = eventList.peek().schedTick;
 					if (nextTick == currentTick)
 						continue;
 				}
@@ -259,20 +413,206 @@ public final class EventManager implements Runnable {
 					// Loop until the next event time is reached
 					long realTick = this.calcRealTimeTick();
 					if (realTick < nextTick) {
+						if (!executeSamplers(realTick))
+							continue;
+
 						// Update the displayed simulation time
 						currentTick = realTick;
 						timelistener.tickUpdate(currentTick);
 						//Halt the thread for 20ms and then reevaluate the loop
-						try { lockObject.wait(20); } catch( InterruptedException e ) {}
+						long sleepNanos = System.nanoTime();
+						threadSleep(20);
+						metrics.realTimeWait(System.nanoTime() - sleepNanos);
 						continue;
 					}
 				}
 
+				// Collect any samples that are due before the next event
+				if (!executeSamplers(nextTick))
+					continue;
+
 				// advance time
 				currentTick = nextTick;
 				timelistener.tickUpdate(currentTick);
 			}
 		}
+		finally {
+			lockObject.unlock();
+		}
+	}
+
+	/**
+	 * Executes a non-blocking target on the EventManager thread. The global
+	 * lock is released while the target runs, as it would be for a Process.
+	 * <p>
+	 * Must hold the lockObject when calling this method.
+	 */
+	private void executeInline(ProcessTarget t) {
+		Throwable err = this.runInline(t);
+		if (err != null) {
+			handleProcessError(err);
+			return;
+		}
+
+		if (trcListener != null) trcListener.traceProcessEnd(this);
+	}
+
+	/**
+	 * Runs a non-blocking target on the EventManager thread with the global
+	 * lock released, returning any error that it throws.
+	 * <p>
+	 * Must hold the lockObject when calling this method.
+	 */
+	private Throwable runInline(ProcessTarget t) {
+		Throwable err = null;
+		int holds = lockObject.getHoldCount();
+		for (int i = 0; i < holds; i++)
+			lockObject.unlock();
+
+		try {
+			inlineTarget = t;
+			t.process();
+		}
+		catch (Throwable e) {
+			err = e;
+		}
+		finally {
+			inlineTarget = null;
+			for (int i = 0; i < holds; i++)
+				lockObject.lock();
+		}
+		return err;
+	}
+
+	private static final class Sampler {
+		final ProcessTarget target;
+		final long interval;
+		long nextTick;
+
+		Sampler(ProcessTarget target, long interval, long nextTick) {
+			this.target = target;
+			this.interval = interval;
+			this.nextTick = nextTick;
+		}
+	}
+
+	/**
+	 * Executes the sampling targets that are due before the given tick. Each
+	 * target is executed with the simulation time set to its sample tick,
+	 * after all the events up to and including that tick. Stops early if a
+	 * target schedules an event before the given tick, so that the event is
+	 * executed before any later samples are taken.
+	 * <p>
+	 * Must hold the lockObject when calling this method.
+	 * @return false if the next event must be re-read before advancing the
+	 *         time, either because a target scheduled an earlier event or
+	 *         because a target failed and the run has been paused
+	 */
+	private boolean executeSamplers(long tick) {
+		while (nextSampleTick < tick) {
+			currentTick = nextSampleTick;
+			for (Sampler each : samplers.toArray(new Sampler[samplers.size()])) {
+				// Skip targets that are not due or were cancelled by an earlier one
+				if (each.nextTick != currentTick)
+					continue;
+
+				each.nextTick += each.interval;
+				Throwable err = this.runInline(each.target);
+				if (err != null) {
+					this.updateNextSampleTick();
+					handleProcessError(err);
+					return false;
+				}
+			}
+			this.updateNextSampleTick();
+
+			// A target scheduled an earlier event, go back and execute it from
+			// the sample time, testing the conditions again before advancing
+			Event next = eventList.peek();
+			if (next != null && next.schedTick < tick) {
+				nextTick = currentTick;
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void updateNextSampleTick() {
+		nextSampleTick = Long.MAX_VALUE;
+		for (Sampler each : samplers)
+			nextSampleTick = Math.min(nextSampleTick, each.nextTick);
+	}
+
+	/**
+	 * Executes the given non-blocking target every interval ticks, starting
+	 * interval ticks from the present time. The target is executed on the
+	 * EventManager thread as the simulation time is advanced, and is not
+	 * placed on the future event list. Replaces any sampling already set for
+	 * the target.
+	 */
+	public void scheduleSampling(long interval, ProcessTarget t) {
+		if (interval <= 0)
+			throw new ErrorException("Sampling interval must be greater than zero: %d", interval);
+
+		lockObject.lock();
+		try {
+			this.removeSampler(t);
+			samplers.add(new Sampler(t, interval, currentTick + interval));
+			this.updateNextSampleTick();
+		}
+		finally {
+			lockObject.unlock();
+		}
+	}
+
+	/**
+	 * Stops the sampling set for the given target by scheduleSampling.
+	 */
+	public void cancelSampling(ProcessTarget t) {
+		lockObject.lock();
+		try {
+			this.removeSampler(t);
+			this.updateNextSampleTick();
+		}
+		finally {
+			lockObject.unlock();
+		}
+	}
+
+	private void removeSampler(ProcessTarget t) {
+		for (int i = 0; i < samplers.size(); i++) {
+			Sampler each = samplers.get(i);
+			if (each.target != t)
+				continue;
+
+			each.nextTick = Long.MAX_VALUE;
+			samplers.remove(i);
+			return;
+		}
+	}
+
+	/**
+	 * Returns the calling Process, or null if called by the EventManager
+	 * thread while executing a non-blocking target. When null is used as the
+	 * next process, control returns to the EventManager thread.
+	 */
+	private Process currentProcess() {
+		if (Thread.currentThread() == eventManagerThread)
+			return null;
+
+		return Process.current();
+	}
+
+	/**
+	 * Throws an error if called from a non-blocking target executing on the
+	 * EventManager thread.
+	 */
+	private void assertCanBlock() {
+		if (Thread.currentThread() != eventManagerThread)
+			return;
+
+		String desc = inlineTarget != null ? inlineTarget.getDescription() : name;
+		throw new ErrorException("Non-blocking target %s attempted to wait", desc);
 	}
 
 	/**
@@ -289,7 +629,7 @@ public final class EventManager implements Runnable {
 		}
 
 		double simElapsedsec = ((curMS - realTimeMillis) * realTimeFactor) / 1000.0d;
-		long simElapsedTicks = Process.secondsToTicks(simElapsedsec);
+		long simElapsedTicks = this.secondsToTicks(simElapsedsec);
 		return realTimeTick + simElapsedTicks;
 	}
 
@@ -298,18 +638,22 @@ public final class EventManager implements Runnable {
 	 * the threadStack one level.
 	 */
 	void releaseProcess() {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			assertNotWaitUntil();
 			if (trcListener != null) trcListener.traceProcessEnd(this);
 			Process next = Process.current().getNextProcess();
 
 			if (next != null) {
-				next.interrupt();
+				wakeThread(next);
 			} else {
 				// TODO: check for the switching of eventmanagers
-				eventManagerThread.interrupt();
+				wakeThread(eventManagerThread);
 			}
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	/**
@@ -340,10 +684,26 @@ public final class EventManager implements Runnable {
 	 * @param next
 	 */
 	private void switchThread(Thread next) {
-		next.interrupt();
+		wakeThread(next);
 		threadWait();
 	}
 
+	/**
+	 * Give control of the model to the given thread.
+	 */
+	private void wakeThread(Thread next) {
+		metrics.threadSwitched();
+		activeThread = next;
+		LockSupport.unpark(next);
+	}
+
+	/**
+	 * Returns true if the given thread has been given control of the model.
+	 */
+	boolean isActiveThread(Thread t) {
+		return activeThread == t;
+	}
+
 	/**
 	 * Calculate the time for an event taking into account numeric overflow.
 	 * Must hold the lockObject when calling this method
@@ -363,19 +723,13 @@ public final class EventManager implements Runnable {
 
 	public void scheduleSingleProcess(long waitLength, int eventPriority, boolean fifo, ProcessTarget t) {
 		assertNotWaitUntil();
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			long eventTime = calculateEventTime(waitLength);
-			for (int i = 0; i < eventStack.size(); i++) {
-				Event each = eventStack.get(i);
-				// We passed where any duplicate could be, break out to the
-				// insertion part
-				if (each.schedTick > eventTime)
-					break;
-
+			for (Event each = targetEvents.get(t); each != null; each = each.nextForTarget) {
 				// if we have an exact match, do not schedule another event
 				if (each.schedTick == eventTime &&
-				    each.priority == eventPriority &&
-				    each.target == t) {
+				    each.priority == eventPriority) {
 					if (trcListener != null) trcListener.traceSchedProcess(this, each);
 					return;
 				}
@@ -386,6 +740,9 @@ public final class EventManager implements Runnable {
 			if (trcListener != null) trcListener.traceSchedProcess(this, newEvent);
 			addEventToStack(newEvent, fifo);
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	/**
@@ -396,48 +753,99 @@ public final class EventManager implements Runnable {
 	 * @param priority the priority of the scheduled event: 1 is the highest priority (default is priority 5)
 	 */
 	public void waitTicks(long ticks, int priority, boolean fifo) {
+		assertCanBlock();
 		assertNotWaitUntil();
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			long nextEventTime = calculateEventTime(ticks);
 			Event temp = new Event(currentTick, nextEventTime, priority, Process.current(), null);
 			if (trcListener != null) trcListener.traceWait(this, temp);
 			addEventToStack(temp, fifo);
 			popThread();
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	/**
-	 * Adds a new event to the event stack.  This method will add an event to
-	 * the event stack based on its scheduled time, priority, and in stack
-	 * order for equal time/priority.
+	 * Adds a new event to the event list.  Events of equal time and priority
+	 * are executed in LIFO order, unless FIFO ordering is explicitly requested.
+	 * A LIFO event is given a sequence number lower than any already assigned,
+	 * so it executes before all its equals, a FIFO event is given one higher
+	 * than any already assigned, so it executes after all its equals.
 	 *
 	 * Must hold the lockObject when calling this method.
 	 */
 	private void addEventToStack(Event newEvent, boolean fifo) {
-		int i = 0;
-		for (; i < eventStack.size(); i++) {
-			// skip the events that happen at an earlier time
-			if (eventStack.get(i).schedTick < newEvent.schedTick)
-				continue;
+		if (fifo)
+			newEvent.seqNum = ++fifoSeqNum;
+		else
+			newEvent.seqNum = --lifoSeqNum;
 
-			// events at the same time use priority as a tie-breaker
-			if (eventStack.get(i).schedTick == newEvent.schedTick) {
-				// skip the events that happen at an earlier priority
-				if (eventStack.get(i).priority < newEvent.priority)
-					continue;
+		eventList.insert(newEvent);
+		metrics.eventListChanged(eventList.size());
+
+		if (newEvent.process != null)
+			processEvents.put(newEvent.process, newEvent);
+
+		if (newEvent.target != null)
+			newEvent.nextForTarget = targetEvents.put(newEvent.target, newEvent);
+	}
 
-				if (eventStack.get(i).priority == newEvent.priority) {
-					// events of equal time and priority are scheduled in LIFO order, so this is
-					// the insertion point, unless we are explicitly doing FIFO ordering
-					if (fifo) continue;
+	/**
+	 * Removes the given event from the event list and the process and target
+	 * indices.
+	 *
+	 * Must hold the lockObject when calling this method.
+	 */
+	private void removeEvent(Event evt) {
+		eventList.remove(evt);
+		removeFromIndex(evt);
+		metrics.eventListChanged(eventList.size());
+	}
+
+	/**
+	 * Must hold the lockObject when calling this method.
+	 */
+	private void removeFromIndex(Event evt) {
+		if (evt.process != null)
+			processEvents.remove(evt.process);
+
+		if (evt.target == null)
+			return;
+
+		Event head = targetEvents.get(evt.target);
+		if (head == evt) {
+			if (evt.nextForTarget == null)
+				targetEvents.remove(evt.target);
+			else
+				targetEvents.put(evt.target, evt.nextForTarget);
+		}
+		else {
+			for (Event each = head; each != null; each = each.nextForTarget) {
+				if (each.nextForTarget == evt) {
+					each.nextForTarget = evt.nextForTarget;
+					break;
 				}
 			}
+		}
+		evt.nextForTarget = null;
+	}
 
-			// We fell through all checks, we are at the insertion index, break out
-			break;
+	/**
+	 * Returns the earliest pending event for the given target, or null if
+	 * there is none.
+	 *
+	 * Must hold the lockObject when calling this method.
+	 */
+	private Event findEvent(ProcessTarget t) {
+		Event ret = null;
+		for (Event each = targetEvents.get(t); each != null; each = each.nextForTarget) {
+			if (ret == null || each.compareTo(ret) < 0)
+				ret = each;
 		}
-		// Insert the event in the stack
-		eventStack.add(i, newEvent);
+		return ret;
 	}
 
 	/**
@@ -447,6 +855,9 @@ public final class EventManager implements Runnable {
 	 * waitUntilEnded was missed.
 	 */
 	private void assertNotWaitUntil() {
+		if (Thread.currentThread() == eventManagerThread)
+			return;
+
 		Process process = Process.current();
 		if (process.testFlag(Process.COND_WAIT)) {
 			System.out.println("AUDIT - waitUntil without waitUntilEnded " + process);
@@ -462,24 +873,109 @@ public final class EventManager implements Runnable {
 	 * the thread stack.
 	 */
 	public void waitUntil() {
-		synchronized (lockObject) {
+		assertCanBlock();
+		lockObject.lock();
+		try {
 			if (!conditionalList.contains(Process.current())) {
 				if (trcListener != null) trcListener.traceWaitUntil(this);
 				Process.current().setFlag(Process.COND_WAIT);
 				conditionalList.add(Process.current());
+				conditionsChanged();
 			}
 			popThread();
 		}
+		finally {
+			lockObject.unlock();
+		}
+	}
+
+	/**
+	 * Used to achieve conditional waits on a Condition. The calling process
+	 * sleeps until the Condition is signalled, and is then woken to re-test
+	 * its condition before the next advance of simulation time.
+	 */
+	public void waitUntil(Condition c) {
+		assertCanBlock();
+		lockObject.lock();
+		try {
+			Process cur = Process.current();
+			Condition prev = cur.getWaitCondition();
+			if (prev == null) {
+				if (conditionalList.contains(cur))
+					throw new ErrorException("Cannot wait on %s while polling with waitUntil()", c);
+
+				if (trcListener != null) trcListener.traceWaitUntil(this);
+				cur.setFlag(Process.COND_WAIT);
+				cur.setWaitCondition(c);
+				conditionWaiters.add(cur);
+				conditionsChanged();
+			}
+			else if (prev != c) {
+				throw new ErrorException("Cannot wait on %s while waiting on %s", c, prev);
+			}
+
+			// Having been woken, the process is no longer on the Condition's list
+			c.waiters.add(cur);
+			popThread();
+		}
+		finally {
+			lockObject.unlock();
+		}
+	}
+
+	/**
+	 * Wakes all the processes waiting on the given Condition so that they
+	 * re-test their conditions before the next advance of simulation time.
+	 */
+	public void signal(Condition c) {
+		lockObject.lock();
+		try {
+			if (c.waiters.isEmpty())
+				return;
+
+			signalledList.addAll(c.waiters);
+			c.waiters.clear();
+		}
+		finally {
+			lockObject.unlock();
+		}
+	}
+
+	/**
+	 * Must hold the lockObject when calling this method.
+	 */
+	private void conditionsChanged() {
+		metrics.conditionalCountChanged(conditionalList.size() + conditionWaiters.size());
+	}
+
+	/**
+	 * Removes the given process from any Condition it is waiting on.
+	 * @return true if the process was waiting on a Condition
+	 *
+	 * Must hold the lockObject when calling this method.
+	 */
+	private boolean removeConditionWaiter(Process p) {
+		if (!conditionWaiters.remove(p))
+			return false;
+
+		p.getWaitCondition().waiters.remove(p);
+		signalledList.remove(p);
+		p.setWaitCondition(null);
+		return true;
 	}
 
 	public void waitUntilEnded() {
-		synchronized (lockObject) {
+		assertCanBlock();
+		lockObject.lock();
+		try {
+			Process cur = Process.current();
+
 			// Do not wait at all if we never actually were on the waitUntilStack
 			// ie. we never called waitUntil
-			if (!conditionalList.remove(Process.current()))
+			if (!conditionalList.remove(cur) && !removeConditionWaiter(cur))
 				return;
+			conditionsChanged();
 
-			Process cur = Process.current();
 //			if (!cur.testFlag(Process.COND_WAIT)) {
 //				System.out.println("ERROR - waitUntil without waitUntilEnded " + cur);
 //				for (StackTraceElement elem : cur.getStackTrace()) {
@@ -493,88 +989,105 @@ public final class EventManager implements Runnable {
 			addEventToStack(temp, true);
 			popThread();
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	public void start(ProcessTarget t) {
 		Process newProcess = Process.allocate(this, t);
 		// Notify the eventManager that a new process has been started
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			if (trcListener != null) trcListener.traceProcessStart(this, t);
 			// Transfer control to the new process
-			newProcess.setNextProcess(Process.current());
+			newProcess.setNextProcess(currentProcess());
 			switchThread(newProcess);
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	/**
 	 *	Removes the thread from the pending list and executes it immediately
 	 */
 	public void interrupt( Process intThread ) {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			if (intThread.testFlag(Process.ACTIVE)) {
 				throw new ErrorException( "Cannot interrupt an active thread" );
 			}
 
 			assertNotWaitUntil();
 
-			for (int i = 0; i < eventStack.size(); i++) {
-				if (eventStack.get(i).process == intThread) {
-					Event interruptEvent = eventStack.remove(i);
-					if (trcListener != null) trcListener.traceInterrupt(this, interruptEvent);
-					interruptEvent.process.setNextProcess(Process.current());
-					switchThread(interruptEvent.process);
-					return;
-				}
+			Event interruptEvent = processEvents.get(intThread);
+			if (interruptEvent != null) {
+				removeEvent(interruptEvent);
+				if (trcListener != null) trcListener.traceInterrupt(this, interruptEvent);
+				interruptEvent.process.setNextProcess(currentProcess());
+				switchThread(interruptEvent.process);
+				return;
 			}
 			throw new ErrorException("Tried to interrupt a thread in %s that couldn't be found", name);
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	/**
 	 *	Removes an event from the pending list and executes it immediately.
 	 */
 	public void interrupt(ProcessTarget t) {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			assertNotWaitUntil();
 
-			for (int i = 0; i < eventStack.size(); i++) {
-				if (eventStack.get(i).target == t) {
-					Event interruptEvent = eventStack.remove(i);
-					if (trcListener != null) trcListener.traceInterrupt(this, interruptEvent);
-					Process proc = Process.allocate(this, interruptEvent.target);
-					proc.setNextProcess(Process.current());
-					switchThread(interruptEvent.process);
-					return;
-				}
+			Event interruptEvent = findEvent(t);
+			if (interruptEvent != null) {
+				removeEvent(interruptEvent);
+				if (trcListener != null) trcListener.traceInterrupt(this, interruptEvent);
+				Process proc = Process.allocate(this, interruptEvent.target);
+				proc.setNextProcess(currentProcess());
+				switchThread(proc);
+				return;
 			}
 			throw new ErrorException("Tried to interrupt a thread in %s that couldn't be found", name);
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	public void terminateThread( Process killThread ) {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			if (killThread.testFlag(Process.ACTIVE)) {
 				throw new ErrorException( "Cannot terminate an active thread" );
 			}
 
 			assertNotWaitUntil();
 
-			if (conditionalList.remove(killThread)) {
+			if (conditionalList.remove(killThread) || removeConditionWaiter(killThread)) {
+				conditionsChanged();
 				killThread.setFlag(Process.TERMINATE);
-				killThread.interrupt();
+				LockSupport.unpark(killThread);
 				return;
 			}
 
-			for( int i = 0; i < eventStack.size(); i++ ) {
-				if (eventStack.get(i).process == killThread) {
-					Event temp = eventStack.remove(i);
-					if (trcListener != null) trcListener.traceKill(this, temp);
-					killThread.setFlag(Process.TERMINATE);
-					killThread.interrupt();
-					return;
-				}
+			Event temp = processEvents.get(killThread);
+			if (temp != null) {
+				removeEvent(temp);
+				if (trcListener != null) trcListener.traceKill(this, temp);
+				killThread.setFlag(Process.TERMINATE);
+				LockSupport.unpark(killThread);
+				return;
 			}
 		}
+		finally {
+			lockObject.unlock();
+		}
 		throw new ErrorException("Tried to terminate a thread in %s that couldn't be found", name);
 	}
 
@@ -582,72 +1095,119 @@ public final class EventManager implements Runnable {
 	 *	Removes an event from the pending list and executes it immediately.
 	 */
 	public void terminate(ProcessTarget t) {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			assertNotWaitUntil();
 
-			for( int i = 0; i < eventStack.size(); i++ ) {
-				if (eventStack.get(i).target == t) {
-					Event temp = eventStack.remove(i);
-					if (trcListener != null) trcListener.traceKill(this, temp);
-					return;
-				}
+			Event temp = findEvent(t);
+			if (temp != null) {
+				removeEvent(temp);
+				if (trcListener != null) trcListener.traceKill(this, temp);
+				return;
 			}
 		}
+		finally {
+			lockObject.unlock();
+		}
 		throw new ErrorException("Tried to terminate a target in %s that couldn't be found", name);
 	}
 
+	/**
+	 * Returns the event loop metrics for this EventManager, they may be read
+	 * from any thread without taking the EventManager's lock.
+	 */
+	public EventMetrics getMetrics() {
+		return metrics;
+	}
+
 	public long currentTick() {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			return currentTick;
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	public void setExecuteRealTime(boolean useRealTime, int factor) {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			executeRealTime = useRealTime;
 			realTimeFactor = factor;
 			if (useRealTime)
 				rebaseRealTime = true;
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	/**
-	 * Locks the calling thread in an inactive state to the global lock.
-	 * When a new thread is created, and the current thread has been pushed
-	 * onto the inactive thread stack it must be put to sleep to preserve
-	 * program ordering.
+	 * Puts the calling thread to sleep until it is given control of the model
+	 * again, or until it is a Process that has been flagged to terminate.
 	 * <p>
-	 * The function takes no parameters, it puts the calling thread to sleep.
-	 * This method is NOT static as it requires the use of wait() which cannot
-	 * be called from a static context
+	 * The global lock is released completely while the thread is parked and
+	 * re-acquired to the same hold count before returning.
 	 * <p>
-	 * There is a synchronized block of code that will acquire the global lock
-	 * and then wait() the current thread.
+	 * Must hold the lockObject when calling this method.
 	 */
 	private void threadWait() {
-		// Ensure that the thread owns the global thread lock
+		Thread cur = Thread.currentThread();
+		int holds = lockObject.getHoldCount();
+		for (int i = 0; i < holds; i++)
+			lockObject.unlock();
+
 		try {
 			/*
-			 * Halt the thread and only wake up by being interrupted.
-			 *
-			 * The infinite loop is _absolutely_ necessary to prevent
-			 * spurious wakeups from waking us early....which causes the
-			 * model to get into an inconsistent state causing crashes.
+			 * The loop is _absolutely_ necessary to prevent spurious wakeups
+			 * from waking us early....which causes the model to get into an
+			 * inconsistent state causing crashes.
 			 */
-			while (true) { lockObject.wait(); }
+			while (activeThread != cur) {
+				if (cur instanceof Process && ((Process)cur).testFlag(Process.TERMINATE))
+					break;
+
+				LockSupport.park(this);
+			}
+		}
+		finally {
+			for (int i = 0; i < holds; i++)
+				lockObject.lock();
 		}
-		// Catch the exception when the thread is interrupted
-		catch( InterruptedException e ) {}
+	}
+
+	/**
+	 * Releases the global lock and sleeps for the given number of
+	 * milliseconds, or less if woken spuriously.
+	 * <p>
+	 * Must hold the lockObject when calling this method.
+	 */
+	private void threadSleep(long millis) {
+		int holds = lockObject.getHoldCount();
+		for (int i = 0; i < holds; i++)
+			lockObject.unlock();
 
+		try {
+			LockSupport.parkNanos(this, millis * 1000000L);
+		}
+		finally {
+			for (int i = 0; i < holds; i++)
+				lockObject.lock();
+		}
 	}
 
 	public void scheduleProcess(long waitLength, int eventPriority, boolean fifo, ProcessTarget t) {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			long schedTick = calculateEventTime(waitLength);
 			Event e = new Event(currentTick, schedTick, eventPriority, null, t);
 			if (trcListener != null) trcListener.traceSchedProcess(this, e);
 			addEventToStack(e, fifo);
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	/**
@@ -658,9 +1218,13 @@ public final class EventManager implements Runnable {
 	 * thread referenced in activeThread is the eventManager thread.
 	 */
 	public void pause() {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			executeEvents = false;
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	/**
@@ -671,17 +1235,68 @@ public final class EventManager implements Runnable {
 	 * from an inconsistent state.
 	 */
 	public void resume(long targetTicks) {
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
 			targetTick = targetTicks;
 			rebaseRealTime = true;
 			if (executeEvents)
 				return;
 
 			executeEvents = true;
-			eventManagerThread.interrupt();
+			// Only hand control back if the event loop has given it up
+			if (activeThread == null)
+				wakeThread(eventManagerThread);
+		}
+		finally {
+			lockObject.unlock();
+		}
+	}
+
+	/**
+	 * Stops the event loop and allows its thread to exit. The EventManager
+	 * cannot be restarted afterwards.
+	 */
+	public void shutdown() {
+		lockObject.lock();
+		try {
+			shutdown = true;
+			executeEvents = false;
+			if (activeThread == null)
+				wakeThread(eventManagerThread);
+		}
+		finally {
+			lockObject.unlock();
 		}
 	}
 
+	/**
+	 * Sets the number of discrete ticks per simulated hour used by this
+	 * EventManager.
+	 */
+	public final void setSimTimeScale(double scale) {
+		timeScale = scale;
+		ticksPerSecond = scale / 3600.0d;
+		secondsPerTick = 3600.0d / scale;
+	}
+
+	/**
+	 * Return the number of seconds represented by the given number of ticks.
+	 */
+	public final double ticksToSeconds(long ticks) {
+		return ticks * secondsPerTick;
+	}
+
+	/**
+	 * Convert the number of seconds rounded to the nearest tick.
+	 */
+	public final long secondsToTicks(double seconds) {
+		return Math.round(seconds * ticksPerSecond);
+	}
+
+	public final double getSimTimeFactor() {
+		return timeScale;
+	}
+
 	@Override
 	public String toString() {
 		return name;
@@ -689,9 +1304,16 @@ public final class EventManager implements Runnable {
 
 	void handleProcessError(Throwable t) {
 		this.pause();
-		synchronized (lockObject) {
+		lockObject.lock();
+		try {
+			// The failed process will not pass control on, so leave it free for
+			// resume() to hand back to the event loop
+			activeThread = null;
 			errListener.handleError(t, currentTick);
 		}
+		finally {
+			lockObject.unlock();
+		}
 	}
 
 	private static class DefaultTimeListener implements EventTimeListener {
@@ -0,0 +1,262 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counters describing the work done by an EventManager's event loop.
+ * <p>
+ * The counters are only updated by the thread that has control of the model,
+ * so a single writer updates each volatile field and no locking is needed.
+ * Any thread may read them at any time, e.g. to display them as outputs or to
+ * poll them from an external monitor.
+ */
+public final class EventMetrics {
+	private volatile long eventsExecuted;
+	private volatile long threadSwitches;
+	private volatile long conditionEvaluations;
+	private volatile int eventListSize;
+	private volatile int eventListHighWater;
+	private volatile int conditionalCount;
+
+	private volatile long runningNanos;   // wall time spent executing events, excluding the current run segment
+	private volatile long runStartNanos;  // start of the current run segment, 0 if paused
+	private volatile long realTimeWaitNanos;
+
+	private final ConcurrentHashMap<Class<?>, TargetCounter> targetCounters;
+
+	private static final class TargetCounter {
+		volatile long count;
+		volatile long nanos;
+	}
+
+	/**
+	 * An immutable snapshot of the executions of one ProcessTarget class.
+	 */
+	public static final class TargetStats {
+		private final Class<?> targetClass;
+		private final long count;
+		private final long nanos;
+
+		TargetStats(Class<?> klass, long count, long nanos) {
+			this.targetClass = klass;
+			this.count = count;
+			this.nanos = nanos;
+		}
+
+		public Class<?> getTargetClass() {
+			return targetClass;
+		}
+
+		/**
+		 * Returns the number of events executed for targets of this class.
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the cumulative wall clock time in seconds spent executing
+		 * events for targets of this class.
+		 */
+		public double getSeconds() {
+			return nanos / 1.0e9d;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s\t%d\t%.6f", targetClass.getName(), count, getSeconds());
+		}
+	}
+
+	private static final Comparator<TargetStats> byTime = new Comparator<TargetStats>() {
+		@Override
+		public int compare(TargetStats a, TargetStats b) {
+			if (a.nanos != b.nanos)
+				return a.nanos > b.nanos ? -1 : 1;
+			return a.targetClass.getName().compareTo(b.targetClass.getName());
+		}
+	};
+
+	EventMetrics() {
+		targetCounters = new ConcurrentHashMap<Class<?>, TargetCounter>();
+	}
+
+	/**
+	 * Clears all counters, the run state is kept.
+	 */
+	void reset() {
+		eventsExecuted = 0;
+		threadSwitches = 0;
+		conditionEvaluations = 0;
+		eventListSize = 0;
+		eventListHighWater = 0;
+		conditionalCount = 0;
+		runningNanos = 0;
+		if (runStartNanos != 0)
+			runStartNanos = System.nanoTime();
+		realTimeWaitNanos = 0;
+		targetCounters.clear();
+	}
+
+	void runStarted() {
+		runStartNanos = System.nanoTime();
+	}
+
+	void runStopped() {
+		long start = runStartNanos;
+		if (start == 0)
+			return;
+
+		runningNanos += System.nanoTime() - start;
+		runStartNanos = 0;
+	}
+
+	void eventListChanged(int size) {
+		eventListSize = size;
+		if (size > eventListHighWater)
+			eventListHighWater = size;
+	}
+
+	void conditionalCountChanged(int count) {
+		conditionalCount = count;
+	}
+
+	void threadSwitched() {
+		threadSwitches++;
+	}
+
+	void conditionsEvaluated(int count) {
+		conditionEvaluations += count;
+	}
+
+	void realTimeWait(long nanos) {
+		realTimeWaitNanos += nanos;
+	}
+
+	/**
+	 * Records the execution of one event.
+	 * @param klass the class of the ProcessTarget the event was executed for
+	 * @param nanos wall clock time until control returned to the event loop
+	 */
+	void eventExecuted(Class<?> klass, long nanos) {
+		eventsExecuted++;
+
+		TargetCounter counter = targetCounters.get(klass);
+		if (counter == null) {
+			counter = new TargetCounter();
+			targetCounters.put(klass, counter);
+		}
+		counter.count++;
+		counter.nanos += nanos;
+	}
+
+	/**
+	 * Returns the number of events executed.
+	 */
+	public long getEventsExecuted() {
+		return eventsExecuted;
+	}
+
+	/**
+	 * Returns the wall clock time in seconds the event loop has been running,
+	 * excluding the time it was paused.
+	 */
+	public double getRunningSeconds() {
+		long nanos = runningNanos;
+		long start = runStartNanos;
+		if (start != 0)
+			nanos += System.nanoTime() - start;
+
+		return nanos / 1.0e9d;
+	}
+
+	/**
+	 * Returns the average number of events executed per wall clock second
+	 * while the event loop was running.
+	 */
+	public double getEventsPerSecond() {
+		double secs = getRunningSeconds();
+		if (secs <= 0.0d)
+			return 0.0d;
+
+		return eventsExecuted / secs;
+	}
+
+	/**
+	 * Returns the number of events in the future event list.
+	 */
+	public int getEventListSize() {
+		return eventListSize;
+	}
+
+	/**
+	 * Returns the largest number of events held in the future event list.
+	 */
+	public int getEventListHighWater() {
+		return eventListHighWater;
+	}
+
+	/**
+	 * Returns the number of processes waiting on a condition, either polled
+	 * by waitUntil() or waiting on a Condition object.
+	 */
+	public int getConditionalCount() {
+		return conditionalCount;
+	}
+
+	/**
+	 * Returns the number of conditional processes woken to test their
+	 * conditions.
+	 */
+	public long getConditionEvaluations() {
+		return conditionEvaluations;
+	}
+
+	/**
+	 * Returns the number of times control of the model was handed from one
+	 * thread to another.
+	 */
+	public long getThreadSwitches() {
+		return threadSwitches;
+	}
+
+	/**
+	 * Returns the wall clock time in seconds the event loop was throttled to
+	 * keep real time.
+	 */
+	public double getRealTimeWaitSeconds() {
+		return realTimeWaitNanos / 1.0e9d;
+	}
+
+	/**
+	 * Returns the execution counts and times for each ProcessTarget class,
+	 * the most expensive class first.
+	 */
+	public ArrayList<TargetStats> getTargetStats() {
+		ArrayList<TargetStats> ret = new ArrayList<TargetStats>(targetCounters.size());
+		for (Entry<Class<?>, TargetCounter> each : targetCounters.entrySet()) {
+			TargetCounter c = each.getValue();
+			ret.add(new TargetStats(each.getKey(), c.count, c.nanos));
+		}
+		Collections.sort(ret, byTime);
+		return ret;
+	}
+}
@@ -15,6 +15,7 @@
 package com.jaamsim.events;
 
 import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
 
 import com.sandwell.JavaSimulation.ErrorException;
 
@@ -27,6 +28,10 @@ import com.sandwell.JavaSimulation.ErrorException;
  * threads are managed by the eventManager and when a Process has completed
  * running is pooled for reuse.
  *
+ * A Process only runs while the eventManager has given it control, at all
+ * other times it is parked. Control is handed over directly by unparking the
+ * next Process, no thread interrupts are involved.
+ *
  * LOCKING: All state in the Process must be updated from a synchronized block
  * using the Process itself as the lock object. Care must be taken to never take
  * the eventManager's lock while holding the Process's lock as this can cause a
@@ -35,17 +40,20 @@ import com.sandwell.JavaSimulation.ErrorException;
 public final class Process extends Thread {
 	// Properties required to manage the pool of available Processes
 	private static final ArrayList<Process> pool; // storage for all available Processes
-	private static final int maxPoolSize = 100; // Maximum number of Processes allowed to be pooled at a given time
+	private static final int initialPoolSize = 100; // Initial capacity of the pool
 	private static int numProcesses = 0; // Total of all created processes to date (used to name new Processes)
 
+	// Default time scale, used by threads that are not managed by an EventManager
 	private static double timeScale; // the scale from discrete to continuous time
 	private static double ticksPerSecond; // The number of discrete ticks per simulated second
 	private static double secondsPerTick; // The reciprocal of ticksPerSecond
 
 	private ProcessTarget target; // The entity whose method is to be executed
+	private Class<?> targetClass; // The class of the target this process was last allocated for
 
 	private EventManager eventManager; // The EventManager that is currently managing this Process
 	private Process nextProcess; // The Process from which the present process was created
+	private Condition waitCondition; // The Condition this process is waiting on, if any
 
 	private int flags;  // Present execution state of the process
 	static final int TERMINATE = 0x01;  // The process should terminate immediately
@@ -58,7 +66,7 @@ public final class Process extends Thread {
 
 	// Initialize the storage for the pooled Processes
 	static {
-		pool = new ArrayList<Process>(maxPoolSize);
+		pool = new ArrayList<Process>(initialPoolSize);
 	}
 
 	private Process(String name) {
@@ -84,36 +92,62 @@ public final class Process extends Thread {
 	}
 
 	public static final long currentTick() {
-		return Process.current().eventManager.currentTick();
+		EventManager evt = EventManager.current();
+		if (evt == null)
+			throw new ErrorException("Non-process thread called for Process.currentTick()");
+
+		return evt.currentTick();
 	}
 
 	/**
 	 * Run method invokes the method on the target with the given arguments.
 	 * A process loops endlessly after it is created executing the method on the
 	 * target set as the entry point.  After completion, it calls endProcess and
-	 * will return it to a process pool if space is available, otherwise the resources
-	 * including the backing thread will be released.
+	 * returns itself to the process pool to wait for its next target.
 	 *
-	 * This method is called by Process.getProcess()
+	 * This method is called by Process.allocate()
 	 */
 	@Override
 	public void run() {
 		while (true) {
+			// Wait to be assigned work and given control
+			this.waitForWork();
+
+			// Process has been woken up, execute the method we have been assigned
+			this.execute();
+
 			synchronized (pool) {
-				// Add ourselves to the pool and wait to be assigned work
 				pool.add(this);
-				// Set the present process to sleep, and release its lock
-				// (done by pool.wait();)
-				// Note: the try/while(true)/catch construct is needed to avoid
-				// spurious wake ups allowed as of Java 5.  All legitimate wake
-				// ups are done through the InterruptedException.
-				try {
-					while (true) { pool.wait(); }
-				} catch (InterruptedException e) {}
 			}
+		}
+	}
 
-			// Process has been woken up, execute the method we have been assigned
-			this.execute();
+	/**
+	 * Returns the class of the ProcessTarget this process is executing, used
+	 * to attribute event execution time.
+	 */
+	synchronized Class<?> getTargetClass() {
+		return targetClass;
+	}
+
+	/**
+	 * Park the process until it has been assigned a target and the
+	 * eventManager has given it control.
+	 * Note: the loop is needed to avoid spurious wake ups.
+	 */
+	private void waitForWork() {
+		while (true) {
+			EventManager evt;
+			boolean hasWork;
+			synchronized (this) {
+				evt = eventManager;
+				hasWork = target != null;
+			}
+
+			if (hasWork && evt.isActiveThread(this))
+				return;
+
+			LockSupport.park(this);
 		}
 	}
 
@@ -150,42 +184,39 @@ public final class Process extends Thread {
 	// Set up a new process for the given entity, method, and arguments
 	// Called from Process.start() and from EventManager.startExternalProcess()
 	static Process allocate(EventManager eventManager, ProcessTarget proc) {
-
-		// Create the new process
-		Process newProcess = Process.getProcess();
+		Process newProcess = null;
+		boolean created = false;
+		synchronized (pool) {
+			// If there is an available process in the pool, then use it
+			if (pool.size() > 0) {
+				newProcess = pool.remove(pool.size() - 1);
+			}
+			// If there are no process in the pool, then create a new one
+			else {
+				numProcesses++;
+				newProcess = new Process("processthread-" + numProcesses);
+				created = true;
+			}
+		}
 
 		// Setup the process state for execution
 		synchronized (newProcess) {
 			newProcess.target = proc;
+			newProcess.targetClass = proc.getClass();
 			newProcess.eventManager = eventManager;
 			newProcess.flags = 0;
+			newProcess.waitCondition = null;
 		}
 
+		// A new thread parks in waitForWork() until it is given control
+		if (created)
+			newProcess.start();
+
 		return newProcess;
 	}
 
-	// Return a process from the pool or create a new one
-	private static Process getProcess() {
-		while (true) {
-			synchronized (pool) {
-				// If there is an available process in the pool, then use it
-				if (pool.size() > 0) {
-					return pool.remove(pool.size() - 1);
-				}
-				// If there are no process in the pool, then create a new one and add it to the pool
-				else {
-					numProcesses++;
-					Process temp = new Process("processthread-" + numProcesses);
-					temp.start(); // Note: Thread.start() calls Process.run which adds the new process to the pool
-				}
-			}
-
-			// Allow the Process.run method to execute so that it can add the
-			// new process to the pool
-			// Note: that the lock on the pool has been dropped, so that the
-			// Process.run method can grab it.
-			try { Thread.sleep(10); } catch (InterruptedException e) {}
-		}
+	synchronized EventManager getEventManager() {
+		return eventManager;
 	}
 
 	synchronized void setNextProcess(Process next) {
@@ -196,6 +227,14 @@ public final class Process extends Thread {
 		return nextProcess;
 	}
 
+	synchronized void setWaitCondition(Condition c) {
+		waitCondition = c;
+	}
+
+	synchronized Condition getWaitCondition() {
+		return waitCondition;
+	}
+
 	synchronized void wake(EventManager eventManager) {
 		this.setFlag(Process.ACTIVE);
 		this.eventManager = eventManager;
@@ -215,6 +254,10 @@ public final class Process extends Thread {
 		return (flags & flag) != 0;
 	}
 
+	/**
+	 * Sets the default time scale used by threads that are not managed by an
+	 * EventManager, each EventManager holds its own time scale.
+	 */
 	public static void setSimTimeScale(double scale) {
 		timeScale = scale;
 		ticksPerSecond = scale / 3600.0d;
@@ -225,6 +268,10 @@ public final class Process extends Thread {
 	 * Return the number of seconds represented by the given number of ticks.
 	 */
 	public static final double ticksToSeconds(long ticks) {
+		EventManager evt = EventManager.current();
+		if (evt != null)
+			return evt.ticksToSeconds(ticks);
+
 		return ticks * secondsPerTick;
 	}
 
@@ -232,10 +279,18 @@ public final class Process extends Thread {
 	 * Convert the number of seconds rounded to the nearest tick.
 	 */
 	public static final long secondsToTicks(double seconds) {
+		EventManager evt = EventManager.current();
+		if (evt != null)
+			return evt.secondsToTicks(seconds);
+
 		return Math.round(seconds * ticksPerSecond);
 	}
 
 	public static double getSimTimeFactor() {
+		EventManager evt = EventManager.current();
+		if (evt != null)
+			return evt.getSimTimeFactor();
+
 		return timeScale;
 	}
 
@@ -17,4 +17,15 @@ package com.jaamsim.events;
 public abstract class ProcessTarget {
 	public abstract String getDescription();
 	public abstract void process();
+
+	/**
+	 * Returns true if the process() method may wait for simulation time to
+	 * pass or for a condition to be satisfied. Targets that never wait can
+	 * return false, and the EventManager will then execute them directly on
+	 * its own thread instead of handing them to a Process. Such a target may
+	 * still start new processes, but any attempt to wait is an error.
+	 */
+	public boolean isBlocking() {
+		return true;
+	}
 }
@@ -45,6 +45,7 @@ import com.sandwell.JavaSimulation.InputErrorException;
 import com.sandwell.JavaSimulation.ObjectType;
 import com.sandwell.JavaSimulation.Palette;
 import com.sandwell.JavaSimulation.Simulation;
+import com.sandwell.JavaSimulation.SimulationContext;
 import com.sandwell.JavaSimulation.StringVector;
 import com.sandwell.JavaSimulation.Util;
 import com.sandwell.JavaSimulation3D.GUIFrame;
@@ -305,7 +306,7 @@ public class InputAgent {
 
 		try {
 			readStream(resRoot.toString(), resPath, res);
-			GUIFrame.instance().setProgressText(null);
+			setProgressText(null);
 		}
 		catch (URISyntaxException ex) {
 			rethrowWrapped(ex);
@@ -313,9 +314,23 @@ public class InputAgent {
 
 	}
 
+	/**
+	 * Shows the file being read on the GUI, inputs read into other simulation
+	 * contexts are not displayed.
+	 */
+	private static void setProgressText(String txt) {
+		if (SimulationContext.current().isDefault())
+			GUIFrame.instance().setProgressText(txt);
+	}
+
+	private static void valueUpdate() {
+		if (SimulationContext.current().isDefault())
+			FrameBox.valueUpdate();
+	}
+
 	public static final boolean readStream(String root, URI path, String file) throws URISyntaxException {
 		String shortName = file.substring(file.lastIndexOf('/') + 1, file.length());
-		GUIFrame.instance().setProgressText(shortName);
+		setProgressText(shortName);
 		URI resolved = getFileURI(path, file, root);
 
 		String resolvedPath = resolved.getSchemeSpecificPart();
@@ -591,7 +606,7 @@ public class InputAgent {
 	}
 
 	public static void doError(Throwable e) {
-		if (!batchRun)
+		if (!batchRun || !SimulationContext.current().isDefault())
 			return;
 
 		LogBox.logLine("An error occurred in the simulation environment.  Please check inputs for an error:");
@@ -645,8 +660,9 @@ public class InputAgent {
 	 *
 	 * @param fileName
 	 * @param firstTime ( true => this is the main config file (run file);  false => this is an included file within  main config file or another included file )
+	 * @return false if the file could not be read
 	 */
-	public static void loadConfigurationFile( String rawFileName, boolean firstTime ) throws URISyntaxException {
+	public static boolean loadConfigurationFile( String rawFileName, boolean firstTime ) throws URISyntaxException {
 
 		URI fileURI = new File(rawFileName).toURI();
 
@@ -656,13 +672,15 @@ public class InputAgent {
 		URI dirURI = new URI("file", dir, null);
 		String fileName = path.substring(path.lastIndexOf('/') + 1, path.length());
 
-		readStream("", dirURI, fileName);
+		boolean ret = readStream("", dirURI, fileName);
 
 		FileEntity.setRootDirectory(dir);
 
-		GUIFrame.instance().setProgressText(null);
-		GUIFrame.instance().setProgress(0);
+		setProgressText(null);
+		if (SimulationContext.current().isDefault())
+			GUIFrame.instance().setProgress(0);
 
+		return ret;
 	}
 
 	public static final void apply(Entity ent, KeywordIndex kw) {
@@ -673,7 +691,7 @@ public class InputAgent {
 		}
 
 		InputAgent.apply(ent, in, kw);
-		FrameBox.valueUpdate();
+		valueUpdate();
 	}
 
 	public static final void apply(Entity ent, Input<?> in, KeywordIndex kw) {
@@ -719,7 +737,7 @@ public class InputAgent {
 		Input<?> input = entity.getInput( key.keyword );
 		if (input != null) {
 			InputAgent.apply(entity, input, key);
-			FrameBox.valueUpdate();
+			valueUpdate();
 			return;
 		}
 
@@ -1078,7 +1096,10 @@ public class InputAgent {
 	public static void logMessage(String fmt, Object... args) {
 		String msg = String.format(fmt, args);
 		System.out.println(msg);
-		LogBox.logLine(msg);
+
+		// Messages from other simulation contexts are not shown in the GUI
+		if (SimulationContext.current().isDefault())
+			LogBox.logLine(msg);
 
 		if (logFile == null)
 			return;
@@ -14,64 +14,107 @@
  */
 package com.jaamsim.input;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 
 public abstract class KeyedCurve<T> {
 
-	private class Key {
-		public double time;
-		public T val;
-	}
-	private ArrayList<Key> keys;
-	private boolean isSorted;
+	// The keys are held sorted by time in parallel arrays
+	private double[] times;
+	private Object[] vals;
+	private int numKeys;
+
+	// The segment found by the last lookup, checked before searching again.
+	// The curve may be read from more than one thread, so it is only a hint.
+	private int lastIndex;
 
 	public KeyedCurve() {
-		keys = new ArrayList<Key>();
-		isSorted = true;
+		times = new double[4];
+		vals = new Object[4];
+		numKeys = 0;
+		lastIndex = 0;
 	}
 
 	public void addKey(double time, T val) {
-		Key k = new Key();
-		k.time = time;
-		k.val = val;
-		keys.add(k);
-		isSorted = false;
-	}
+		if (numKeys == times.length) {
+			times = Arrays.copyOf(times, numKeys * 2);
+			vals = Arrays.copyOf(vals, numKeys * 2);
+		}
 
-	public T getValAtTime(double time) {
-		if (!isSorted) {
-			sortKeys();
+		// Keys are normally added in order, so insert from the end. Keys with
+		// the same time stay in the order they were added.
+		int i = numKeys;
+		while (i > 0 && times[i - 1] > time) {
+			times[i] = times[i - 1];
+			vals[i] = vals[i - 1];
+			i--;
 		}
+		times[i] = time;
+		vals[i] = val;
+		numKeys++;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T valAt(int i) {
+		return (T)vals[i];
+	}
 
+	public T getValAtTime(double time) {
 		// Treat NaN as negative infinity, as it will at least return a valid number
 		if (Double.isNaN(time)) {
 			time = Double.NEGATIVE_INFINITY;
 		}
-		if (keys.size() == 0) {
+		if (numKeys == 0) {
 			 return null;
 		}
-		if (keys.size() == 1) {
-			return keys.get(0).val;
+		if (numKeys == 1) {
+			return valAt(0);
 		}
 		// Are we ahead of the beginning?
-		if (time <= keys.get(0).time) {
-			return keys.get(0).val;
+		if (time <= times[0]) {
+			return valAt(0);
 		}
 		// Are we past the end?
-		if (time >= keys.get(keys.size()-1).time) {
-			return keys.get(keys.size()-1).val;
+		if (time >= times[numKeys-1]) {
+			return valAt(numKeys-1);
+		}
+
+		// Try the segment from the last lookup and the one after it
+		int start = lastIndex;
+		if (!this.inSegment(start, time)) {
+			start++;
+			if (!this.inSegment(start, time))
+				start = this.search(time);
+			lastIndex = start;
 		}
 
-		// Use a binary search to find the segment we want
+		if (times[start] == time) {
+			return valAt(start);
+		}
+
+		int end = start + 1;
+		double startTime = times[start];
+		double endTime = times[end];
+		double ratio = (time - startTime) / (endTime - startTime);
+
+		return interpVal(valAt(start), valAt(end), ratio);
+	}
+
+	private boolean inSegment(int start, double time) {
+		return start < numKeys - 1 && times[start] <= time && time < times[start + 1];
+	}
+
+	/**
+	 * Use a binary search to find the segment containing the given time,
+	 * which must lie strictly inside the curve.
+	 */
+	private int search(double time) {
 		int start = 0;
-		int end = keys.size() - 1;
+		int end = numKeys - 1;
 		while (end - start > 1) {
 			int pivot = (end + start)/2;
-			double pivotTime = keys.get(pivot).time;
+			double pivotTime = times[pivot];
 			if (pivotTime == time) {
-				return keys.get(pivot).val;
+				return pivot;
 			}
 			if (pivotTime > time) {
 				end = pivot;
@@ -79,31 +122,12 @@ public abstract class KeyedCurve<T> {
 				start = pivot;
 			}
 		}
-
-		double startTime = keys.get(start).time;
-		double endTime = keys.get(end).time;
-		double ratio = (time - startTime) / (endTime - startTime);
-
-		return interpVal(keys.get(start).val, keys.get(end).val, ratio);
+		return start;
 	}
 
 	public boolean hasKeys() {
-		return keys.size() != 0;
+		return numKeys != 0;
 	}
 
 	protected abstract T interpVal(T val0, T val1, double ratio);
-
-	private void sortKeys() {
-		Collections.sort(keys, sorter);
-		isSorted = true;
-	}
-
-	private class KeySorter implements Comparator<Key>{
-
-		@Override
-		public int compare(Key arg0, Key arg1) {
-			return Double.compare(arg0.time, arg1.time);
-		}
-	}
-	private final KeySorter sorter = new KeySorter();
 }
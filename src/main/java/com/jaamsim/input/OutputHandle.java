@@ -14,6 +14,9 @@
  */
 package com.jaamsim.input;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -49,16 +52,40 @@ public class OutputHandle {
 		unitType = pair.annotation.unitType();
 	}
 
+	private static final MethodType OBJECT_ACCESSOR = MethodType.methodType(Object.class, Entity.class, double.class);
+	private static final MethodType DOUBLE_ACCESSOR = MethodType.methodType(double.class, Entity.class, double.class);
+
 	private static class OutputPair {
 		public Method method;
 		public Output annotation;
+		public final MethodHandle accessor;       // (Entity, double)Object, boxes primitive values
+		public final MethodHandle doubleAccessor; // (Entity, double)double, null unless a primitive number is returned
 
 		public OutputPair(Method m, Output a) {
 			method = m;
 			annotation = a;
+
+			MethodHandle obj = null;
+			MethodHandle dbl = null;
+			try {
+				m.setAccessible(true);
+				MethodHandle mh = MethodHandles.lookup().unreflect(m);
+				obj = mh.asType(OBJECT_ACCESSOR);
+				if (isPrimitiveNumber(m.getReturnType()))
+					dbl = mh.asType(DOUBLE_ACCESSOR);
+			}
+			catch (IllegalAccessException e) {}
+			catch (SecurityException e) {}
+			accessor = obj;
+			doubleAccessor = dbl;
 		}
 	}
 
+	private static boolean isPrimitiveNumber(Class<?> rtype) {
+		return rtype == double.class || rtype == float.class || rtype == long.class ||
+		       rtype == int.class || rtype == short.class || rtype == char.class;
+	}
+
 	public static Boolean hasOutput(Class<? extends Entity> klass, String outputName) {
 		return OutputHandle.getOutputPair(klass, outputName) != null;
 	}
@@ -71,7 +98,7 @@ public class OutputHandle {
 		return null;
 	}
 
-	private static ArrayList<OutputPair> getOutputPair(Class<? extends Entity> klass) {
+	private static synchronized ArrayList<OutputPair> getOutputPair(Class<? extends Entity> klass) {
 		ArrayList<OutputPair> ret = outputPairCache.get(klass);
 		if (ret != null)
 			return ret;
@@ -131,22 +158,56 @@ public class OutputHandle {
 		}
 	}
 
+	/**
+	 * Calls the output's method. Exceptions thrown by the output are passed on
+	 * to the caller, null is returned if the method cannot be accessed.
+	 */
+	private Object invoke(double simTime) {
+		try {
+			if (pair.accessor != null)
+				return pair.accessor.invokeExact(ent, simTime);
+
+			return pair.method.invoke(ent, simTime);
+		}
+		catch (InvocationTargetException ex) {
+			throw outputError(ex.getCause());
+		}
+		catch (IllegalAccessException ex) {
+			return null;
+		}
+		catch (Throwable t) {
+			throw outputError(t);
+		}
+	}
+
+	private static RuntimeException outputError(Throwable t) {
+		if (t instanceof RuntimeException)
+			return (RuntimeException)t;
+		if (t instanceof Error)
+			throw (Error)t;
+		return new ErrorException(t);
+	}
+
 	@SuppressWarnings("unchecked") // This suppresses the warning on the cast, which is effectively checked
 	public <T> T getValue(double simTime, Class<T> klass) {
 		if( pair.method == null )
 			return null;
 
-		T ret = null;
-		try {
-			if (!klass.isAssignableFrom(pair.method.getReturnType()))
-				return null;
+		if (!klass.isAssignableFrom(pair.method.getReturnType()))
+			return null;
 
-			ret = (T)pair.method.invoke(ent, simTime);
-		}
-		catch (InvocationTargetException ex) {}
-		catch (IllegalAccessException ex) {}
-		catch (ClassCastException ex) {}
-		return ret;
+		return (T)this.invoke(simTime);
+	}
+
+	/**
+	 * Returns the value of an output that returns a primitive number without
+	 * boxing it. Other outputs are converted as for getValueAsDouble(simTime, def)
+	 * with a default of NaN.
+	 * @param simTime
+	 * @return
+	 */
+	public double getValueAsDouble(double simTime) {
+		return this.getValueAsDouble(simTime, Double.NaN);
 	}
 
 	public boolean isNumericValue() {
@@ -193,9 +254,16 @@ public class OutputHandle {
 	 * @return
 	 */
 	public double getValueAsDouble(double simTime, double def) {
+		if (pair.doubleAccessor != null) {
+			try {
+				return (double)pair.doubleAccessor.invokeExact(ent, simTime);
+			}
+			catch (Throwable t) {
+				throw outputError(t);
+			}
+		}
+
 		Class<?> retType = this.getReturnType();
-		if (retType == double.class)
-			return this.getValue(simTime, double.class);
 
 		if (retType == Double.class) {
 			Double val = getValue(simTime, Double.class);
@@ -228,16 +296,14 @@ public class OutputHandle {
 			return val.charValue();
 		}
 
-		if (retType == float.class)
-			return this.getValue(simTime, float.class);
-		if (retType == int.class)
-			return this.getValue(simTime, int.class);
-		if (retType == long.class)
-			return this.getValue(simTime, long.class);
-		if (retType == short.class)
-			return this.getValue(simTime, short.class);
-		if (retType == char.class)
-			return this.getValue(simTime, char.class);
+		// Only reached when a compiled accessor could not be created
+		if (retType.isPrimitive()) {
+			Object val = this.invoke(simTime);
+			if (val instanceof Number)
+				return ((Number)val).doubleValue();
+			if (val instanceof Character)
+				return ((Character)val).charValue();
+		}
 
 		return def;
 	}
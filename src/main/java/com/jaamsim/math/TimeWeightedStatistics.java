@@ -0,0 +1,284 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.math;
+
+/**
+ * Accumulates time-weighted statistics for a quantity that changes value at
+ * discrete points in time, such as the length of a queue or the number of
+ * resource units in use.
+ * <p>
+ * The mean and variance are maintained with West's weighted form of Welford's
+ * algorithm, using the time spent at each value as its weight. The time spent
+ * at each value is also collected in a histogram of fixed width bins. The
+ * histogram grows as larger values are seen, up to a fixed number of bins,
+ * after which all larger values are collected in a single overflow bin.
+ * Percentiles are read from the histogram, so they are exact for integer
+ * valued quantities recorded with a bin width of one.
+ * <p>
+ * Each query takes the present simulation time so that the interval since
+ * the last change of value is included without modifying the accumulator.
+ */
+public class TimeWeightedStatistics {
+
+	private final double binWidth;  // width of each histogram bin
+	private final int maxBins;      // number of regular bins before the overflow bin
+	private final boolean discrete; // true if the recorded values are multiples of the bin width
+
+	private double startTime;  // time at which statistics collection was started
+	private double lastTime;   // time at which the value last changed
+	private double lastValue;  // value held since lastTime
+
+	private double totalTime;  // total time recorded up to lastTime
+	private double integral;   // time integral of the value up to lastTime
+	private double mean;       // time-weighted mean up to lastTime
+	private double sumSq;      // time-weighted sum of squared deviations from the mean
+	private double minValue;
+	private double maxValue;
+
+	private double[] binTimes;  // time spent with a value in each bin, overflow bin last
+	private int numBins;        // number of bins up to and including the highest value seen
+
+	/**
+	 * Creates an accumulator for a quantity that takes integer values, such
+	 * as a count of entities. Values of maxBins or more share the overflow bin.
+	 */
+	public TimeWeightedStatistics(int maxBins) {
+		this(1.0d, maxBins, true);
+	}
+
+	/**
+	 * Creates an accumulator whose histogram has maxBins bins of the given
+	 * width starting at zero. Negative values are collected in the first bin.
+	 * @param binWidth - width of each histogram bin
+	 * @param maxBins - number of bins before the overflow bin
+	 * @param discrete - true if every value is a multiple of binWidth
+	 */
+	public TimeWeightedStatistics(double binWidth, int maxBins, boolean discrete) {
+		if (!(binWidth > 0.0d) || maxBins < 1)
+			throw new IllegalArgumentException("Invalid histogram size: " + maxBins + " bins of width " + binWidth);
+
+		this.binWidth = binWidth;
+		this.maxBins = maxBins;
+		this.discrete = discrete;
+		binTimes = new double[Math.min(16, maxBins + 1)];
+		this.clear(0.0d, 0.0d);
+	}
+
+	/**
+	 * Discards all recorded statistics and starts collecting again from the
+	 * given time, with the quantity holding the given value.
+	 */
+	public void clear(double time, double value) {
+		startTime = time;
+		lastTime = time;
+		lastValue = value;
+		totalTime = 0.0d;
+		integral = 0.0d;
+		mean = 0.0d;
+		sumSq = 0.0d;
+		minValue = value;
+		maxValue = value;
+
+		int bin = this.getBin(value);
+		this.ensureBins(bin + 1);
+		for (int i = 0; i < numBins; i++)
+			binTimes[i] = 0.0d;
+		numBins = bin + 1;
+	}
+
+	/**
+	 * Records that the quantity changed to the given value at the given time.
+	 * The previous value is credited with the time elapsed since the last
+	 * change.
+	 */
+	public void update(double time, double value) {
+		double dt = time - lastTime;
+		if (dt > 0.0d) {
+			totalTime += dt;
+			integral += dt * lastValue;
+			double delta = lastValue - mean;
+			mean += delta * dt / totalTime;
+			sumSq += dt * delta * (lastValue - mean);
+			binTimes[this.getBin(lastValue)] += dt;
+			lastTime = time;
+		}
+
+		lastValue = value;
+		if (value < minValue) minValue = value;
+		if (value > maxValue) maxValue = value;
+
+		int bin = this.getBin(value);
+		if (bin >= numBins) {
+			this.ensureBins(bin + 1);
+			numBins = bin + 1;
+		}
+	}
+
+	private int getBin(double value) {
+		if (!(value > 0.0d))
+			return 0;
+		double bin = discrete ? Math.rint(value / binWidth) : Math.floor(value / binWidth);
+		if (bin >= maxBins)
+			return maxBins;
+		return (int)bin;
+	}
+
+	private void ensureBins(int n) {
+		if (binTimes.length >= n)
+			return;
+
+		int len = Math.max(n, Math.min(binTimes.length * 2, maxBins + 1));
+		double[] tmp = new double[len];
+		System.arraycopy(binTimes, 0, tmp, 0, numBins);
+		binTimes = tmp;
+	}
+
+	public double getBinWidth() {
+		return binWidth;
+	}
+
+	public double getStartTime() {
+		return startTime;
+	}
+
+	public double getCurrentValue() {
+		return lastValue;
+	}
+
+	public double getMinimum() {
+		return minValue;
+	}
+
+	public double getMaximum() {
+		return maxValue;
+	}
+
+	/**
+	 * Returns the time over which statistics have been collected.
+	 */
+	public double getTotalTime(double time) {
+		return time - startTime;
+	}
+
+	/**
+	 * Returns the integral of the value over time since collection started.
+	 */
+	public double getIntegral(double time) {
+		return integral + (time - lastTime) * lastValue;
+	}
+
+	/**
+	 * Returns the time-weighted mean, or zero if no time has elapsed.
+	 */
+	public double getMean(double time) {
+		double dt = time - lastTime;
+		if (!(dt > 0.0d))
+			return mean;
+		return mean + (lastValue - mean) * dt / (totalTime + dt);
+	}
+
+	/**
+	 * Returns the time-weighted population variance, or zero if no time has
+	 * elapsed.
+	 */
+	public double getVariance(double time) {
+		double dt = time - lastTime;
+		double total = totalTime;
+		double ss = sumSq;
+		if (dt > 0.0d) {
+			total += dt;
+			double delta = lastValue - mean;
+			ss += dt * delta * (lastValue - mean - delta * dt / total);
+		}
+		if (!(total > 0.0d))
+			return 0.0d;
+		return Math.max(0.0d, ss / total);
+	}
+
+	public double getStandardDeviation(double time) {
+		return Math.sqrt(this.getVariance(time));
+	}
+
+	/**
+	 * Returns the number of histogram bins up to and including the one that
+	 * holds the largest value seen. The last bin is the overflow bin if the
+	 * largest value exceeded the histogram range.
+	 */
+	public int getNumberOfBins() {
+		return numBins;
+	}
+
+	/**
+	 * Returns the time recorded in the given histogram bin, excluding the
+	 * interval since the last change of value.
+	 */
+	public double getBinTime(int bin) {
+		if (bin < 0 || bin >= numBins)
+			return 0.0d;
+		return binTimes[bin];
+	}
+
+	/**
+	 * Returns the fraction of the elapsed time spent in each histogram bin,
+	 * or an empty array if no time has elapsed.
+	 */
+	public double[] getDistribution(double time) {
+		double total = time - startTime;
+		if (!(total > 0.0d))
+			return new double[0];
+
+		double[] ret = new double[numBins];
+		for (int i = 0; i < numBins; i++)
+			ret[i] = binTimes[i] / total;
+		ret[this.getBin(lastValue)] += (time - lastTime) / total;
+		return ret;
+	}
+
+	/**
+	 * Returns the value that the quantity was at or below for the given
+	 * fraction of the elapsed time. Within a bin of a continuous quantity the
+	 * result is interpolated linearly, limited to the observed range.
+	 * @param time - the present time
+	 * @param p - the fraction of time, between 0 and 1
+	 */
+	public double getPercentile(double time, double p) {
+		double total = time - startTime;
+		if (!(total > 0.0d))
+			return lastValue;
+
+		double target = Math.min(Math.max(p, 0.0d), 1.0d) * total;
+		int lastBin = this.getBin(lastValue);
+		double openTime = time - lastTime;
+		double cum = 0.0d;
+		for (int i = 0; i < numBins; i++) {
+			double t = binTimes[i];
+			if (i == lastBin)
+				t += openTime;
+			if (t <= 0.0d)
+				continue;
+
+			if (cum + t >= target || i == numBins - 1) {
+				double lo = Math.max(i * binWidth, minValue);
+				if (discrete && i < maxBins)
+					return lo;
+				double hi = (i == maxBins) ? maxValue : Math.min((i + 1) * binWidth, maxValue);
+				double frac = Math.min(Math.max((target - cum) / t, 0.0d), 1.0d);
+				return lo + frac * (hi - lo);
+			}
+			cum += t;
+		}
+		return maxValue;
+	}
+}
@@ -14,64 +14,43 @@
  */
 package com.jaamsim.rng;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
-
 /**
  * Combined MRG based on L'Ecuyer (1999a), implementation ported from the ANSI C
  * version provided in Simulation Modelling and Analyis 4th Ed. Averill M. Law. (Appendix 7B)
+ * <p>
+ * Stream n starts 10^16 * n steps from the state {0, 0, 1, 0, 0, 1}, which
+ * reproduces the seed table from Law. Each stream is further divided into
+ * substreams of 2^40 steps. The starting point of any stream or substream
+ * is found by raising the transition matrices to the required power, which
+ * takes O(log n) 3x3 matrix products.
  */
 public class MRG1999a {
-	static final int[] seeds;
 	private static final long m1 = 4294967087l;
 	private static final long m2 = 4294944443l;
 	private static final double norm   = 2.328306549295727688e-10d; // 1.0 / (m1 + 1)
 
-	// The internal state machine is held in 6 integer values (treat as unsigned)
-	int s0, s1, s2, s3, s4, s5;
+	// One step of each component as a 3x3 matrix acting on (s0, s1, s2), row major
+	private static final long[] A1 = { 0, 1, 0,  0, 0, 1,  m1 - 810728l, 1403580l, 0 };
+	private static final long[] A2 = { 0, 1, 0,  0, 0, 1,  m2 - 1370589l, 0, 527612l };
 
-	static {
-		InputStream s = MRG1999a.class.getResourceAsStream("/resources/seeds/MRG1999a.seed");
-		BufferedReader buf =  new BufferedReader(new InputStreamReader(s));
-		ArrayList<int[]> tempseeds = new ArrayList<int[]>(10001);
+	private static final long STREAM_LENGTH = 10000000000000000l; // 10^16 steps between streams
+	private static final int SUBSTREAM_BITS = 40;  // 2^40 steps between substreams
 
-		while (true) {
-			String line = null;
-			try {
-				line = buf.readLine();
-			}
-			catch (IOException e) {
-				throw new RuntimeException("Could not read all seeds for MRG1999a");
-			}
+	/**
+	 * The number of substreams that fit in each stream.
+	 */
+	public static final int MAX_SUBSTREAMS = (int)(STREAM_LENGTH >> SUBSTREAM_BITS);
 
-			if (line == null) break;
+	private static final long[] streamJump1 = matPow(A1, STREAM_LENGTH, m1);
+	private static final long[] streamJump2 = matPow(A2, STREAM_LENGTH, m2);
+	private static final long[] substreamJump1 = matPow(A1, 1l << SUBSTREAM_BITS, m1);
+	private static final long[] substreamJump2 = matPow(A2, 1l << SUBSTREAM_BITS, m2);
 
-			String[] split = line.split(",");
-			if (split.length != 6)
-				throw new RuntimeException("Corrupt seed (need 6 values) found in MRG1999a.seed");
-			int[] d = new int[6];
-			for (int i = 0; i < 6; i++)
-				d[i] = (int)Long.parseLong(split[i]);
-			tempseeds.add(d);
-		}
-		try { buf.close(); } catch (IOException e) {}
-		buf = null;
-
-		seeds = new int[tempseeds.size() * 6];
-		for (int i = 0; i < tempseeds.size(); i++) {
-			int offset = i * 6;
-			int[] each = tempseeds.get(i);
-			for (int j = 0; j < 6; j++)
-				seeds[offset + j] = each[j];
-		}
-	}
+	// The internal state machine is held in 6 integer values (treat as unsigned)
+	int s0, s1, s2, s3, s4, s5;
 
 	/**
-	 * Constructs a random generator seeded with values the first entry in the seed
-	 * table.
+	 * Constructs a random generator seeded with the start of the first stream.
 	 */
 	public MRG1999a() {
 		this(0);
@@ -85,6 +64,14 @@ public class MRG1999a {
 		setSeedStream(stream);
 	}
 
+	/**
+	 * Constructs a random generator seeded with the start of the given substream
+	 * of the given stream.
+	 */
+	public MRG1999a(int stream, int substream) {
+		setSeedStream(stream, substream);
+	}
+
 	/**
 	 * Constructs a random generator seeded with the given values.
 	 * @param s0
@@ -103,23 +90,100 @@ public class MRG1999a {
 	 * @param i
 	 * @return
 	 */
-	private long uint(int i) {
+	private static long uint(int i) {
 		return i & 0xffffffffl;
 	}
 
 	/**
-	 * Seed the MRG with values form the given stream number.
+	 * Returns a * b mod m for a, b < 2^32 without overflowing a long.
+	 */
+	private static long mulMod(long a, long b, long m) {
+		long hi = (a * (b >>> 16)) % m;
+		return ((hi << 16) + a * (b & 0xffffl)) % m;
+	}
+
+	private static long[] matMul(long[] a, long[] b, long m) {
+		long[] ret = new long[9];
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				long sum = 0;
+				for (int k = 0; k < 3; k++)
+					sum = (sum + mulMod(a[i * 3 + k], b[k * 3 + j], m)) % m;
+				ret[i * 3 + j] = sum;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the matrix a raised to the power e (e >= 0) by repeated squaring.
+	 */
+	private static long[] matPow(long[] a, long e, long m) {
+		long[] ret = { 1, 0, 0,  0, 1, 0,  0, 0, 1 };
+		long[] sq = a;
+		while (e > 0) {
+			if ((e & 1) != 0)
+				ret = matMul(ret, sq, m);
+			e >>>= 1;
+			if (e > 0)
+				sq = matMul(sq, sq, m);
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the 3x3 matrix a applied to the state vector (v0, v1, v2).
+	 */
+	private static long[] matVec(long[] a, long v0, long v1, long v2, long m) {
+		long[] ret = new long[3];
+		for (int i = 0; i < 3; i++) {
+			long sum = mulMod(a[i * 3], v0, m);
+			sum = (sum + mulMod(a[i * 3 + 1], v1, m)) % m;
+			sum = (sum + mulMod(a[i * 3 + 2], v2, m)) % m;
+			ret[i] = sum;
+		}
+		return ret;
+	}
+
+	/**
+	 * Seed the MRG with the start of the given stream number.
 	 * @param stream
 	 */
 	public void setSeedStream(int stream) {
-		int offset = stream * 6;
+		setSeedStream(stream, 0);
+	}
+
+	/**
+	 * Seed the MRG with the start of the given substream of the given stream.
+	 * @param stream
+	 * @param substream
+	 */
+	public void setSeedStream(long stream, int substream) {
 		if (stream < 0)
 			throw new IllegalArgumentException("Stream numbers must be positive");
-		if (offset >= seeds.length)
-			throw new IllegalArgumentException("Maximum stream number is " + seeds.length / 6);
+		if (substream < 0 || substream >= MAX_SUBSTREAMS)
+			throw new IllegalArgumentException("Substream numbers must be between 0 and " + (MAX_SUBSTREAMS - 1));
+
+		long[] jump1 = matMul(matPow(streamJump1, stream, m1), matPow(substreamJump1, substream, m1), m1);
+		long[] jump2 = matMul(matPow(streamJump2, stream, m2), matPow(substreamJump2, substream, m2), m2);
+		long[] v1 = matVec(jump1, 0, 0, 1, m1);
+		long[] v2 = matVec(jump2, 0, 0, 1, m2);
+		setSeed(v1[0], v1[1], v1[2], v2[0], v2[1], v2[2]);
+	}
 
-		setSeed(uint(seeds[offset + 0]), uint(seeds[offset + 1]), uint(seeds[offset + 2]),
-		        uint(seeds[offset + 3]), uint(seeds[offset + 4]), uint(seeds[offset + 5]));
+	/**
+	 * Advances the state of the generator by the given number of steps, as if
+	 * getUniform() had been called that many times.
+	 * @param steps the number of steps to advance, must not be negative
+	 */
+	public void advance(long steps) {
+		if (steps < 0)
+			throw new IllegalArgumentException("Cannot advance by a negative number of steps");
+
+		long[] v1 = matVec(matPow(A1, steps, m1), uint(s0), uint(s1), uint(s2), m1);
+		long[] v2 = matVec(matPow(A2, steps, m2), uint(s3), uint(s4), uint(s5), m2);
+		s0 = (int)v1[0]; s1 = (int)v1[1]; s2 = (int)v1[2];
+		s3 = (int)v2[0]; s4 = (int)v2[1]; s5 = (int)v2[2];
 	}
 
 	public void setSeed(long s0, long s1, long s2, long s3, long s4, long s5) {
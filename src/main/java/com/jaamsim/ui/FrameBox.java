@@ -29,6 +29,7 @@ import javax.swing.table.TableColumnModel;
 import com.jaamsim.controllers.RenderManager;
 import com.jaamsim.events.Process;
 import com.sandwell.JavaSimulation.Entity;
+import com.sandwell.JavaSimulation.SimulationContext;
 import com.sandwell.JavaSimulation3D.GUIFrame;
 
 public class FrameBox extends JFrame {
@@ -80,6 +81,10 @@ public class FrameBox extends JFrame {
 	}
 
 	public static final void setSelectedEntity(Entity ent) {
+		// Entities in other simulation contexts are not shown in the GUI
+		if (!SimulationContext.current().isDefault())
+			return;
+
 		updater.scheduleUpdate(ent);
 		RenderManager.setSelection(ent);
 	}
@@ -90,6 +95,9 @@ public class FrameBox extends JFrame {
 	}
 
 	public static final void valueUpdate() {
+		if (!SimulationContext.current().isDefault())
+			return;
+
 		valueUpdater.scheduleUpdate();
 		RenderManager.redraw();
 	}
@@ -160,7 +160,9 @@ static {
 }
 
 public View() {
-	allInstances.add(this);
+	// Only the graphical application's views are rendered
+	if (this.getContext().isDefault())
+		allInstances.add(this);
 	viewID = nextID++;
 }
 
@@ -171,7 +173,8 @@ public static ArrayList<View> getAll() {
 @Override
 public void kill() {
 	super.kill();
-	allInstances.remove(this);
+	if (this.getContext().isDefault())
+		allInstances.remove(this);
 }
 
 public Vec3d getGlobalPosition() {
@@ -0,0 +1,151 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.sandwell.JavaSimulation;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Reads the entries of a trace written by BinaryTraceWriter in order,
+ * resolving interned ids back to their strings.
+ */
+class BinaryTraceReader {
+	private final DataInputStream in;
+	private final ArrayList<String> strings;
+
+	static class Entry {
+		int type;
+		String emName;
+		long tick;
+		long schedTick;
+		int priority;
+		String desc;
+
+		/**
+		 * Returns true if both entries describe the same trace entry
+		 */
+		boolean matches(Entry other) {
+			if (type != other.type || tick != other.tick ||
+			    schedTick != other.schedTick || priority != other.priority)
+				return false;
+
+			if (!emName.equals(other.emName))
+				return false;
+
+			if (desc == null)
+				return other.desc == null;
+
+			return desc.equals(other.desc);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s\t%d\t%s", emName, tick,
+			       EventTraceRecord.formatEntry(type, schedTick, priority, desc));
+		}
+	}
+
+	BinaryTraceReader(File file) {
+		strings = new ArrayList<String>();
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+			if (in.readInt() != BinaryTraceWriter.MAGIC)
+				throw new ErrorException("%s is not a binary event trace", file);
+			if (in.readInt() != BinaryTraceWriter.VERSION)
+				throw new ErrorException("%s has an unsupported binary event trace version", file);
+		}
+		catch (IOException e) {
+			throw new ErrorException(e);
+		}
+	}
+
+	/**
+	 * Reads the next trace entry into the given entry.
+	 * @return false if the end of the trace was reached
+	 */
+	boolean next(Entry ent) {
+		try {
+			while (true) {
+				int type = in.read();
+				if (type == -1)
+					return false;
+
+				if (type == BinaryTraceWriter.DEFINE) {
+					int id = (int)readVarLong();
+					byte[] utf = new byte[(int)readVarLong()];
+					in.readFully(utf);
+					// Ids are defined in order, then reused once the writer's table is full
+					String str = new String(utf, BinaryTraceWriter.UTF8);
+					if (id == strings.size())
+						strings.add(str);
+					else if (id < strings.size())
+						strings.set(id, str);
+					else
+						throw new ErrorException("Corrupt binary event trace, id %d defined out of order", id);
+					continue;
+				}
+
+				ent.type = type;
+				ent.emName = strings.get((int)readVarLong());
+				ent.tick = readVarLong();
+				long delta = readVarLong();
+				ent.schedTick = ent.tick + ((delta >>> 1) ^ -(delta & 1));
+				ent.priority = (int)readVarLong();
+				int entId = (int)readVarLong() - 1;
+				int methodId = (int)readVarLong() - 1;
+				if (entId == -1)
+					ent.desc = null;
+				else if (methodId == -1)
+					ent.desc = strings.get(entId);
+				else
+					ent.desc = strings.get(entId) + "." + strings.get(methodId);
+				return true;
+			}
+		}
+		catch (EOFException e) {
+			// A trace cut off mid-entry ends at the last complete entry
+			return false;
+		}
+		catch (IOException e) {
+			throw new ErrorException(e);
+		}
+	}
+
+	private long readVarLong() throws IOException {
+		long val = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.read();
+			if (b == -1)
+				throw new EOFException();
+
+			val |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return val;
+		}
+		throw new ErrorException("Corrupt binary event trace, varint too long");
+	}
+
+	void close() {
+		try {
+			in.close();
+		}
+		catch (IOException e) {}
+	}
+}
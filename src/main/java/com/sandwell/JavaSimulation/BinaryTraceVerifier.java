@@ -0,0 +1,158 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.sandwell.JavaSimulation;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+
+import com.jaamsim.events.Event;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventTraceListener;
+import com.jaamsim.events.ProcessTarget;
+
+/**
+ * Verifies a run against a binary trace as it executes. Entries are compared
+ * in stream order for each EventManager, i.e. keyed by (tick, sequence), so
+ * only entries from other EventManagers that were read ahead are buffered.
+ */
+class BinaryTraceVerifier implements EventTraceListener {
+	private final BinaryTraceReader reader;
+	private final HashMap<String, ArrayDeque<BinaryTraceReader.Entry>> pending;
+	private final HashMap<String, long[]> sequence;
+	private final BinaryTraceReader.Entry received;
+	private boolean exhausted;
+
+	BinaryTraceVerifier(File file) {
+		reader = new BinaryTraceReader(file);
+		pending = new HashMap<String, ArrayDeque<BinaryTraceReader.Entry>>();
+		sequence = new HashMap<String, long[]>();
+		received = new BinaryTraceReader.Entry();
+	}
+
+	void close() {
+		reader.close();
+	}
+
+	/**
+	 * Returns the next expected entry for the given EventManager, or null if
+	 * the trace holds no further entries for it.
+	 */
+	private BinaryTraceReader.Entry nextExpected(String emName) {
+		ArrayDeque<BinaryTraceReader.Entry> queue = pending.get(emName);
+		if (queue != null && !queue.isEmpty())
+			return queue.poll();
+
+		while (!exhausted) {
+			BinaryTraceReader.Entry ent = new BinaryTraceReader.Entry();
+			if (!reader.next(ent)) {
+				exhausted = true;
+				break;
+			}
+
+			if (ent.emName.equals(emName))
+				return ent;
+
+			ArrayDeque<BinaryTraceReader.Entry> other = pending.get(ent.emName);
+			if (other == null) {
+				other = new ArrayDeque<BinaryTraceReader.Entry>();
+				pending.put(ent.emName, other);
+			}
+			other.add(ent);
+		}
+		return null;
+	}
+
+	private synchronized void verify(int type, EventManager e, long tick, long schedTick, int priority, String desc) {
+		received.type = type;
+		received.emName = e.name;
+		received.tick = tick;
+		received.schedTick = schedTick;
+		received.priority = priority;
+		received.desc = desc;
+
+		long[] seq = sequence.get(e.name);
+		if (seq == null) {
+			seq = new long[1];
+			sequence.put(e.name, seq);
+		}
+		long num = seq[0]++;
+
+		BinaryTraceReader.Entry expected = this.nextExpected(e.name);
+		if (expected == null) {
+			System.out.println("No matching event found for:");
+			System.out.println(received);
+			Simulation.pause();
+			return;
+		}
+
+		if (expected.matches(received))
+			return;
+
+		System.out.format("Difference in event stream detected at entry %d%n", num);
+		System.out.println("Received:");
+		System.out.println(received);
+		System.out.println("Expected:");
+		System.out.println(expected);
+
+		Simulation.pause();
+		new Throwable().printStackTrace();
+	}
+
+	@Override
+	public void traceWait(EventManager e, Event evt) {
+		this.verify(EventTraceRecord.TRACE_WAIT, e, evt.schedTick, evt.schedTick, evt.priority, evt.getDesc());
+	}
+
+	@Override
+	public void traceEvent(EventManager e, Event evt) {
+		this.verify(EventTraceRecord.TRACE_EVENT, e, evt.schedTick, evt.schedTick, evt.priority, evt.getDesc());
+	}
+
+	@Override
+	public void traceInterrupt(EventManager e, Event evt) {
+		this.verify(EventTraceRecord.TRACE_INTERRUPT, e, evt.schedTick, evt.schedTick, evt.priority, evt.getDesc());
+	}
+
+	@Override
+	public void traceKill(EventManager e, Event evt) {
+		this.verify(EventTraceRecord.TRACE_KILL, e, evt.schedTick, evt.schedTick, evt.priority, evt.getDesc());
+	}
+
+	@Override
+	public void traceWaitUntil(EventManager e) {
+		this.verify(EventTraceRecord.TRACE_WAITUNTIL, e, e.currentTick(), 0, 0, null);
+	}
+
+	@Override
+	public void traceWaitUntilEnded(EventManager e, Event evt) {
+		this.verify(EventTraceRecord.TRACE_WAITUNTILENDED, e, e.currentTick(), evt.schedTick, evt.priority, evt.getDesc());
+	}
+
+	@Override
+	public void traceProcessStart(EventManager e, ProcessTarget t) {
+		this.verify(EventTraceRecord.TRACE_PROCESSSTART, e, e.currentTick(), 0, 0, t.getDescription());
+	}
+
+	@Override
+	public void traceProcessEnd(EventManager e) {
+		this.verify(EventTraceRecord.TRACE_PROCESSEND, e, e.currentTick(), 0, 0, null);
+	}
+
+	@Override
+	public void traceSchedProcess(EventManager e, Event evt) {
+		this.verify(EventTraceRecord.TRACE_SCHEDPROCESS, e, e.currentTick(), evt.schedTick, evt.priority, evt.getDesc());
+	}
+}
@@ -0,0 +1,324 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.sandwell.JavaSimulation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jaamsim.events.Event;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventTraceListener;
+import com.jaamsim.events.ProcessTarget;
+
+/**
+ * Writes the event trace in a compact binary form. The entity and method
+ * parts of each description, and the EventManager names, are interned to
+ * integer ids the first time they are seen, so a trace entry is a handful of
+ * variable length integers. Entries are encoded on the simulation thread into
+ * a ring buffer that is drained to the file by a background thread.
+ *
+ * The stream starts with the int MAGIC and VERSION, followed by entries made
+ * of a type byte and unsigned LEB128 varints:
+ * <pre>
+ * DEFINE: 0, id, length, UTF-8 bytes
+ * TRACE:  type, emId, tick, zigzag(schedTick - tick), priority, entId + 1, methodId + 1
+ * </pre>
+ * A description is split at its first '.' into an entity and a method part,
+ * an entId of -1 marks an entry without a description and a methodId of -1
+ * a description without a '.'.
+ *
+ * At most MAX_IDS strings are interned at a time. Once the table is full, the
+ * id of the least recently used string is defined again for the new string,
+ * so the table does not grow with the number of generated entities in a long
+ * run.
+ */
+class BinaryTraceWriter implements EventTraceListener {
+	static final int MAGIC = 0x4A534554; // "JSET"
+	static final int VERSION = 2;
+	static final int DEFINE = 0;
+	static final int MAX_ENTRY_SIZE = 1 + 5 + 10 + 10 + 5 + 5 + 5;
+	static final int MAX_IDS = 1 << 16;
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final int RING_SIZE = 1 << 20;
+
+	private final LinkedHashMap<String, Integer> ids; // in least recently used order
+	private final byte[] scratch;
+	private final RingOutput out;
+
+	BinaryTraceWriter(File file) {
+		ids = new LinkedHashMap<String, Integer>(1024, 0.75f, true);
+		scratch = new byte[MAX_ENTRY_SIZE];
+		try {
+			out = new RingOutput(new FileOutputStream(file), RING_SIZE);
+		}
+		catch (IOException e) {
+			throw new ErrorException(e);
+		}
+
+		putInt(scratch, 0, MAGIC);
+		putInt(scratch, 4, VERSION);
+		out.put(scratch, 0, 8);
+	}
+
+	private int intern(String str) {
+		if (str == null)
+			return -1;
+
+		Integer id = ids.get(str);
+		if (id != null)
+			return id.intValue();
+
+		int newId = ids.size();
+		if (newId == MAX_IDS) {
+			Iterator<Map.Entry<String, Integer>> eldest = ids.entrySet().iterator();
+			newId = eldest.next().getValue();
+			eldest.remove();
+		}
+		ids.put(str, newId);
+
+		byte[] utf = str.getBytes(UTF8);
+		byte[] def = new byte[11 + utf.length];
+		def[0] = DEFINE;
+		int pos = putVarLong(def, 1, newId);
+		pos = putVarLong(def, pos, utf.length);
+		System.arraycopy(utf, 0, def, pos, utf.length);
+		out.put(def, 0, pos + utf.length);
+		return newId;
+	}
+
+	private synchronized void entry(int type, EventManager e, long tick, long schedTick, int priority, String desc) {
+		int emId = intern(e.name);
+		int entId = -1;
+		int methodId = -1;
+		if (desc != null) {
+			int dot = desc.indexOf('.');
+			if (dot == -1) {
+				entId = intern(desc);
+			}
+			else {
+				entId = intern(desc.substring(0, dot));
+				methodId = intern(desc.substring(dot + 1));
+			}
+		}
+
+		long delta = schedTick - tick;
+		scratch[0] = (byte)type;
+		int pos = putVarLong(scratch, 1, emId);
+		pos = putVarLong(scratch, pos, tick);
+		pos = putVarLong(scratch, pos, (delta << 1) ^ (delta >> 63));
+		pos = putVarLong(scratch, pos, priority & 0xFFFFFFFFL);
+		pos = putVarLong(scratch, pos, entId + 1);
+		pos = putVarLong(scratch, pos, methodId + 1);
+		out.put(scratch, 0, pos);
+	}
+
+	/**
+	 * Writes val as an unsigned LEB128 varint, returns the position after it.
+	 */
+	private static int putVarLong(byte[] b, int pos, long val) {
+		while ((val & ~0x7FL) != 0) {
+			b[pos++] = (byte)((val & 0x7F) | 0x80);
+			val >>>= 7;
+		}
+		b[pos++] = (byte)val;
+		return pos;
+	}
+
+	private static void putInt(byte[] b, int off, int val) {
+		b[off    ] = (byte)(val >>> 24);
+		b[off + 1] = (byte)(val >>> 16);
+		b[off + 2] = (byte)(val >>>  8);
+		b[off + 3] = (byte)(val       );
+	}
+
+	/**
+	 * Blocks until all entries traced so far have been written to the file.
+	 */
+	void flush() {
+		out.drain();
+	}
+
+	void close() {
+		out.close();
+	}
+
+	@Override
+	public void traceWait(EventManager e, Event evt) {
+		this.entry(EventTraceRecord.TRACE_WAIT, e, evt.schedTick, evt.schedTick, evt.priority, evt.getDesc());
+	}
+
+	@Override
+	public void traceEvent(EventManager e, Event evt) {
+		this.entry(EventTraceRecord.TRACE_EVENT, e, evt.schedTick, evt.schedTick, evt.priority, evt.getDesc());
+	}
+
+	@Override
+	public void traceInterrupt(EventManager e, Event evt) {
+		this.entry(EventTraceRecord.TRACE_INTERRUPT, e, evt.schedTick, evt.schedTick, evt.priority, evt.getDesc());
+	}
+
+	@Override
+	public void traceKill(EventManager e, Event evt) {
+		this.entry(EventTraceRecord.TRACE_KILL, e, evt.schedTick, evt.schedTick, evt.priority, evt.getDesc());
+	}
+
+	@Override
+	public void traceWaitUntil(EventManager e) {
+		this.entry(EventTraceRecord.TRACE_WAITUNTIL, e, e.currentTick(), 0, 0, null);
+	}
+
+	@Override
+	public void traceWaitUntilEnded(EventManager e, Event evt) {
+		this.entry(EventTraceRecord.TRACE_WAITUNTILENDED, e, e.currentTick(), evt.schedTick, evt.priority, evt.getDesc());
+	}
+
+	@Override
+	public void traceProcessStart(EventManager e, ProcessTarget t) {
+		this.entry(EventTraceRecord.TRACE_PROCESSSTART, e, e.currentTick(), 0, 0, t.getDescription());
+	}
+
+	@Override
+	public void traceProcessEnd(EventManager e) {
+		this.entry(EventTraceRecord.TRACE_PROCESSEND, e, e.currentTick(), 0, 0, null);
+	}
+
+	@Override
+	public void traceSchedProcess(EventManager e, Event evt) {
+		this.entry(EventTraceRecord.TRACE_SCHEDPROCESS, e, e.currentTick(), evt.schedTick, evt.priority, evt.getDesc());
+	}
+
+	/**
+	 * A fixed size byte ring shared between the producing simulation thread
+	 * and a background thread writing its contents to an OutputStream. The
+	 * producer only blocks when the ring is full.
+	 */
+	private static class RingOutput implements Runnable {
+		private final byte[] ring;
+		private final OutputStream stream;
+		private final Thread writer;
+
+		private int head;      // index of the next byte to write out
+		private int count;     // bytes waiting in the ring
+		private int inFlight;  // bytes taken from the ring but not yet written
+		private boolean closed;
+		private IOException error;
+
+		RingOutput(OutputStream stream, int size) {
+			this.ring = new byte[size];
+			this.stream = stream;
+			writer = new Thread(this, "EventTraceWriter");
+			writer.setDaemon(true);
+			writer.start();
+		}
+
+		synchronized void put(byte[] b, int off, int len) {
+			while (len > 0) {
+				checkError();
+				if (closed)
+					return;
+
+				if (count == ring.length) {
+					try { this.wait(); }
+					catch (InterruptedException e) {}
+					continue;
+				}
+
+				int tail = (head + count) % ring.length;
+				int n = Math.min(len, Math.min(ring.length - count, ring.length - tail));
+				System.arraycopy(b, off, ring, tail, n);
+				count += n;
+				off += n;
+				len -= n;
+				this.notifyAll();
+			}
+		}
+
+		private void checkError() {
+			if (error != null)
+				throw new ErrorException(error);
+		}
+
+		synchronized void drain() {
+			while ((count > 0 || inFlight > 0) && error == null) {
+				try { this.wait(); }
+				catch (InterruptedException e) {}
+			}
+			checkError();
+		}
+
+		void close() {
+			synchronized (this) {
+				if (closed)
+					return;
+				this.drain();
+				closed = true;
+				this.notifyAll();
+			}
+			try {
+				writer.join();
+			}
+			catch (InterruptedException e) {}
+		}
+
+		@Override
+		public void run() {
+			byte[] chunk = new byte[64 * 1024];
+			try {
+				while (true) {
+					int n;
+					synchronized (this) {
+						while (count == 0 && !closed)
+							this.wait();
+
+						if (count == 0)
+							break;
+
+						n = Math.min(chunk.length, Math.min(count, ring.length - head));
+						System.arraycopy(ring, head, chunk, 0, n);
+						head = (head + n) % ring.length;
+						count -= n;
+						inFlight = n;
+						this.notifyAll();
+					}
+
+					stream.write(chunk, 0, n);
+
+					synchronized (this) {
+						inFlight = 0;
+						this.notifyAll();
+					}
+				}
+			}
+			catch (IOException e) {
+				synchronized (this) {
+					error = e;
+					this.notifyAll();
+				}
+			}
+			catch (InterruptedException e) {}
+			finally {
+				try { stream.close(); }
+				catch (IOException e) {}
+			}
+		}
+	}
+}
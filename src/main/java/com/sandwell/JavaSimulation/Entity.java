@@ -20,6 +20,7 @@ import java.util.HashMap;
 import com.jaamsim.basicsim.ClonesOfIterable;
 import com.jaamsim.basicsim.InstanceIterable;
 import com.jaamsim.basicsim.ReflectionTarget;
+import com.jaamsim.events.Condition;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.Process;
 import com.jaamsim.events.ProcessTarget;
@@ -34,15 +35,16 @@ import com.jaamsim.input.OutputHandle;
  * event execution.
  */
 public class Entity {
-	static EventManager root;
-
-	private static long entityCount = 0;
-	private static final ArrayList<Entity> allInstances;
-	private static final HashMap<String, Entity> namedEntities;
+	private final SimulationContext context; // The simulation run this entity belongs to
 
 	private String entityName;
 	private String entityInputName; // Name input by user
-	private final long entityNumber;
+	private long entityNumber;
+	int registryIndex; // Position of this entity in the list of all instances
+	int classIndex; // Position of this entity in the list of instances of its class
+
+	private Entity prototype; // The entity this generated entity was copied from
+	private long generatedNumber; // The sequence number given by the entity's generator
 
 	//public static final int FLAG_TRACE = 0x01; // reserved in case we want to treat tracing like the other flags
 	public static final int FLAG_TRACEREQUIRED = 0x02;
@@ -69,11 +71,6 @@ public class Entity {
 	public static final int PRIO_DEFAULT = 5;
 	public static final int PRIO_LOWEST = 11;
 
-	static {
-		allInstances = new ArrayList<Entity>(100);
-		namedEntities = new HashMap<String, Entity>(100);
-	}
-
 	{
 		trace = new BooleanInput("Trace", "Key Inputs", false);
 		trace.setHidden(true);
@@ -87,37 +84,45 @@ public class Entity {
 	 * Constructor for entity initializing members.
 	 */
 	public Entity() {
-		entityNumber = getNextID();
-		synchronized(allInstances) {
-			allInstances.add(this);
-		}
+		context = SimulationContext.current();
+		entityNumber = context.getNextID();
+		this.register();
 
 		flags = 0;
 	}
 
-	private static synchronized long getNextID() {
-		return ++entityCount;
+	private void register() {
+		context.register(this);
+	}
+
+	private void unregister() {
+		context.unregister(this);
+	}
+
+	/**
+	 * Returns the simulation context this entity was created in.
+	 */
+	public final SimulationContext getContext() {
+		return context;
 	}
 
+	/**
+	 * Returns all the entities in the calling thread's simulation context.
+	 */
 	public static ArrayList<? extends Entity> getAll() {
-		synchronized(allInstances) {
-			return allInstances;
-		}
+		return SimulationContext.current().getAllInstances();
 	}
 
-	public static synchronized final EventManager initEVT() {
-		if (root != null) return root;
-		root = EventManager.initEventManager("DefaultEventManager");
-		return root;
+	public static final EventManager initEVT() {
+		return SimulationContext.current().getEventManager();
 	}
 
 	public static <T extends Entity> ArrayList<T> getInstancesOf(Class<T> proto) {
-		ArrayList<T> instanceList = new ArrayList<T>();
+		ArrayList<? extends Entity> instances = SimulationContext.current().getInstanceList(proto);
+		ArrayList<T> instanceList = new ArrayList<T>(instances.size());
 
-		for (Entity each : allInstances) {
-			if (proto == each.getClass()) {
-				instanceList.add(proto.cast(each));
-			}
+		for (int i = 0; i < instances.size(); i++) {
+			instanceList.add(proto.cast(instances.get(i)));
 		}
 
 		return instanceList;
@@ -131,27 +136,22 @@ public class Entity {
 		return new ClonesOfIterable<T>(proto);
 	}
 
+	/**
+	 * Returns the entities of the given class and its subclasses, in the
+	 * order they were defined.
+	 */
 	public static <T extends Entity> ArrayList<T> getClonesOf(Class<T> proto) {
 		ArrayList<T> cloneList = new ArrayList<T>();
 
-		for (Entity each : allInstances) {
-			if (proto.isAssignableFrom(each.getClass())) {
-				cloneList.add(proto.cast(each));
-			}
+		for (T each : new ClonesOfIterable<T>(proto)) {
+			cloneList.add(each);
 		}
 
 		return cloneList;
 	}
 
 	public static Entity idToEntity(long id) {
-		synchronized (allInstances) {
-			for (Entity e : allInstances) {
-				if (e.getEntityNumber() == id) {
-					return e;
-				}
-			}
-			return null;
-		}
+		return SimulationContext.current().getEntity(id);
 	}
 
 	// This is defined for handlers only
@@ -162,19 +162,76 @@ public class Entity {
 	public void startUp() {}
 
 	public void kill() {
-		synchronized (allInstances) {
-			allInstances.remove(this);
-		}
+		this.unregister();
 		removeInputName();
 
 		setFlag(FLAG_DEAD);
 	}
 
+	/**
+	 * Returns a killed entity to service so that it can be reused. It is given
+	 * a new entity number and is registered as the most recently defined
+	 * entity, as a new instance would be. Subclasses that clear state in
+	 * kill() restore it here.
+	 */
+	protected void revive() {
+		entityNumber = context.getNextID();
+		this.register();
+		clearFlag(FLAG_DEAD);
+	}
+
+	/**
+	 * Marks this entity as generated during the run from the given prototype.
+	 * The entity is not given an input name, its name is built from the
+	 * prototype's name and the sequence number when first requested.
+	 */
+	public void setGenerated(Entity proto, long num) {
+		prototype = proto;
+		generatedNumber = num;
+		entityName = null;
+		setFlag(FLAG_GENERATED);
+	}
+
+	/**
+	 * Returns the entity this generated entity was copied from, or null if it
+	 * was not generated.
+	 */
+	public Entity getPrototype() {
+		return prototype;
+	}
+
+	/**
+	 * Returns TRUE if a generated entity can be reset by copying the inputs of
+	 * its prototype and reused after it is killed, instead of creating a new
+	 * instance. Subclasses that hold run state outside their inputs must not
+	 * be recycled.
+	 */
+	protected boolean isRecyclable() {
+		return false;
+	}
+
+	/**
+	 * Kills this generated entity and holds it for reuse by the next entity
+	 * generated from the same prototype. Entities that cannot be recycled are
+	 * simply killed.
+	 * <p>
+	 * The caller must hold the last reference to the entity in the model. A
+	 * generated entity has no input name, so it cannot be referenced by an
+	 * input. Entities in the default context are never reused, because the
+	 * GUI may still hold them for selection and rendering.
+	 */
+	public void recycle() {
+		this.kill();
+		if (prototype != null && this.isRecyclable() && !context.isDefault())
+			context.freeEntity(this);
+	}
+
 	public void doEnd() {}
 
 	public static long getEntitySequence() {
-		long seq = (long)allInstances.size() << 32;
-		seq += entityCount;
+		SimulationContext ctx = SimulationContext.current();
+		long seq = (long)ctx.getInstanceCount() << 32;
+		seq += ctx.getEntityCount();
 		return seq;
 	}
 
@@ -187,7 +244,7 @@ public class Entity {
 			return Process.currentTick();
 		}
 		catch (ErrorException e) {
-			return root.currentTick();
+			return context.getEventManager().currentTick();
 		}
 	}
 
@@ -196,12 +253,12 @@ public class Entity {
 	 * @return the current time in seconds
 	 */
 	public final double getSimTime() {
-		return Process.ticksToSeconds(getSimTicks());
+		return getEventManager().ticksToSeconds(getSimTicks());
 	}
 
 	public final double getCurrentTime() {
 		long ticks = getSimTicks();
-		return ticks / Process.getSimTimeFactor();
+		return ticks / getEventManager().getSimTimeFactor();
 	}
 
 	protected void mapInput(Input<?> in, String key) {
@@ -276,10 +333,10 @@ public class Entity {
 	}
 
 	/**
-	 * Static method to get the eventManager for all entities.
+	 * Returns the eventManager for the simulation context of this entity.
 	 */
 	private EventManager getEventManager() {
-		return root;
+		return context.getEventManager();
 	}
 
 	/**
@@ -287,10 +344,13 @@ public class Entity {
 	 * Note that the name of the entity may not be the unique identifier used in the namedEntityHashMap; see Entity.toString()
 	 */
 	public String getName() {
-		if (entityName == null)
-			return "Entity-" + entityNumber;
-		else
-			return entityName;
+		if (entityName == null) {
+			if (prototype == null)
+				return "Entity-" + entityNumber;
+
+			entityName = "Copy_of_" + prototype.getInputName() + "-" + generatedNumber;
+		}
+		return entityName;
 	}
 
 	/**
@@ -325,12 +385,17 @@ public class Entity {
 	}
 
 	public static Entity getNamedEntity(String name) {
+		HashMap<String, Entity> namedEntities = SimulationContext.current().namedEntities;
 		synchronized (namedEntities) {
 			return namedEntities.get(name);
 		}
 	}
 
 	private void removeInputName() {
+		if (entityInputName == null)
+			return;
+
+		HashMap<String, Entity> namedEntities = context.namedEntities;
 		synchronized (namedEntities) {
 			if (namedEntities.get(entityInputName) == this)
 				namedEntities.remove(entityInputName);
@@ -343,6 +408,7 @@ public class Entity {
 	 * Method to set the input name of the entity.
 	 */
 	public void setInputName(String newName) {
+		HashMap<String, Entity> namedEntities = context.namedEntities;
 		synchronized (namedEntities) {
 			namedEntities.remove(entityInputName);
 			entityInputName = newName;
@@ -435,6 +501,19 @@ public class Entity {
 		getEventManager().scheduleProcess(ticks, priority, false, t);
 	}
 
+	/**
+	 * Executes the non-blocking target every secs seconds of simulation time,
+	 * outside of the future event list.
+	 */
+	public final void scheduleSampling(double secs, ProcessTarget t) {
+		long ticks = Process.secondsToTicks(secs);
+		getEventManager().scheduleSampling(ticks, t);
+	}
+
+	public final void cancelSampling(ProcessTarget t) {
+		getEventManager().cancelSampling(t);
+	}
+
 	public final void scheduleSingleProcess(ProcessTarget t) {
 		getEventManager().scheduleSingleProcess(0, Entity.PRIO_LOWEST, true, t);
 	}
@@ -529,6 +608,22 @@ public class Entity {
 		getEventManager().waitUntilEnded();
 	}
 
+	/**
+	 * Wait until the given Condition is signalled. Must be followed by a call
+	 * to waitUntilEnded() once the condition has been satisfied.
+	 */
+	public final void waitUntil(Condition c) {
+		getEventManager().waitUntil(c);
+	}
+
+	/**
+	 * Wake the processes waiting on the given Condition so that they re-test
+	 * their conditions.
+	 */
+	public final void signalCondition(Condition c) {
+		getEventManager().signal(c);
+	}
+
 	public final void killEvent(Process proc) {
 		// Just return if given a null Process
 		if (proc == null)
@@ -0,0 +1,159 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.sandwell.JavaSimulation;
+
+import java.util.ArrayList;
+
+/**
+ * A list of entities kept in the order they were added, from which an entity
+ * can be removed in constant time.
+ * <p>
+ * Removing an entity leaves an empty place in the list, which is dropped the
+ * next time the list is read with getList(). Removing the last entity in the
+ * list leaves no empty place, so a list can be emptied from its end without
+ * being compacted.
+ * <p>
+ * Iterators read the list through getEntries(), which keeps the empty places.
+ * The entities are added in the order of their entity numbers, so an
+ * iterator that finds the list has been compacted since it last read it can
+ * find its place again with indexAfter().
+ * <p>
+ * Each entity records its own position in the list, through getIndex() and
+ * setIndex(). The list is not synchronized.
+ */
+public abstract class EntityList<T extends Entity> {
+	private final ArrayList<T> list;
+	private int numEmpty; // Number of places in the list left by removed entities
+	private int compactCount; // Number of times the empty places have been dropped
+
+	public EntityList(int capacity) {
+		list = new ArrayList<T>(capacity);
+		numEmpty = 0;
+	}
+
+	/**
+	 * Returns the position of the entity in the list, or -1 if it is not in
+	 * the list.
+	 */
+	protected abstract int getIndex(T ent);
+
+	protected abstract void setIndex(T ent, int index);
+
+	public void add(T ent) {
+		this.setIndex(ent, list.size());
+		list.add(ent);
+	}
+
+	public void remove(T ent) {
+		int index = this.getIndex(ent);
+		if (index < 0)
+			return;
+
+		this.setIndex(ent, -1);
+		if (index < list.size() - 1) {
+			list.set(index, null);
+			numEmpty++;
+			return;
+		}
+
+		// Drop the empty places left at the end of the list
+		list.remove(index);
+		while (numEmpty > 0 && list.get(list.size() - 1) == null) {
+			list.remove(list.size() - 1);
+			numEmpty--;
+		}
+	}
+
+	/**
+	 * Returns the number of entities in the list.
+	 */
+	public int size() {
+		return list.size() - numEmpty;
+	}
+
+	/**
+	 * Returns the entities in the order they were added. The returned list is
+	 * held by this object and must not be modified, if an entity is removed
+	 * while it is being read, the entity's place is set to null.
+	 */
+	public ArrayList<T> getList() {
+		if (numEmpty > 0)
+			this.compact();
+		return list;
+	}
+
+	/**
+	 * Returns the entities in the order they were added, including the empty
+	 * places left by removed entities, which are null. The returned list is
+	 * held by this object and must not be modified.
+	 */
+	public ArrayList<T> getEntries() {
+		return list;
+	}
+
+	/**
+	 * Returns the number of times the list has been compacted. The positions
+	 * in the list returned by getEntries() change only when this count does.
+	 */
+	public int getCompactCount() {
+		return compactCount;
+	}
+
+	/**
+	 * Returns the position in getEntries() of the first entity whose entity
+	 * number is greater than the given one, or the size of the list if there
+	 * is none.
+	 */
+	public int indexAfter(long entNum) {
+		int lo = 0;
+		int hi = list.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+
+			// Compare with the first entity at or after mid
+			int pos = mid;
+			while (pos < hi && list.get(pos) == null)
+				pos++;
+			if (pos == hi) {
+				hi = mid;
+				continue;
+			}
+
+			if (list.get(pos).getEntityNumber() <= entNum)
+				lo = pos + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	private void compact() {
+		int j = 0;
+		for (int i = 0; i < list.size(); i++) {
+			T ent = list.get(i);
+			if (ent == null)
+				continue;
+
+			if (j < i) {
+				list.set(j, ent);
+				this.setIndex(ent, j);
+			}
+			j++;
+		}
+		list.subList(j, list.size()).clear();
+		numEmpty = 0;
+		compactCount++;
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.sandwell.JavaSimulation;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Converts a binary event trace (.evb) to the text trace format (.evt)
+ * written by TraceEvents with the Text trace format.
+ *
+ * Usage: EventTraceDump &lt;trace.evb&gt; [output.evt]
+ */
+public class EventTraceDump {
+
+	private EventTraceDump() {}
+
+	private static class TextRecord extends EventTraceRecord {
+		private static final long serialVersionUID = 1L;
+
+		private final Writer out;
+
+		TextRecord(Writer out) {
+			this.out = out;
+		}
+
+		@Override
+		void processRecord() {
+			try {
+				for (String line : this) {
+					out.write(line);
+					out.write(System.getProperty("line.separator"));
+				}
+			}
+			catch (IOException e) {
+				throw new ErrorException(e);
+			}
+		}
+	}
+
+	/**
+	 * Writes the text form of the binary trace in inFile to out.
+	 */
+	static void dump(File inFile, Writer out) {
+		BinaryTraceReader reader = new BinaryTraceReader(inFile);
+		try {
+			TextRecord rec = new TextRecord(out);
+			BinaryTraceReader.Entry ent = new BinaryTraceReader.Entry();
+			while (reader.next(ent)) {
+				rec.addEntry(ent.type, ent.emName, ent.tick, ent.schedTick, ent.priority, ent.desc);
+			}
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args.length > 2) {
+			System.err.println("Usage: EventTraceDump <trace.evb> [output.evt]");
+			System.exit(1);
+		}
+
+		File inFile = new File(args[0]);
+		String outName = args.length == 2 ? args[1] : args[0].replaceAll("\\.evb$", "") + ".evt";
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outName), "UTF-8"));
+		try {
+			EventTraceDump.dump(inFile, out);
+		}
+		finally {
+			out.close();
+		}
+	}
+}
@@ -22,6 +22,17 @@ import com.jaamsim.events.EventTraceListener;
 import com.jaamsim.events.ProcessTarget;
 
 class EventTraceRecord extends ArrayList<String> implements EventTraceListener {
+	// Trace entry types, shared with the binary trace format
+	static final int TRACE_WAIT = 1;
+	static final int TRACE_EVENT = 2;
+	static final int TRACE_INTERRUPT = 3;
+	static final int TRACE_KILL = 4;
+	static final int TRACE_WAITUNTIL = 5;
+	static final int TRACE_WAITUNTILENDED = 6;
+	static final int TRACE_PROCESSSTART = 7;
+	static final int TRACE_PROCESSEND = 8;
+	static final int TRACE_SCHEDPROCESS = 9;
+
 	private String eventManagerName;
 	private long internalTime;
 	private String targetName;
@@ -89,96 +100,122 @@ class EventTraceRecord extends ArrayList<String> implements EventTraceListener {
 			return;
 
 		this.add("");
-		this.parse();
-		EventTracer.processTraceData(this);
+		this.processRecord();
 		this.clear();
 		traceLevel--;
 	}
 
+	/**
+	 * Called with each completed record, the default implementation parses
+	 * the record and hands it to the EventTracer.
+	 */
+	void processRecord() {
+		this.parse();
+		EventTracer.processTraceData(this);
+	}
 
 	synchronized void clearTrace() {
 		traceLevel = 0;
 		clear();
 	}
 
-	@Override
-	public synchronized void traceWait(EventManager e, Event evt) {
-		this.addHeader(e.name, evt.schedTick);
-		traceLevel--;
+	/**
+	 * Returns the text form of a single trace entry, without indentation.
+	 */
+	static String formatEntry(int type, long schedTick, int priority, String desc) {
+		switch (type) {
+		case TRACE_WAIT:
+			return String.format("Wait\t%d\t%d\t%s", schedTick, priority, desc);
+		case TRACE_EVENT:
+			return String.format("Event\t%d\t%d\t%s", schedTick, priority, desc);
+		case TRACE_INTERRUPT:
+			return String.format("Int\t%d\t%d\t%s", schedTick, priority, desc);
+		case TRACE_KILL:
+			return String.format("Kill\t%d\t%d\t%s", schedTick, priority, desc);
+		case TRACE_WAITUNTIL:
+			return "WaitUntil";
+		case TRACE_WAITUNTILENDED:
+			return String.format("WaitUntilEnded\t%d\t%d\t%s", schedTick, priority, desc);
+		case TRACE_PROCESSSTART:
+			return String.format("StartProcess\t%s", desc);
+		case TRACE_PROCESSEND:
+			return "Exit";
+		case TRACE_SCHEDPROCESS:
+			return String.format("SchedProcess\t%d\t%d\t%s", schedTick, priority, desc);
+		default:
+			throw new ErrorException("Unknown event trace entry type %d", type);
+		}
+	}
 
-		this.append(String.format("Wait\t%d\t%d\t%s",
-		            evt.schedTick, evt.priority, evt.getDesc()));
+	/**
+	 * Adds a single trace entry to the record, the record is processed once
+	 * the entry completes it.
+	 * @param type one of the TRACE_* entry types
+	 * @param emName name of the EventManager that produced the entry
+	 * @param tick tick the record header is written for
+	 * @param schedTick scheduled tick of the event, unused for process entries
+	 * @param priority priority of the event, unused for process entries
+	 * @param desc description of the event or process target
+	 */
+	synchronized void addEntry(int type, String emName, long tick, long schedTick, int priority, String desc) {
+		this.addHeader(emName, tick);
 
-		this.finish();
-	}
+		// Waits and process exits close a level before they are written
+		if (type == TRACE_WAIT || type == TRACE_WAITUNTIL || type == TRACE_PROCESSEND)
+			traceLevel--;
 
-	@Override
-	public synchronized void traceEvent(EventManager e, Event evt) {
-		this.addHeader(e.name, evt.schedTick);
-		this.append(String.format("Event\t%d\t%d\t%s",
-		            evt.schedTick, evt.priority, evt.getDesc()));
+		this.append(formatEntry(type, schedTick, priority, desc));
+
+		// Event wakeups and process starts open a new level
+		if (type == TRACE_EVENT || type == TRACE_INTERRUPT || type == TRACE_PROCESSSTART)
+			traceLevel++;
 
-		traceLevel++;
 		this.finish();
 	}
 
 	@Override
-	public synchronized void traceInterrupt(EventManager e, Event evt) {
-		this.addHeader(e.name, evt.schedTick);
-		this.append(String.format("Int\t%d\t%d\t%s",
-		            evt.schedTick, evt.priority, evt.getDesc()));
+	public void traceWait(EventManager e, Event evt) {
+		this.addEntry(TRACE_WAIT, e.name, evt.schedTick, evt.schedTick, evt.priority, evt.getDesc());
+	}
 
-		traceLevel++;
-		this.finish();
+	@Override
+	public void traceEvent(EventManager e, Event evt) {
+		this.addEntry(TRACE_EVENT, e.name, evt.schedTick, evt.schedTick, evt.priority, evt.getDesc());
 	}
 
 	@Override
-	public synchronized void traceKill(EventManager e, Event evt) {
-		this.addHeader(e.name, evt.schedTick);
-		this.append(String.format("Kill\t%d\t%d\t%s",
-		            evt.schedTick, evt.priority, evt.getDesc()));
-		this.finish();
+	public void traceInterrupt(EventManager e, Event evt) {
+		this.addEntry(TRACE_INTERRUPT, e.name, evt.schedTick, evt.schedTick, evt.priority, evt.getDesc());
 	}
 
 	@Override
-	public synchronized void traceWaitUntil(EventManager e) {
-		this.addHeader(e.name, e.currentTick());
-		traceLevel--;
-		this.append("WaitUntil");
-		this.finish();
+	public void traceKill(EventManager e, Event evt) {
+		this.addEntry(TRACE_KILL, e.name, evt.schedTick, evt.schedTick, evt.priority, evt.getDesc());
 	}
 
 	@Override
-	public synchronized void traceWaitUntilEnded(EventManager e, Event evt) {
-		this.addHeader(e.name, e.currentTick());
-		this.append(String.format("WaitUntilEnded\t%d\t%d\t%s",
-		            evt.schedTick, evt.priority, evt.getDesc()));
+	public void traceWaitUntil(EventManager e) {
+		this.addEntry(TRACE_WAITUNTIL, e.name, e.currentTick(), 0, 0, null);
+	}
 
-		this.finish();
+	@Override
+	public void traceWaitUntilEnded(EventManager e, Event evt) {
+		this.addEntry(TRACE_WAITUNTILENDED, e.name, e.currentTick(), evt.schedTick, evt.priority, evt.getDesc());
 	}
 
 	@Override
-	public synchronized void traceProcessStart(EventManager e, ProcessTarget t) {
-		this.addHeader(e.name, e.currentTick());
-		this.append(String.format("StartProcess\t%s", t.getDescription()));
-		traceLevel++;
-		this.finish();
+	public void traceProcessStart(EventManager e, ProcessTarget t) {
+		this.addEntry(TRACE_PROCESSSTART, e.name, e.currentTick(), 0, 0, t.getDescription());
 	}
 
 	@Override
-	public synchronized void traceProcessEnd(EventManager e) {
-		this.addHeader(e.name, e.currentTick());
-		traceLevel--;
-		this.append("Exit");
-		this.finish();
+	public void traceProcessEnd(EventManager e) {
+		this.addEntry(TRACE_PROCESSEND, e.name, e.currentTick(), 0, 0, null);
 	}
 
 	@Override
-	public synchronized void traceSchedProcess(EventManager e, Event evt) {
-		this.addHeader(e.name, e.currentTick());
-		this.append(String.format("SchedProcess\t%d\t%d\t%s",
-		            evt.schedTick, evt.priority, evt.getDesc()));
-		this.finish();
+	public void traceSchedProcess(EventManager e, Event evt) {
+		this.addEntry(TRACE_SCHEDPROCESS, e.name, e.currentTick(), evt.schedTick, evt.priority, evt.getDesc());
 	}
 
 	boolean isDefaultEventManager() {
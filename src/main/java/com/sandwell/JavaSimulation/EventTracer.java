@@ -14,14 +14,19 @@
  */
 package com.sandwell.JavaSimulation;
 
+import java.io.File;
 import java.util.ArrayList;
 
 import com.jaamsim.events.EventManager;
 import com.jaamsim.input.InputAgent;
 
 class EventTracer {
+	enum TraceFormat { TEXT, BINARY }
+
 	private static FileEntity eventTraceFile;
 	private static FileEntity eventVerifyFile;
+	private static BinaryTraceWriter binaryTrace;
+	private static BinaryTraceVerifier binaryVerify;
 	private static long bufferTime; // Internal sim time buffer has been filled to
 	private static final ArrayList<EventTraceRecord> eventBuffer;
 
@@ -35,6 +40,9 @@ class EventTracer {
 		if (eventVerifyFile != null)
 			eventVerifyFile.toStart();
 
+		// Binary traces are streamed, a new run starts a new trace
+		closeBinary();
+
 		eventBuffer.clear();
 		bufferTime = 0;
 	}
@@ -67,28 +75,82 @@ class EventTracer {
 		}
 	}
 
+	private static File getBinaryFile() {
+		File file = new File(InputAgent.getRunName() + ".evb");
+		if (file.isAbsolute())
+			return file;
+		return new File(FileEntity.getRootDirectory(), file.getPath());
+	}
+
+	private static void closeBinary() {
+		if (binaryTrace != null) {
+			binaryTrace.close();
+			binaryTrace = null;
+		}
+		if (binaryVerify != null) {
+			binaryVerify.close();
+			binaryVerify = null;
+		}
+	}
+
+	/**
+	 * Waits for the entries traced so far to be written to the trace file.
+	 */
+	static void flush() {
+		if (binaryTrace != null)
+			binaryTrace.flush();
+		if (eventTraceFile != null)
+			eventTraceFile.flush();
+	}
+
 	static void traceAllEvents(EventManager evt, boolean enable) {
+		traceAllEvents(evt, enable, TraceFormat.TEXT);
+	}
+
+	static void traceAllEvents(EventManager evt, boolean enable, TraceFormat format) {
 		if (enable) {
 			verifyAllEvents(evt, false);
+			if (format == TraceFormat.BINARY) {
+				binaryTrace = new BinaryTraceWriter(getBinaryFile());
+				evt.setTraceListener(binaryTrace);
+				return;
+			}
 			eventTraceFile = new FileEntity(InputAgent.getRunName() + ".evt", FileEntity.FILE_WRITE, false);
 			evt.setTraceListener(new EventTraceRecord());
-		} else if (eventTraceFile != null) {
-			eventTraceFile.close();
+		} else if (eventTraceFile != null || binaryTrace != null) {
+			if (eventTraceFile != null)
+				eventTraceFile.close();
 			eventTraceFile = null;
+			if (binaryTrace != null)
+				binaryTrace.close();
+			binaryTrace = null;
 			evt.setTraceListener(null);
 		}
 	}
 
 	static void verifyAllEvents(EventManager evt, boolean enable) {
+		verifyAllEvents(evt, enable, TraceFormat.TEXT);
+	}
+
+	static void verifyAllEvents(EventManager evt, boolean enable, TraceFormat format) {
 		if (enable) {
 			traceAllEvents(evt, false);
+			if (format == TraceFormat.BINARY) {
+				binaryVerify = new BinaryTraceVerifier(getBinaryFile());
+				evt.setTraceListener(binaryVerify);
+				return;
+			}
 			eventBuffer.clear();
 			bufferTime = 0;
 			eventVerifyFile = new FileEntity(InputAgent.getRunName() + ".evt", FileEntity.FILE_READ, false);
 			evt.setTraceListener(new EventTraceRecord());
-		} else if (eventVerifyFile != null) {
-			eventVerifyFile.close();
+		} else if (eventVerifyFile != null || binaryVerify != null) {
+			if (eventVerifyFile != null)
+				eventVerifyFile.close();
 			eventVerifyFile = null;
+			if (binaryVerify != null)
+				binaryVerify.close();
+			binaryVerify = null;
 			evt.setTraceListener(null);
 		}
 	}
@@ -20,7 +20,6 @@ import com.jaamsim.DisplayModels.DisplayModel;
 import com.jaamsim.input.Keyword;
 
 public class ObjectType extends Entity {
-	private static final ArrayList<ObjectType> allInstances;
 
 	@Keyword(description = "The java class of the object type",
 	         example = "This is placeholder example text")
@@ -38,10 +37,6 @@ public class ObjectType extends Entity {
 	         example = "This is placeholder example text")
 	private final BooleanInput dragAndDrop;
 
-	static {
-		allInstances = new ArrayList<ObjectType>();
-	}
-
 	{
 		javaClass = new ClassInput( "JavaClass", "Key Inputs", null );
 		this.addInput( javaClass, true );
@@ -56,35 +51,21 @@ public class ObjectType extends Entity {
 		this.addInput(dragAndDrop, true);
 	}
 
-	public ObjectType() {
-		synchronized (allInstances) {
-			allInstances.add(this);
-		}
-	}
+	public ObjectType() {}
 
+	/**
+	 * Returns the ObjectTypes in the calling thread's simulation context.
+	 */
 	public static ArrayList<ObjectType> getAll() {
-		synchronized (allInstances) {
-			return allInstances;
-		}
-	}
-
-	@Override
-	public void kill() {
-		super.kill();
-		allInstances.remove(this);
+		return Entity.getInstancesOf(ObjectType.class);
 	}
 
 	public static ObjectType getFor(Class<? extends Entity> jClass) {
-		synchronized (allInstances) {
-			ObjectType type = null;
-			for(ObjectType each: allInstances) {
-				if(each.getJavaClass() == jClass) {
-					type = each;
-					break;
-				}
-			}
-			return type;
+		for(ObjectType each: ObjectType.getAll()) {
+			if(each.getJavaClass() == jClass)
+				return each;
 		}
+		return null;
 	}
 
 	public Class<? extends Entity> getJavaClass() {
@@ -17,23 +17,13 @@ package com.sandwell.JavaSimulation;
 import java.util.ArrayList;
 
 public class Palette extends Entity {
-	private static final ArrayList<Palette> allInstances;
 
-	static {
-		allInstances = new ArrayList<Palette>();
-	}
-
-	public Palette() {
-		allInstances.add(this);
-	}
+	public Palette() {}
 
+	/**
+	 * Returns the Palettes in the calling thread's simulation context.
+	 */
 	public static ArrayList<Palette> getAll() {
-		return allInstances;
-	}
-
-	@Override
-	public void kill() {
-		super.kill();
-		allInstances.remove(this);
+		return Entity.getInstancesOf(Palette.class);
 	}
 }
@@ -95,7 +95,9 @@ implements SampleProvider {
 	}
 
 	public ProbabilityDistribution() {
-		allInstances.add(this);
+		synchronized (allInstances) {
+			allInstances.add(this);
+		}
 		probList = new DoubleVector( 1, 1 );
 		valueList = new DoubleVector( 1, 1 );
 		objectList = new Vector( 1, 1 );
@@ -130,7 +132,9 @@ implements SampleProvider {
 	@Override
 	public void kill() {
 		super.kill();
-		allInstances.remove(this);
+		synchronized (allInstances) {
+			allInstances.remove(this);
+		}
 	}
 
 	// ******************************************************************************************
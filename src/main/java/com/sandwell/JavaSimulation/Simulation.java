@@ -14,13 +14,16 @@
  */
 package com.sandwell.JavaSimulation;
 
-
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventMetrics;
 import com.jaamsim.events.Process;
 import com.jaamsim.events.ProcessTarget;
 import com.jaamsim.input.InputAgent;
 import com.jaamsim.input.Keyword;
+import com.jaamsim.input.Output;
 import com.jaamsim.input.ValueInput;
 import com.jaamsim.ui.ExceptionBox;
+import com.jaamsim.units.DimensionlessUnit;
 import com.jaamsim.units.TimeUnit;
 import com.sandwell.JavaSimulation3D.Clock;
 import com.sandwell.JavaSimulation3D.GUIFrame;
@@ -38,119 +41,136 @@ public class Simulation extends Entity {
 	                "and execute for the specified run duration. The total length of the " +
 	                "simulation run will be the sum of Initialization and Duration.",
 	         example = "Simulation Initialization { 720 h }")
-	private static final ValueInput initializationTime;
+	private final ValueInput initializationTime;
 
 	@Keyword(description = "Date at which the simulation run is started (yyyy-mm-dd). This " +
 	                "input has no effect on the simulation results unless the seasonality " +
 	                "factors vary from month to month.",
 	         example = "Simulation StartDate { 2011-01-01 }")
-	private static final StringInput startDate;
+	private final StringInput startDate;
 
 	@Keyword(description = "Time at which the simulation run is started (hh:mm).",
 	         example = "Simulation StartTime { 2160 h }")
-	private static final ValueInput startTimeInput;
+	private final ValueInput startTimeInput;
 
 	@Keyword(description = "The duration of the simulation run in which all statistics will be recorded.",
 	         example = "Simulation Duration { 8760 h }")
-	private static final ValueInput runDuration;
+	private final ValueInput runDuration;
 
 	@Keyword(description = "The number of discrete time units in one hour.",
 	         example = "Simulation SimulationTimeScale { 4500 }")
-	private static final DoubleInput simTimeScaleInput;
+	private final DoubleInput simTimeScaleInput;
 
 	@Keyword(description = "If the value is TRUE, then the input report file will be printed after loading the " +
 	                "configuration file.  The input report can always be generated when needed by selecting " +
 	                "\"Print Input Report\" under the File menu.",
 	         example = "Simulation PrintInputReport { TRUE }")
-	private static final BooleanInput printInputReport;
+	private final BooleanInput printInputReport;
 
 	@Keyword(description = "This is placeholder description text",
 	         example = "This is placeholder example text")
-	private static final BooleanInput traceEventsInput;
+	private final BooleanInput traceEventsInput;
 
 	@Keyword(description = "This is placeholder description text",
 	         example = "This is placeholder example text")
-	private static final BooleanInput verifyEventsInput;
+	private final BooleanInput verifyEventsInput;
+
+	@Keyword(description = "The file format used by TraceEvents and VerifyEvents. TEXT reads and " +
+	                "writes <run name>.evt, BINARY reads and writes the compact <run name>.evb " +
+	                "which can be converted to text with EventTraceDump.",
+	         example = "Simulation TraceFormat { BINARY }")
+	private final EnumInput<EventTracer.TraceFormat> traceFormatInput;
 
 	@Keyword(description = "The real time speed up factor",
 	         example = "RunControl RealTimeFactor { 1200 }")
-	private static final IntegerInput realTimeFactor;
+	private final IntegerInput realTimeFactor;
 	public static final int DEFAULT_REAL_TIME_FACTOR = 10000;
 	public static final int MIN_REAL_TIME_FACTOR = 1;
 	public static final int MAX_REAL_TIME_FACTOR= 1000000;
 	@Keyword(description = "A Boolean to turn on or off real time in the simulation run",
 	         example = "RunControl RealTime { TRUE }")
-	private static final BooleanInput realTime;
+	private final BooleanInput realTime;
 
 	@Keyword(description = "This is placeholder description text",
 	         example = "This is placeholder example text")
-	private static final BooleanInput exitAtStop;
+	private final BooleanInput exitAtStop;
 
-	private static double startTime;
-	private static double endTime;
+	private double startTime;
+	private double endTime;
 
 	private static String modelName = "JaamSim";
 
 	static {
-		initializationTime = new ValueInput("InitializationDuration", "Key Inputs", 0.0);
-		initializationTime.setUnitType(TimeUnit.class);
-		initializationTime.setValidRange(0.0d, Double.POSITIVE_INFINITY);
+		// Create clock
+		Clock.setStartDate(2000, 1, 1);
+	}
 
+	{
 		runDuration = new ValueInput("RunDuration", "Key Inputs", 31536000.0d);
 		runDuration.setUnitType(TimeUnit.class);
 		runDuration.setValidRange(1e-15d, Double.POSITIVE_INFINITY);
+		this.addInput(runDuration, true);
+
+		initializationTime = new ValueInput("InitializationDuration", "Key Inputs", 0.0);
+		initializationTime.setUnitType(TimeUnit.class);
+		initializationTime.setValidRange(0.0d, Double.POSITIVE_INFINITY);
+		this.addInput(initializationTime, true);
 
 		startDate = new StringInput("StartDate", "Key Inputs", null);
+		this.addInput(startDate, true);
 
 		startTimeInput = new ValueInput("StartTime", "Key Inputs", 0.0d);
 		startTimeInput.setUnitType(TimeUnit.class);
 		startTimeInput.setValidRange(0.0d, Double.POSITIVE_INFINITY);
+		this.addInput(startTimeInput, true);
 
 		simTimeScaleInput = new DoubleInput("SimulationTimeScale", "Key Inputs", 4000.0d);
 		simTimeScaleInput.setValidRange(1e-15d, Double.POSITIVE_INFINITY);
+		this.addInput(simTimeScaleInput, true);
 
 		traceEventsInput = new BooleanInput("TraceEvents", "Key Inputs", false);
+		this.addInput(traceEventsInput, false);
 		verifyEventsInput = new BooleanInput("VerifyEvents", "Key Inputs", false);
+		this.addInput(verifyEventsInput, false);
+		traceFormatInput = new EnumInput<EventTracer.TraceFormat>(EventTracer.TraceFormat.class, "TraceFormat", "Key Inputs", EventTracer.TraceFormat.TEXT);
+		this.addInput(traceFormatInput, false);
 
 		printInputReport = new BooleanInput("PrintInputReport", "Key Inputs", false);
+		this.addInput(printInputReport, true);
 
 		realTimeFactor = new IntegerInput("RealTimeFactor", "Key Inputs", DEFAULT_REAL_TIME_FACTOR);
 		realTimeFactor.setValidRange(MIN_REAL_TIME_FACTOR, MAX_REAL_TIME_FACTOR);
+		this.addInput(realTimeFactor, true);
 
 		realTime = new BooleanInput("RealTime", "Key Inputs", false);
+		this.addInput(realTime, true);
 
 		exitAtStop = new BooleanInput("ExitAtStop", "Key Inputs", false);
-
-		// Create clock
-		Clock.setStartDate(2000, 1, 1);
+		this.addInput(exitAtStop, true);
 
 		// Initialize basic model information
 		startTime = 0.0;
 		endTime = 8760.0;
 	}
 
-	{
-		this.addInput(runDuration, true);
-		this.addInput(initializationTime, true);
-
-		this.addInput(startDate, true);
-
-		this.addInput(startTimeInput, true);
-
-		this.addInput(simTimeScaleInput, true);
-
-		this.addInput(traceEventsInput, false);
-		this.addInput(verifyEventsInput, false);
-
-		this.addInput(printInputReport, true);
-
-		this.addInput(realTimeFactor, true);
-		this.addInput(realTime, true);
+	public Simulation() {
+		this.getContext().setSimulation(this);
+	}
 
-		this.addInput(exitAtStop, true);
+	@Override
+	public void kill() {
+		super.kill();
+		if (this.getContext().getSimulation() == this)
+			this.getContext().setSimulation(null);
 	}
 
-	public Simulation() {}
+	/**
+	 * Returns the Simulation entity for the calling thread's simulation
+	 * context, or null if it has not been defined yet.
+	 */
+	public static Simulation getInstance() {
+		return SimulationContext.current().getSimulation();
+	}
 
 	@Override
 	public void validate() {
@@ -172,35 +192,24 @@ public class Simulation extends Entity {
 	}
 
 	public static void clear() {
-		EventTracer.init();
-		root.clear();
-		root.setTraceListener(null);
-
-		initializationTime.reset();
-		runDuration.reset();
-		simTimeScaleInput.reset();
-		traceEventsInput.reset();
-		verifyEventsInput.reset();
-		printInputReport.reset();
-		realTimeFactor.reset();
-		realTime.reset();
-		updateRealTime();
-		exitAtStop.reset();
-
-		startDate.reset();
-		startTimeInput.reset();
+		SimulationContext ctx = SimulationContext.current();
+		EventManager evt = ctx.getEventManager();
+
+		if (ctx.isDefault())
+			EventTracer.init();
+		evt.clear();
+		evt.setTraceListener(null);
+		ctx.clearFreeEntities();
+		setRealTimeState(ctx, false, DEFAULT_REAL_TIME_FACTOR);
 
 		// Create clock
 		Clock.setStartDate(2000, 1, 1);
 
-		// Initialize basic model information
-		startTime = 0.0;
-		endTime = 8760.0;
-
 		// close warning/error trace file
-		InputAgent.closeLogFile();
+		if (ctx.isDefault())
+			InputAgent.closeLogFile();
 
-		// Kill all entities except simulation
+		// Kill all entities, including the simulation
 		while(Entity.getAll().size() > 0) {
 			Entity ent = Entity.getAll().get(Entity.getAll().size()-1);
 			ent.kill();
@@ -214,57 +223,75 @@ public class Simulation extends Entity {
 	 *		3) start EventManager processing events
 	 */
 	public static void start() {
+		SimulationContext ctx = SimulationContext.current();
+
 		// Validate each entity based on inputs only
 		for (int i = 0; i < Entity.getAll().size(); i++) {
 			try {
 				Entity.getAll().get(i).validate();
 			}
 			catch (Throwable e) {
+				if (!ctx.isDefault())
+					throw new ErrorException(e);
+
 				InputAgent.doError(e);
 				ExceptionBox.instance().setInputError(Entity.getAll().get(i), e);
 				return;
 			}
 		}
 
-		EventTracer.init();
-		root.clear();
-		root.setTraceListener(null);
-
-		if( traceEventsInput.getValue() ) {
-			EventTracer.traceAllEvents(root, traceEventsInput.getValue());
-		}
-		else if( verifyEventsInput.getValue() ) {
-			EventTracer.verifyAllEvents(root, verifyEventsInput.getValue());
+		Simulation sim = ctx.getSimulation();
+		if (sim == null)
+			throw new ErrorException("Simulation has not been defined for %s", ctx.getName());
+
+		EventManager evt = ctx.getEventManager();
+		evt.clear();
+		evt.setTraceListener(null);
+		ctx.clearFreeEntities();
+
+		// Event tracing writes to a single file and is only available for the
+		// graphical application's run
+		if (ctx.isDefault()) {
+			EventTracer.init();
+			if( sim.traceEventsInput.getValue() ) {
+				EventTracer.traceAllEvents(evt, sim.traceEventsInput.getValue(), sim.traceFormatInput.getValue());
+			}
+			else if( sim.verifyEventsInput.getValue() ) {
+				EventTracer.verifyAllEvents(evt, sim.verifyEventsInput.getValue(), sim.traceFormatInput.getValue());
+			}
+			Process.setSimTimeScale(sim.simTimeScaleInput.getValue());
 		}
-		Process.setSimTimeScale(simTimeScaleInput.getValue());
-		if( startDate.getValue() != null ) {
-			Clock.getStartingDateFromString( startDate.getValue() );
+		evt.setSimTimeScale(sim.simTimeScaleInput.getValue());
+
+		if( sim.startDate.getValue() != null ) {
+			Clock.getStartingDateFromString( sim.startDate.getValue() );
 		}
-		double startTimeHours = startTimeInput.getValue() / 3600.0d;
-		startTime = Clock.calcTimeForYear_Month_Day_Hour(1, Clock.getStartingMonth(), Clock.getStartingDay(), startTimeHours);
-		endTime = startTime + Simulation.getInitializationHours() + Simulation.getRunDurationHours();
+		double startTimeHours = sim.startTimeInput.getValue() / 3600.0d;
+		sim.startTime = Clock.calcTimeForYear_Month_Day_Hour(1, Clock.getStartingMonth(), Clock.getStartingDay(), startTimeHours);
+		sim.endTime = sim.startTime + Simulation.getInitializationHours() + Simulation.getRunDurationHours();
 
-		root.scheduleProcess(0, Entity.PRIO_DEFAULT, false, new InitModelTarget());
+		evt.scheduleProcess(0, Entity.PRIO_DEFAULT, false, new InitModelTarget(ctx));
 	}
 
 
 	public static final void resume(double secs) {
-		long ticks = Process.secondsToTicks(secs);
-		root.resume(ticks);
+		EventManager evt = SimulationContext.current().getEventManager();
+		long ticks = evt.secondsToTicks(secs);
+		evt.resume(ticks);
 	}
 
 	/**
 	 *	Requests the EventManager to stop processing events.
 	 */
 	public static final void pause() {
-		root.pause();
+		SimulationContext.current().getEventManager().pause();
 	}
 
 	/**
 	 *	Requests the EventManager to stop processing events.
 	 */
 	public static final void stop() {
-		root.pause();
+		SimulationContext.current().getEventManager().pause();
 		GUIFrame.instance().updateForSimulationState(GUIFrame.SIM_STATE_STOPPED);
 
 		// kill all generated objects
@@ -296,7 +323,11 @@ public class Simulation extends Entity {
 	}
 
 	private static class InitModelTarget extends ProcessTarget {
-		InitModelTarget() {}
+		final SimulationContext ctx;
+
+		InitModelTarget(SimulationContext ctx) {
+			this.ctx = ctx;
+		}
 
 		@Override
 		public String getDescription() {
@@ -309,16 +340,21 @@ public class Simulation extends Entity {
 				Entity.getAll().get(i).earlyInit();
 			}
 
+			EventManager evt = ctx.getEventManager();
 			long startTick = calculateDelayLength(Simulation.getStartHours());
-			root.scheduleProcess(startTick, Entity.PRIO_DEFAULT, false, new StartModelTarget());
+			evt.scheduleProcess(startTick, Entity.PRIO_DEFAULT, false, new StartModelTarget(ctx));
 
 			long endTick = calculateDelayLength(Simulation.getEndHours());
-			root.scheduleProcess(endTick, Entity.PRIO_DEFAULT, false, new EndModelTarget());
+			evt.scheduleProcess(endTick, Entity.PRIO_DEFAULT, false, new EndModelTarget(ctx));
 		}
 	}
 
 	private static class StartModelTarget extends ProcessTarget {
-		StartModelTarget() {}
+		final SimulationContext ctx;
+
+		StartModelTarget(SimulationContext ctx) {
+			this.ctx = ctx;
+		}
 
 		@Override
 		public String getDescription() {
@@ -327,14 +363,19 @@ public class Simulation extends Entity {
 
 		@Override
 		public void process() {
+			EventManager evt = ctx.getEventManager();
 			for (int i = 0; i < Entity.getAll().size(); i++) {
-				root.start(new StartUpTarget(Entity.getAll().get(i)));
+				evt.start(new StartUpTarget(Entity.getAll().get(i)));
 			}
 		}
 	}
 
 	private static class EndModelTarget extends ProcessTarget {
-		EndModelTarget() {}
+		final SimulationContext ctx;
+
+		EndModelTarget(SimulationContext ctx) {
+			this.ctx = ctx;
+		}
 
 		@Override
 		public String getDescription() {
@@ -348,7 +389,14 @@ public class Simulation extends Entity {
 				Entity.getAll().get(i).doEnd();
 			}
 
+			// Runs in additional contexts are controlled by their owner
+			if (!ctx.isDefault()) {
+				ctx.endRun();
+				return;
+			}
+
 			System.out.println( "Made it to do end at" );
+			EventTracer.flush();
 			// close warning/error trace file
 			InputAgent.closeLogFile();
 
@@ -365,51 +413,76 @@ public class Simulation extends Entity {
 	 * @return double - the time the current run will stop
 	 */
 	public static double getEndHours() {
-		return endTime;
+		Simulation sim = getInstance();
+		if (sim == null)
+			return 8760.0d;
+		return sim.endTime;
 	}
 
 	/**
 	 * Return the run duration for the run (not including intialization)
 	 */
 	public static double getRunDurationHours() {
-		return runDuration.getValue() / 3600.0d;
+		Simulation sim = getInstance();
+		if (sim == null)
+			return 31536000.0d / 3600.0d;
+		return sim.runDuration.getValue() / 3600.0d;
 	}
 
 	/**
 	 * Returns the start time of the run.
 	 */
 	public static double getStartHours() {
-		return startTime;
+		Simulation sim = getInstance();
+		if (sim == null)
+			return 0.0d;
+		return sim.startTime;
 	}
 
 	/**
 	 * Return the initialization duration in hours
 	 */
 	public static double getInitializationHours() {
-		return initializationTime.getValue() / 3600.0d;
+		Simulation sim = getInstance();
+		if (sim == null)
+			return 0.0d;
+		return sim.initializationTime.getValue() / 3600.0d;
+	}
+
+	void updateRealTime() {
+		setRealTimeState(this.getContext(), realTime.getValue(), realTimeFactor.getValue());
 	}
 
-	static void updateRealTime() {
-		root.setExecuteRealTime(realTime.getValue(), realTimeFactor.getValue());
-		GUIFrame.instance().updateForRealTime(realTime.getValue(), realTimeFactor.getValue());
+	private static void setRealTimeState(SimulationContext ctx, boolean rt, int factor) {
+		ctx.getEventManager().setExecuteRealTime(rt, factor);
+		if (ctx.isDefault())
+			GUIFrame.instance().updateForRealTime(rt, factor);
 	}
 
 	public static void setRealTime(boolean rt) {
+		Simulation sim = getInstance();
+		if (sim == null)
+			return;
+
 		StringVector t = new StringVector(1);
 		if (rt)
 			t.add("TRUE");
 		else
 			t.add("FALSE");
 
-		realTime.parse(t);
-		updateRealTime();
+		sim.realTime.parse(t);
+		sim.updateRealTime();
 	}
 
 	public static void setRealTimeFactor(String fac) {
+		Simulation sim = getInstance();
+		if (sim == null)
+			return;
+
 		StringVector t = new StringVector(1);
 		t.add(fac);
-		realTimeFactor.parse(t);
-		updateRealTime();
+		sim.realTimeFactor.parse(t);
+		sim.updateRealTime();
 	}
 
 	public static void setModelName(String newModelName) {
@@ -421,10 +494,69 @@ public class Simulation extends Entity {
 	}
 
 	public static boolean getExitAtStop() {
-		return exitAtStop.getValue();
+		Simulation sim = getInstance();
+		if (sim == null)
+			return false;
+		return sim.exitAtStop.getValue();
 	}
 
 	public static boolean getPrintInputReport() {
-		return printInputReport.getValue();
+		Simulation sim = getInstance();
+		if (sim == null)
+			return false;
+		return sim.printInputReport.getValue();
+	}
+
+	private EventMetrics getMetrics() {
+		return getContext().getEventManager().getMetrics();
+	}
+
+	@Output(name = "EventsExecuted",
+	 description = "The number of events executed in this run.",
+	    unitType = DimensionlessUnit.class)
+	public long getEventsExecuted(double simTime) {
+		return getMetrics().getEventsExecuted();
+	}
+
+	@Output(name = "EventsPerSecond",
+	 description = "The average number of events executed per second of wall clock time while the run was executing.",
+	    unitType = DimensionlessUnit.class)
+	public double getEventsPerSecond(double simTime) {
+		return getMetrics().getEventsPerSecond();
+	}
+
+	@Output(name = "EventListSize",
+	 description = "The number of events in the future event list.",
+	    unitType = DimensionlessUnit.class)
+	public int getEventListSize(double simTime) {
+		return getMetrics().getEventListSize();
+	}
+
+	@Output(name = "EventListHighWater",
+	 description = "The largest number of events held in the future event list during this run.",
+	    unitType = DimensionlessUnit.class)
+	public int getEventListHighWater(double simTime) {
+		return getMetrics().getEventListHighWater();
+	}
+
+	@Output(name = "ConditionalWaits",
+	 description = "The number of processes waiting for a condition to be satisfied.",
+	    unitType = DimensionlessUnit.class)
+	public int getConditionalWaits(double simTime) {
+		return getMetrics().getConditionalCount();
+	}
+
+	@Output(name = "ThreadSwitches",
+	 description = "The number of times control of the model passed from one thread to another.",
+	    unitType = DimensionlessUnit.class)
+	public long getThreadSwitches(double simTime) {
+		return getMetrics().getThreadSwitches();
+	}
+
+	@Output(name = "RealTimeWait",
+	 description = "The wall clock time spent throttling the run to keep real time.",
+	    unitType = TimeUnit.class)
+	public double getRealTimeWait(double simTime) {
+		return getMetrics().getRealTimeWaitSeconds();
 	}
 }
@@ -0,0 +1,439 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.sandwell.JavaSimulation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+import com.jaamsim.events.EventErrorListener;
+import com.jaamsim.events.EventManager;
+
+/**
+ * Holds the state of one simulation run: the EventManager, the registry of
+ * entities and the Simulation entity holding the run control inputs.
+ * <p>
+ * The graphical application uses the single default context. Additional
+ * contexts can be created to load and execute independent replications of a
+ * model in parallel within the same JVM, each on its own EventManager.
+ * <p>
+ * The context for the calling thread is found by SimulationContext.current().
+ * Threads managed by an EventManager use the context owning that
+ * EventManager, other threads use the context bound to them by call(), or the
+ * default context if none has been bound.
+ */
+public class SimulationContext {
+	private static final SimulationContext defaultContext;
+	private static final ThreadLocal<SimulationContext> boundContext;
+	private static final IdentityHashMap<EventManager, SimulationContext> contexts;
+
+	// Reading inputs and killing entities use static state shared by the
+	// contexts, in InputAgent, FileEntity and the units, so contexts are
+	// loaded and closed one at a time
+	private static final Object loadLock = new Object();
+
+	private final String name;
+	private EventManager evt;
+
+	// Entity registry, all the indexes are guarded by allInstances
+	private final EntityList<Entity> allInstances;
+	final HashMap<String, Entity> namedEntities;
+	private final HashMap<Long, Entity> entitiesById;
+	private final HashMap<Class<? extends Entity>, ClassList> instancesByClass;
+	private final HashMap<Class<?>, ArrayList<ClassList>> clonesByClass; // Cached superclass queries
+	private long entityCount;
+	private final HashMap<Entity, ArrayList<Entity>> freeEntities; // Recycled entities by prototype
+
+	private Simulation simulation; // The entity holding the run control inputs
+	private int replication; // Replication number used to select the random substreams
+	private final CountDownLatch runEnded; // Released when the run reaches its end time
+	private Throwable runError; // The error that ended the run early, if any
+
+	static {
+		boundContext = new ThreadLocal<SimulationContext>();
+		contexts = new IdentityHashMap<EventManager, SimulationContext>();
+		defaultContext = new SimulationContext("DefaultEventManager");
+	}
+
+	public SimulationContext(String name) {
+		this.name = name;
+		allInstances = new EntityList<Entity>(100) {
+			@Override
+			protected int getIndex(Entity ent) {
+				return ent.registryIndex;
+			}
+
+			@Override
+			protected void setIndex(Entity ent, int index) {
+				ent.registryIndex = index;
+			}
+		};
+		namedEntities = new HashMap<String, Entity>(100);
+		entitiesById = new HashMap<Long, Entity>(100);
+		instancesByClass = new HashMap<Class<? extends Entity>, ClassList>();
+		clonesByClass = new HashMap<Class<?>, ArrayList<ClassList>>();
+		entityCount = 0;
+		freeEntities = new HashMap<Entity, ArrayList<Entity>>();
+		simulation = null;
+		replication = 0;
+		runEnded = new CountDownLatch(1);
+		runError = null;
+	}
+
+	/**
+	 * Returns the context used by the calling thread.
+	 */
+	public static SimulationContext current() {
+		SimulationContext ctx = boundContext.get();
+		if (ctx != null)
+			return ctx;
+
+		EventManager evt = EventManager.current();
+		if (evt != null) {
+			synchronized (contexts) {
+				ctx = contexts.get(evt);
+			}
+			if (ctx != null)
+				return ctx;
+		}
+
+		return defaultContext;
+	}
+
+	/**
+	 * Returns the lock held while a context other than the default one reads
+	 * its inputs or is closed.
+	 */
+	public static Object getLoadLock() {
+		return loadLock;
+	}
+
+	/**
+	 * Returns the context used by the graphical application.
+	 */
+	public static SimulationContext getDefault() {
+		return defaultContext;
+	}
+
+	public boolean isDefault() {
+		return this == defaultContext;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Executes the given task on the calling thread with this context bound
+	 * to it, so that entities defined by the task are registered here.
+	 */
+	public <T> T call(Callable<T> task) throws Exception {
+		SimulationContext prev = boundContext.get();
+		boundContext.set(this);
+		try {
+			return task.call();
+		}
+		finally {
+			if (prev == null)
+				boundContext.remove();
+			else
+				boundContext.set(prev);
+		}
+	}
+
+	/**
+	 * Returns the EventManager for this context, creating it on first use.
+	 */
+	public synchronized EventManager getEventManager() {
+		if (evt != null)
+			return evt;
+
+		evt = EventManager.initEventManager(name);
+		synchronized (contexts) {
+			contexts.put(evt, this);
+		}
+
+		// Errors in the graphical application's run are reported by GUIFrame
+		if (!this.isDefault())
+			evt.setErrorListener(new RunErrorListener());
+		return evt;
+	}
+
+	private class RunErrorListener implements EventErrorListener {
+		@Override
+		public void handleError(Throwable t, long currentTick) {
+			runError = t;
+			runEnded.countDown();
+		}
+	}
+
+	public Simulation getSimulation() {
+		return simulation;
+	}
+
+	void setSimulation(Simulation sim) {
+		simulation = sim;
+	}
+
+	public int getReplication() {
+		return replication;
+	}
+
+	/**
+	 * Sets the replication number for this context, each replication draws
+	 * its random numbers from its own substream of each input seed's stream.
+	 */
+	public void setReplication(int rep) {
+		replication = rep;
+	}
+
+	void register(Entity ent) {
+		synchronized (allInstances) {
+			allInstances.add(ent);
+			this.getInstances(ent.getClass()).add(ent);
+			entitiesById.put(ent.getEntityNumber(), ent);
+		}
+	}
+
+	/**
+	 * Removes the entity from the registry, the other entities keep the order
+	 * in which they were defined.
+	 */
+	void unregister(Entity ent) {
+		synchronized (allInstances) {
+			if (ent.registryIndex < 0)
+				return;
+
+			allInstances.remove(ent);
+			instancesByClass.get(ent.getClass()).remove(ent);
+			entitiesById.remove(ent.getEntityNumber());
+		}
+	}
+
+	private static class ClassList extends EntityList<Entity> {
+		ClassList() {
+			super(10);
+		}
+
+		@Override
+		protected int getIndex(Entity ent) {
+			return ent.classIndex;
+		}
+
+		@Override
+		protected void setIndex(Entity ent, int index) {
+			ent.classIndex = index;
+		}
+	}
+
+	private ClassList getInstances(Class<? extends Entity> klass) {
+		ClassList instances = instancesByClass.get(klass);
+		if (instances != null)
+			return instances;
+
+		// Add the new class to every cached superclass query it belongs to
+		instances = new ClassList();
+		instancesByClass.put(klass, instances);
+		for (Entry<Class<?>, ArrayList<ClassList>> each : clonesByClass.entrySet()) {
+			if (each.getKey().isAssignableFrom(klass))
+				each.getValue().add(instances);
+		}
+		return instances;
+	}
+
+	/**
+	 * Returns all the entities in the order they were defined. The list is
+	 * maintained by the registry and must not be modified.
+	 */
+	ArrayList<Entity> getAllInstances() {
+		synchronized (allInstances) {
+			return allInstances.getList();
+		}
+	}
+
+	/**
+	 * Returns the number of entities in the registry.
+	 */
+	int getInstanceCount() {
+		synchronized (allInstances) {
+			return allInstances.size();
+		}
+	}
+
+	/**
+	 * Returns the entity with the given entity number, or null if it is not
+	 * registered in this context.
+	 */
+	public Entity getEntity(long id) {
+		synchronized (allInstances) {
+			return entitiesById.get(id);
+		}
+	}
+
+	/**
+	 * Returns the list of entities whose class is exactly the given class, in
+	 * the order they were defined. The list is maintained by the registry and
+	 * must not be modified.
+	 */
+	public ArrayList<? extends Entity> getInstanceList(Class<? extends Entity> klass) {
+		synchronized (allInstances) {
+			return this.getInstances(klass).getList();
+		}
+	}
+
+	/**
+	 * Returns the registry's list of entities whose class is exactly the given
+	 * class, for an iterator that reads it through getEntries(). The list is
+	 * maintained by the registry and must not be modified.
+	 */
+	public EntityList<? extends Entity> getInstanceEntries(Class<? extends Entity> klass) {
+		synchronized (allInstances) {
+			return this.getInstances(klass);
+		}
+	}
+
+	/**
+	 * Returns the registry's lists of instances for every class that is the
+	 * given class or a subclass of it, each in the order its entities were
+	 * defined, for an iterator that reads them through getEntries(). The lists
+	 * are maintained by the registry and must not be modified.
+	 * <p>
+	 * Entity numbers increase in the order that entities are defined, so the
+	 * lists can be merged into definition order by entity number.
+	 */
+	public ArrayList<? extends EntityList<? extends Entity>> getCloneLists(Class<?> klass) {
+		synchronized (allInstances) {
+			ArrayList<ClassList> lists = clonesByClass.get(klass);
+			if (lists == null) {
+				lists = new ArrayList<ClassList>();
+				for (Entry<Class<? extends Entity>, ClassList> each : instancesByClass.entrySet()) {
+					if (klass.isAssignableFrom(each.getKey()))
+						lists.add(each.getValue());
+				}
+				clonesByClass.put(klass, lists);
+			}
+
+			return new ArrayList<ClassList>(lists);
+		}
+	}
+
+	synchronized long getNextID() {
+		return ++entityCount;
+	}
+
+	synchronized long getEntityCount() {
+		return entityCount;
+	}
+
+	void freeEntity(Entity ent) {
+		synchronized (freeEntities) {
+			ArrayList<Entity> free = freeEntities.get(ent.getPrototype());
+			if (free == null) {
+				free = new ArrayList<Entity>();
+				freeEntities.put(ent.getPrototype(), free);
+			}
+			free.add(ent);
+		}
+	}
+
+	/**
+	 * Returns a recycled entity generated from the given prototype, restored to
+	 * service, or null if there is none. The caller must copy the prototype's
+	 * inputs to it.
+	 */
+	@SuppressWarnings("unchecked") // Entities are recycled under their own prototype
+	public <T extends Entity> T reuseEntity(T proto) {
+		Entity ent;
+		synchronized (freeEntities) {
+			ArrayList<Entity> free = freeEntities.get(proto);
+			if (free == null || free.isEmpty())
+				return null;
+
+			ent = free.remove(free.size() - 1);
+		}
+		ent.revive();
+		return (T)ent;
+	}
+
+	/**
+	 * Discards the recycled entities, they are not reused in the next run.
+	 */
+	void clearFreeEntities() {
+		synchronized (freeEntities) {
+			freeEntities.clear();
+		}
+	}
+
+	/**
+	 * Called when the run has reached its end time.
+	 */
+	void endRun() {
+		runEnded.countDown();
+	}
+
+	/**
+	 * Blocks the calling thread until the run has reached its end time.
+	 * @throws ErrorException if the run was stopped by an error
+	 */
+	public void awaitEnd() throws InterruptedException {
+		runEnded.await();
+		if (runError != null)
+			throw new ErrorException(runError);
+	}
+
+	/**
+	 * Kills all the entities in this context and stops its EventManager. The
+	 * context cannot be used afterwards.
+	 */
+	public void close() {
+		if (this == defaultContext)
+			throw new ErrorException("The default context cannot be closed");
+
+		try {
+			synchronized (loadLock) {
+				this.call(new Callable<Void>() {
+					@Override
+					public Void call() {
+						EventManager e = getEventManager();
+						e.pause();
+						e.clear();
+						synchronized (allInstances) {
+							ArrayList<Entity> list = allInstances.getList();
+							while (list.size() > 0)
+								list.get(list.size() - 1).kill();
+						}
+						e.shutdown();
+						return null;
+					}
+				});
+			}
+		}
+		catch (Exception e) {
+			throw new ErrorException(e);
+		}
+
+		synchronized (contexts) {
+			contexts.remove(evt);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
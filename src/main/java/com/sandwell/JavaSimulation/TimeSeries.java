@@ -14,8 +14,6 @@
  */
 package com.sandwell.JavaSimulation;
 
-import java.util.Arrays;
-
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
 import com.jaamsim.input.OutputHandle;
@@ -41,8 +39,18 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	         example = "TimeSeries1  Value { { '2010-01-01 00:00:00' 0.5 m } { '2010-01-01 03:00:00' 1.5 m } { '2010-01-01 06:00:00' 1.2 m } }")
 	private final TimeSeriesDataInput value;
 
+	@Keyword(description = "A CSV file containing the time series records, one per line, with format\n" +
+					"'YYYY-MM-DD hh:mm:ss', value, units\n" +
+					"where the units are required unless the series is dimensionless.  " +
+					"Blank lines and lines starting with # are ignored.  " +
+					"The file is converted to a binary file with the same name and .bin appended, " +
+					"which is read directly from disk during the run.  " +
+					"Use either Value or DataFile, but not both.",
+	         example = "TimeSeries1  DataFile { 'tide.csv' }")
+	private final TimeSeriesFileInput dataFile;
+
 	@Keyword(description = "The unit type for the time series (e.g. DistanceUnit, TimeUnit, MassUnit).  " +
-			"If the UnitType keyword is specified, it must be specified before the Value keyword.",
+			"If the UnitType keyword is specified, it must be specified before the Value or DataFile keyword.",
      example = "TimeSeries1  UnitType { DistanceUnit }")
 	private final UnitTypeInput unitType;
 
@@ -50,6 +58,8 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
             example = "TimeSeries1  CycleTime { 8760.0 h }")
 	private final ValueInput cycleTime;
 
+	private final TimeSeriesCursor cursor = new TimeSeriesCursor();
+
 	{
 		unitType = new UnitTypeInput( "UnitType", "Key Inputs", UserSpecifiedUnit.class );
 		this.addInput( unitType, true );
@@ -58,6 +68,10 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 		value.setUnitType(UserSpecifiedUnit.class);
 		this.addInput(value, true);
 
+		dataFile = new TimeSeriesFileInput("DataFile", "Key Inputs", null);
+		dataFile.setUnitType(UserSpecifiedUnit.class);
+		this.addInput(dataFile, true);
+
 		cycleTime = new ValueInput( "CycleTime", "Key Inputs", Double.POSITIVE_INFINITY );
 		cycleTime.setUnitType(TimeUnit.class);
 		this.addInput( cycleTime, true );
@@ -72,11 +86,14 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 		if( unitType.getValue() == null )
 			throw new InputErrorException( "UnitType must be specified first" );
 
-		if( value.getValue() == null || value.getValue().timeList.length == 0 )
-			throw new InputErrorException( "Time series Value must be specified" );
+		TimeSeriesData data = this.getData();
+		if( data == null || data.size() == 0 )
+			throw new InputErrorException( "Time series Value or DataFile must be specified" );
+
+		if( value.getValue() != null && dataFile.getValue() != null )
+			throw new InputErrorException( "Value and DataFile cannot both be specified" );
 
-		double[] tList = value.getValue().timeList;
-		if (this.getCycleTimeInHours() < tList[tList.length - 1])
+		if (this.getCycleTimeInHours() < data.getTime(data.size() - 1))
 			throw new InputErrorException( "CycleTime must be larger than the last time in the series" );
 	}
 
@@ -86,6 +103,7 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 
 		if (in == unitType) {
 			value.setUnitType( unitType.getUnitType() );
+			dataFile.setUnitType( unitType.getUnitType() );
 			this.getOutputHandle("PresentValue").setUnitType( unitType.getUnitType() );
 			return;
 		}
@@ -107,21 +125,37 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 		return this.getValueForTimeHours(simTime / 3600.0);
 	}
 
+	/**
+	 * Returns the records for the time series, from either the Value or the
+	 * DataFile input.
+	 */
+	private TimeSeriesData getData() {
+		if (dataFile.getValue() != null)
+			return dataFile.getValue();
+		return value.getValue();
+	}
+
 	/**
 	 * Return the value for the given simulation time in hours
 	 */
 	@Override
 	public double getValueForTimeHours( double time ) {
-		double[] valueList = value.getValue().valueList;
-		return valueList[ getIndexForTimeHours( time ) ];
+		return this.getValueForTimeHours(time, cursor);
+	}
+
+	@Override
+	public double getValueForTimeHours(double time, TimeSeriesCursor cur) {
+		return this.getData().getValue( getIndexForTimeHours( time, cur ) );
 	}
 
 	/**
 	 * Return the index for the given simulation time in hours
 	 */
 	public int getIndexForTimeHours( double time ) {
-		double[] timeList = value.getValue().timeList;
+		return this.getIndexForTimeHours(time, cursor);
+	}
 
+	private int getIndexForTimeHours(double time, TimeSeriesCursor cur) {
 		// Determine the time in the cycle for the given time
 		double timeInCycle = time;
 		if (this.getCycleLength() < Double.POSITIVE_INFINITY) {
@@ -132,13 +166,60 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 			}
 		}
 
+		return this.getIndexInCycle(timeInCycle, cur);
+	}
+
+	/**
+	 * Return the index of the last record at or before the given time in the
+	 * cycle. The record found by the last lookup with the same cursor, and the
+	 * one after it, are checked before searching the whole series.
+	 */
+	private int getIndexInCycle(double timeInCycle, TimeSeriesCursor cur) {
+		TimeSeriesData data = this.getData();
+		int last = data.size() - 1;
+
+		// Try the record from the last lookup, then the next one, then the
+		// first record for a lookup that has wrapped around into a new cycle
+		int index = cur.index;
+		if (index > last)
+			index = 0;
+		if (this.isIndexForTime(data, index, timeInCycle))
+			return index;
+		if (index < last && this.isIndexForTime(data, index + 1, timeInCycle)) {
+			cur.index = index + 1;
+			return index + 1;
+		}
+		if (index > 0 && this.isIndexForTime(data, 0, timeInCycle)) {
+			cur.index = 0;
+			return 0;
+		}
+
+		index = this.searchIndex(data, timeInCycle);
+		cur.index = index;
+		return index;
+	}
+
+	/**
+	 * Returns true if the given record is the last one at or before the given
+	 * time in the cycle.
+	 */
+	private boolean isIndexForTime(TimeSeriesData data, int index, double timeInCycle) {
+		if (Tester.greaterCheckTimeStep(data.getTime(index), timeInCycle))
+			return false;
+		return index == data.size() - 1 ||
+		       Tester.greaterCheckTimeStep(data.getTime(index + 1), timeInCycle);
+	}
+
+	private int searchIndex(TimeSeriesData data, double timeInCycle) {
+		int last = data.size() - 1;
+
 		// If the time in the cycle is greater than the last time, return the last value
-		if( Tester.greaterOrEqualCheckTimeStep( timeInCycle, timeList[ timeList.length - 1 ] ) ) {
-			return timeList.length - 1;
+		if( Tester.greaterOrEqualCheckTimeStep( timeInCycle, data.getTime( last ) ) ) {
+			return last;
 		}
 		else {
 			// Otherwise, find the index with a binary search
-			int index = Arrays.binarySearch(timeList, timeInCycle);
+			int index = data.binarySearch(timeInCycle);
 
 			// If the returned index is greater or equal to zero,
 			// then an exact match was found
@@ -151,12 +232,12 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 				// or (insertion index) = -(index+1) = -index-1
 				// If the time at the insertion index is within one tick,
 				// then return it
-				if( Tester.equalCheckTimeStep( timeInCycle, timeList[-index - 1] ) )
+				if( Tester.equalCheckTimeStep( timeInCycle, data.getTime(-index - 1) ) )
 					return -index - 1;
 				else
 					// Otherwise, return the index before the insertion index
 					if( index == -1 )
-						throw new ErrorException( this + " does not have a value at time " + time );
+						throw new ErrorException( this + " does not have a value at time " + timeInCycle );
 					else
 						return -index - 2;
 			}
@@ -168,44 +249,40 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	 */
 	@Override
 	public double getNextChangeTimeAfterHours( double time ) {
+		return this.getNextChangeTimeAfterHours(time, cursor);
+	}
 
-		// Collect parameters for the current time
-		int startIndex = this.getIndexForTimeHours(time)+1;
+	@Override
+	public double getNextChangeTimeAfterHours(double time, TimeSeriesCursor cur) {
+		TimeSeriesData data = this.getData();
 		double cycleTime = this.getCycleTimeInHours();
 
+		// A series that does not cycle has a single pass through the records
+		if( cycleTime == Double.POSITIVE_INFINITY ) {
+			int startIndex = this.getIndexInCycle(time, cur) + 1;
+			if( startIndex > data.size() - 1 )
+				return Double.POSITIVE_INFINITY;
+			return data.getTime(startIndex);
+		}
+
 		// Determine how many cycles through the time series have been completed
 		int completedCycles = (int)Math.floor( time / cycleTime );
 
 		// Tolerance check for essentially through a cycle
-		double timeInCycle = time - (completedCycles * this.getCycleTimeInHours());
-		if( Tester.equalCheckTolerance(timeInCycle, this.getCycleTimeInHours()) ) {
+		double timeInCycle = time - (completedCycles * cycleTime);
+		if( Tester.equalCheckTolerance(timeInCycle, cycleTime) ) {
 			completedCycles++;
+			timeInCycle = 0;
 		}
 
-		double[] timeList = value.getValue().timeList;
 		// If this is the last point in the cycle, need to cycle around to get the next point
-		if( startIndex > timeList.length - 1 ) {
-
-			// If the series does not cycle, the value will never change
-			if( cycleTime == Double.POSITIVE_INFINITY ) {
-				return Double.POSITIVE_INFINITY;
-			}
-			else {
-				double cycleOffset = 0.0;
-				if( cycleTime != Double.POSITIVE_INFINITY ) {
-					cycleOffset = (completedCycles+1)*cycleTime;
-				}
-
-				return timeList[0] + cycleOffset;
-			}
+		int startIndex = this.getIndexInCycle(timeInCycle, cur) + 1;
+		if( startIndex > data.size() - 1 ) {
+			return data.getTime(0) + (completedCycles+1)*cycleTime;
 		}
 
 		// No cycling required, return the next value
-		double cycleOffset = 0.0;
-		if( cycleTime != Double.POSITIVE_INFINITY ) {
-			cycleOffset = (completedCycles)*cycleTime;
-		}
-		return timeList[startIndex] + cycleOffset;
+		return data.getTime(startIndex) + completedCycles*cycleTime;
 	}
 
 	public double getCycleTimeInHours() {
@@ -221,8 +298,8 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 		if (this.getCycleLength() < Double.POSITIVE_INFINITY)
 			return this.getCycleLength();
 
-		double[] tList = value.getValue().timeList;
-		return tList[ tList.length-1 ] * 3600.0d;
+		TimeSeriesData data = this.getData();
+		return data.getTime( data.size()-1 ) * 3600.0d;
 	}
 
 	@Override
@@ -232,12 +309,12 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 
 	@Override
 	public double getMaxValue() {
-		return value.getValue().getMaxValue();
+		return this.getData().getMaxValue();
 	}
 
 	@Override
 	public double getMinValue() {
-		return value.getValue().getMinValue();
+		return this.getData().getMinValue();
 	}
 
 	@Override
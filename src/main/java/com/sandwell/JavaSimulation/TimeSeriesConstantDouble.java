@@ -50,6 +50,16 @@ public class TimeSeriesConstantDouble implements TimeSeriesProvider {
 		return Double.POSITIVE_INFINITY;
 	}
 
+	@Override
+	public double getValueForTimeHours(double simTime, TimeSeriesCursor cursor) {
+		return val;
+	}
+
+	@Override
+	public double getNextChangeTimeAfterHours(double simTime, TimeSeriesCursor cursor) {
+		return Double.POSITIVE_INFINITY;
+	}
+
 	@Override
 	public double getMaxValue() {
 		return val;
@@ -0,0 +1,26 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.sandwell.JavaSimulation;
+
+/**
+ * Remembers the record found by the last lookup in a time series. Since the
+ * simulation time only moves forward, the next lookup by the same consumer
+ * almost always finds the same or the following record, so it is checked
+ * before searching the whole series. Each consumer of a time series should
+ * hold its own cursor.
+ */
+public final class TimeSeriesCursor {
+	int index;  // the record found by the last lookup
+}
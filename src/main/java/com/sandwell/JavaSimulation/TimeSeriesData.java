@@ -14,25 +14,79 @@
  */
 package com.sandwell.JavaSimulation;
 
+import java.nio.DoubleBuffer;
+
+/**
+ * The times (in hours) and values for a time series. The data is held either
+ * in arrays on the heap or in buffers mapped from a file.
+ */
 public class TimeSeriesData {
-	final double[] timeList;
-	final double[] valueList;
-	private double maxValue;  // The maximum value that occurs in valueList
-	private double minValue;  // The minimum value that occurs in valueList
+	private final DoubleBuffer timeList;
+	private final DoubleBuffer valueList;
+	private final double maxValue;  // The maximum value that occurs in valueList
+	private final double minValue;  // The minimum value that occurs in valueList
 
 	public TimeSeriesData( DoubleVector times, DoubleVector values ) {
-		timeList = new double[times.size()];
+		double[] tList = new double[times.size()];
 		for (int i = 0; i < times.size(); i++)
-			timeList[i] = times.get(i);
+			tList[i] = times.get(i);
 
-		valueList = new double[values.size()];
-		maxValue = Double.NEGATIVE_INFINITY;
-		minValue = Double.POSITIVE_INFINITY;
+		double[] vList = new double[values.size()];
+		double max = Double.NEGATIVE_INFINITY;
+		double min = Double.POSITIVE_INFINITY;
 		for (int i = 0; i < values.size(); i++) {
-			valueList[i] = values.get(i);
-			maxValue = Math.max(maxValue, valueList[i]);
-			minValue = Math.min(minValue, valueList[i]);
+			vList[i] = values.get(i);
+			max = Math.max(max, vList[i]);
+			min = Math.min(min, vList[i]);
+		}
+
+		timeList = DoubleBuffer.wrap(tList);
+		valueList = DoubleBuffer.wrap(vList);
+		maxValue = max;
+		minValue = min;
+	}
+
+	/**
+	 * Creates time series data from buffers that are already filled, such as
+	 * those mapped from a file.
+	 */
+	TimeSeriesData( DoubleBuffer times, DoubleBuffer values, double min, double max ) {
+		timeList = times;
+		valueList = values;
+		minValue = min;
+		maxValue = max;
+	}
+
+	public int size() {
+		return timeList.limit();
+	}
+
+	public double getTime(int i) {
+		return timeList.get(i);
+	}
+
+	public double getValue(int i) {
+		return valueList.get(i);
+	}
+
+	/**
+	 * Searches the times for the given time, with the same result as
+	 * Arrays.binarySearch.
+	 */
+	public int binarySearch(double time) {
+		int low = 0;
+		int high = timeList.limit() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			double midTime = timeList.get(mid);
+			if (midTime < time)
+				low = mid + 1;
+			else if (midTime > time)
+				high = mid - 1;
+			else
+				return mid;
 		}
+		return -(low + 1);
 	}
 
 	public double getMaxValue() {
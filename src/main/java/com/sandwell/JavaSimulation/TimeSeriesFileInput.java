@@ -0,0 +1,340 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.sandwell.JavaSimulation;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.units.DimensionlessUnit;
+import com.jaamsim.units.Unit;
+import com.jaamsim.units.UserSpecifiedUnit;
+
+/**
+ * Reads the records for a time series from a CSV file. Each line has the form
+ * 'YYYY-MM-DD hh:mm:ss', value, units, where units are required unless the
+ * series is dimensionless. Lines that are blank or start with # are ignored.
+ * <p>
+ * The file is converted once into a binary sidecar file (the file name with
+ * .bin appended) holding the times in hours and the values in SI units. The
+ * sidecar is memory mapped, so the series is not loaded onto the heap. It is
+ * rebuilt when the CSV file or the unit type changes.
+ */
+public class TimeSeriesFileInput extends Input<TimeSeriesData> {
+	private static final long MAGIC = 0x4a54534441544131L;  // "JTSDATA1"
+	private static final int HEADER_BYTES = 64;
+	private static final int BLOCK_BYTES = 1 << 16;
+
+	private Class<? extends Unit> unitType;
+
+	public TimeSeriesFileInput(String key, String cat, TimeSeriesData def) {
+		super(key, cat, def);
+		unitType = DimensionlessUnit.class;
+	}
+
+	public void setUnitType(Class<? extends Unit> u) {
+		unitType = u;
+	}
+
+	@Override
+	public void parse(StringVector input, Input.ParseContext context)
+	throws InputErrorException {
+		if (unitType == UserSpecifiedUnit.class)
+			throw new InputErrorException(INP_ERR_UNITUNSPECIFIED);
+
+		Input.assertCount(input, 1);
+		URI uri;
+		try {
+			String slashy = input.get(0).replaceAll("\\\\", "/");
+			if (context != null)
+				uri = InputAgent.getFileURI(context.context, slashy, context.jail);
+			else
+				uri = InputAgent.getFileURI(null, slashy, null);
+		}
+		catch (URISyntaxException ex) {
+			throw new InputErrorException("File Entity parse error: %s", ex.getMessage());
+		}
+
+		if (uri == null || !"file".equals(uri.getScheme()))
+			throw new InputErrorException("The time series data must be a file on the local file system");
+
+		File csv = new File(uri);
+		if (!csv.isFile())
+			throw new InputErrorException("File not found: %s", csv);
+
+		try {
+			value = TimeSeriesFileInput.load(csv, unitType);
+		}
+		catch (IOException e) {
+			throw new InputErrorException("Unable to read %s: %s", csv, e.getMessage());
+		}
+	}
+
+	@Override
+	public void parse(StringVector input) throws InputErrorException {
+		throw new InputErrorException("TimeSeriesFileInput.parse() deprecated method called.");
+	}
+
+	/**
+	 * Returns the time series data for the given CSV file, building the
+	 * sidecar file first if it is missing or out of date.
+	 */
+	static TimeSeriesData load(File csv, Class<? extends Unit> ut) throws IOException {
+		File bin = new File(csv.getPath() + ".bin");
+		if (!isCurrent(bin, csv, ut)) {
+			File tmp;
+			try {
+				tmp = File.createTempFile(csv.getName(), ".tmp", csv.getAbsoluteFile().getParentFile());
+			}
+			catch (IOException e) {
+				// The directory is not writable, so keep the sidecar in the temp directory
+				tmp = File.createTempFile(csv.getName(), ".bin");
+				tmp.deleteOnExit();
+				bin = tmp;
+			}
+			boolean converted = false;
+			try {
+				convert(csv, tmp, ut);
+				converted = true;
+			}
+			finally {
+				// Do not leave a partial sidecar beside the user's file
+				if (!converted)
+					tmp.delete();
+			}
+
+			if (tmp != bin) {
+				try {
+					Files.move(tmp.toPath(), bin.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+				catch (IOException e) {
+					// The old sidecar may still be mapped, so use the new one where it is
+					tmp.deleteOnExit();
+					bin = tmp;
+				}
+			}
+		}
+		return map(bin);
+	}
+
+	private static long unitKey(Class<? extends Unit> ut) {
+		return ut.getName().hashCode();
+	}
+
+	/**
+	 * Returns true if the sidecar file was built from the present contents
+	 * of the CSV file for the given unit type.
+	 */
+	private static boolean isCurrent(File bin, File csv, Class<? extends Unit> ut) throws IOException {
+		if (!bin.isFile() || bin.length() < HEADER_BYTES)
+			return false;
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		FileChannel ch = FileChannel.open(bin.toPath(), StandardOpenOption.READ);
+		try {
+			while (header.hasRemaining()) {
+				if (ch.read(header) < 0)
+					return false;
+			}
+		}
+		finally {
+			ch.close();
+		}
+		long count = header.getLong(32);
+		return header.getLong(0) == MAGIC &&
+		       header.getLong(8) == csv.length() &&
+		       header.getLong(16) == csv.lastModified() &&
+		       header.getLong(24) == unitKey(ut) &&
+		       bin.length() == HEADER_BYTES + 16 * count;
+	}
+
+	/**
+	 * Buffers the doubles written to a file channel.
+	 */
+	private static final class DoubleWriter {
+		private final FileChannel ch;
+		private final ByteBuffer buf;
+
+		DoubleWriter(FileChannel ch) {
+			this.ch = ch;
+			buf = ByteBuffer.allocate(BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		void put(double val) throws IOException {
+			if (!buf.hasRemaining())
+				flush();
+			buf.putDouble(val);
+		}
+
+		void flush() throws IOException {
+			buf.flip();
+			while (buf.hasRemaining())
+				ch.write(buf);
+			buf.clear();
+		}
+	}
+
+	/**
+	 * Reads the CSV file once, writing the times directly to the sidecar
+	 * and the values to a scratch file that is appended to them at the end.
+	 */
+	private static void convert(File csv, File bin, Class<? extends Unit> ut) throws IOException {
+		File scratch = File.createTempFile(csv.getName(), ".values");
+		BufferedReader in = null;
+		RandomAccessFile out = null;
+		RandomAccessFile vals = null;
+		try {
+			in = new BufferedReader(new InputStreamReader(Files.newInputStream(csv.toPath()), StandardCharsets.UTF_8));
+			out = new RandomAccessFile(bin, "rw");
+			vals = new RandomAccessFile(scratch, "rw");
+			out.setLength(0);
+			FileChannel outCh = out.getChannel();
+			FileChannel valCh = vals.getChannel();
+			outCh.position(HEADER_BYTES);
+			DoubleWriter times = new DoubleWriter(outCh);
+			DoubleWriter values = new DoubleWriter(valCh);
+
+			long count = 0;
+			long startingYearOffset = -1;
+			long lastTime = -1;
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			String lastUnit = null;
+			double factor = 1.0d;
+			String line;
+			int lineNum = 0;
+			while ((line = in.readLine()) != null) {
+				lineNum++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+
+				String[] fields = line.split(",");
+				try {
+					int expected = (ut == DimensionlessUnit.class) ? 2 : 3;
+					if (fields.length != expected)
+						throw new InputErrorException("Expected %d fields, found %d", expected, fields.length);
+
+					long recordus = Input.parseRFC8601DateTime(unquote(fields[0]));
+					// Make sure the times are in increasing order
+					if (recordus <= lastTime)
+						throw new InputErrorException("The times must be given in increasing order");
+					lastTime = recordus;
+
+					// set the offset to the number of whole years from the first record
+					if (startingYearOffset == -1) {
+						startingYearOffset = recordus / Input.usPerYr;
+						startingYearOffset *= Input.usPerYr;
+					}
+
+					if (fields.length == 3) {
+						String unitName = unquote(fields[2]);
+						if (!unitName.equals(lastUnit)) {
+							Entity ent = Entity.getNamedEntity(unitName);
+							if (ent == null)
+								throw new InputErrorException(INP_ERR_NOUNITFOUND, unitName, ut.getSimpleName());
+							if (!ut.isInstance(ent))
+								throw new InputErrorException(INP_ERR_ENTCLASS, ut.getSimpleName(), ent.getInputName(), ent.getClass().getSimpleName());
+							factor = ((Unit)ent).getConversionFactorToSI();
+							lastUnit = unitName;
+						}
+					}
+
+					double val = Double.parseDouble(fields[1].trim()) * factor;
+					times.put((recordus - startingYearOffset) / 3.6e9d); // convert to hours 3600 secs * 1e6 us
+					values.put(val);
+					min = Math.min(min, val);
+					max = Math.max(max, val);
+					count++;
+				}
+				catch (NumberFormatException e) {
+					throw new InputErrorException("Line %d of %s: %s", lineNum, csv.getName(), e.getMessage());
+				}
+				catch (InputErrorException e) {
+					throw new InputErrorException("Line %d of %s: %s", lineNum, csv.getName(), e.getMessage());
+				}
+			}
+			times.flush();
+			values.flush();
+
+			// Append the values to the times
+			long pos = 0;
+			long len = valCh.size();
+			while (pos < len)
+				pos += valCh.transferTo(pos, len - pos, outCh);
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putLong(MAGIC);
+			header.putLong(csv.length());
+			header.putLong(csv.lastModified());
+			header.putLong(unitKey(ut));
+			header.putLong(count);
+			header.putDouble(min);
+			header.putDouble(max);
+			header.rewind();
+			outCh.write(header, 0);
+		}
+		finally {
+			if (in != null) in.close();
+			if (out != null) out.close();
+			if (vals != null) vals.close();
+			scratch.delete();
+		}
+	}
+
+	private static String unquote(String str) {
+		String ret = str.trim();
+		if (ret.length() >= 2 && (ret.charAt(0) == '\'' || ret.charAt(0) == '"') &&
+		    ret.charAt(ret.length() - 1) == ret.charAt(0))
+			ret = ret.substring(1, ret.length() - 1);
+		return ret;
+	}
+
+	/**
+	 * Maps the times and values in the sidecar file. The mappings remain
+	 * valid after the channel is closed.
+	 */
+	private static TimeSeriesData map(File bin) throws IOException {
+		FileChannel ch = FileChannel.open(bin.toPath(), StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			long count = header.getLong(32);
+			if (count > Integer.MAX_VALUE / 8)
+				throw new InputErrorException("Time series has too many records: %d", count);
+
+			DoubleBuffer times = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, count * 8)
+					.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+			DoubleBuffer values = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + count * 8, count * 8)
+					.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+			return new TimeSeriesData(times, values, header.getDouble(40), header.getDouble(48));
+		}
+		finally {
+			ch.close();
+		}
+	}
+}
@@ -19,5 +19,18 @@ import com.jaamsim.Samples.SampleProvider;
 public interface TimeSeriesProvider extends SampleProvider {
 	public double getValueForTimeHours(double simTime);
 	public double getNextChangeTimeAfterHours( double simTime );
+
+	/**
+	 * Returns the value for the given time in hours, starting the search
+	 * from the record found by the last lookup with the same cursor.
+	 */
+	public double getValueForTimeHours(double simTime, TimeSeriesCursor cursor);
+
+	/**
+	 * Returns the first time that the value will change after the given
+	 * time in hours, starting the search from the record found by the last
+	 * lookup with the same cursor.
+	 */
+	public double getNextChangeTimeAfterHours(double simTime, TimeSeriesCursor cursor);
 	public double getMaxTimeValue();
 }
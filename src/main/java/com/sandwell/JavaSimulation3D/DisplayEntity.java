@@ -38,6 +38,7 @@ import com.sandwell.JavaSimulation.BooleanInput;
 import com.sandwell.JavaSimulation.DoubleVector;
 import com.sandwell.JavaSimulation.Entity;
 import com.sandwell.JavaSimulation.EntityInput;
+import com.sandwell.JavaSimulation.EntityList;
 import com.sandwell.JavaSimulation.EntityListInput;
 import com.sandwell.JavaSimulation.Input;
 import com.sandwell.JavaSimulation.InputErrorException;
@@ -49,7 +50,8 @@ import com.sandwell.JavaSimulation.Vec3dInput;
  * components like the eventManager.
  */
 public class DisplayEntity extends Entity {
-	private static final ArrayList<DisplayEntity> allInstances;
+	private static final EntityList<DisplayEntity> allInstances; // The entities rendered by the GUI
+	private int renderIndex = -1; // Position of this entity in allInstances
 
 	@Keyword(description = "The point in the region at which the alignment point of the object is positioned.",
 	         example = "Object1 Position { -3.922 -1.830 0.000 m }")
@@ -187,7 +189,17 @@ public class DisplayEntity extends Entity {
 	private TagSet tags;
 
 	static {
-		allInstances = new ArrayList<DisplayEntity>(100);
+		allInstances = new EntityList<DisplayEntity>(100) {
+			@Override
+			protected int getIndex(DisplayEntity ent) {
+				return ent.renderIndex;
+			}
+
+			@Override
+			protected void setIndex(DisplayEntity ent, int index) {
+				ent.renderIndex = index;
+			}
+		};
 	}
 
 	{
@@ -237,7 +249,12 @@ public class DisplayEntity extends Entity {
 
 		setRegion(null);
 
-		allInstances.add(this);
+		// Only the graphical application's entities are rendered
+		if (this.getContext().isDefault()) {
+			synchronized (allInstances) {
+				allInstances.add(this);
+			}
+		}
 
 		DisplayModel dm = DisplayModel.getDefaultDisplayModelForClass(this.getClass());
 		if(dm != null) {
@@ -247,8 +264,15 @@ public class DisplayEntity extends Entity {
 		}
 	}
 
+	/**
+	 * Returns the entities rendered by the GUI, in the order they were
+	 * defined. The place of an entity killed while the list is being read is
+	 * set to null.
+	 */
 	public static ArrayList<? extends DisplayEntity> getAll() {
-		return allInstances;
+		synchronized (allInstances) {
+			return allInstances.getList();
+		}
 	}
 
 	@Override
@@ -276,10 +300,35 @@ public class DisplayEntity extends Entity {
 	public void kill() {
 		super.kill();
 
-		allInstances.remove(this);
+		if (this.getContext().isDefault()) {
+			synchronized (allInstances) {
+				allInstances.remove(this);
+			}
+		}
 		currentRegion = null;
 	}
 
+	@Override
+	protected void revive() {
+		super.revive();
+
+		if (this.getContext().isDefault()) {
+			synchronized (allInstances) {
+				allInstances.add(this);
+			}
+		}
+		this.setRegion(regionInput.getValue());
+	}
+
+	/**
+	 * Plain DisplayEntities hold no run state outside of their inputs and
+	 * can be reused by copying the prototype's inputs.
+	 */
+	@Override
+	protected boolean isRecyclable() {
+		return this.getClass() == DisplayEntity.class;
+	}
+
 	public Region getCurrentRegion() {
 		return currentRegion;
 	}
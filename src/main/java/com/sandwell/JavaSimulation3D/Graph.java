@@ -222,8 +222,7 @@ public class Graph extends GraphBasics  {
 		for (int outInd = 0; outInd < outs.size(); ++outInd) {
 			SeriesInfo info = new SeriesInfo();
 			info.out = outs.get(outInd);
-			info.yValues = new double[numberOfPoints.getValue()];
-			info.xValues = new double[numberOfPoints.getValue()];
+			info.setCapacity(numberOfPoints.getValue());
 
 			infos.add(info);
 		}
@@ -258,7 +257,16 @@ public class Graph extends GraphBasics  {
 			setupSeriesData(info, xLength, xInterval);
 		}
 
+		// Collect the data at fixed intervals, outside of the future event list
 		processGraph();
+		if (numberOfPoints.getValue() > 1)
+			scheduleSampling(xInterval, processGraph);
+	}
+
+	@Override
+	public void kill() {
+		cancelSampling(processGraph);
+		super.kill();
 	}
 
 	/**
@@ -283,13 +291,9 @@ public class Graph extends GraphBasics  {
 	 */
 	private void setupSeriesData(SeriesInfo info, double xLength, double xInterval) {
 
-		info.numPoints = 0;
-
 		for( int i = 0; i * xInterval < xAxisEnd.getValue(); i++ ) {
 			double t = i * xInterval;
-			info.numPoints++;
-			info.xValues[info.numPoints] = t;
-			info.yValues[info.numPoints] = this.getCurrentValue(t, info);
+			info.addPoint(t, this.getCurrentValue(t, info));
 		}
 	}
 
@@ -310,6 +314,11 @@ public class Graph extends GraphBasics  {
 			return graph.getInputName() + ".processGraph";
 		}
 
+		@Override
+		public boolean isBlocking() {
+			return false;
+		}
+
 		@Override
 		public void process() {
 			graph.processGraph();
@@ -319,7 +328,8 @@ public class Graph extends GraphBasics  {
 	private final ProcessTarget processGraph = new ProcessGraphTarget(this);
 
 	/**
-	 * Calculate values for the data series on the graph
+	 * Calculate values for the data series on the graph. Executed at each
+	 * sampling interval by the EventManager, so it must not wait.
 	 */
 	public void processGraph() {
 		// Give processing time to sub-classes
@@ -334,10 +344,6 @@ public class Graph extends GraphBasics  {
 		for (SeriesInfo info : secondarySeries) {
 			processGraph(info);
 		}
-
-		double xLength = xAxisEnd.getValue() - xAxisStart.getValue();
-		double xInterval = xLength / (numberOfPoints.getValue() - 1);
-		scheduleProcess(xInterval, 7, processGraph);
 	}
 
 	/**
@@ -353,17 +359,7 @@ public class Graph extends GraphBasics  {
 
 		double t = getSimTime() + xAxisEnd.getValue();
 		double presentValue = this.getCurrentValue(t, info);
-		if (info.numPoints < info.yValues.length) {
-			info.xValues[info.numPoints] = t;
-			info.yValues[info.numPoints] = presentValue;
-			info.numPoints++;
-		}
-		else {
-			System.arraycopy(info.xValues, 1, info.xValues, 0, info.xValues.length - 1);
-			System.arraycopy(info.yValues, 1, info.yValues, 0, info.yValues.length - 1);
-			info.xValues[info.xValues.length - 1] = t;
-			info.yValues[info.yValues.length - 1] = presentValue;
-		}
+		info.addPoint(t, presentValue);
 	}
 
 	/**
@@ -39,12 +39,68 @@ public abstract class GraphBasics extends DisplayEntity {
 	 * A struct containing all the information pertaining to a specific series
 	 */
 	public static class SeriesInfo {
-		public double[] yValues;
-		public double[] xValues;
-		public int numPoints; // number of points to be graphed
+		private double[] yValues; // ring buffer of the y values, oldest point at index head
+		private double[] xValues; // ring buffer of the x values, oldest point at index head
+		private int head;
+		private int numPoints; // number of points to be graphed
 		public OutputHandle out; // The source of the data for the series
 		public double lineWidth;
 		public Color4d lineColour;
+
+		/**
+		 * Removes all the points and sets the number of points that can be held.
+		 */
+		public void setCapacity(int n) {
+			yValues = new double[n];
+			xValues = new double[n];
+			head = 0;
+			numPoints = 0;
+		}
+
+		/**
+		 * Appends a point to the series, replacing the oldest point once the
+		 * series is full.
+		 */
+		public void addPoint(double x, double y) {
+			int n = xValues.length;
+			if (n == 0)
+				return;
+
+			int i = head + numPoints;
+			if (numPoints < n) {
+				numPoints++;
+			}
+			else {
+				i = head;
+				head++;
+				if (head == n) head = 0;
+			}
+			if (i >= n) i -= n;
+			xValues[i] = x;
+			yValues[i] = y;
+		}
+
+		public int getNumPoints() {
+			return numPoints;
+		}
+
+		/**
+		 * Returns the x value for the i-th point, counting from the oldest.
+		 */
+		public double getXValue(int i) {
+			int j = head + i;
+			if (j >= xValues.length) j -= xValues.length;
+			return xValues[j];
+		}
+
+		/**
+		 * Returns the y value for the i-th point, counting from the oldest.
+		 */
+		public double getYValue(int i) {
+			int j = head + i;
+			if (j >= yValues.length) j -= yValues.length;
+			return yValues[j];
+		}
 	}
 
 	protected final ArrayList<SeriesInfo> primarySeries;
@@ -173,16 +173,10 @@ public class ObjectSelector extends FrameBox {
 			catch (IndexOutOfBoundsException e) {}
 		}
 
+		ArrayList<ObjectType> types = ObjectType.getAll();
 		for (Palette p : Palette.getAll()) {
 			DefaultMutableTreeNode palNode = getNodeFor_In(p.getName(), top);
-			for (int j = 0; j < ObjectType.getAll().size(); j++) {
-				ObjectType type = null;
-				try {
-					type = ObjectType.getAll().get(j);
-				}
-				catch (IndexOutOfBoundsException e) {
-					break;
-				}
+			for (ObjectType type : types) {
 				if( type.getPalette() != p )
 					continue;
 
@@ -14,20 +14,30 @@
  */
 package com.sandwell.JavaSimulation3D;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
+import com.jaamsim.input.OutputHandle;
 import com.jaamsim.input.ValueInput;
+import com.jaamsim.math.TimeWeightedStatistics;
 import com.jaamsim.math.Vec3d;
 import com.jaamsim.units.DimensionlessUnit;
 import com.jaamsim.units.DistanceUnit;
 import com.jaamsim.units.TimeUnit;
 import com.sandwell.JavaSimulation.DoubleVector;
 import com.sandwell.JavaSimulation.Entity;
+import com.sandwell.JavaSimulation.EnumInput;
 import com.sandwell.JavaSimulation.ErrorException;
 import com.sandwell.JavaSimulation.FileEntity;
 import com.sandwell.JavaSimulation.IntegerInput;
+import com.sandwell.JavaSimulation.InputErrorException;
+import com.sandwell.JavaSimulation.StringInput;
 
 public class Queue extends DisplayEntity {
 
@@ -39,20 +49,53 @@ public class Queue extends DisplayEntity {
 			example = "Queue-1 MaxPerLine { 4 }")
 	protected final IntegerInput maxPerLineInput; // maximum items per sub line-up of queue
 
-	protected ArrayList<DisplayEntity> itemList;
-	private ArrayList<Double> timeAddedList;
+	public enum Discipline { FIFO, LIFO, PRIORITY, EDD }
+
+	@Keyword(description = "The order in which entities leave the queue. FIFO = first in first out, " +
+			"LIFO = last in first out, PRIORITY = smallest value of the Priority output first, " +
+			"EDD = earliest value of the DueDate output first. Ties are broken in order of arrival.",
+	         example = "Queue-1 Discipline { PRIORITY }")
+	private final EnumInput<Discipline> disciplineInput;
+
+	@Keyword(description = "The name of a numerical output of each queued entity that gives its priority. " +
+			"The output is evaluated when the entity is added to the queue. Required by the PRIORITY discipline.",
+	         example = "Queue-1 Priority { Priority }")
+	private final StringInput priorityOutputInput;
+
+	@Keyword(description = "The name of an output of each queued entity that gives the time at which it is due. " +
+			"The output is evaluated when the entity is added to the queue. Required by the EDD discipline.",
+	         example = "Queue-1 DueDate { DueDate }")
+	private final StringInput dueDateOutputInput;
+
+	// The entities and their arrival times are held in a ring buffer where
+	// position i in the queue is slot (head + i) & mask. Each entity is mapped
+	// to a sequence number equal to headSeq plus its position, so that it can
+	// be found without searching the queue.
+	// For the PRIORITY and EDD disciplines the same arrays hold a binary heap
+	// with head fixed at zero, ordered by rankKey and then by arrival order.
+	private DisplayEntity[] items;
+	private double[] timeAdded;
+	private double[] rankKey;
+	private long[] rankOrder;
+	private long arrivalCount;
+	private Discipline discipline;
+	private String rankOutput;  // output of the queued entities that gives their rank
+	private OutputHandle rankHandle;  // handle for rankOutput, pointed at each entity as it is ranked
+	private int head;
+	private int count;
+	private int mask;
+	private int headSeq;
+	private final HashMap<DisplayEntity, Integer> seqMap;
+	private boolean seqMapValid;  // false while an entity is in the queue more than once
+	private final List<DisplayEntity> itemView;
 
 	//	Statistics
-	protected double timeOfLastUpdate; // time at which the statistics were last updated
-	protected double startOfStatisticsCollection; // time at which statistics collection was started
-	protected int minElements; // minimum observed number of entities in the queue
-	protected int maxElements; // maximum observed number of entities in the queue
-	protected double elementSeconds;  // total time that entities have spent in the queue
-	protected double squaredElementSeconds;  // total time for the square of the number of elements in the queue
+	private static final int MAX_LENGTH_BINS = 10000;  // queue lengths beyond this share one histogram bin
+	protected final TimeWeightedStatistics queueLengthStats;  // time-weighted statistics for the queue length
 	protected int numberAdded;    // number of entities that have been added to the queue
 	protected int numberRemoved;  // number of entities that have been removed from the queue
-	protected DoubleVector queueLengthDist;  // entry at position n is the total time the queue has had length n
 	protected ArrayList<QueueRecorder> recorderList;
+	private ArrayList<QueueUser> userList;  // objects told when the first entity changes
 
 	{
 		spacingInput = new ValueInput("Spacing", "Key Inputs", 0.0d);
@@ -63,12 +106,37 @@ public class Queue extends DisplayEntity {
 		maxPerLineInput = new IntegerInput("MaxPerLine", "Key Inputs", Integer.MAX_VALUE);
 		maxPerLineInput.setValidRange( 1, Integer.MAX_VALUE);
 		this.addInput(maxPerLineInput, true);
+
+		disciplineInput = new EnumInput<Discipline>(Discipline.class, "Discipline", "Key Inputs", Discipline.FIFO);
+		this.addInput(disciplineInput, true);
+
+		priorityOutputInput = new StringInput("Priority", "Key Inputs", "");
+		this.addInput(priorityOutputInput, true);
+
+		dueDateOutputInput = new StringInput("DueDate", "Key Inputs", "");
+		this.addInput(dueDateOutputInput, true);
 	}
 
 	public Queue() {
-		itemList = new ArrayList<DisplayEntity>();
-		timeAddedList = new ArrayList<Double>();
-		queueLengthDist = new DoubleVector(10,10);
+		items = new DisplayEntity[16];
+		timeAdded = new double[16];
+		mask = 15;
+		seqMap = new HashMap<DisplayEntity, Integer>();
+		seqMapValid = true;
+		itemView = new ItemView();
+		discipline = Discipline.FIFO;
+		queueLengthStats = new TimeWeightedStatistics(MAX_LENGTH_BINS);
+	}
+
+	@Override
+	public void validate() {
+		super.validate();
+
+		if( disciplineInput.getValue() == Discipline.PRIORITY && priorityOutputInput.getValue().isEmpty() )
+			throw new InputErrorException( "The keyword Priority must be set for the PRIORITY discipline." );
+
+		if( disciplineInput.getValue() == Discipline.EDD && dueDateOutputInput.getValue().isEmpty() )
+			throw new InputErrorException( "The keyword DueDate must be set for the EDD discipline." );
 	}
 
 	@Override
@@ -76,8 +144,19 @@ public class Queue extends DisplayEntity {
 		super.earlyInit();
 
 		// Clear the entries in the queue
-		itemList.clear();
-		timeAddedList.clear();
+		this.clearItems();
+
+		discipline = disciplineInput.getValue();
+		rankOutput = null;
+		rankHandle = null;
+		if( discipline == Discipline.PRIORITY )
+			rankOutput = priorityOutputInput.getValue();
+		if( discipline == Discipline.EDD )
+			rankOutput = dueDateOutputInput.getValue();
+		if( this.isRanked() && rankKey == null ) {
+			rankKey = new double[items.length];
+			rankOrder = new long[items.length];
+		}
 
 		// Clear statistics
 		this.clearStatistics();
@@ -88,6 +167,12 @@ public class Queue extends DisplayEntity {
 				recorderList.add( rec );
 			}
 		}
+
+		userList = new ArrayList<QueueUser>();
+		for( Entity each : Entity.getAll() ) {
+			if( each instanceof QueueUser && ((QueueUser)each).getQueue() == this )
+				userList.add( (QueueUser)each );
+		}
 	}
 
 	// ******************************************************************************************************
@@ -97,41 +182,54 @@ public class Queue extends DisplayEntity {
 	/**
 	 * Inserts the specified element at the specified position in this Queue.
 	 * Shifts the element currently at that position (if any) and any subsequent elements to the right (adds one to their indices).
+	 * For the PRIORITY and EDD disciplines the position is ignored and the element is placed according to its rank.
 	 */
 	public void add( int i, DisplayEntity perf ) {
-		this.updateStatistics();  // update the queue length distribution
-		itemList.add( i, perf );
-		timeAddedList.add( i, this.getSimTime() );
-		this.updateStatistics();  // update the min and max queue length
+		if( i > count || i < 0 )
+			throw new ErrorException( " Index is beyond the end of the queue. " );
+
+		DisplayEntity first = this.getFirst();
+		double firstTime = this.getFirstTimeAdded();
+		double simTime = this.getSimTime();
+		if( this.isRanked() )
+			this.heapInsert( perf, simTime, this.getRankKey(perf, simTime) );
+		else
+			this.insertItem( i, perf, simTime );
+		this.updateStatistics();
 		numberAdded++;
 
 		for( QueueRecorder rec : recorderList ) {
 			rec.add( perf, this );
 		}
+		this.notifyUsers(first, firstTime);
 	}
 
 	/**
-	 * Add an entity to the end of the queue
+	 * Add an entity to the queue according to its discipline. The entity is
+	 * placed at the end of a FIFO queue and at the front of a LIFO queue.
 	 */
 	public void addLast( DisplayEntity perf ) {
-		this.add(itemList.size(), perf);
+		if( discipline == Discipline.LIFO )
+			this.add(0, perf);
+		else
+			this.add(count, perf);
 	}
 
 	/**
 	 * Removes the entity at the specified position in the queue
 	 */
 	public DisplayEntity remove(int i) {
-		if( i < itemList.size() && i >= 0 ) {
-			this.updateStatistics();  // update the queue length distribution
-			DisplayEntity out = itemList.remove(i);
-			//double queueTime = this.getSimTime() - timeAddedList.remove(i);
-			timeAddedList.remove(i);
-			this.updateStatistics();  // update the min and max queue length
+		if( i < count && i >= 0 ) {
+			DisplayEntity first = this.getFirst();
+			double firstTime = this.getFirstTimeAdded();
+			DisplayEntity out = this.isRanked() ? this.heapRemove(i) : this.removeItem(i);
+			this.updateStatistics();
 			numberRemoved++;
 
 			for( QueueRecorder rec : recorderList ) {
 				rec.remove( out, this );
 			}
+			this.notifyUsers(first, firstTime);
 			return out;
 		}
 		else {
@@ -143,7 +241,7 @@ public class Queue extends DisplayEntity {
 	 * Removes the specified entity from the queue
 	 */
 	public void remove( DisplayEntity perf ) {
-		int i = itemList.indexOf(perf);
+		int i = this.indexOf(perf);
 		if( i >= 0 )
 			this.remove(i);
 
@@ -152,7 +250,8 @@ public class Queue extends DisplayEntity {
 	}
 
 	/**
-	 * Removes the first entity from the queue
+	 * Removes the first entity from the queue, which is the next one to be
+	 * served under the queue discipline
 	 */
 	public DisplayEntity removeFirst() {
 		return this.remove(0);
@@ -162,21 +261,362 @@ public class Queue extends DisplayEntity {
 	 * Removes the last entity from the queue
 	 */
 	public DisplayEntity removeLast() {
-		return this.remove( itemList.size()-1 );
+		return this.remove( count-1 );
 	}
 
 	/**
 	 * Number of entities in the queue
 	 */
 	public int getCount() {
-		return itemList.size();
+		return count;
+	}
+
+	/**
+	 * Returns the entity at the specified position in the queue. For the
+	 * PRIORITY and EDD disciplines only position zero is in rank order,
+	 * the remaining positions follow the heap.
+	 */
+	public DisplayEntity get(int i) {
+		if( i >= count || i < 0 )
+			throw new ErrorException( " Index is beyond the end of the queue. " );
+		return items[(head + i) & mask];
+	}
+
+	/**
+	 * Returns the position of the specified entity in the queue, or -1 if it
+	 * is not in the queue
+	 */
+	public int indexOf(DisplayEntity perf) {
+		if( seqMapValid ) {
+			Integer seq = seqMap.get(perf);
+			if( seq == null )
+				return -1;
+			return seq.intValue() - headSeq;
+		}
+
+		for( int i = 0; i < count; i++ ) {
+			if( items[(head + i) & mask] == perf )
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the simulation time at which the entity at the specified
+	 * position was added to the queue
+	 */
+	public double getTimeAdded(int i) {
+		if( i >= count || i < 0 )
+			throw new ErrorException( " Index is beyond the end of the queue. " );
+		return timeAdded[(head + i) & mask];
+	}
+
+	private DisplayEntity getFirst() {
+		if( count == 0 )
+			return null;
+		return items[head];
+	}
+
+	private double getFirstTimeAdded() {
+		if( count == 0 )
+			return Double.NaN;
+		return timeAdded[head];
+	}
+
+	/**
+	 * Tells the users of the queue if the first entity, or the time it was
+	 * added, differs from the given values.
+	 */
+	private void notifyUsers(DisplayEntity prevFirst, double prevTime) {
+		if( this.getFirst() == prevFirst ) {
+			if( count == 0 || timeAdded[head] == prevTime )
+				return;
+		}
+
+		for( QueueUser user : userList ) {
+			user.queueChanged();
+		}
 	}
 
 	/**
 	 * Returns the number of seconds spent by the first object in the queue
 	 */
 	public double getQueueTime() {
-		return this.getSimTime() - timeAddedList.get(0);
+		return this.getSimTime() - this.getTimeAdded(0);
+	}
+
+	private void clearItems() {
+		for( int i = 0; i < count; i++ ) {
+			items[(head + i) & mask] = null;
+		}
+		head = 0;
+		count = 0;
+		headSeq = 0;
+		seqMap.clear();
+		seqMapValid = true;
+	}
+
+	private void grow() {
+		int len = items.length;
+		DisplayEntity[] newItems = new DisplayEntity[len * 2];
+		double[] newTimes = new double[len * 2];
+		int n = len - head;
+		System.arraycopy(items, head, newItems, 0, n);
+		System.arraycopy(items, 0, newItems, n, head);
+		System.arraycopy(timeAdded, head, newTimes, 0, n);
+		System.arraycopy(timeAdded, 0, newTimes, n, head);
+		items = newItems;
+		timeAdded = newTimes;
+		if( rankKey != null ) {
+			// the heap is only used with head at zero
+			rankKey = Arrays.copyOf(rankKey, len * 2);
+			rankOrder = Arrays.copyOf(rankOrder, len * 2);
+		}
+		head = 0;
+		mask = len * 2 - 1;
+	}
+
+	private boolean isRanked() {
+		return discipline == Discipline.PRIORITY || discipline == Discipline.EDD;
+	}
+
+	/**
+	 * Returns the value of the ranking output for the given entity, entities
+	 * without a numerical value are ranked last.
+	 */
+	private double getRankKey(DisplayEntity ent, double simTime) {
+		// Entities of the same class share the output, so the handle is only
+		// created again when the class changes
+		if( rankHandle == null || rankHandle.ent.getClass() != ent.getClass() ) {
+			if( !ent.hasOutput(rankOutput) )
+				throw new ErrorException( "Entity %s does not have an output named %s", ent.getInputName(), rankOutput );
+			rankHandle = new OutputHandle(ent, rankOutput);
+		}
+		rankHandle.ent = ent;
+
+		double ret = rankHandle.getValueAsDouble(simTime);
+		if( Double.isNaN(ret) )
+			return Double.POSITIVE_INFINITY;
+		return ret;
+	}
+
+	private static boolean ranksBefore(double key1, long order1, double key2, long order2) {
+		if( key1 != key2 )
+			return key1 < key2;
+		return order1 < order2;
+	}
+
+	private void setHeapSlot(int slot, DisplayEntity ent, double time, double key, long order) {
+		items[slot] = ent;
+		timeAdded[slot] = time;
+		rankKey[slot] = key;
+		rankOrder[slot] = order;
+		if( seqMapValid )
+			seqMap.put(ent, slot);
+	}
+
+	private void moveHeapSlot(int from, int to) {
+		this.setHeapSlot(to, items[from], timeAdded[from], rankKey[from], rankOrder[from]);
+	}
+
+	/**
+	 * Returns the slot for an entry with the given rank, moving entries
+	 * that rank after it away from the root, starting from the given slot.
+	 */
+	private int siftUp(int i, double key, long order) {
+		while( i > 0 ) {
+			int parent = (i - 1) >>> 1;
+			if( !ranksBefore(key, order, rankKey[parent], rankOrder[parent]) )
+				break;
+			this.moveHeapSlot(parent, i);
+			i = parent;
+		}
+		return i;
+	}
+
+	/**
+	 * Returns the slot for an entry with the given rank, moving entries
+	 * that rank before it towards the root, starting from the given slot.
+	 */
+	private int siftDown(int i, double key, long order) {
+		while( true ) {
+			int child = 2*i + 1;
+			if( child >= count )
+				break;
+			if( child + 1 < count
+					&& ranksBefore(rankKey[child + 1], rankOrder[child + 1], rankKey[child], rankOrder[child]) )
+				child++;
+			if( !ranksBefore(rankKey[child], rankOrder[child], key, order) )
+				break;
+			this.moveHeapSlot(child, i);
+			i = child;
+		}
+		return i;
+	}
+
+	private void heapInsert(DisplayEntity ent, double time, double key) {
+		if( count == items.length )
+			this.grow();
+
+		if( seqMapValid && seqMap.containsKey(ent) ) {
+			seqMapValid = false;
+			seqMap.clear();
+		}
+
+		long order = arrivalCount++;
+		count++;
+		int slot = this.siftUp(count - 1, key, order);
+		this.setHeapSlot(slot, ent, time, key, order);
+	}
+
+	private DisplayEntity heapRemove(int i) {
+		DisplayEntity out = items[i];
+		if( seqMapValid )
+			seqMap.remove(out);
+
+		// Fill the vacated slot with the last entry in the heap
+		count--;
+		int last = count;
+		if( i != last ) {
+			DisplayEntity ent = items[last];
+			double time = timeAdded[last];
+			double key = rankKey[last];
+			long order = rankOrder[last];
+			int slot = this.siftDown(i, key, order);
+			if( slot == i )
+				slot = this.siftUp(i, key, order);
+			this.setHeapSlot(slot, ent, time, key, order);
+		}
+		items[last] = null;
+
+		if( count == 0 )
+			seqMapValid = true;
+		return out;
+	}
+
+	/**
+	 * Returns the entities in the order they will be served.
+	 */
+	private DisplayEntity[] getItemsInOrder() {
+		DisplayEntity[] ret = new DisplayEntity[count];
+		if( !this.isRanked() ) {
+			for( int i = 0; i < count; i++ ) {
+				ret[i] = items[(head + i) & mask];
+			}
+			return ret;
+		}
+
+		Integer[] slots = new Integer[count];
+		for( int i = 0; i < count; i++ ) {
+			slots[i] = i;
+		}
+		Arrays.sort(slots, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				if( ranksBefore(rankKey[a], rankOrder[a], rankKey[b], rankOrder[b]) )
+					return -1;
+				if( ranksBefore(rankKey[b], rankOrder[b], rankKey[a], rankOrder[a]) )
+					return 1;
+				return 0;
+			}
+		});
+		for( int i = 0; i < count; i++ ) {
+			ret[i] = items[slots[i]];
+		}
+		return ret;
+	}
+
+	/**
+	 * Moves the entity in slot 'from' to slot 'to' and records its new sequence number.
+	 */
+	private void moveItem(int from, int to, int seq) {
+		DisplayEntity ent = items[from];
+		items[to] = ent;
+		timeAdded[to] = timeAdded[from];
+		if( seqMapValid )
+			seqMap.put(ent, seq);
+	}
+
+	/**
+	 * Inserts an entity at position i, shifting whichever side of the queue is shorter.
+	 */
+	private void insertItem(int i, DisplayEntity ent, double time) {
+		if( count == items.length )
+			this.grow();
+
+		if( seqMapValid && seqMap.containsKey(ent) ) {
+			seqMapValid = false;
+			seqMap.clear();
+		}
+
+		if( i < count - i ) {
+			// Shift the entities ahead of position i one slot towards the head
+			head = (head - 1) & mask;
+			headSeq--;
+			for( int j = 0; j < i; j++ ) {
+				this.moveItem((head + j + 1) & mask, (head + j) & mask, headSeq + j);
+			}
+		}
+		else {
+			// Shift the entities behind position i one slot towards the tail
+			for( int j = count; j > i; j-- ) {
+				this.moveItem((head + j - 1) & mask, (head + j) & mask, headSeq + j);
+			}
+		}
+
+		int slot = (head + i) & mask;
+		items[slot] = ent;
+		timeAdded[slot] = time;
+		count++;
+		if( seqMapValid )
+			seqMap.put(ent, headSeq + i);
+	}
+
+	/**
+	 * Removes the entity at position i, shifting whichever side of the queue is shorter.
+	 */
+	private DisplayEntity removeItem(int i) {
+		DisplayEntity out = items[(head + i) & mask];
+		if( seqMapValid )
+			seqMap.remove(out);
+
+		if( i < count - 1 - i ) {
+			// Shift the entities ahead of position i one slot towards the tail
+			for( int j = i; j > 0; j-- ) {
+				this.moveItem((head + j - 1) & mask, (head + j) & mask, headSeq + j);
+			}
+			items[head] = null;
+			head = (head + 1) & mask;
+			headSeq++;
+		}
+		else {
+			// Shift the entities behind position i one slot towards the head
+			for( int j = i; j < count - 1; j++ ) {
+				this.moveItem((head + j + 1) & mask, (head + j) & mask, headSeq + j);
+			}
+			items[(head + count - 1) & mask] = null;
+		}
+		count--;
+
+		// Once the queue is empty, no entity can be present more than once
+		if( count == 0 )
+			seqMapValid = true;
+		return out;
+	}
+
+	/**
+	 * Read-only view of the entities in the queue, in order from the head.
+	 */
+	private class ItemView extends AbstractList<DisplayEntity> {
+		@Override
+		public DisplayEntity get(int i) {
+			return Queue.this.get(i);
+		}
+
+		@Override
+		public int size() {
+			return count;
+		}
 	}
 
 	/**
@@ -186,7 +626,7 @@ public class Queue extends DisplayEntity {
 	@Override
 	public void updateGraphics( double simTime ) {
 
-		//int max = itemList.size();
+		//int max = count;
 		// If set, limit the number of items per sub-lane
 		//if (maxPerLine > 0)
 		//	max = maxPerLine;
@@ -199,13 +639,14 @@ public class Queue extends DisplayEntity {
 		double maxWidth = 0;
 
 		// find widest vessel
-		if( itemList.size() >  maxPerLineInput.getValue()){
-			for (int j = 0; j < itemList.size(); j++) {
-				 maxWidth = Math.max(maxWidth, itemList.get(j).getSize().y);
+		DisplayEntity[] ordered = this.getItemsInOrder();
+		if( ordered.length >  maxPerLineInput.getValue()){
+			for (int j = 0; j < ordered.length; j++) {
+				 maxWidth = Math.max(maxWidth, ordered[j].getSize().y);
 			 }
 		}
 		// update item locations
-		for (int i = 0; i < itemList.size(); i++) {
+		for (int i = 0; i < ordered.length; i++) {
 
 			// if new row is required, set reset distanceX and move distanceY up one row
 			if( i > 0 && i % maxPerLineInput.getValue() == 0 ){
@@ -213,7 +654,7 @@ public class Queue extends DisplayEntity {
 				 distanceY += spacingInput.getValue() + maxWidth;
 			}
 
-			DisplayEntity item = itemList.get(i);
+			DisplayEntity item = ordered[i];
 			// Rotate each transporter about its center so it points to the right direction
 			item.setOrientation(queueOrientation);
 			Vec3d itemSize = item.getSize();
@@ -229,16 +670,19 @@ public class Queue extends DisplayEntity {
 		}
 	}
 
-	public ArrayList<DisplayEntity> getItemList() {
-		return itemList;
+	/**
+	 * Returns a read-only view of the entities in the queue
+	 */
+	public List<DisplayEntity> getItemList() {
+		return itemView;
 	}
 
 	public double getPhysicalLength() {
 		double length;
 
 		length = 0.0;
-		for( int x = 0; x < itemList.size(); x++ ) {
-			DisplayEntity item = itemList.get( x );
+		for( int x = 0; x < count; x++ ) {
+			DisplayEntity item = this.get( x );
 			length += item.getSize().x + spacingInput.getValue();
 		}
 		return length;
@@ -250,8 +694,8 @@ public class Queue extends DisplayEntity {
 	public Vec3d getEndVector3dFor(DisplayEntity perf) {
 		Vec3d qSize = this.getSize();
 		double distance = 0.5d * qSize.x;
-		for (int x = 0; x < itemList.size(); x++) {
-			DisplayEntity item = itemList.get(x);
+		for (int x = 0; x < count; x++) {
+			DisplayEntity item = this.get(x);
 			distance += spacingInput.getValue() + item.getSize().x;
 		}
 		distance += spacingInput.getValue() + 0.5d * perf.getSize().x;
@@ -267,38 +711,16 @@ public class Queue extends DisplayEntity {
 	 * Clear queue statistics
 	 */
 	public void clearStatistics() {
-		double simTime = this.getSimTime();
-		startOfStatisticsCollection = simTime;
-		timeOfLastUpdate = simTime;
-		minElements = itemList.size();
-		maxElements = itemList.size();
-		elementSeconds = 0.0;
-		squaredElementSeconds = 0.0;
+		queueLengthStats.clear(this.getSimTime(), count);
 		numberAdded = 0;
 		numberRemoved = 0;
-		queueLengthDist.clear();
 	}
 
+	/**
+	 * Records the present queue length in the time-weighted statistics
+	 */
 	public void updateStatistics() {
-
-		int queueSize = itemList.size();  // present number of entities in the queue
-		minElements = Math.min(queueSize, minElements);
-		maxElements = Math.max(queueSize, maxElements);
-
-		// Add the necessary number of additional bins to the queue length distribution
-		int n = queueSize + 1 - queueLengthDist.size();
-		for( int i=0; i<n; i++ ) {
-			queueLengthDist.add(0.0);
-		}
-
-		double simTime = this.getSimTime();
-		double dt = simTime - timeOfLastUpdate;
-		if( dt > 0.0 ) {
-			elementSeconds += dt * queueSize;
-			squaredElementSeconds += dt * queueSize * queueSize;
-			queueLengthDist.addAt(dt,queueSize);  // add dt to the entry at index queueSize
-			timeOfLastUpdate = simTime;
-		}
+		queueLengthStats.update(this.getSimTime(), count);
 	}
 
 	// ******************************************************************************************************
@@ -342,41 +764,28 @@ public class Queue extends DisplayEntity {
 	 description = "The present number of entities in the queue.",
 	    unitType = DimensionlessUnit.class)
 	public double getQueueLength(double simTime) {
-		return itemList.size();
+		return count;
 	}
 
 	@Output(name = "QueueLengthAverage",
 	 description = "The average number of entities in the queue.",
 	    unitType = DimensionlessUnit.class)
 	public double getQueueLengthAverage(double simTime) {
-		double dt = simTime - timeOfLastUpdate;
-		int queueSize = itemList.size();
-		double totalTime = simTime - startOfStatisticsCollection;
-		if( totalTime > 0.0 ) {
-			return (elementSeconds + dt*queueSize)/totalTime;
-		}
-		return 0.0;
+		return queueLengthStats.getMean(simTime);
 	}
 
 	@Output(name = "QueueLengthStandardDeviation",
 	 description = "The standard deviation of the number of entities in the queue.",
 	    unitType = DimensionlessUnit.class)
 	public double getQueueLengthStandardDeviation(double simTime) {
-		double dt = simTime - timeOfLastUpdate;
-		int queueSize = itemList.size();
-		double mean = this.getQueueLengthAverage(simTime);
-		double totalTime = simTime - startOfStatisticsCollection;
-		if( totalTime > 0.0 ) {
-			return Math.sqrt( (squaredElementSeconds + dt*queueSize*queueSize)/totalTime - mean*mean );
-		}
-		return 0.0;
+		return queueLengthStats.getStandardDeviation(simTime);
 	}
 
 	@Output(name = "QueueLengthMinimum",
 	 description = "The minimum number of entities in the queue.",
 	    unitType = DimensionlessUnit.class)
 	public Integer getQueueLengthMinimum(double simTime) {
-		return minElements;
+		return (int) queueLengthStats.getMinimum();
 	}
 
 	@Output(name = "QueueLengthMaximum",
@@ -385,7 +794,8 @@ public class Queue extends DisplayEntity {
 	public Integer getQueueLengthMaximum(double simTime) {
 		// An entity that is added to an empty queue and removed immediately
 		// does not count as a non-zero queue length
-		if( maxElements == 1 && queueLengthDist.get(1) == 0.0 )
+		int maxElements = (int) queueLengthStats.getMaximum();
+		if( maxElements == 1 && queueLengthStats.getBinTime(1) == 0.0 )
 			return 0;
 		return maxElements;
 	}
@@ -394,24 +804,42 @@ public class Queue extends DisplayEntity {
 	 description = "The fraction of time that the queue has length 0, 1, 2, etc.",
 	    unitType = DimensionlessUnit.class)
 	public DoubleVector getQueueLengthDistribution(double simTime) {
-		DoubleVector ret = new DoubleVector(queueLengthDist);
-		double dt = simTime - timeOfLastUpdate;
-		int queueSize = itemList.size();
-		double totalTime = simTime - startOfStatisticsCollection;
-		if( totalTime > 0.0 ) {
-			if( ret.size() == 0 )
-				ret.add(0.0);
-			ret.addAt(dt, queueSize);  // adds dt to the entry at index queueSize
-			for( int i=0; i<ret.size(); i++ ) {
-				ret.set(i, ret.get(i)/totalTime);
-			}
-		}
-		else {
-			ret.clear();
+		double[] dist = queueLengthStats.getDistribution(simTime);
+		DoubleVector ret = new DoubleVector(dist.length);
+		for( int i=0; i<dist.length; i++ ) {
+			ret.add(dist[i]);
 		}
 		return ret;
 	}
 
+	@Output(name = "QueueLengthMedian",
+	 description = "The queue length that was not exceeded for half of the time.",
+	    unitType = DimensionlessUnit.class)
+	public double getQueueLengthMedian(double simTime) {
+		return queueLengthStats.getPercentile(simTime, 0.50d);
+	}
+
+	@Output(name = "QueueLength90thPercentile",
+	 description = "The queue length that was not exceeded for 90 percent of the time.",
+	    unitType = DimensionlessUnit.class)
+	public double getQueueLength90thPercentile(double simTime) {
+		return queueLengthStats.getPercentile(simTime, 0.90d);
+	}
+
+	@Output(name = "QueueLength95thPercentile",
+	 description = "The queue length that was not exceeded for 95 percent of the time.",
+	    unitType = DimensionlessUnit.class)
+	public double getQueueLength95thPercentile(double simTime) {
+		return queueLengthStats.getPercentile(simTime, 0.95d);
+	}
+
+	@Output(name = "QueueLength99thPercentile",
+	 description = "The queue length that was not exceeded for 99 percent of the time.",
+	    unitType = DimensionlessUnit.class)
+	public double getQueueLength99thPercentile(double simTime) {
+		return queueLengthStats.getPercentile(simTime, 0.99d);
+	}
+
 	@Output(name = "AverageQueueTime",
 	 description = "The average time each entity waits in the queue.  Calculated as total queue time to date divided " +
 			"by the total number of entities added to the queue.",
@@ -419,9 +847,7 @@ public class Queue extends DisplayEntity {
 	public double getAverageQueueTime(double simTime) {
 		if( numberAdded == 0 )
 			return 0.0;
-		double dt = simTime - timeOfLastUpdate;
-		int queueSize = itemList.size();
-		return (elementSeconds + dt*queueSize)/numberAdded;
+		return queueLengthStats.getIntegral(simTime)/numberAdded;
 	}
 
 }
@@ -32,7 +32,21 @@ import org.junit.runners.Suite.SuiteClasses;
 	com.jaamsim.math.TestVec4d.class,
 	com.jaamsim.math.TestMat4d.class,
 	com.jaamsim.math.TestInterners.class,
+	com.jaamsim.math.TestTimeWeightedStatistics.class,
+	com.sandwell.JavaSimulation3D.TestQueue.class,
+	com.sandwell.JavaSimulation.TestTimeSeriesFileInput.class,
+	com.sandwell.JavaSimulation.TestBinaryTrace.class,
 	com.jaamsim.rng.TestMRG1999a.class,
+	com.jaamsim.events.TestEventList.class,
+	com.jaamsim.events.TestEventSampling.class,
+	com.jaamsim.events.TestCondition.class,
+	com.jaamsim.events.TestEventMetrics.class,
+	com.jaamsim.Thresholds.TestThresholdSchedule.class,
+	com.jaamsim.Thresholds.TestThresholdUsers.class,
+	com.jaamsim.CalculationObjects.TestDormandPrince.class,
+	com.jaamsim.CalculationObjects.TestController.class,
+	com.jaamsim.basicsim.TestEntityRegistry.class,
+	com.jaamsim.BasicObjects.TestResource.class,
 	com.jaamsim.video.vp8.TestBoolEncoder.class,
 	com.jaamsim.video.vp8.TestTransforms.class,
 	com.jaamsim.video.vp8.TestYUV.class,
@@ -0,0 +1,176 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.BasicObjects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventTimeListener;
+import com.jaamsim.events.ProcessTarget;
+import com.jaamsim.input.InputAgent;
+import com.sandwell.JavaSimulation.SimulationContext;
+import com.sandwell.JavaSimulation3D.DisplayEntity;
+import com.sandwell.JavaSimulation3D.Queue;
+
+public class TestResource {
+
+	/**
+	 * Returns the Seize object picked by a linear scan of the live queue
+	 * state, the arbitration used before the waiting Seize objects were held
+	 * in a heap.
+	 */
+	private static Seize scan(ArrayList<Seize> seizes) {
+		Seize selection = null;
+		double maxTime = 0;
+		for (Seize s : seizes) {
+			Queue que = s.getQueue();
+			if (que.getCount() > 0) {
+				if (selection == null || que.getQueueTime() > maxTime) {
+					selection = s;
+					maxTime = que.getQueueTime();
+				}
+			}
+		}
+		return selection;
+	}
+
+	// Adds and removes entities directly from the queues at random, checking
+	// the Resource's choice after every change
+	private static class RandomOps extends ProcessTarget {
+		final EventManager evt;
+		final Resource res;
+		final ArrayList<Seize> seizes;
+		final ArrayList<Queue> queues;
+		final Random rng = new Random(17);
+		int steps = 2000;
+		int checks;
+		int mismatches;
+		Throwable error;
+
+		RandomOps(EventManager evt, Resource res, ArrayList<Seize> seizes, ArrayList<Queue> queues) {
+			this.evt = evt;
+			this.res = res;
+			this.seizes = seizes;
+			this.queues = queues;
+		}
+
+		@Override
+		public String getDescription() {
+			return "RandomOps";
+		}
+
+		@Override
+		public void process() {
+			try {
+				for (int k = 0; k < 5; k++) {
+					Queue que = queues.get(rng.nextInt(queues.size()));
+					int op = rng.nextInt(3);
+					if (que.getCount() == 0 || op == 0)
+						que.addLast(new DisplayEntity());
+					else if (op == 1)
+						que.removeFirst();
+					else
+						que.remove(rng.nextInt(que.getCount()));
+
+					checks++;
+					if (res.getNextSeizeObject() != scan(seizes))
+						mismatches++;
+				}
+			}
+			catch (Throwable t) {
+				error = t;
+				return;
+			}
+
+			if (--steps > 0)
+				evt.scheduleProcess(rng.nextInt(3), 0, false, this);
+		}
+	}
+
+	private static class StopListener implements EventTimeListener {
+		boolean stopped;
+
+		@Override
+		public void tickUpdate(long tick) {}
+
+		@Override
+		public synchronized void timeRunning(boolean running) {
+			stopped = !running;
+			this.notifyAll();
+		}
+
+		synchronized void waitForStop() throws InterruptedException {
+			while (!stopped)
+				this.wait();
+		}
+	}
+
+	@Test
+	public void testArbitrationOrder() throws Exception {
+		final SimulationContext ctx = new SimulationContext("TestResource");
+		EventManager evt = ctx.getEventManager();
+		evt.setSimTimeScale(3.6e6d);
+
+		final ArrayList<Seize> seizes = new ArrayList<Seize>();
+		final ArrayList<Queue> queues = new ArrayList<Queue>();
+		final Resource res = ctx.call(new Callable<Resource>() {
+			@Override
+			public Resource call() {
+				Resource res = InputAgent.defineEntityWithUniqueName(Resource.class, "Res", true);
+
+				// The last queue is used by two Seize objects, the second
+				// queue serves its newest entity first
+				for (int i = 0; i < 4; i++)
+					queues.add(InputAgent.defineEntityWithUniqueName(Queue.class, "Que", true));
+				InputAgent.processEntity_Keyword_Value(queues.get(1), "Discipline", "LIFO");
+
+				for (int i = 0; i < 5; i++) {
+					Seize s = InputAgent.defineEntityWithUniqueName(Seize.class, "Seize", true);
+					InputAgent.processEntity_Keyword_Value(s, "Resource", res.getInputName());
+					InputAgent.processEntity_Keyword_Value(s, "WaitQueue", queues.get(Math.min(i, 3)).getInputName());
+					seizes.add(s);
+				}
+
+				res.earlyInit();
+				for (Queue que : queues)
+					que.earlyInit();
+				return res;
+			}
+		});
+
+		RandomOps ops = new RandomOps(evt, res, seizes, queues);
+		evt.scheduleProcess(0, 0, false, ops);
+
+		StopListener l = new StopListener();
+		evt.setTimeListener(l);
+		evt.resume(Long.MAX_VALUE);
+		l.waitForStop();
+		evt.setTimeListener(null);
+		ctx.close();
+
+		if (ops.error != null)
+			throw new AssertionError(ops.error);
+		assertTrue(ops.steps == 0);
+		assertEquals(10000, ops.checks);
+		assertEquals(0, ops.mismatches);
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.CalculationObjects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+import com.jaamsim.FluidObjects.FluidFixedFlow;
+import com.jaamsim.FluidObjects.FluidTank;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventTimeListener;
+import com.jaamsim.events.ProcessTarget;
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.units.TimeUnit;
+import com.jaamsim.units.VolumeFlowUnit;
+import com.jaamsim.units.VolumeUnit;
+import com.sandwell.JavaSimulation.Entity;
+import com.sandwell.JavaSimulation.ObjectType;
+import com.sandwell.JavaSimulation.SimulationContext;
+
+public class TestController {
+
+	// Initialises the entities and starts the Controller, as at the start of a run
+	private static class StartTarget extends ProcessTarget {
+		final EventManager evt;
+		final Entity[] entities;
+		final Controller ctrl;
+
+		StartTarget(EventManager evt, Controller ctrl, Entity... entities) {
+			this.evt = evt;
+			this.ctrl = ctrl;
+			this.entities = entities;
+		}
+
+		@Override
+		public String getDescription() {
+			return "Start";
+		}
+
+		@Override
+		public void process() {
+			for (Entity each : entities)
+				each.earlyInit();
+
+			evt.start(new ProcessTarget() {
+				@Override
+				public String getDescription() {
+					return "Controller.startUp";
+				}
+
+				@Override
+				public void process() {
+					ctrl.startUp();
+				}
+			});
+		}
+	}
+
+	// Records the end of each Controller step, the only events after the
+	// start, as the time advances to the next one
+	private static class StepListener implements EventTimeListener {
+		final Lag lag;
+		final double lagTime;
+		final ArrayList<Long> stepEnds = new ArrayList<Long>();
+		long lastTick;
+		long maxStep;
+		double maxLagError;
+		boolean stopped;
+
+		StepListener(Lag lag, double lagTime) {
+			this.lag = lag;
+			this.lagTime = lagTime;
+		}
+
+		@Override
+		public void tickUpdate(long tick) {
+			if (lastTick > 0L) {
+				stepEnds.add(lastTick);
+				double expected = 1.0d - Math.exp(-lastTick / 1000.0d / lagTime);
+				maxLagError = Math.max(maxLagError, Math.abs(lag.getValue() - expected));
+			}
+			maxStep = Math.max(maxStep, tick - lastTick);
+			lastTick = tick;
+		}
+
+		@Override
+		public synchronized void timeRunning(boolean running) {
+			stopped = !running;
+			this.notifyAll();
+		}
+
+		synchronized void runTo(EventManager evt, long tick) throws InterruptedException {
+			stopped = false;
+			evt.resume(tick);
+			while (!stopped)
+				this.wait();
+		}
+	}
+
+	@Test
+	public void testDrainingTank() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestController");
+		EventManager evt = ctx.getEventManager();
+		evt.setSimTimeScale(3.6e6d);
+
+		// Two flows of 0.001 and 0.002 m3/s drain a tank holding 1 m3
+		final Object[] ents = ctx.call(new Callable<Object[]>() {
+			@Override
+			public Object[] call() {
+				InputAgent.defineEntity(TimeUnit.class, "s", true);
+				InputAgent.defineEntity(VolumeUnit.class, "m3", true);
+				InputAgent.defineEntity(VolumeFlowUnit.class, "m3/s", true);
+
+				Controller ctrl = InputAgent.defineEntityWithUniqueName(Controller.class, "Controller", true);
+				InputAgent.processEntity_Keyword_Value(ctrl, "SamplingTime", "100 s");
+				InputAgent.processEntity_Keyword_Value(ctrl, "RelativeTolerance", "1.0e-6");
+
+				FluidTank src = InputAgent.defineEntityWithUniqueName(FluidTank.class, "Tank", true);
+				InputAgent.processEntity_Keyword_Value(src, "Capacity", "10 m3");
+				InputAgent.processEntity_Keyword_Value(src, "InitialVolume", "1 m3");
+
+				// A Lag with a time constant shorter than SamplingTime makes the
+				// Controller reject its first step and take shorter ones
+				ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", true);
+				InputAgent.processEntity_Keyword_Value(t, "JavaClass", "com.jaamsim.units.DimensionlessUnit");
+				Lag lag = InputAgent.defineEntityWithUniqueName(Lag.class, "Lag", true);
+				InputAgent.processEntity_Keyword_Value(lag, "Controller", ctrl.getInputName());
+				InputAgent.processEntity_Keyword_Value(lag, "UnitType", t.getInputName());
+				InputAgent.processEntity_Keyword_Value(lag, "InputValue", "1.0");
+				InputAgent.processEntity_Keyword_Value(lag, "LagTime", "50 s");
+
+				Object[] ret = new Object[] { ctrl, src, null, null, null, null, lag };
+				for (int i = 0; i < 2; i++) {
+					FluidTank dest = InputAgent.defineEntityWithUniqueName(FluidTank.class, "Tank", true);
+					InputAgent.processEntity_Keyword_Value(dest, "Capacity", "10 m3");
+
+					FluidFixedFlow flow = InputAgent.defineEntityWithUniqueName(FluidFixedFlow.class, "Flow", true);
+					InputAgent.processEntity_Keyword_Value(flow, "Controller", ctrl.getInputName());
+					InputAgent.processEntity_Keyword_Value(flow, "SequenceNumber", String.valueOf(i + 1));
+					InputAgent.processEntity_Keyword_Value(flow, "Source", src.getInputName());
+					InputAgent.processEntity_Keyword_Value(flow, "Destination", dest.getInputName());
+					InputAgent.processEntity_Keyword_Value(flow, "FlowRate", String.format("%d.0e-3 m3/s", i + 1));
+					ret[2 + i] = dest;
+					ret[4 + i] = flow;
+				}
+				return ret;
+			}
+		});
+		Controller ctrl = (Controller)ents[0];
+		FluidTank src = (FluidTank)ents[1];
+		FluidTank dest1 = (FluidTank)ents[2];
+		FluidTank dest2 = (FluidTank)ents[3];
+		Lag lag = (Lag)ents[6];
+
+		evt.scheduleProcess(0, 0, false, new StartTarget(evt, ctrl,
+				ctrl, src, dest1, dest2, (Entity)ents[4], (Entity)ents[5], lag));
+		StepListener l = new StepListener(lag, 50.0d);
+		evt.setTimeListener(l);
+
+		// The tank empties after 333.333 s, in the clock tick ending at 333334 ms
+		long emptyTick = 333334L;
+		l.runTo(evt, emptyTick - 1);
+		assertTrue(src.getFluidVolume() > 0.0d);
+		assertEquals(1.0d, src.getFluidVolume() + dest1.getFluidVolume() + dest2.getFluidVolume(), 1.0e-12d);
+
+		l.runTo(evt, emptyTick + 1);
+		assertEquals(0.0d, src.getFluidVolume(), 1.0e-12d);
+		assertEquals(1.0d / 3.0d, dest1.getFluidVolume(), 1.0e-12d);
+		assertEquals(2.0d / 3.0d, dest2.getFluidVolume(), 1.0e-12d);
+
+		// No fluid is taken from the empty tank
+		l.runTo(evt, 1000000L);
+		evt.setTimeListener(null);
+		assertEquals(0.0d, src.getFluidVolume(), 1.0e-12d);
+		assertEquals(1.0d / 3.0d, dest1.getFluidVolume(), 1.0e-12d);
+		assertEquals(2.0d / 3.0d, dest2.getFluidVolume(), 1.0e-12d);
+
+		// A step ends at the tick the tank empties, the first step was
+		// rejected, and no step is longer than SamplingTime
+		assertTrue(l.stepEnds.contains(emptyTick));
+		assertTrue(l.stepEnds.get(0) < 100000L);
+		assertTrue(l.maxStep <= 100000L);
+
+		// The Lag meets its tolerance at the end of each step
+		assertTrue(String.valueOf(l.maxLagError), l.maxLagError < 1.0e-5d);
+		ctx.close();
+	}
+}
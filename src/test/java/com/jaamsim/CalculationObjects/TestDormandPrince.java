@@ -0,0 +1,69 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.CalculationObjects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestDormandPrince {
+
+	// y0' = cos(t), y1' = -y1
+	private static final DormandPrince.Derivatives system = new DormandPrince.Derivatives() {
+		@Override
+		public void evaluate(double t, double[] y, double[] dydt) {
+			dydt[0] = Math.cos(t);
+			dydt[1] = -y[1];
+		}
+	};
+
+	@Test
+	public void testFixedSteps() {
+		DormandPrince rk = new DormandPrince(2);
+		double[] y = { 0.0d, 1.0d };
+		double[] dydt = new double[2];
+		double[] yout = new double[2];
+		double t = 0.0d;
+		for (int i = 0; i < 100; i++) {
+			system.evaluate(t, y, dydt);
+			double err = rk.step(system, t, y, dydt, 0.1d, yout, 1.0e-8d, 1.0e-10d);
+			assertTrue(err <= 1.0d);
+			t += 0.1d;
+			System.arraycopy(yout, 0, y, 0, 2);
+		}
+
+		assertEquals(Math.sin(10.0d), y[0], 1.0e-9d);
+		assertEquals(Math.exp(-10.0d), y[1], 1.0e-9d);
+	}
+
+	@Test
+	public void testErrorEstimate() {
+		DormandPrince rk = new DormandPrince(2);
+		double[] y = { 0.0d, 1.0d };
+		double[] dydt = new double[2];
+		double[] yout = new double[2];
+		system.evaluate(0.0d, y, dydt);
+
+		// The error is fifth order in the step size, so halving the step
+		// reduces it by roughly a factor of 32
+		double err1 = rk.step(system, 0.0d, y, dydt, 0.5d, yout, 1.0e-6d, 1.0e-9d);
+		double err2 = rk.step(system, 0.0d, y, dydt, 0.25d, yout, 1.0e-6d, 1.0e-9d);
+		assertTrue(err1 > 1.0d);
+		assertTrue(err2 < err1 / 16.0d);
+		assertEquals(Math.sin(0.25d), yout[0], 1.0e-6d);
+		assertEquals(Math.exp(-0.25d), yout[1], 1.0e-6d);
+	}
+}
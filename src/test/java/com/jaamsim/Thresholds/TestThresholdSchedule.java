@@ -0,0 +1,100 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.Thresholds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jaamsim.events.Process;
+
+public class TestThresholdSchedule {
+
+	@Before
+	public void setupTimeScale() {
+		Process.setSimTimeScale(3.6e6d);
+	}
+
+	@Test
+	public void testNoLookAhead() {
+		double[] close = { 2.0d, 10.0d };
+		double[] open = { 4.0d, Double.POSITIVE_INFINITY };
+		ThresholdSchedule sched = new ThresholdSchedule(close, open, 2, 0.0d, Double.POSITIVE_INFINITY);
+
+		assertFalse(sched.isClosed(1.0d));
+		assertEquals(1.0d, sched.getOpenDuration(1.0d), 1.0e-9d);
+		assertTrue(sched.isClosed(2.0d));
+		assertEquals(2.0d, sched.getClosedDuration(2.0d), 1.0e-9d);
+		assertFalse(sched.isClosed(4.0d));
+		assertEquals(6.0d, sched.getOpenDuration(4.0d), 1.0e-9d);
+		assertTrue(sched.isClosed(50.0d));
+		assertEquals(Double.POSITIVE_INFINITY, sched.getClosedDuration(50.0d), 0.0d);
+
+		// Lookups out of order give the same answers
+		assertTrue(sched.isClosed(3.0d));
+		assertFalse(sched.isClosed(0.5d));
+	}
+
+	@Test
+	public void testLookAhead() {
+		// The gap from 4 to 5 is shorter than the LookAhead, the gap from
+		// 7 to 10 is not
+		double[] close = { 2.0d, 5.0d, 10.0d };
+		double[] open = { 4.0d, 7.0d, 11.0d };
+		ThresholdSchedule sched = new ThresholdSchedule(close, open, 3, 1.5d, Double.POSITIVE_INFINITY);
+
+		assertFalse(sched.isClosed(0.5d));
+		assertEquals(0.0d, sched.getOpenDuration(0.5d), 1.0e-9d);
+		assertTrue(sched.isClosed(0.75d));
+		assertTrue(sched.isClosed(4.5d));
+		assertEquals(2.5d, sched.getClosedDuration(4.5d), 1.0e-9d);
+		assertFalse(sched.isClosed(7.0d));
+		assertEquals(1.5d, sched.getOpenDuration(7.0d), 1.0e-9d);
+		assertFalse(sched.isClosed(11.0d));
+		assertEquals(Double.POSITIVE_INFINITY, sched.getOpenDuration(11.0d), 0.0d);
+	}
+
+	@Test
+	public void testPeriodic() {
+		// The closure at the end of each day runs into the one at the start
+		// of the next day
+		double[] close = { 0.0d, 12.0d, 23.0d };
+		double[] open = { 1.0d, 13.0d, 24.0d };
+		ThresholdSchedule sched = new ThresholdSchedule(close, open, 3, 0.0d, 24.0d);
+
+		assertTrue(sched.isClosed(23.5d));
+		assertEquals(1.5d, sched.getClosedDuration(23.5d), 1.0e-9d);
+		assertTrue(sched.isClosed(48.5d));
+		assertEquals(0.5d, sched.getClosedDuration(48.5d), 1.0e-9d);
+		assertFalse(sched.isClosed(61.0d));
+		assertEquals(10.0d, sched.getOpenDuration(61.0d), 1.0e-9d);
+		assertTrue(sched.isClosed(-0.5d));
+		assertEquals(10.0d, sched.getOpenDuration(-11.0d), 1.0e-9d);
+	}
+
+	@Test
+	public void testClosedForever() {
+		// A LookAhead longer than the gaps closes the threshold for good
+		double[] close = { 0.0d, 12.0d };
+		double[] open = { 6.0d, 18.0d };
+		ThresholdSchedule sched = new ThresholdSchedule(close, open, 2, 6.5d, 24.0d);
+
+		assertTrue(sched.isClosed(7.0d));
+		assertEquals(Double.POSITIVE_INFINITY, sched.getClosedDuration(100.0d), 0.0d);
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.Thresholds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventTimeListener;
+import com.jaamsim.events.ProcessTarget;
+import com.jaamsim.input.InputAgent;
+import com.sandwell.JavaSimulation.Entity;
+import com.sandwell.JavaSimulation.SimulationContext;
+
+public class TestThresholdUsers {
+
+	public static class ManualThreshold extends Threshold {
+		@Override
+		public void doOpenClose() {}
+
+		@Override
+		public double calcClosedTimeFromTime(double startTime) {
+			return 0.0d;
+		}
+
+		void setClosed(boolean val) {
+			closed = val;
+			this.notifyUsers();
+		}
+	}
+
+	private static final ArrayList<String> changedLog = new ArrayList<String>();
+
+	public static class User extends Entity implements ThresholdUser {
+		final ArrayList<Threshold> thresholds = new ArrayList<Threshold>();
+		int numChanged;
+		int numClosed;
+		int numOpen;
+
+		@Override
+		public ArrayList<Threshold> getThresholds() {
+			return thresholds;
+		}
+
+		@Override
+		public void thresholdChanged() {
+			numChanged++;
+			changedLog.add(this.getName() + "@" + this.getSimTicks());
+		}
+
+		@Override
+		public void thresholdOpen() {
+			numOpen++;
+		}
+
+		@Override
+		public void thresholdClosed() {
+			numClosed++;
+		}
+	}
+
+	private static class SetClosed extends ProcessTarget {
+		final ManualThreshold[] thresholds;
+		final boolean closed;
+
+		SetClosed(boolean closed, ManualThreshold... thresholds) {
+			this.closed = closed;
+			this.thresholds = thresholds;
+		}
+
+		@Override
+		public String getDescription() {
+			return "SetClosed";
+		}
+
+		@Override
+		public void process() {
+			for (ManualThreshold each : thresholds)
+				each.setClosed(closed);
+		}
+	}
+
+	private static class StartUp extends ProcessTarget {
+		final ManualThreshold[] thresholds;
+
+		StartUp(ManualThreshold... thresholds) {
+			this.thresholds = thresholds;
+		}
+
+		@Override
+		public String getDescription() {
+			return "StartUp";
+		}
+
+		@Override
+		public void process() {
+			for (ManualThreshold each : thresholds)
+				each.earlyInit();
+			for (ManualThreshold each : thresholds)
+				each.startUp();
+		}
+	}
+
+	private static class StopListener implements EventTimeListener {
+		boolean stopped;
+
+		@Override
+		public void tickUpdate(long tick) {}
+
+		@Override
+		public synchronized void timeRunning(boolean running) {
+			stopped = !running;
+			this.notifyAll();
+		}
+
+		synchronized void waitForStop() throws InterruptedException {
+			while (!stopped)
+				this.wait();
+		}
+	}
+
+	@Test
+	public void testNotifications() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestThresholdUsers");
+		EventManager evt = ctx.getEventManager();
+		evt.setSimTimeScale(3.6e6d);
+		changedLog.clear();
+
+		final ManualThreshold[] thr = new ManualThreshold[2];
+		final User[] users = new User[3];
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				thr[0] = InputAgent.defineEntityWithUniqueName(ManualThreshold.class, "Thr", true);
+				thr[1] = InputAgent.defineEntityWithUniqueName(ManualThreshold.class, "Thr", true);
+				for (int i = 0; i < users.length; i++)
+					users[i] = InputAgent.defineEntityWithUniqueName(User.class, "User", true);
+
+				// The second user lists the second threshold twice
+				users[0].thresholds.addAll(Arrays.asList(thr[0], thr[1]));
+				users[1].thresholds.addAll(Arrays.asList(thr[1], thr[0], thr[1]));
+				users[2].thresholds.add(thr[0]);
+				return null;
+			}
+		});
+
+		// Both thresholds close at tick 20, only the second opens at tick 30
+		evt.scheduleProcess(0, 0, false, new StartUp(thr));
+		evt.scheduleProcess(20, 0, false, new SetClosed(true, thr));
+		evt.scheduleProcess(30, 0, false, new SetClosed(false, thr[1]));
+
+		StopListener l = new StopListener();
+		evt.setTimeListener(l);
+		evt.resume(Long.MAX_VALUE);
+		l.waitForStop();
+		evt.setTimeListener(null);
+
+		// Each threshold lists its users once, in the order they were defined
+		assertEquals(Arrays.asList(users), thr[0].userList);
+		assertEquals(Arrays.asList(users[0], users[1]), thr[1].userList);
+
+		// Each user is told about each threshold that changes, but receives a
+		// single thresholdChanged per tick
+		assertEquals(2, users[0].numClosed);
+		assertEquals(2, users[1].numClosed);
+		assertEquals(1, users[2].numClosed);
+		assertEquals(1, users[0].numOpen);
+		assertEquals(1, users[1].numOpen);
+		assertEquals(0, users[2].numOpen);
+
+		String expected = String.format("[%s@20, %s@20, %s@20, %s@30, %s@30]", users[0], users[1], users[2], users[0], users[1]);
+		assertTrue(changedLog.toString(), changedLog.toString().equals(expected));
+		assertEquals(2, users[0].numChanged);
+		assertEquals(2, users[1].numChanged);
+		assertEquals(1, users[2].numChanged);
+		ctx.close();
+	}
+}
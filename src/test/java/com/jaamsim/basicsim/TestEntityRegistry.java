@@ -0,0 +1,271 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.basicsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+import com.sandwell.JavaSimulation.Entity;
+import com.sandwell.JavaSimulation.SimulationContext;
+
+public class TestEntityRegistry {
+
+	public static class EntA extends Entity {}
+	public static class EntB extends EntA {}
+
+	@Test
+	public void testClassIndexes() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestEntityRegistry");
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				ArrayList<Entity> all = new ArrayList<Entity>();
+				for (int i = 0; i < 10; i++) {
+					all.add(new EntA());
+					all.add(new EntB());
+				}
+
+				assertEquals(10, Entity.getInstancesOf(EntA.class).size());
+				assertEquals(10, Entity.getInstancesOf(EntB.class).size());
+				assertEquals(20, Entity.getClonesOf(EntA.class).size());
+				assertEquals(10, Entity.getClonesOf(EntB.class).size());
+
+				// Kill every third entity, the indexes must stay consistent
+				for (int i = 0; i < all.size(); i += 3)
+					all.get(i).kill();
+
+				int numA = 0;
+				for (EntA each : Entity.getInstanceIterator(EntA.class)) {
+					assertTrue(each.getClass() == EntA.class);
+					numA++;
+				}
+				int numClones = 0;
+				for (EntA each : Entity.getClonesOfIterator(EntA.class)) {
+					assertTrue(each.getContext() == SimulationContext.current());
+					numClones++;
+				}
+				assertEquals(Entity.getInstancesOf(EntA.class).size(), numA);
+				assertEquals(13, numClones);
+				assertEquals(13, Entity.getAll().size());
+
+				for (int i = 0; i < all.size(); i++) {
+					Entity ent = all.get(i);
+					if (i % 3 == 0)
+						assertNull(Entity.idToEntity(ent.getEntityNumber()));
+					else
+						assertTrue(Entity.idToEntity(ent.getEntityNumber()) == ent);
+				}
+
+				// A class registered after a superclass query is still found
+				checkLateSubclass();
+				return null;
+			}
+		});
+		ctx.close();
+	}
+
+	@Test
+	public void testDefinitionOrder() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestDefinitionOrder");
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				ArrayList<Entity> expected = new ArrayList<Entity>();
+				for (int i = 0; i < 40; i++)
+					expected.add(i % 2 == 0 ? new EntA() : new EntB());
+
+				// Kill entities from the start, middle and end of the list,
+				// enough to compact it, with new entities defined in between
+				int[] kills = { 0, 5, 39, 17, 38, 6, 7, 8, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29 };
+				for (int i = 0; i < kills.length; i++) {
+					Entity ent = expected.get(kills[i]);
+					ent.kill();
+					expected.set(kills[i], null);
+					if (i % 4 == 0)
+						expected.add(new EntB());
+					assertEquals(order(expected), order(Entity.getAll()));
+				}
+
+				// Killing from the end of the list empties it
+				while (Entity.getAll().size() > 0)
+					Entity.getAll().get(Entity.getAll().size() - 1).kill();
+				return null;
+			}
+		});
+		ctx.close();
+	}
+
+	@Test
+	public void testCloneOrder() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestCloneOrder");
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				// Interleave the classes, so that each superclass query merges
+				// several class lists
+				ArrayList<Entity> defined = new ArrayList<Entity>();
+				for (int i = 0; i < 30; i++) {
+					switch (i % 3) {
+					case 0: defined.add(new EntA()); break;
+					case 1: defined.add(new EntB()); break;
+					default: defined.add(new EntC()); break;
+					}
+				}
+
+				for (int i = 0; i < 30; i += 4) {
+					defined.get(i).kill();
+					defined.set(i, null);
+				}
+				defined.add(new EntB());
+				defined.add(new EntA());
+
+				// Every query returns the entities in the order they were defined
+				checkOrder(defined, EntA.class);
+				checkOrder(defined, EntB.class);
+				checkOrder(defined, EntC.class);
+
+				// An entity killed during an iteration is skipped
+				Entity victim = defined.get(25);
+				ArrayList<Long> seen = new ArrayList<Long>();
+				for (EntA each : Entity.getClonesOfIterator(EntA.class)) {
+					if (seen.isEmpty())
+						victim.kill();
+					seen.add(each.getEntityNumber());
+				}
+				defined.set(25, null);
+				assertEquals(order(filter(defined, EntA.class, false)), seen);
+				return null;
+			}
+		});
+		ctx.close();
+	}
+
+	@Test
+	public void testKillDuringIteration() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestKillDuringIteration");
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				// Killing every entity as it is visited
+				ArrayList<Entity> defined = new ArrayList<Entity>();
+				for (int i = 0; i < 10; i++)
+					defined.add(new EntA());
+				ArrayList<Long> seen = new ArrayList<Long>();
+				for (EntA each : Entity.getInstanceIterator(EntA.class)) {
+					seen.add(each.getEntityNumber());
+					each.kill();
+				}
+				assertEquals(order(defined), seen);
+				assertEquals(0, Entity.getInstancesOf(EntA.class).size());
+
+				// Reading the lists while iterating compacts them
+				defined.clear();
+				for (int i = 0; i < 20; i++)
+					defined.add(i % 2 == 0 ? new EntA() : new EntB());
+				seen.clear();
+				for (EntA each : Entity.getInstanceIterator(EntA.class)) {
+					seen.add(each.getEntityNumber());
+					each.kill();
+					assertEquals(Entity.getAll().size(), Entity.getInstancesOf(EntA.class).size() + 10);
+				}
+				assertEquals(order(filter(defined, EntA.class, true)), seen);
+
+				seen.clear();
+				ArrayList<Entity> remaining = filter(defined, EntB.class, true);
+				for (EntA each : Entity.getClonesOfIterator(EntA.class)) {
+					seen.add(each.getEntityNumber());
+					each.kill();
+					Entity.getAll();
+					Entity.getInstancesOf(EntB.class);
+				}
+				assertEquals(order(remaining), seen);
+				assertEquals(0, Entity.getAll().size());
+
+				// An entity killed before it is visited is skipped
+				defined.clear();
+				for (int i = 0; i < 10; i++)
+					defined.add(new EntA());
+				seen.clear();
+				for (EntA each : Entity.getInstanceIterator(EntA.class)) {
+					seen.add(each.getEntityNumber());
+					if (seen.size() == 2) {
+						for (int i = 0; i < 6; i++)
+							defined.get(i).kill();
+						Entity.getAll();
+					}
+				}
+				ArrayList<Entity> expected = new ArrayList<Entity>(defined.subList(0, 2));
+				expected.addAll(defined.subList(6, 10));
+				assertEquals(order(expected), seen);
+				return null;
+			}
+		});
+		ctx.close();
+	}
+
+	private static void checkOrder(ArrayList<Entity> defined, Class<? extends Entity> klass) {
+		ArrayList<Long> expected = order(filter(defined, klass, false));
+		assertEquals(expected, order(Entity.getClonesOf(klass)));
+
+		ArrayList<Long> iterated = new ArrayList<Long>();
+		for (Entity each : Entity.getClonesOfIterator(klass))
+			iterated.add(each.getEntityNumber());
+		assertEquals(expected, iterated);
+
+		expected = order(filter(defined, klass, true));
+		assertEquals(expected, order(Entity.getInstancesOf(klass)));
+		iterated.clear();
+		for (Entity each : Entity.getInstanceIterator(klass))
+			iterated.add(each.getEntityNumber());
+		assertEquals(expected, iterated);
+	}
+
+	private static ArrayList<Entity> filter(ArrayList<Entity> list, Class<?> klass, boolean exact) {
+		ArrayList<Entity> ret = new ArrayList<Entity>();
+		for (Entity each : list) {
+			if (each == null)
+				continue;
+			if (exact ? each.getClass() == klass : klass.isInstance(each))
+				ret.add(each);
+		}
+		return ret;
+	}
+
+	// Returns the entity numbers of the given entities, skipping nulls
+	private static ArrayList<Long> order(List<? extends Entity> list) {
+		ArrayList<Long> ret = new ArrayList<Long>();
+		for (Entity each : list) {
+			if (each != null)
+				ret.add(each.getEntityNumber());
+		}
+		return ret;
+	}
+
+	public static class EntC extends EntB {}
+
+	private static void checkLateSubclass() {
+		int before = Entity.getClonesOf(EntA.class).size();
+		new EntC();
+		assertEquals(before + 1, Entity.getClonesOf(EntA.class).size());
+		assertEquals(1, Entity.getInstancesOf(EntC.class).size());
+	}
+}
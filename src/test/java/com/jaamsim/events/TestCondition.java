@@ -0,0 +1,200 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.events;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+public class TestCondition {
+
+	private static class Flag {
+		final Condition cond = new Condition("Flag");
+		boolean set;
+	}
+
+	// Waits on the Condition until the flag is set, counting the re-tests
+	private static class WaitTarget extends ProcessTarget {
+		final EventManager evt;
+		final ArrayList<String> log;
+		final String name;
+		final Flag flag;
+		Process proc;
+		int tests;
+
+		WaitTarget(EventManager evt, ArrayList<String> log, String name, Flag flag) {
+			this.evt = evt;
+			this.log = log;
+			this.name = name;
+			this.flag = flag;
+		}
+
+		@Override
+		public String getDescription() {
+			return name;
+		}
+
+		@Override
+		public void process() {
+			proc = Process.current();
+			while (true) {
+				tests++;
+				if (flag.set)
+					break;
+				evt.waitUntil(flag.cond);
+			}
+			evt.waitUntilEnded();
+			log.add(name + "@" + evt.currentTick());
+		}
+	}
+
+	// Sets the flag, if requested, and signals the Condition
+	private static class SignalTarget extends ProcessTarget {
+		final EventManager evt;
+		final Flag flag;
+		final boolean set;
+
+		SignalTarget(EventManager evt, Flag flag, boolean set) {
+			this.evt = evt;
+			this.flag = flag;
+			this.set = set;
+		}
+
+		@Override
+		public String getDescription() {
+			return "Signal";
+		}
+
+		@Override
+		public void process() {
+			if (set)
+				flag.set = true;
+			evt.signal(flag.cond);
+		}
+	}
+
+	private static class KillTarget extends ProcessTarget {
+		final EventManager evt;
+		final WaitTarget victim;
+
+		KillTarget(EventManager evt, WaitTarget victim) {
+			this.evt = evt;
+			this.victim = victim;
+		}
+
+		@Override
+		public String getDescription() {
+			return "Kill";
+		}
+
+		@Override
+		public void process() {
+			evt.terminateThread(victim.proc);
+		}
+	}
+
+	private static class StopListener implements EventTimeListener {
+		boolean stopped;
+
+		@Override
+		public void tickUpdate(long tick) {}
+
+		@Override
+		public synchronized void timeRunning(boolean running) {
+			stopped = !running;
+			this.notifyAll();
+		}
+
+		synchronized void waitForStop() throws InterruptedException {
+			while (!stopped)
+				this.wait();
+		}
+	}
+
+	private static void runTo(EventManager evt, long tick) throws InterruptedException {
+		StopListener l = new StopListener();
+		evt.setTimeListener(l);
+		evt.resume(tick);
+		l.waitForStop();
+		evt.setTimeListener(null);
+	}
+
+	@Test
+	public void testWaitOrder() throws InterruptedException {
+		EventManager evt = EventManager.initEventManager("TestWaitOrder");
+		ArrayList<String> log = new ArrayList<String>();
+		Flag flag = new Flag();
+
+		WaitTarget a = new WaitTarget(evt, log, "A", flag);
+		WaitTarget b = new WaitTarget(evt, log, "B", flag);
+		evt.scheduleProcess(0, 0, false, a);
+		evt.scheduleProcess(5, 0, false, b);
+		evt.scheduleProcess(10, 0, false, new SignalTarget(evt, flag, true));
+		evt.scheduleProcess(100, 0, false, new SignalTarget(evt, flag, false));
+		runTo(evt, 200);
+
+		// The waiters resume at the tick of the signal, in the order they waited
+		assertTrue(log.toString(), log.toString().equals("[A@10, B@10]"));
+
+		// The waiters were not re-tested on the time advances before the signal
+		assertTrue(a.tests == 2);
+		assertTrue(b.tests == 2);
+		assertTrue(flag.cond.waiters.isEmpty());
+	}
+
+	@Test
+	public void testRetest() throws InterruptedException {
+		EventManager evt = EventManager.initEventManager("TestRetest");
+		ArrayList<String> log = new ArrayList<String>();
+		Flag flag = new Flag();
+
+		WaitTarget a = new WaitTarget(evt, log, "A", flag);
+		evt.scheduleProcess(0, 0, false, a);
+		evt.scheduleProcess(10, 0, false, new SignalTarget(evt, flag, false));
+		evt.scheduleProcess(20, 0, false, new SignalTarget(evt, flag, false));
+		evt.scheduleProcess(30, 0, false, new SignalTarget(evt, flag, true));
+		evt.scheduleProcess(100, 0, false, new SignalTarget(evt, flag, false));
+		runTo(evt, 200);
+
+		// Each signal without the flag set re-tests the waiter once, which
+		// then waits again on the same Condition
+		assertTrue(log.toString(), log.toString().equals("[A@30]"));
+		assertTrue(a.tests == 4);
+	}
+
+	@Test
+	public void testKillWhileWaiting() throws InterruptedException {
+		EventManager evt = EventManager.initEventManager("TestKillWhileWaiting");
+		ArrayList<String> log = new ArrayList<String>();
+		Flag flag = new Flag();
+
+		WaitTarget a = new WaitTarget(evt, log, "A", flag);
+		WaitTarget b = new WaitTarget(evt, log, "B", flag);
+		evt.scheduleProcess(0, 0, false, a);
+		evt.scheduleProcess(0, 0, false, b);
+		evt.scheduleProcess(10, 0, false, new KillTarget(evt, a));
+		evt.scheduleProcess(20, 0, false, new SignalTarget(evt, flag, true));
+		evt.scheduleProcess(100, 0, false, new SignalTarget(evt, flag, false));
+		runTo(evt, 200);
+
+		// The terminated process is removed from the Condition and never resumes
+		assertTrue(log.toString(), log.toString().equals("[B@20]"));
+		assertTrue(a.tests == 1);
+		assertTrue(flag.cond.waiters.isEmpty());
+		assertTrue(evt.getMetrics().getConditionalCount() == 0);
+	}
+}
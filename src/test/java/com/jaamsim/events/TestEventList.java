@@ -0,0 +1,100 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.events;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestEventList {
+
+	private static Event newEvent(long tick, int prio, long seq) {
+		Event e = new Event(0, tick, prio, null, null);
+		e.seqNum = seq;
+		return e;
+	}
+
+	private void testOrdering(EventList list) {
+		Random rand = new Random(42);
+		ArrayList<Event> ref = new ArrayList<Event>();
+		long seq = 0;
+		long now = 0;
+
+		for (int i = 0; i < 20000; i++) {
+			int op = rand.nextInt(10);
+			if (op < 5) {
+				// cluster many events at the same ticks, with occasional far-future ones
+				long tick = now + (rand.nextInt(20) == 0 ? rand.nextInt(1000000) : rand.nextInt(50));
+				if (rand.nextInt(100) == 0)
+					tick = Long.MAX_VALUE;
+				Event e = newEvent(tick, rand.nextInt(3), ++seq);
+				list.insert(e);
+				ref.add(e);
+			}
+			else if (op < 8) {
+				Collections.sort(ref);
+				Event e = list.removeFirst();
+				if (ref.isEmpty()) {
+					assertTrue(e == null);
+					continue;
+				}
+				assertTrue(e == ref.remove(0));
+				if (e.schedTick != Long.MAX_VALUE)
+					now = e.schedTick;
+			}
+			else if (!ref.isEmpty()) {
+				Event e = ref.remove(rand.nextInt(ref.size()));
+				assertTrue(list.remove(e));
+				assertTrue(!list.remove(e));
+			}
+			assertTrue(list.size() == ref.size());
+		}
+
+		Collections.sort(ref);
+		for (Event each : ref) {
+			assertTrue(list.peek() == each);
+			assertTrue(list.removeFirst() == each);
+		}
+		assertTrue(list.isEmpty());
+		assertTrue(list.peek() == null);
+	}
+
+	@Test
+	public void testEventHeap() {
+		testOrdering(new EventHeap());
+	}
+
+	@Test
+	public void testCalendarQueue() {
+		testOrdering(new CalendarQueue());
+	}
+
+	@Test
+	public void testCompare() {
+		Event e1 = newEvent(10, 5, 1);
+		Event e2 = newEvent(10, 5, 2);
+		Event e3 = newEvent(10, 4, 3);
+		Event e4 = newEvent(9, 6, 4);
+		assertTrue(e1.compareTo(e2) < 0);
+		assertTrue(e2.compareTo(e1) > 0);
+		assertTrue(e3.compareTo(e1) < 0);
+		assertTrue(e4.compareTo(e3) < 0);
+		assertTrue(e1.compareTo(e1) == 0);
+	}
+}
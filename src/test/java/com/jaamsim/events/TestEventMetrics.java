@@ -0,0 +1,176 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.events;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+public class TestEventMetrics {
+
+	// Executed inline by the event loop
+	private static class InlineTarget extends ProcessTarget {
+		int count;
+
+		@Override
+		public String getDescription() {
+			return "Inline";
+		}
+
+		@Override
+		public boolean isBlocking() {
+			return false;
+		}
+
+		@Override
+		public void process() {
+			count++;
+		}
+	}
+
+	// Executed on its own thread
+	private static class BlockingTarget extends ProcessTarget {
+		int count;
+
+		@Override
+		public String getDescription() {
+			return "Blocking";
+		}
+
+		@Override
+		public void process() {
+			count++;
+		}
+	}
+
+	private static class StopListener implements EventTimeListener {
+		boolean stopped;
+
+		@Override
+		public void tickUpdate(long tick) {}
+
+		@Override
+		public synchronized void timeRunning(boolean running) {
+			stopped = !running;
+			this.notifyAll();
+		}
+
+		synchronized void waitForStop() throws InterruptedException {
+			while (!stopped)
+				this.wait();
+		}
+	}
+
+	private static void runTo(EventManager evt, long tick) throws InterruptedException {
+		StopListener l = new StopListener();
+		evt.setTimeListener(l);
+		evt.resume(tick);
+		l.waitForStop();
+		evt.setTimeListener(null);
+	}
+
+	private static EventMetrics.TargetStats getStats(EventMetrics metrics, Class<?> klass) {
+		for (EventMetrics.TargetStats each : metrics.getTargetStats()) {
+			if (each.getTargetClass() == klass)
+				return each;
+		}
+		return null;
+	}
+
+	@Test
+	public void testCounts() throws InterruptedException {
+		EventManager evt = EventManager.initEventManager("TestEventMetrics");
+		InlineTarget inline = new InlineTarget();
+		BlockingTarget blocking = new BlockingTarget();
+
+		evt.scheduleProcess(10, 0, false, inline);
+		evt.scheduleProcess(20, 0, false, blocking);
+		evt.scheduleProcess(20, 0, false, inline);
+		evt.scheduleProcess(30, 0, false, inline);
+		evt.scheduleProcess(40, 0, false, blocking);
+		evt.scheduleProcess(100, 0, false, inline);
+
+		EventMetrics metrics = evt.getMetrics();
+		assertTrue(metrics.getEventListSize() == 6);
+		assertTrue(metrics.getEventsExecuted() == 0);
+
+		runTo(evt, 50);
+		assertTrue(inline.count == 3 && blocking.count == 2);
+		assertTrue(metrics.getEventsExecuted() == 5);
+		assertTrue(metrics.getEventListSize() == 1);
+		assertTrue(metrics.getEventListHighWater() == 6);
+		assertTrue(metrics.getConditionalCount() == 0);
+
+		// Control passes to each blocking event's thread and back
+		assertTrue(metrics.getThreadSwitches() >= 2);
+
+		ArrayList<EventMetrics.TargetStats> stats = metrics.getTargetStats();
+		assertTrue(stats.size() == 2);
+		assertTrue(getStats(metrics, InlineTarget.class).getCount() == 3);
+		assertTrue(getStats(metrics, BlockingTarget.class).getCount() == 2);
+		assertTrue(stats.get(0).getSeconds() >= stats.get(1).getSeconds());
+
+		// The counters continue from where they were
+		runTo(evt, 150);
+		assertTrue(metrics.getEventsExecuted() == 6);
+		assertTrue(getStats(metrics, InlineTarget.class).getCount() == 4);
+		assertTrue(metrics.getEventListSize() == 0);
+	}
+
+	@Test
+	public void testConditionEvaluations() throws InterruptedException {
+		final EventManager evt = EventManager.initEventManager("TestConditionMetrics");
+		final int[] value = new int[1];
+
+		// Waits until the value reaches 3, the value is incremented by three
+		// separate events. The condition is tested before each advance of
+		// time, so the final test is made on the way to the last event.
+		ProcessTarget waiter = new ProcessTarget() {
+			@Override
+			public String getDescription() {
+				return "Waiter";
+			}
+
+			@Override
+			public void process() {
+				while (value[0] < 3)
+					evt.waitUntil();
+				evt.waitUntilEnded();
+			}
+		};
+		InlineTarget inc = new InlineTarget() {
+			@Override
+			public void process() {
+				value[0]++;
+			}
+		};
+
+		evt.scheduleProcess(0, 0, false, waiter);
+		evt.scheduleProcess(10, 0, false, inc);
+		evt.scheduleProcess(20, 0, false, inc);
+		evt.scheduleProcess(30, 0, false, inc);
+		evt.scheduleProcess(100, 0, false, new InlineTarget());
+
+		runTo(evt, 15);
+		assertTrue(evt.getMetrics().getConditionalCount() == 1);
+
+		runTo(evt, 150);
+		assertTrue(value[0] == 3);
+		assertTrue(evt.getMetrics().getConditionalCount() == 0);
+		assertTrue(evt.getMetrics().getConditionEvaluations() == 4);
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.events;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+public class TestEventSampling {
+
+	private static class RecordTarget extends ProcessTarget {
+		final EventManager evt;
+		final ArrayList<String> log;
+		final String name;
+
+		RecordTarget(EventManager evt, ArrayList<String> log, String name) {
+			this.evt = evt;
+			this.log = log;
+			this.name = name;
+		}
+
+		@Override
+		public String getDescription() {
+			return name;
+		}
+
+		@Override
+		public boolean isBlocking() {
+			return false;
+		}
+
+		@Override
+		public void process() {
+			log.add(name + "@" + evt.currentTick());
+		}
+	}
+
+	private static class StopListener implements EventTimeListener {
+		boolean stopped;
+
+		@Override
+		public void tickUpdate(long tick) {}
+
+		@Override
+		public synchronized void timeRunning(boolean running) {
+			stopped = !running;
+			this.notifyAll();
+		}
+
+		synchronized void waitForStop() throws InterruptedException {
+			while (!stopped)
+				this.wait();
+		}
+	}
+
+	private static void runTo(EventManager evt, long tick) throws InterruptedException {
+		StopListener l = new StopListener();
+		evt.setTimeListener(l);
+		evt.resume(tick);
+		l.waitForStop();
+		evt.setTimeListener(null);
+	}
+
+	@Test
+	public void testSamplingOrder() throws InterruptedException {
+		EventManager evt = EventManager.initEventManager("TestSampling");
+		ArrayList<String> log = new ArrayList<String>();
+
+		evt.scheduleProcess(10, 0, false, new RecordTarget(evt, log, "A"));
+		evt.scheduleProcess(25, 0, false, new RecordTarget(evt, log, "B"));
+		evt.scheduleProcess(40, 0, false, new RecordTarget(evt, log, "C"));
+		evt.scheduleProcess(100, 0, false, new RecordTarget(evt, log, "D"));
+		evt.scheduleSampling(10, new RecordTarget(evt, log, "S"));
+
+		// Samples are taken after all the events at the sample time, and
+		// once the time advances past it
+		runTo(evt, 50);
+		String expected = "[A@10, S@10, S@20, B@25, S@30, C@40]";
+		assertTrue(log.toString(), log.toString().equals(expected));
+
+		// The samples are not events
+		assertTrue(evt.getMetrics().getEventsExecuted() == 3);
+	}
+
+	@Test
+	public void testCancelSampling() throws InterruptedException {
+		EventManager evt = EventManager.initEventManager("TestCancelSampling");
+		ArrayList<String> log = new ArrayList<String>();
+
+		RecordTarget s1 = new RecordTarget(evt, log, "S1");
+		evt.scheduleProcess(35, 0, false, new RecordTarget(evt, log, "A"));
+		evt.scheduleProcess(100, 0, false, new RecordTarget(evt, log, "B"));
+		evt.scheduleSampling(10, s1);
+		evt.scheduleSampling(15, new RecordTarget(evt, log, "S2"));
+		runTo(evt, 40);
+
+		evt.cancelSampling(s1);
+		runTo(evt, 120);
+		String expected = "[S1@10, S2@15, S1@20, S1@30, S2@30, A@35, S2@45, S2@60, S2@75, S2@90, B@100]";
+		assertTrue(log.toString(), log.toString().equals(expected));
+	}
+
+	private static class ScheduleTarget extends RecordTarget {
+		final long delay;
+		boolean scheduled;
+
+		ScheduleTarget(EventManager evt, ArrayList<String> log, String name, long delay) {
+			super(evt, log, name);
+			this.delay = delay;
+		}
+
+		@Override
+		public void process() {
+			super.process();
+			if (scheduled)
+				return;
+			scheduled = true;
+			evt.scheduleProcess(delay, 0, false, new RecordTarget(evt, log, "E"));
+		}
+	}
+
+	private static class TickListener extends StopListener {
+		final ArrayList<Long> ticks = new ArrayList<Long>();
+
+		@Override
+		public void tickUpdate(long tick) {
+			ticks.add(tick);
+		}
+	}
+
+	@Test
+	public void testSamplerSchedulesEvent() throws InterruptedException {
+		EventManager evt = EventManager.initEventManager("TestSamplerSchedules");
+		ArrayList<String> log = new ArrayList<String>();
+
+		// The first sample schedules an event before the next sample and well
+		// before the next pending event
+		evt.scheduleProcess(45, 0, false, new RecordTarget(evt, log, "A"));
+		evt.scheduleProcess(100, 0, false, new RecordTarget(evt, log, "B"));
+		evt.scheduleSampling(10, new ScheduleTarget(evt, log, "S", 5));
+
+		TickListener l = new TickListener();
+		evt.setTimeListener(l);
+		evt.resume(50);
+		l.waitForStop();
+		evt.setTimeListener(null);
+
+		String expected = "[S@10, E@15, S@20, S@30, S@40, A@45]";
+		assertTrue(log.toString(), log.toString().equals(expected));
+
+		// The time never goes backwards
+		for (int i = 1; i < l.ticks.size(); i++)
+			assertTrue(l.ticks.toString(), l.ticks.get(i) >= l.ticks.get(i - 1));
+	}
+
+	@Test
+	public void testSamplerSchedulesImmediateEvent() throws InterruptedException {
+		EventManager evt = EventManager.initEventManager("TestSamplerImmediate");
+		ArrayList<String> log = new ArrayList<String>();
+
+		// An event scheduled with no delay runs at the sample tick, before
+		// the next sample is taken
+		evt.scheduleProcess(25, 0, false, new RecordTarget(evt, log, "A"));
+		evt.scheduleProcess(100, 0, false, new RecordTarget(evt, log, "B"));
+		evt.scheduleSampling(10, new ScheduleTarget(evt, log, "S", 0));
+		runTo(evt, 30);
+
+		String expected = "[S@10, E@10, S@20, A@25]";
+		assertTrue(log.toString(), log.toString().equals(expected));
+	}
+}
@@ -89,4 +89,23 @@ public class TestKeyedVec3dCurve {
 		testNear(hundred.z, 3);
 	}
 
+	@Test
+	public void testLookupOrder() {
+		// Lookups in any order must agree with a curve that has not been used
+		double[] times = { 0.5, 6, 10, 50, 0.5, 100, 1, -1, 6, 11, 10 };
+		for (double t : times) {
+			KeyedVec3dCurve fresh = new KeyedVec3dCurve();
+			fresh.addKey(0, new Vec3d());
+			fresh.addKey(1, new Vec3d(1, 10, 100));
+			fresh.addKey(11, new Vec3d());
+			fresh.addKey(100, new Vec3d(1, 2, 3));
+
+			Vec3d exp = fresh.getValAtTime(t);
+			Vec3d val = testCurve.getValAtTime(t);
+			testNear(val.x, exp.x);
+			testNear(val.y, exp.y);
+			testNear(val.z, exp.z);
+		}
+	}
+
 }
@@ -14,13 +14,16 @@
  */
 package com.jaamsim.input;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
 
 import org.junit.Test;
 
 import com.sandwell.JavaSimulation.Entity;
+import com.sandwell.JavaSimulation.SimulationContext;
 import com.sandwell.JavaSimulation3D.DisplayEntity;
 
 public class TestOutput {
@@ -61,4 +64,94 @@ public class TestOutput {
 		}
 	}
 
+	public static class OutputEntity extends Entity {
+		@Output(name = "DoubleOut")
+		public double getDoubleOut(double simTime) {
+			return simTime * 2.0d;
+		}
+
+		@Output(name = "IntOut")
+		public int getIntOut(double simTime) {
+			return (int)simTime;
+		}
+
+		@Output(name = "BoxedOut")
+		public Double getBoxedOut(double simTime) {
+			return simTime + 1.0d;
+		}
+
+		@Output(name = "FailOut")
+		public double getFailOut(double simTime) {
+			throw new IllegalStateException("FailOut");
+		}
+
+		@Output(name = "BoxedFailOut")
+		public Double getBoxedFailOut(double simTime) {
+			throw new IllegalStateException("BoxedFailOut");
+		}
+	}
+
+	@Test
+	public void testCompiledAccessors() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestOutput");
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				OutputEntity ent = new OutputEntity();
+
+				OutputHandle dbl = new OutputHandle(ent, "DoubleOut");
+				assertEquals(5.0d, dbl.getValueAsDouble(2.5d), 0.0d);
+				assertEquals(5.0d, dbl.getValueAsDouble(2.5d, 0.0d), 0.0d);
+				assertEquals(Double.valueOf(5.0d), dbl.getValue(2.5d, double.class));
+
+				OutputHandle i = new OutputHandle(ent, "IntOut");
+				assertEquals(7.0d, i.getValueAsDouble(7.9d), 0.0d);
+				assertEquals(Integer.valueOf(7), i.getValue(7.9d, int.class));
+
+				OutputHandle boxed = new OutputHandle(ent, "BoxedOut");
+				assertEquals(3.5d, boxed.getValueAsDouble(2.5d), 0.0d);
+
+				OutputHandle name = new OutputHandle(ent, "Name");
+				assertTrue(Double.isNaN(name.getValueAsDouble(0.0d)));
+				assertEquals(-1.0d, name.getValueAsDouble(0.0d, -1.0d), 0.0d);
+				return null;
+			}
+		});
+	}
+
+	// Returns the message of the exception thrown by the output, or null
+	private static String failure(OutputHandle out, int overload) {
+		try {
+			switch (overload) {
+			case 0: out.getValue(0.0d, out.getReturnType()); break;
+			case 1: out.getValueAsDouble(0.0d); break;
+			default: out.getValueAsDouble(0.0d, 0.0d); break;
+			}
+		}
+		catch (IllegalStateException e) {
+			return e.getMessage();
+		}
+		return null;
+	}
+
+	@Test
+	public void testOutputExceptions() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestOutputExceptions");
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				OutputEntity ent = new OutputEntity();
+
+				// An exception thrown by the output reaches the caller from
+				// every overload, for primitive and boxed values alike
+				OutputHandle prim = new OutputHandle(ent, "FailOut");
+				OutputHandle boxed = new OutputHandle(ent, "BoxedFailOut");
+				for (int i = 0; i < 3; i++) {
+					assertEquals("FailOut", failure(prim, i));
+					assertEquals("BoxedFailOut", failure(boxed, i));
+				}
+				return null;
+			}
+		});
+	}
 }
@@ -0,0 +1,108 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.jaamsim.math;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TestTimeWeightedStatistics {
+
+	@Test
+	public void testIntegerValues() {
+		TimeWeightedStatistics stats = new TimeWeightedStatistics(100);
+		stats.clear(0.0d, 0);
+		stats.update(2.0d, 1);  // length 0 for 2 s
+		stats.update(3.0d, 3);  // length 1 for 1 s
+		stats.update(3.0d, 2);  // length 3 for 0 s
+		stats.update(6.0d, 0);  // length 2 for 3 s
+		// length 0 from 6 s onwards
+
+		double t = 10.0d;
+		double mean = (1.0d * 1 + 2.0d * 3) / t;
+		double var = (0.0d * 6 + 1.0d * 1 + 4.0d * 3) / t - mean * mean;
+		assertEquals(mean, stats.getMean(t), 1.0e-12);
+		assertEquals(var, stats.getVariance(t), 1.0e-12);
+		assertEquals(7.0d, stats.getIntegral(t), 1.0e-12);
+		assertEquals(0.0d, stats.getMinimum(), 0.0d);
+		assertEquals(3.0d, stats.getMaximum(), 0.0d);
+
+		double[] dist = stats.getDistribution(t);
+		assertEquals(4, dist.length);
+		assertEquals(0.6d, dist[0], 1.0e-12);
+		assertEquals(0.1d, dist[1], 1.0e-12);
+		assertEquals(0.3d, dist[2], 1.0e-12);
+		assertEquals(0.0d, dist[3], 0.0d);
+
+		assertEquals(0.0d, stats.getPercentile(t, 0.50d), 0.0d);
+		assertEquals(1.0d, stats.getPercentile(t, 0.65d), 0.0d);
+		assertEquals(2.0d, stats.getPercentile(t, 0.90d), 0.0d);
+		assertEquals(2.0d, stats.getPercentile(t, 1.00d), 0.0d);
+	}
+
+	@Test
+	public void testOpenInterval() {
+		TimeWeightedStatistics stats = new TimeWeightedStatistics(10);
+		stats.clear(5.0d, 4);
+		assertEquals(0.0d, stats.getMean(5.0d), 0.0d);
+		assertEquals(0, stats.getDistribution(5.0d).length);
+
+		// Queries include the time since the last change without recording it
+		assertEquals(4.0d, stats.getMean(7.0d), 1.0e-12);
+		assertEquals(0.0d, stats.getVariance(7.0d), 1.0e-12);
+		assertEquals(0.0d, stats.getBinTime(4), 0.0d);
+		assertEquals(4.0d, stats.getPercentile(7.0d, 0.5d), 0.0d);
+
+		stats.update(7.0d, 6);
+		assertEquals(2.0d, stats.getBinTime(4), 0.0d);
+		assertEquals(5.0d, stats.getMean(9.0d), 1.0e-12);
+		assertEquals(1.0d, stats.getVariance(9.0d), 1.0e-12);
+	}
+
+	@Test
+	public void testOverflow() {
+		TimeWeightedStatistics stats = new TimeWeightedStatistics(4);
+		stats.clear(0.0d, 2);
+		stats.update(1.0d, 50);
+		stats.update(2.0d, 70);
+		stats.update(3.0d, 0);
+
+		double[] dist = stats.getDistribution(3.0d);
+		assertEquals(5, dist.length);
+		assertEquals(2.0d / 3.0d, dist[4], 1.0e-12);
+		assertEquals(70.0d, stats.getMaximum(), 0.0d);
+		assertEquals(122.0d / 3.0d, stats.getMean(3.0d), 1.0e-12);
+
+		// Percentiles in the overflow bin are interpolated up to the maximum
+		double p = stats.getPercentile(3.0d, 0.99d);
+		assertEquals(true, p > 4.0d && p <= 70.0d);
+	}
+
+	@Test
+	public void testContinuousValues() {
+		TimeWeightedStatistics stats = new TimeWeightedStatistics(0.1d, 100, false);
+		stats.clear(0.0d, 0.0d);
+		for (int i = 1; i <= 1000; i++) {
+			stats.update(i, i / 1000.0d);
+		}
+
+		// The value is uniformly spread over [0, 1)
+		double t = 1000.0d;
+		assertEquals(0.4995d, stats.getMean(t), 1.0e-9);
+		assertEquals(0.5d, stats.getPercentile(t, 0.5d), 1.0e-3);
+		assertEquals(0.9d, stats.getPercentile(t, 0.9d), 1.0e-3);
+		assertEquals(1.0d / 12.0d, stats.getVariance(t), 1.0e-3);
+	}
+}
@@ -38,6 +38,7 @@ public class TestContinuousDistribution {
 
 		ContinuousDistribution dist = InputAgent.defineEntityWithUniqueName(ContinuousDistribution.class, "Dist", true);
 		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
 		InputAgent.processEntity_Keyword_Value( dist, "ValueList", "1.0  3.0  5.0  10.0");
 		InputAgent.processEntity_Keyword_Value( dist, "CumulativeProbabilityList", "0.0  0.5  0.8  1.0");
 		dist.validate();
@@ -31,6 +31,7 @@ public class TestErlangDistribution {
 
 		ErlangDistribution dist = InputAgent.defineEntityWithUniqueName(ErlangDistribution.class, "Dist", true);
 		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
 		InputAgent.processEntity_Keyword_Value( dist, "Mean", "10.0");
 		InputAgent.processEntity_Keyword_Value( dist, "Shape", "2");
 		dist.validate();
@@ -29,6 +29,7 @@ public class TestExponentialDistribution {
 
 		ExponentialDistribution dist = InputAgent.defineEntityWithUniqueName(ExponentialDistribution.class, "Dist", true);
 		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
 		InputAgent.processEntity_Keyword_Value( dist, "Mean", "10.0");
 		dist.validate();
 		dist.earlyInit();
@@ -41,4 +42,26 @@ public class TestExponentialDistribution {
 		assertTrue( Math.abs( dist.getSampleMean(0.0) / dist.getMeanValue(0.0) - 1.0 ) < 0.001 );
 		assertTrue( Math.abs( dist.getSampleStandardDeviation(0.0) / dist.getStandardDeviation(0.0) - 1.0 ) < 0.005 );
 	}
+
+	@Test
+	public void Truncated() {
+		ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", true);
+		InputAgent.processEntity_Keyword_Value( t, "JavaClass", "com.jaamsim.units.DimensionlessUnit");
+
+		ExponentialDistribution dist = InputAgent.defineEntityWithUniqueName(ExponentialDistribution.class, "Dist", true);
+		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
+		InputAgent.processEntity_Keyword_Value( dist, "Mean", "1.0");
+		InputAgent.processEntity_Keyword_Value( dist, "MinValue", "20.0");
+		dist.validate();
+		dist.earlyInit();
+
+		int numSamples = 1000000;
+		TestContinuousDistribution.sampleDistribution(dist, numSamples);
+
+		// The exponential distribution is memoryless
+		assertTrue( dist.getSampleMin(0.0) >= 20.0 );
+		assertTrue( Math.abs( dist.getSampleMean(0.0) - 21.0 ) < 0.005 );
+		assertTrue( Math.abs( dist.getSampleStandardDeviation(0.0) - 1.0 ) < 0.005 );
+	}
 }
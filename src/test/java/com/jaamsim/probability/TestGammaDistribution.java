@@ -32,12 +32,16 @@ public class TestGammaDistribution {
 
 		GammaDistribution dist = InputAgent.defineEntityWithUniqueName(GammaDistribution.class, "Dist", true);
 		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
 		InputAgent.processEntity_Keyword_Value( dist, "Mean", "10.0");
 		InputAgent.processEntity_Keyword_Value( dist, "Shape", "2.0");
 		dist.validate();
 		dist.earlyInit();
 
-		int numSamples = 1000000;
+		// The number of samples makes the relative standard error about 0.0002
+		// for the mean and 0.0003 for the standard deviation, so the
+		// tolerances are at least three standard errors
+		int numSamples = 12000000;
 		double total = TestContinuousDistribution.sampleDistribution(dist, numSamples);
 		double mean = total / numSamples;
 
@@ -56,6 +60,7 @@ public class TestGammaDistribution {
 
 		GammaDistribution dist = InputAgent.defineEntityWithUniqueName(GammaDistribution.class, "Dist", true);
 		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
 		InputAgent.processEntity_Keyword_Value( dist, "Mean", "10.0");
 		InputAgent.processEntity_Keyword_Value( dist, "Shape", "0.5");
 		dist.earlyInit();
@@ -29,6 +29,7 @@ public class TestLogLogisticDistribution {
 
 		LogLogisticDistribution dist = InputAgent.defineEntityWithUniqueName(LogLogisticDistribution.class, "Dist", true);
 		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
 		InputAgent.processEntity_Keyword_Value( dist, "Scale", "10.0");
 		InputAgent.processEntity_Keyword_Value( dist, "Shape", "4.0");
 		dist.validate();
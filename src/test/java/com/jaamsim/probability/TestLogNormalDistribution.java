@@ -29,6 +29,7 @@ public class TestLogNormalDistribution {
 
 		LogNormalDistribution dist = InputAgent.defineEntityWithUniqueName(LogNormalDistribution.class, "Dist", true);
 		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
 		InputAgent.processEntity_Keyword_Value( dist, "NormalMean", "10.0");
 		InputAgent.processEntity_Keyword_Value( dist, "NormalStandardDeviation", "2.0");
 		dist.validate();
@@ -38,8 +39,35 @@ public class TestLogNormalDistribution {
 		double total = TestContinuousDistribution.sampleDistribution(dist, numSamples);
 		double mean = total / numSamples;
 
+		// The coefficient of variation is 7.3, so the relative standard error of
+		// the mean is 0.0023 for this number of samples and the tolerance is
+		// three standard errors.  The sample standard deviation converges
+		// slowly because of the heavy tail, so its tolerance is wider.
 		assertTrue( Math.abs( dist.getSampleMean(0.0) - mean ) < 0.001 );
-		assertTrue( Math.abs( dist.getSampleMean(0.0) / dist.getMeanValue(0.0) - 1.0 ) < 0.001 );
-		assertTrue( Math.abs( dist.getSampleStandardDeviation(0.0) / dist.getStandardDeviation(0.0) - 1.0 ) < 0.005 );
+		assertTrue( Math.abs( dist.getSampleMean(0.0) / dist.getMeanValue(0.0) - 1.0 ) < 0.007 );
+		assertTrue( Math.abs( dist.getSampleStandardDeviation(0.0) / dist.getStandardDeviation(0.0) - 1.0 ) < 0.1 );
+	}
+
+	@Test
+	public void Truncated() {
+		ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", true);
+		InputAgent.processEntity_Keyword_Value( t, "JavaClass", "com.jaamsim.units.DimensionlessUnit");
+
+		LogNormalDistribution dist = InputAgent.defineEntityWithUniqueName(LogNormalDistribution.class, "Dist", true);
+		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
+		InputAgent.processEntity_Keyword_Value( dist, "NormalMean", "0.0");
+		InputAgent.processEntity_Keyword_Value( dist, "NormalStandardDeviation", "1.0");
+		InputAgent.processEntity_Keyword_Value( dist, "MinValue", String.valueOf(Math.exp(2.0)));
+		InputAgent.processEntity_Keyword_Value( dist, "MaxValue", String.valueOf(Math.exp(3.0)));
+		dist.validate();
+		dist.earlyInit();
+
+		int numSamples = 1000000;
+		TestContinuousDistribution.sampleDistribution(dist, numSamples);
+
+		assertTrue( dist.getSampleMin(0.0) >= Math.exp(2.0) );
+		assertTrue( dist.getSampleMax(0.0) <= Math.exp(3.0) );
+		assertTrue( Math.abs( dist.getSampleMean(0.0) - 10.47043 ) < 0.01 );
 	}
 }
@@ -29,6 +29,7 @@ public class TestNormalDistribution {
 
 		NormalDistribution dist = InputAgent.defineEntityWithUniqueName(NormalDistribution.class, "Dist", true);
 		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
 		InputAgent.processEntity_Keyword_Value( dist, "Mean", "10.0");
 		InputAgent.processEntity_Keyword_Value( dist, "StandardDeviation", "2.0");
 		dist.validate();
@@ -42,4 +43,104 @@ public class TestNormalDistribution {
 		assertTrue( Math.abs( dist.getSampleMean(0.0) / dist.getMeanValue(0.0) - 1.0 ) < 0.001 );
 		assertTrue( Math.abs( dist.getSampleStandardDeviation(0.0) / dist.getStandardDeviation(0.0) - 1.0 ) < 0.001 );
 	}
+
+	@Test
+	public void Truncated() {
+		ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", true);
+		InputAgent.processEntity_Keyword_Value( t, "JavaClass", "com.jaamsim.units.DimensionlessUnit");
+
+		// MinValue is ten standard deviations above the mean
+		NormalDistribution dist = InputAgent.defineEntityWithUniqueName(NormalDistribution.class, "Dist", true);
+		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
+		InputAgent.processEntity_Keyword_Value( dist, "Mean", "10.0");
+		InputAgent.processEntity_Keyword_Value( dist, "StandardDeviation", "2.0");
+		InputAgent.processEntity_Keyword_Value( dist, "MinValue", "30.0");
+		dist.validate();
+		dist.earlyInit();
+
+		int numSamples = 100000;
+		TestContinuousDistribution.sampleDistribution(dist, numSamples);
+
+		assertTrue( dist.getSampleMin(0.0) >= 30.0 );
+		assertTrue( Math.abs( dist.getSampleMean(0.0) - 30.19619 ) < 0.005 );
+	}
+
+	@Test
+	public void FillSamples() {
+		ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", true);
+		InputAgent.processEntity_Keyword_Value( t, "JavaClass", "com.jaamsim.units.DimensionlessUnit");
+
+		NormalDistribution dist1 = InputAgent.defineEntityWithUniqueName(NormalDistribution.class, "Dist", true);
+		NormalDistribution dist2 = InputAgent.defineEntityWithUniqueName(NormalDistribution.class, "Dist", true);
+		for (NormalDistribution dist : new NormalDistribution[] { dist1, dist2 }) {
+			InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+			InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
+			InputAgent.processEntity_Keyword_Value( dist, "Mean", "10.0");
+			InputAgent.processEntity_Keyword_Value( dist, "StandardDeviation", "2.0");
+			InputAgent.processEntity_Keyword_Value( dist, "MinValue", "8.0");
+			dist.validate();
+			dist.earlyInit();
+		}
+
+		// The bulk samples are the same as the individual ones
+		double[] samples = new double[1000];
+		dist1.fillSamples(0.0, samples, 999);
+		for (int i = 0; i < 999; i++)
+			assertTrue( samples[i] == dist2.getNextSample(0.0) );
+		assertTrue( samples[999] == 0.0 );
+
+		assertTrue( dist1.getNumberOfSamples(0.0) == 999 );
+		assertTrue( dist1.getSampleMin(0.0) == dist2.getSampleMin(0.0) );
+		assertTrue( dist1.getSampleMax(0.0) == dist2.getSampleMax(0.0) );
+		assertTrue( Math.abs( dist1.getSampleMean(0.0) - dist2.getSampleMean(0.0) ) < 1.0e-12 );
+	}
+
+	@Test
+	public void DefaultStreams() {
+		ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", true);
+		InputAgent.processEntity_Keyword_Value( t, "JavaClass", "com.jaamsim.units.DimensionlessUnit");
+
+		// Distributions without a RandomSeed each draw from their own stream
+		NormalDistribution dist1 = InputAgent.defineEntityWithUniqueName(NormalDistribution.class, "Dist", true);
+		NormalDistribution dist2 = InputAgent.defineEntityWithUniqueName(NormalDistribution.class, "Dist", true);
+		for (NormalDistribution dist : new NormalDistribution[] { dist1, dist2 }) {
+			InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+			InputAgent.processEntity_Keyword_Value( dist, "Mean", "10.0");
+			InputAgent.processEntity_Keyword_Value( dist, "StandardDeviation", "2.0");
+			dist.validate();
+			dist.earlyInit();
+		}
+
+		int numSame = 0;
+		for (int i = 0; i < 100; i++) {
+			if( dist1.getNextSample(0.0) == dist2.getNextSample(0.0) )
+				numSame++;
+		}
+		assertTrue( numSame == 0 );
+
+		// The stream is the same when the distribution is initialised again
+		double[] samples = new double[100];
+		dist1.earlyInit();
+		dist1.fillSamples(0.0, samples, 100);
+		dist1.earlyInit();
+		for (int i = 0; i < 100; i++)
+			assertTrue( samples[i] == dist1.getNextSample(0.0) );
+
+		// The stream does not depend on the entities defined before it
+		String name = dist2.getInputName();
+		dist2.earlyInit();
+		dist2.fillSamples(0.0, samples, 100);
+		dist2.kill();
+		dist1.kill();
+		InputAgent.defineEntityWithUniqueName(NormalDistribution.class, "Dist", true);
+		NormalDistribution dist3 = InputAgent.defineEntity(NormalDistribution.class, name, true);
+		InputAgent.processEntity_Keyword_Value( dist3, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist3, "Mean", "10.0");
+		InputAgent.processEntity_Keyword_Value( dist3, "StandardDeviation", "2.0");
+		dist3.validate();
+		dist3.earlyInit();
+		for (int i = 0; i < 100; i++)
+			assertTrue( samples[i] == dist3.getNextSample(0.0) );
+	}
 }
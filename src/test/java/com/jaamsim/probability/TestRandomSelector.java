@@ -34,6 +34,7 @@ public class TestRandomSelector {
 		RandomSelector selector = InputAgent.defineEntityWithUniqueName(RandomSelector.class, "Dist", true);
 		InputAgent.processEntity_Keyword_Value( selector, "EntityList", "A  B  C");
 		InputAgent.processEntity_Keyword_Value( selector, "ProbabilityList", "0.5  0.3  0.2");
+		InputAgent.processEntity_Keyword_Value( selector, "RandomSeed", "1");
 		selector.validate();
 		selector.earlyInit();
 
@@ -29,6 +29,7 @@ public class TestTriangularDistribution {
 
 		TriangularDistribution dist = InputAgent.defineEntityWithUniqueName(TriangularDistribution.class, "Dist", true);
 		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
 		InputAgent.processEntity_Keyword_Value( dist, "MinValue", "2.0");
 		InputAgent.processEntity_Keyword_Value( dist, "MaxValue", "5.0");
 		InputAgent.processEntity_Keyword_Value( dist, "Mode", "4.0");
@@ -29,6 +29,7 @@ public class TestWeibullDistribution {
 
 		WeibullDistribution dist = InputAgent.defineEntityWithUniqueName(WeibullDistribution.class, "Dist", true);
 		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
 		InputAgent.processEntity_Keyword_Value( dist, "Scale", "10.0");
 		InputAgent.processEntity_Keyword_Value( dist, "Shape", "2.0");
 		dist.validate();
@@ -42,4 +43,27 @@ public class TestWeibullDistribution {
 		assertTrue( Math.abs( dist.getSampleMean(0.0) / dist.getMeanValue(0.0) - 1.0 ) < 0.001 );
 		assertTrue( Math.abs( dist.getSampleStandardDeviation(0.0) / dist.getStandardDeviation(0.0) - 1.0 ) < 0.001 );
 	}
+
+	@Test
+	public void Truncated() {
+		ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", true);
+		InputAgent.processEntity_Keyword_Value( t, "JavaClass", "com.jaamsim.units.DimensionlessUnit");
+
+		WeibullDistribution dist = InputAgent.defineEntityWithUniqueName(WeibullDistribution.class, "Dist", true);
+		InputAgent.processEntity_Keyword_Value( dist, "UnitType", t.getInputName());
+		InputAgent.processEntity_Keyword_Value( dist, "RandomSeed", "1");
+		InputAgent.processEntity_Keyword_Value( dist, "Scale", "1.0");
+		InputAgent.processEntity_Keyword_Value( dist, "Shape", "2.0");
+		InputAgent.processEntity_Keyword_Value( dist, "MinValue", "3.0");
+		InputAgent.processEntity_Keyword_Value( dist, "MaxValue", "4.0");
+		dist.validate();
+		dist.earlyInit();
+
+		int numSamples = 1000000;
+		TestContinuousDistribution.sampleDistribution(dist, numSamples);
+
+		assertTrue( dist.getSampleMin(0.0) >= 3.0 );
+		assertTrue( dist.getSampleMax(0.0) <= 4.0 );
+		assertTrue( Math.abs( dist.getSampleMean(0.0) - 3.15864 ) < 0.001 );
+	}
 }
@@ -26,10 +26,6 @@ import org.junit.Test;
 
 public class TestMRG1999a {
 
-	private static long uint(int i) {
-		return i & 0xffffffffl;
-	}
-
 	@Test
 	public void testSeedTable() {
 		InputStream s = MRG1999a.class.getResourceAsStream("MRG1999a.seed");
@@ -49,28 +45,59 @@ public class TestMRG1999a {
 			lines.add(line);
 		}
 
+		MRG1999a tmp = new MRG1999a();
 		for (int i = 0; i < lines.size(); i++) {
-			int offset = i * 6;
-			long s0 = uint(MRG1999a.seeds[offset + 0]);
-			long s1 = uint(MRG1999a.seeds[offset + 1]);
-			long s2 = uint(MRG1999a.seeds[offset + 2]);
-			long s3 = uint(MRG1999a.seeds[offset + 3]);
-			long s4 = uint(MRG1999a.seeds[offset + 4]);
-			long s5 = uint(MRG1999a.seeds[offset + 5]);
-			String fmtLine = String.format("%d,%d,%d,%d,%d,%d", s0, s1, s2, s3, s4, s5);
-			assertTrue(lines.get(i).equals(fmtLine));
+			tmp.setSeedStream(i);
+			assertTrue(lines.get(i).replace(",", ", ").equals(tmp.toString()));
 		}
 	}
 
 	@Test
 	public void testAllSeedsTable() {
 		MRG1999a tmp = new MRG1999a();
-		int numStreams = MRG1999a.seeds.length / 6;
-		for (int i = 0; i < numStreams; i++) {
+		for (int i = 0; i < 10001; i++) {
 			tmp.setSeedStream(i);
 		}
 	}
 
+	@Test
+	public void testStreamJumps() {
+		// First entries of the seed table in Law
+		String[] known = {
+		"0, 0, 1, 0, 0, 1",
+		"1772212344, 1374954571, 2377447708, 540628578, 1843308759, 549575061",
+		"2602294560, 1764491502, 3872775590, 4089362440, 2683806282, 437563332"
+		};
+		for (int i = 0; i < known.length; i++) {
+			assertTrue(new MRG1999a(i).toString().equals(known[i]));
+		}
+
+		// Streams are 10^16 steps apart and substreams 2^40 steps apart
+		MRG1999a test = new MRG1999a(0);
+		test.advance(10000000000000000l);
+		assertTrue(test.toString().equals(known[1]));
+
+		test = new MRG1999a(1);
+		test.advance(3l << 40);
+		assertTrue(test.toString().equals(new MRG1999a(1, 3).toString()));
+
+		test = new MRG1999a(2, 5);
+		MRG1999a stepped = new MRG1999a(2, 5);
+		test.advance(25);
+		for (int i = 0; i < 25; i++)
+			stepped.getUniform();
+		assertTrue(test.toString().equals(stepped.toString()));
+	}
+
+	@Test
+	public void testLargeStreams() {
+		MRG1999a test = new MRG1999a(Integer.MAX_VALUE, MRG1999a.MAX_SUBSTREAMS - 1);
+		for (int i = 0; i < 1000; i++) {
+			double u = test.getUniform();
+			assertTrue(u > 0.0d && u < 1.0d);
+		}
+	}
+
 	@Test
 	public void testKnownStreams() {
 		MRG1999a test1 = new MRG1999a(0, 0, 1, 0, 0, 1);
@@ -141,7 +168,7 @@ public class TestMRG1999a {
 		}
 
 		MRG1999a tmp = new MRG1999a();
-		int numStreams = MRG1999a.seeds.length / 6;
+		int numStreams = lines.size() / 11;
 		for (int i = 0; i < numStreams; i++) {
 			tmp.setSeedStream(i);
 			int knownStreamIdx = i * 11;
@@ -0,0 +1,85 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.sandwell.JavaSimulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.ProcessTarget;
+
+public class TestBinaryTrace {
+
+	private static class NamedTarget extends ProcessTarget {
+		final String desc;
+
+		NamedTarget(String desc) {
+			this.desc = desc;
+		}
+
+		@Override
+		public String getDescription() {
+			return desc;
+		}
+
+		@Override
+		public void process() {}
+	}
+
+	private static String desc(int i) {
+		switch (i % 3) {
+		case 0: return "Proto_" + i + ".endAction";
+		case 1: return "Proto_" + (i - 1) + ".startAction";
+		default: return "SimulationInit";
+		}
+	}
+
+	@Test
+	public void testInternedIdsReused() throws IOException {
+		File file = File.createTempFile("TestBinaryTrace", ".evb");
+		file.deleteOnExit();
+
+		// Enough generated entity names to fill the table and reuse its ids
+		int num = BinaryTraceWriter.MAX_IDS * 4;
+		EventManager evt = EventManager.initEventManager("TestBinaryTrace");
+		BinaryTraceWriter writer = new BinaryTraceWriter(file);
+		for (int i = 0; i < num; i++)
+			writer.traceProcessStart(evt, new NamedTarget(desc(i)));
+		writer.traceProcessEnd(evt);
+		writer.close();
+
+		BinaryTraceReader reader = new BinaryTraceReader(file);
+		try {
+			BinaryTraceReader.Entry ent = new BinaryTraceReader.Entry();
+			for (int i = 0; i < num; i++) {
+				assertTrue(reader.next(ent));
+				assertEquals(EventTraceRecord.TRACE_PROCESSSTART, ent.type);
+				assertEquals("TestBinaryTrace", ent.emName);
+				assertEquals(desc(i), ent.desc);
+			}
+			assertTrue(reader.next(ent));
+			assertEquals(null, ent.desc);
+			assertTrue(!reader.next(ent));
+		}
+		finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.sandwell.JavaSimulation;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.jaamsim.units.DimensionlessUnit;
+import com.sandwell.JavaSimulation3D.Clock;
+
+public class TestTimeSeriesFileInput {
+
+	private static File writeCsv(String... lines) throws IOException {
+		File csv = File.createTempFile("TestTimeSeries", ".csv");
+		csv.deleteOnExit();
+		new File(csv.getPath() + ".bin").deleteOnExit();
+		FileWriter out = new FileWriter(csv);
+		try {
+			for (String line : lines)
+				out.write(line + "\n");
+		}
+		finally {
+			out.close();
+		}
+		return csv;
+	}
+
+	@Test
+	public void testLoad() throws IOException {
+		File csv = writeCsv("# Comment",
+		                    "'2010-01-01 00:00:00', 0.5",
+		                    "",
+		                    "'2010-01-01 03:00:00', 1.5",
+		                    "2010-01-01 06:00:00, 1.2");
+
+		TimeSeriesData data = TimeSeriesFileInput.load(csv, DimensionlessUnit.class);
+		assertTrue(data.size() == 3);
+		assertTrue(data.getTime(0) == 0.0d && data.getTime(1) == 3.0d && data.getTime(2) == 6.0d);
+		assertTrue(data.getValue(0) == 0.5d && data.getValue(1) == 1.5d && data.getValue(2) == 1.2d);
+		assertTrue(data.getMinValue() == 0.5d && data.getMaxValue() == 1.5d);
+
+		assertTrue(data.binarySearch(3.0d) == 1);
+		assertTrue(data.binarySearch(4.0d) == -3);
+		assertTrue(data.binarySearch(-1.0d) == -1);
+		assertTrue(data.binarySearch(7.0d) == -4);
+
+		// The sidecar file is reused until the CSV file changes
+		File bin = new File(csv.getPath() + ".bin");
+		assertTrue(bin.isFile());
+		long modified = bin.lastModified();
+		TimeSeriesFileInput.load(csv, DimensionlessUnit.class);
+		assertTrue(bin.lastModified() == modified);
+	}
+
+	@Test
+	public void testLargeFile() throws IOException {
+		// Hourly records for most of a year
+		String[] lines = new String[8000];
+		for (int i = 0; i < lines.length; i++) {
+			int day = i / 24;
+			int month = 1;
+			while (day >= Clock.getDaysInMonth(month)) {
+				day -= Clock.getDaysInMonth(month);
+				month++;
+			}
+			lines[i] = String.format("2010-%02d-%02d %02d:00:00, %d", month, day + 1, i % 24, i);
+		}
+
+		TimeSeriesData data = TimeSeriesFileInput.load(writeCsv(lines), DimensionlessUnit.class);
+		assertTrue(data.size() == lines.length);
+		for (int i = 0; i < lines.length; i++) {
+			assertTrue(data.getTime(i) == i);
+			assertTrue(data.getValue(i) == i);
+			assertTrue(data.binarySearch(i + 0.5d) == -i - 2);
+		}
+	}
+
+	@Test
+	public void testBadRecords() throws IOException {
+		File csv = writeCsv("2010-01-01 03:00:00, 1.5",
+		                    "2010-01-01 00:00:00, 0.5");
+		try {
+			TimeSeriesFileInput.load(csv, DimensionlessUnit.class);
+			assertTrue(false);
+		}
+		catch (InputErrorException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("Line 2"));
+		}
+
+		// The partial sidecar file is removed
+		for (File each : csv.getAbsoluteFile().getParentFile().listFiles()) {
+			if (each.getName().startsWith(csv.getName()))
+				assertTrue(each.getName(), each.equals(csv));
+		}
+	}
+}
@@ -0,0 +1,284 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+package com.sandwell.JavaSimulation3D;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.input.Output;
+import com.sandwell.JavaSimulation.ErrorException;
+import com.sandwell.JavaSimulation.SimulationContext;
+
+public class TestQueue {
+
+	public static class RankedEntity extends DisplayEntity {
+		int rank;
+
+		@Output(name = "Rank")
+		public double getRank(double simTime) {
+			return rank;
+		}
+	}
+
+	// Ranked by the negated rank
+	public static class ReverseRankedEntity extends DisplayEntity {
+		int rank;
+
+		@Output(name = "Rank")
+		public int getRank(double simTime) {
+			return -rank;
+		}
+	}
+
+	@Test
+	public void testRandomOperations() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestQueue");
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				Queue que = new Queue();
+				que.earlyInit();
+
+				ArrayList<DisplayEntity> ents = new ArrayList<DisplayEntity>();
+				for (int i = 0; i < 100; i++)
+					ents.add(new DisplayEntity());
+
+				ArrayList<DisplayEntity> ref = new ArrayList<DisplayEntity>();
+				ArrayList<DisplayEntity> free = new ArrayList<DisplayEntity>(ents);
+				Random rng = new Random(42);
+				for (int n = 0; n < 20000; n++) {
+					int op = rng.nextInt(4);
+					if (ref.isEmpty() || (op == 0 && !free.isEmpty())) {
+						DisplayEntity ent = free.remove(rng.nextInt(free.size()));
+						int i = rng.nextInt(ref.size() + 1);
+						ref.add(i, ent);
+						que.add(i, ent);
+					}
+					else if (op == 1) {
+						int i = rng.nextInt(ref.size());
+						DisplayEntity ent = ref.remove(i);
+						assertTrue(que.remove(i) == ent);
+						free.add(ent);
+					}
+					else if (op == 2) {
+						DisplayEntity ent = ref.remove(rng.nextInt(ref.size()));
+						que.remove(ent);
+						free.add(ent);
+					}
+					else {
+						DisplayEntity ent = ref.remove(0);
+						assertTrue(que.removeFirst() == ent);
+						ref.add(ent);
+						que.addLast(ent);
+					}
+
+					assertEquals(ref.size(), que.getCount());
+					assertEquals(ref, que.getItemList());
+					for (DisplayEntity ent : ents)
+						assertEquals(ref.indexOf(ent), que.indexOf(ent));
+				}
+				return null;
+			}
+		});
+		ctx.close();
+	}
+
+	@Test
+	public void testDuplicateEntries() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestQueue");
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				Queue que = new Queue();
+				que.earlyInit();
+
+				DisplayEntity a = new DisplayEntity();
+				DisplayEntity b = new DisplayEntity();
+				que.addLast(a);
+				que.addLast(b);
+				que.addLast(a);
+				assertEquals(0, que.indexOf(a));
+				que.remove(a);
+				assertEquals(1, que.indexOf(a));
+				assertEquals(0, que.indexOf(b));
+				que.removeFirst();
+				que.removeFirst();
+				assertEquals(0, que.getCount());
+
+				que.addLast(b);
+				que.add(0, a);
+				assertEquals(0, que.indexOf(a));
+				assertEquals(1, que.indexOf(b));
+				return null;
+			}
+		});
+		ctx.close();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testReadOnlyView() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestQueue");
+		try {
+			ctx.call(new Callable<Void>() {
+				@Override
+				public Void call() {
+					Queue que = new Queue();
+					que.getItemList().add(new DisplayEntity());
+					return null;
+				}
+			});
+		}
+		finally {
+			ctx.close();
+		}
+	}
+
+	@Test
+	public void testPriorityDiscipline() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestQueue");
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				Queue que = new Queue();
+				InputAgent.processEntity_Keyword_Value(que, "Discipline", "PRIORITY");
+				InputAgent.processEntity_Keyword_Value(que, "Priority", "Rank");
+				que.earlyInit();
+
+				// The reference list is kept sorted by rank, then by arrival
+				ArrayList<RankedEntity> ref = new ArrayList<RankedEntity>();
+				Random rng = new Random(7);
+				for (int n = 0; n < 5000; n++) {
+					int op = rng.nextInt(3);
+					if (ref.isEmpty() || op == 0) {
+						RankedEntity ent = new RankedEntity();
+						ent.rank = rng.nextInt(20);
+						int i = ref.size();
+						while (i > 0 && ref.get(i - 1).rank > ent.rank)
+							i--;
+						ref.add(i, ent);
+						que.addLast(ent);
+					}
+					else if (op == 1) {
+						assertTrue(que.removeFirst() == ref.remove(0));
+					}
+					else {
+						RankedEntity ent = ref.remove(rng.nextInt(ref.size()));
+						que.remove(ent);
+						assertEquals(-1, que.indexOf(ent));
+					}
+
+					assertEquals(ref.size(), que.getCount());
+					if (!ref.isEmpty())
+						assertTrue(que.get(0) == ref.get(0));
+					for (int i = 0; i < ref.size(); i++)
+						assertTrue(que.get(que.indexOf(ref.get(i))) == ref.get(i));
+				}
+
+				while (!ref.isEmpty())
+					assertTrue(que.removeFirst() == ref.remove(0));
+				return null;
+			}
+		});
+		ctx.close();
+	}
+
+	@Test
+	public void testLifoDiscipline() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestQueue");
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				Queue que = new Queue();
+				InputAgent.processEntity_Keyword_Value(que, "Discipline", "LIFO");
+				que.earlyInit();
+
+				DisplayEntity a = new DisplayEntity();
+				DisplayEntity b = new DisplayEntity();
+				DisplayEntity c = new DisplayEntity();
+				que.addLast(a);
+				que.addLast(b);
+				assertTrue(que.removeFirst() == b);
+				que.addLast(c);
+				assertTrue(que.removeFirst() == c);
+				assertTrue(que.removeFirst() == a);
+				return null;
+			}
+		});
+		ctx.close();
+	}
+
+	@Test
+	public void testMixedRankedClasses() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestQueue");
+		ctx.call(new Callable<Void>() {
+			@Override
+			public Void call() {
+				Queue que = new Queue();
+				InputAgent.processEntity_Keyword_Value(que, "Discipline", "PRIORITY");
+				InputAgent.processEntity_Keyword_Value(que, "Priority", "Rank");
+				que.earlyInit();
+
+				// Each entity is ranked by its own class's output
+				RankedEntity a = new RankedEntity();
+				a.rank = 2;
+				ReverseRankedEntity b = new ReverseRankedEntity();
+				b.rank = 3;
+				RankedEntity c = new RankedEntity();
+				c.rank = -1;
+				ReverseRankedEntity d = new ReverseRankedEntity();
+				d.rank = -5;
+				que.addLast(a);
+				que.addLast(b);
+				que.addLast(c);
+				que.addLast(d);
+
+				assertTrue(que.removeFirst() == b);
+				assertTrue(que.removeFirst() == c);
+				assertTrue(que.removeFirst() == a);
+				assertTrue(que.removeFirst() == d);
+				return null;
+			}
+		});
+		ctx.close();
+	}
+
+	@Test(expected = ErrorException.class)
+	public void testEmptyQueueTime() throws Exception {
+		SimulationContext ctx = new SimulationContext("TestQueue");
+		try {
+			ctx.call(new Callable<Void>() {
+				@Override
+				public Void call() {
+					Queue que = new Queue();
+					que.earlyInit();
+					que.addLast(new DisplayEntity());
+					que.removeFirst();
+					que.getQueueTime();
+					return null;
+				}
+			});
+		}
+		finally {
+			ctx.close();
+		}
+	}
+}